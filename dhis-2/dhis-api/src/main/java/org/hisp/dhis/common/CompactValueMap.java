@@ -0,0 +1,460 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.common;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact map of values by three keys, as an alternative to
+ * {@link MapMapMap} for large amounts of data. Keys are interned to int
+ * indexes, and each entry is stored in parallel primitive arrays, indexed by
+ * an open addressing hash table. Double values are stored as primitives,
+ * other values (such as text or booleans) are stored as objects.
+ * <p>
+ * This avoids the hash map nodes, nested maps and boxed values that otherwise
+ * dominate the heap when holding millions of data values. Entries cannot be
+ * removed. Not thread safe.
+ *
+ * @param <S> the first key type.
+ * @param <T> the second key type.
+ * @param <U> the third key type.
+ */
+public class CompactValueMap<S, T, U>
+{
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final int NO_ENTRY = -1;
+
+    /**
+     * Stands for a null object value, as a null object means that the value
+     * is stored as a primitive double.
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    private final KeyIndex<S> keys1 = new KeyIndex<>();
+
+    private final KeyIndex<T> keys2 = new KeyIndex<>();
+
+    private final KeyIndex<U> keys3 = new KeyIndex<>();
+
+    // -------------------------------------------------------------------------
+    // Entries, in insertion order
+    // -------------------------------------------------------------------------
+
+    private int size = 0;
+
+    private int[] entryKeys1 = new int[INITIAL_CAPACITY];
+
+    private int[] entryKeys2 = new int[INITIAL_CAPACITY];
+
+    private int[] entryKeys3 = new int[INITIAL_CAPACITY];
+
+    private double[] doubleValues = new double[INITIAL_CAPACITY];
+
+    /**
+     * Non-double values, only allocated when needed.
+     */
+    private Object[] objectValues;
+
+    /**
+     * Next entry with the same first key, for iterating by first key.
+     */
+    private int[] nextByKey1 = new int[INITIAL_CAPACITY];
+
+    /**
+     * Last entry by first key index.
+     */
+    private int[] lastByKey1 = new int[INITIAL_CAPACITY];
+
+    /**
+     * First entry by first key index.
+     */
+    private int[] firstByKey1 = newEntryIndexArray( INITIAL_CAPACITY );
+
+    // -------------------------------------------------------------------------
+    // Hash table of entry indexes plus one, zero when free
+    // -------------------------------------------------------------------------
+
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+
+    // -------------------------------------------------------------------------
+    // Map operations
+    // -------------------------------------------------------------------------
+
+    /**
+     * Puts a value, replacing any existing value for the keys.
+     *
+     * @param key1 the first key.
+     * @param key2 the second key.
+     * @param key3 the third key.
+     * @param value the value, may be null.
+     */
+    public void putEntry( S key1, T key2, U key3, Object value )
+    {
+        int k1 = keys1.intern( key1 );
+        int k2 = keys2.intern( key2 );
+        int k3 = keys3.intern( key3 );
+
+        int slot = findSlot( k1, k2, k3 );
+
+        int entry = table[slot] - 1;
+
+        if ( entry == NO_ENTRY )
+        {
+            entry = addEntry( k1, k2, k3 );
+
+            table[slot] = entry + 1;
+
+            if ( size * 2 > table.length )
+            {
+                rehash( table.length * 2 );
+            }
+        }
+
+        setValue( entry, value );
+    }
+
+    /**
+     * Puts all values of the given map, replacing any existing values.
+     *
+     * @param map the {@link MapMapMap} of values to put.
+     */
+    public void putMap( MapMapMap<S, T, U, ?> map )
+    {
+        for ( Map.Entry<S, ? extends MapMap<T, U, ?>> e1 : map.entrySet() )
+        {
+            for ( Map.Entry<T, ? extends Map<U, ?>> e2 : e1.getValue().entrySet() )
+            {
+                for ( Map.Entry<U, ?> e3 : e2.getValue().entrySet() )
+                {
+                    putEntry( e1.getKey(), e2.getKey(), e3.getKey(), e3.getValue() );
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts all values of the given map, replacing any existing values.
+     *
+     * @param map the {@link CompactValueMap} of values to put.
+     */
+    public void putMap( CompactValueMap<S, T, U> map )
+    {
+        map.forEach( this::putEntry );
+    }
+
+    /**
+     * Gets a value.
+     *
+     * @param key1 the first key.
+     * @param key2 the second key.
+     * @param key3 the third key.
+     * @return the value, or null if not found.
+     */
+    public Object getValue( S key1, T key2, U key3 )
+    {
+        int entry = findEntry( key1, key2, key3 );
+
+        return entry == NO_ENTRY ? null : getValue( entry );
+    }
+
+    /**
+     * Indicates whether there is an entry for the given keys.
+     *
+     * @param key1 the first key.
+     * @param key2 the second key.
+     * @param key3 the third key.
+     * @return true if there is an entry, also when its value is null.
+     */
+    public boolean containsKey( S key1, T key2, U key3 )
+    {
+        return findEntry( key1, key2, key3 ) != NO_ENTRY;
+    }
+
+    /**
+     * Gets the values for a first key, as a newly created {@link MapMap} which
+     * can be modified freely by the caller.
+     *
+     * @param key1 the first key.
+     * @return the values, or null if there are none for the key.
+     */
+    public MapMap<T, U, Object> getMapMap( S key1 )
+    {
+        int k1 = keys1.indexOf( key1 );
+
+        if ( k1 == NO_ENTRY )
+        {
+            return null;
+        }
+
+        MapMap<T, U, Object> map = new MapMap<>();
+
+        for ( int entry = firstByKey1[k1]; entry != NO_ENTRY; entry = nextByKey1[entry] )
+        {
+            map.putEntry( keys2.get( entryKeys2[entry] ), keys3.get( entryKeys3[entry] ), getValue( entry ) );
+        }
+
+        return map;
+    }
+
+    /**
+     * Performs the given action for each entry, in insertion order.
+     *
+     * @param action the action to perform.
+     */
+    public void forEach( EntryConsumer<S, T, U> action )
+    {
+        for ( int entry = 0; entry < size; entry++ )
+        {
+            action.accept( keys1.get( entryKeys1[entry] ), keys2.get( entryKeys2[entry] ),
+                keys3.get( entryKeys3[entry] ), getValue( entry ) );
+        }
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private int findEntry( S key1, T key2, U key3 )
+    {
+        int k1 = keys1.indexOf( key1 );
+        int k2 = keys2.indexOf( key2 );
+        int k3 = keys3.indexOf( key3 );
+
+        if ( k1 == NO_ENTRY || k2 == NO_ENTRY || k3 == NO_ENTRY )
+        {
+            return NO_ENTRY;
+        }
+
+        return table[findSlot( k1, k2, k3 )] - 1;
+    }
+
+    /**
+     * Finds the hash table slot holding the entry for the given key indexes,
+     * or else the free slot where such an entry would be inserted.
+     */
+    private int findSlot( int k1, int k2, int k3 )
+    {
+        int mask = table.length - 1;
+        int slot = hash( k1, k2, k3 ) & mask;
+
+        while ( table[slot] != 0 )
+        {
+            int entry = table[slot] - 1;
+
+            if ( entryKeys1[entry] == k1 && entryKeys2[entry] == k2 && entryKeys3[entry] == k3 )
+            {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private static int[] newEntryIndexArray( int length )
+    {
+        int[] array = new int[length];
+        Arrays.fill( array, NO_ENTRY );
+        return array;
+    }
+
+    private static int hash( int k1, int k2, int k3 )
+    {
+        int h = k1 * 0x9E3779B1;
+        h = (h ^ k2) * 0x85EBCA6B;
+        h = (h ^ k3) * 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    private int addEntry( int k1, int k2, int k3 )
+    {
+        if ( size == entryKeys1.length )
+        {
+            int capacity = size * 2;
+
+            entryKeys1 = Arrays.copyOf( entryKeys1, capacity );
+            entryKeys2 = Arrays.copyOf( entryKeys2, capacity );
+            entryKeys3 = Arrays.copyOf( entryKeys3, capacity );
+            doubleValues = Arrays.copyOf( doubleValues, capacity );
+            nextByKey1 = Arrays.copyOf( nextByKey1, capacity );
+
+            if ( objectValues != null )
+            {
+                objectValues = Arrays.copyOf( objectValues, capacity );
+            }
+        }
+
+        if ( k1 >= firstByKey1.length )
+        {
+            int oldLength = firstByKey1.length;
+            int capacity = Math.max( oldLength * 2, k1 + 1 );
+
+            firstByKey1 = Arrays.copyOf( firstByKey1, capacity );
+            lastByKey1 = Arrays.copyOf( lastByKey1, capacity );
+            Arrays.fill( firstByKey1, oldLength, capacity, NO_ENTRY );
+        }
+
+        int entry = size++;
+
+        entryKeys1[entry] = k1;
+        entryKeys2[entry] = k2;
+        entryKeys3[entry] = k3;
+        nextByKey1[entry] = NO_ENTRY;
+
+        if ( firstByKey1[k1] == NO_ENTRY )
+        {
+            firstByKey1[k1] = entry;
+        }
+        else
+        {
+            nextByKey1[lastByKey1[k1]] = entry;
+        }
+
+        lastByKey1[k1] = entry;
+
+        return entry;
+    }
+
+    private void rehash( int capacity )
+    {
+        table = new int[capacity];
+
+        int mask = capacity - 1;
+
+        for ( int entry = 0; entry < size; entry++ )
+        {
+            int slot = hash( entryKeys1[entry], entryKeys2[entry], entryKeys3[entry] ) & mask;
+
+            while ( table[slot] != 0 )
+            {
+                slot = (slot + 1) & mask;
+            }
+
+            table[slot] = entry + 1;
+        }
+    }
+
+    private void setValue( int entry, Object value )
+    {
+        if ( value instanceof Double )
+        {
+            doubleValues[entry] = (Double) value;
+
+            if ( objectValues != null )
+            {
+                objectValues[entry] = null;
+            }
+        }
+        else
+        {
+            if ( objectValues == null )
+            {
+                objectValues = new Object[entryKeys1.length];
+            }
+
+            objectValues[entry] = value == null ? NULL_VALUE : value;
+        }
+    }
+
+    private Object getValue( int entry )
+    {
+        Object value = objectValues == null ? null : objectValues[entry];
+
+        if ( value == null )
+        {
+            return doubleValues[entry];
+        }
+
+        return value == NULL_VALUE ? null : value;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive classes
+    // -------------------------------------------------------------------------
+
+    /**
+     * Action performed on each entry of a {@link CompactValueMap}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<S, T, U>
+    {
+        void accept( S key1, T key2, U key3, Object value );
+    }
+
+    /**
+     * Interns keys to consecutive int indexes.
+     */
+    private static class KeyIndex<K>
+    {
+        private final Map<K, Integer> indexes = new HashMap<>();
+
+        private final List<K> keys = new ArrayList<>();
+
+        int intern( K key )
+        {
+            Integer index = indexes.get( key );
+
+            if ( index == null )
+            {
+                index = keys.size();
+                indexes.put( key, index );
+                keys.add( key );
+            }
+
+            return index;
+        }
+
+        int indexOf( K key )
+        {
+            Integer index = indexes.get( key );
+
+            return index == null ? NO_ENTRY : index;
+        }
+
+        K get( int index )
+        {
+            return keys.get( index );
+        }
+    }
+}
@@ -290,6 +290,9 @@ public enum ErrorCode
     E7131( "Query failed, likely because the query timed out" ),
     E7132( "An indicator expression caused division by zero operation" ),
     E7133( "Query cannot be executed, possibly because of invalid types or invalid operation" ),
+    E7134( "Too many analytics queries in progress for current user, please try again later" ),
+    E7135( "Analytics query capacity is exhausted, please try again later" ),
+    E7136( "Analytics query was interrupted" ),
 
     /* Event analytics */
     E7200( "At least one organisation unit must be specified" ),
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.organisationunit;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable index of the organisation unit hierarchy for ancestor and
+ * descendant checks without walking parent references.
+ * <p>
+ * Organisation units are numbered in pre-order by sorting their paths. The
+ * descendants of an organisation unit then have consecutive numbers following
+ * the number of the organisation unit, and each organisation unit stores the
+ * number of its last descendant. An organisation unit is a descendant of
+ * another if its number falls within the interval of the other, which is a
+ * comparison of two integers.
+ * <p>
+ * The index is a snapshot, and must be replaced when the hierarchy changes.
+ * Organisation units created after the index was built are not contained in
+ * it.
+ */
+public class OrganisationUnitHierarchyIndex
+{
+    private static final char PATH_SEP = '/';
+
+    private static final int NO_PARENT = -1;
+
+    /**
+     * Pre-order number by organisation unit uid.
+     */
+    private final Map<String, Integer> numbers;
+
+    /**
+     * Pre-order number of the last descendant by pre-order number.
+     */
+    private final int[] lastDescendants;
+
+    /**
+     * Pre-order number of the parent by pre-order number, or
+     * {@link #NO_PARENT} for roots.
+     */
+    private final int[] parents;
+
+    /**
+     * Creates an index from the paths of all organisation units.
+     *
+     * @param paths the organisation unit paths, such as
+     *        {@code /ImspTQPwCqd/O6uvpzGd5pu}.
+     */
+    public OrganisationUnitHierarchyIndex( Collection<String> paths )
+    {
+        String[] sortedPaths = paths.toArray( new String[0] );
+
+        // Paths sort with descendants directly after their ancestor, as the
+        // separator sorts before all uid characters
+
+        Arrays.sort( sortedPaths );
+
+        this.numbers = new HashMap<>( (int) (sortedPaths.length / 0.75f) + 1 );
+        this.lastDescendants = new int[sortedPaths.length];
+        this.parents = new int[sortedPaths.length];
+
+        Deque<Integer> ancestors = new ArrayDeque<>();
+
+        for ( int i = 0; i < sortedPaths.length; i++ )
+        {
+            while ( !ancestors.isEmpty() && !isPathDescendant( sortedPaths[i], sortedPaths[ancestors.peek()] ) )
+            {
+                lastDescendants[ancestors.pop()] = i - 1;
+            }
+
+            String path = sortedPaths[i];
+
+            numbers.put( path.substring( path.lastIndexOf( PATH_SEP ) + 1 ), i );
+            parents[i] = ancestors.isEmpty() ? NO_PARENT : ancestors.peek();
+
+            ancestors.push( i );
+        }
+
+        while ( !ancestors.isEmpty() )
+        {
+            lastDescendants[ancestors.pop()] = sortedPaths.length - 1;
+        }
+    }
+
+    /**
+     * Indicates whether the organisation unit with the given uid is in this
+     * index.
+     *
+     * @param uid the organisation unit uid.
+     * @return true if the organisation unit is in this index.
+     */
+    public boolean contains( String uid )
+    {
+        return numbers.containsKey( uid );
+    }
+
+    /**
+     * Indicates whether all the given organisation units are in this index.
+     *
+     * @param organisationUnits the organisation units.
+     * @return true if all organisation units are in this index.
+     */
+    public boolean containsAll( Collection<OrganisationUnit> organisationUnits )
+    {
+        for ( OrganisationUnit organisationUnit : organisationUnits )
+        {
+            if ( !contains( organisationUnit.getUid() ) )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Indicates whether the organisation unit with the given uid has the given
+     * parent in this index.
+     *
+     * @param uid the organisation unit uid.
+     * @param parentUid the parent organisation unit uid, null for a root.
+     * @return true if the organisation unit is in this index with the given
+     *         parent.
+     */
+    public boolean hasParent( String uid, String parentUid )
+    {
+        Integer number = numbers.get( uid );
+
+        if ( number == null )
+        {
+            return false;
+        }
+
+        if ( parentUid == null )
+        {
+            return parents[number] == NO_PARENT;
+        }
+
+        Integer parentNumber = numbers.get( parentUid );
+
+        return parentNumber != null && parents[number] == parentNumber;
+    }
+
+    /**
+     * Indicates whether an organisation unit is a descendant of another
+     * organisation unit, or is the same organisation unit.
+     *
+     * @param uid the organisation unit uid.
+     * @param ancestorUid the ancestor organisation unit uid.
+     * @return true if the organisation unit is a descendant of the ancestor,
+     *         false if not or if either is not in this index.
+     */
+    public boolean isDescendant( String uid, String ancestorUid )
+    {
+        Integer number = numbers.get( uid );
+        Integer ancestorNumber = numbers.get( ancestorUid );
+
+        return number != null && ancestorNumber != null
+            && isDescendant( number, ancestorNumber );
+    }
+
+    /**
+     * Indicates whether an organisation unit is a descendant of any of the
+     * given organisation units, or is one of them. Equal to
+     * {@link OrganisationUnit#isDescendant(java.util.Set)}.
+     *
+     * @param uid the organisation unit uid.
+     * @param ancestors the ancestor organisation units.
+     * @return true if the organisation unit is a descendant of any of the
+     *         ancestors, false if not or if it is not in this index.
+     */
+    public boolean isDescendant( String uid, Collection<OrganisationUnit> ancestors )
+    {
+        Integer number = numbers.get( uid );
+
+        if ( number == null || ancestors == null )
+        {
+            return false;
+        }
+
+        for ( OrganisationUnit ancestor : ancestors )
+        {
+            Integer ancestorNumber = numbers.get( ancestor.getUid() );
+
+            if ( ancestorNumber != null && isDescendant( number, ancestorNumber ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns the number of organisation units in this index.
+     */
+    public int size()
+    {
+        return lastDescendants.length;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private boolean isDescendant( int number, int ancestorNumber )
+    {
+        return number >= ancestorNumber && number <= lastDescendants[ancestorNumber];
+    }
+
+    private static boolean isPathDescendant( String path, String ancestorPath )
+    {
+        return path.startsWith( ancestorPath )
+            && (path.length() == ancestorPath.length() || path.charAt( ancestorPath.length() ) == PATH_SEP);
+    }
+}
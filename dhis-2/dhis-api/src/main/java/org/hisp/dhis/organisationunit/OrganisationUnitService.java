@@ -370,8 +370,9 @@ public interface OrganisationUnitService extends OrganisationUnitDataIntegrityPr
     /**
      * Equal to
      * {@link OrganisationUnitService#isInUserHierarchy(OrganisationUnit)}
-     * except adds a caching layer on top. Use this method when performance is
-     * imperative and the risk of a stale result is tolerable.
+     * except checks the shared {@link OrganisationUnitHierarchyIndex}. Use this
+     * method when performance is imperative and the risk of a stale result is
+     * tolerable.
      *
      * @param organisationUnit the organisation unit.
      * @return true if the given organisation unit is part of the hierarchy.
@@ -381,8 +382,9 @@ public interface OrganisationUnitService extends OrganisationUnitDataIntegrityPr
     /**
      * Equal to
      * {@link OrganisationUnitService#isInUserHierarchy(User,OrganisationUnit)}
-     * except adds a caching layer on top. Use this method when performance is
-     * imperative and the risk of a stale result is tolerable.
+     * except checks the shared {@link OrganisationUnitHierarchyIndex}. Use this
+     * method when performance is imperative and the risk of a stale result is
+     * tolerable.
      *
      * @param user the user to check for.
      * @param organisationUnit the organisation unit.
@@ -416,8 +418,9 @@ public interface OrganisationUnitService extends OrganisationUnitDataIntegrityPr
     /**
      * Equal to
      * {@link OrganisationUnitService#isInUserDataViewHierarchy(OrganisationUnit)}
-     * except adds a caching layer on top. Use this method when performance is
-     * imperative and the risk of a stale result is tolerable.
+     * except checks the shared {@link OrganisationUnitHierarchyIndex}. Use this
+     * method when performance is imperative and the risk of a stale result is
+     * tolerable.
      *
      * @param organisationUnit the organisation unit.
      * @return true if the given organisation unit is part of the hierarchy.
@@ -438,8 +441,9 @@ public interface OrganisationUnitService extends OrganisationUnitDataIntegrityPr
     /**
      * Equal to
      * {@link OrganisationUnitService#isInUserDataViewHierarchy(User,OrganisationUnit)}
-     * except adds a caching layer on top. Use this method when performance is
-     * imperative and the risk of a stale result is tolerable.
+     * except checks the shared {@link OrganisationUnitHierarchyIndex}. Use this
+     * method when performance is imperative and the risk of a stale result is
+     * tolerable.
      *
      * @param user the user to check for.
      * @param organisationUnit the organisation unit.
@@ -461,8 +465,9 @@ public interface OrganisationUnitService extends OrganisationUnitDataIntegrityPr
     /**
      * Equal to
      * {@link OrganisationUnitService#isInUserSearchHierarchy(OrganisationUnit)}
-     * except adds a caching layer on top. Use this method when performance is
-     * imperative and the risk of a stale result is tolerable.
+     * except checks the shared {@link OrganisationUnitHierarchyIndex}. Use this
+     * method when performance is imperative and the risk of a stale result is
+     * tolerable.
      *
      * @param organisationUnit the organisation unit.
      * @return true if the given organisation unit is part of the hierarchy.
@@ -472,8 +477,9 @@ public interface OrganisationUnitService extends OrganisationUnitDataIntegrityPr
     /**
      * Equal to
      * {@link OrganisationUnitService#isInUserSearchHierarchy(User,OrganisationUnit)}
-     * except adds a caching layer on top. Use this method when performance is
-     * imperative and the risk of a stale result is tolerable.
+     * except checks the shared {@link OrganisationUnitHierarchyIndex}. Use this
+     * method when performance is imperative and the risk of a stale result is
+     * tolerable.
      *
      * @param user the user to check for.
      * @param organisationUnit the organisation unit.
@@ -483,6 +489,21 @@ public interface OrganisationUnitService extends OrganisationUnitDataIntegrityPr
 
     boolean isInUserSearchHierarchy( User user, OrganisationUnit organisationUnit );
 
+    /**
+     * Returns the shared {@link OrganisationUnitHierarchyIndex} for ancestor
+     * and descendant checks by integer comparison. The index is built on first
+     * use and rebuilt after organisation units are added, moved or removed.
+     *
+     * @return the organisation unit hierarchy index.
+     */
+    OrganisationUnitHierarchyIndex getHierarchyIndex();
+
+    /**
+     * Discards the current {@link OrganisationUnitHierarchyIndex}, so that it
+     * is rebuilt on next use.
+     */
+    void invalidateHierarchyIndex();
+
     // -------------------------------------------------------------------------
     // OrganisationUnitLevel
     // -------------------------------------------------------------------------
@@ -155,4 +155,12 @@ public interface OrganisationUnitStore
      * @return the list of org unit uids satisfying the params criteria
      */
     List<String> getOrganisationUnitUids( OrganisationUnitQueryParams params );
+
+    /**
+     * Get the paths of all organisation units, without loading the
+     * organisation units.
+     *
+     * @return the list of organisation unit paths.
+     */
+    List<String> getOrganisationUnitPaths();
 }
@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.period;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hisp.dhis.calendar.Calendar;
+
+/**
+ * Compact identity of a period, packed into a single long so that periods can
+ * be looked up without building strings. The layout is:
+ *
+ * <pre>
+ * bits  0-31  start date as days since the epoch
+ * bits 32-47  number of days between start and end date
+ * bits 48-55  period type index + 1, 0 if none
+ * bits 56-62  calendar index + 1, 0 if none
+ * </pre>
+ *
+ * Period identities only use the period type and the ISO start and end dates,
+ * as stored in the database. Lookup keys for creating periods from dates and
+ * ISO strings also include the calendar, as the result depends on it.
+ */
+public final class PeriodKey
+{
+    /**
+     * Returned when a key cannot be packed. Packed keys are never negative.
+     */
+    public static final long NONE = -1L;
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private static final int MAX_DAYS = 0xFFFF;
+
+    private static final int MAX_CALENDARS = 0x7F;
+
+    private static final Map<String, Integer> PERIOD_TYPE_INDEX = new HashMap<>();
+
+    private static final ConcurrentMap<String, Integer> CALENDAR_INDEX = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger CALENDAR_COUNT = new AtomicInteger();
+
+    static
+    {
+        for ( int i = 0; i < PeriodType.PERIOD_TYPES.size(); i++ )
+        {
+            PERIOD_TYPE_INDEX.put( PeriodType.PERIOD_TYPES.get( i ).getName(), i + 1 );
+        }
+    }
+
+    private PeriodKey()
+    {
+        throw new UnsupportedOperationException( "utility" );
+    }
+
+    /**
+     * Returns the identity of the given period.
+     *
+     * @param period the period.
+     * @return the identity, or {@link #NONE} if the period cannot be packed.
+     */
+    public static long of( Period period )
+    {
+        if ( period == null || period.getStartDate() == null || period.getEndDate() == null )
+        {
+            return NONE;
+        }
+
+        return of( period.getPeriodType(), period.getStartDate(), period.getEndDate() );
+    }
+
+    /**
+     * Returns the identity of the period with the given period type, start
+     * date and end date.
+     *
+     * @param periodType the period type.
+     * @param startDate the start date.
+     * @param endDate the end date.
+     * @return the identity, or {@link #NONE} if the period cannot be packed.
+     */
+    public static long of( PeriodType periodType, Date startDate, Date endDate )
+    {
+        long startDay = getEpochDay( startDate );
+        long days = getEpochDay( endDate ) - startDay;
+
+        if ( days < 0 || days > MAX_DAYS )
+        {
+            return NONE;
+        }
+
+        return pack( 0, getPeriodTypeIndex( periodType ), days, startDay );
+    }
+
+    /**
+     * Returns the key for creating a period of the given period type
+     * containing the given date in the given calendar.
+     *
+     * @param calendar the calendar.
+     * @param periodType the period type.
+     * @param date the date.
+     * @return the key, or {@link #NONE} if the key cannot be packed.
+     */
+    public static long of( Calendar calendar, PeriodType periodType, Date date )
+    {
+        return pack( getCalendarIndex( calendar ), getPeriodTypeIndex( periodType ), 0, getEpochDay( date ) );
+    }
+
+    /**
+     * Returns the key for looking up a period by ISO string in the given
+     * calendar. The key is based on the string hash code, so the ISO string of
+     * the period found must be checked against the given ISO string.
+     *
+     * @param calendar the calendar.
+     * @param isoPeriod the ISO period string.
+     * @return the key, or {@link #NONE} if the key cannot be packed.
+     */
+    public static long ofIsoPeriod( Calendar calendar, String isoPeriod )
+    {
+        int calendarIndex = getCalendarIndex( calendar );
+
+        return calendarIndex <= 0 ? NONE : ((long) calendarIndex << 56) | (isoPeriod.hashCode() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the period type of the given key.
+     *
+     * @param key the key.
+     * @return the period type, or null if none.
+     */
+    public static PeriodType getPeriodType( long key )
+    {
+        int index = (int) ((key >>> 48) & 0xFF);
+
+        return index > 0 ? PeriodType.PERIOD_TYPES.get( index - 1 ) : null;
+    }
+
+    /**
+     * Returns the start date of the given key as days since the epoch.
+     *
+     * @param key the key.
+     * @return the days since the epoch.
+     */
+    public static int getStartDay( long key )
+    {
+        return (int) key;
+    }
+
+    /**
+     * Returns the number of days between the start and end date of the given
+     * key.
+     *
+     * @param key the key.
+     * @return the number of days.
+     */
+    public static int getDays( long key )
+    {
+        return (int) ((key >>> 32) & MAX_DAYS);
+    }
+
+    /**
+     * Returns the given date as days since the epoch in the default time zone.
+     * Any time of day is ignored.
+     *
+     * @param date the date.
+     * @return the days since the epoch.
+     */
+    public static int getEpochDay( Date date )
+    {
+        long time = date.getTime();
+
+        return (int) Math.floorDiv( time + TimeZone.getDefault().getOffset( time ), MILLIS_PER_DAY );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private static long pack( int calendarIndex, int periodTypeIndex, long days, long startDay )
+    {
+        if ( periodTypeIndex == 0 || calendarIndex < 0 )
+        {
+            return NONE;
+        }
+
+        return ((long) calendarIndex << 56) | ((long) periodTypeIndex << 48) | (days << 32)
+            | (startDay & 0xFFFFFFFFL);
+    }
+
+    private static int getPeriodTypeIndex( PeriodType periodType )
+    {
+        Integer index = periodType != null ? PERIOD_TYPE_INDEX.get( periodType.getName() ) : null;
+
+        return index != null ? index : 0;
+    }
+
+    /**
+     * Returns the index + 1 of the given calendar, or -1 if there are too many
+     * calendars to index.
+     */
+    private static int getCalendarIndex( Calendar calendar )
+    {
+        Integer index = CALENDAR_INDEX.get( calendar.name() );
+
+        if ( index == null )
+        {
+            index = CALENDAR_INDEX.computeIfAbsent( calendar.name(), name -> CALENDAR_COUNT.incrementAndGet() );
+        }
+
+        return index <= MAX_CALENDARS ? index : -1;
+    }
+}
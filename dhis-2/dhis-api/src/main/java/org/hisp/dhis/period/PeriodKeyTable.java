@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.period;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+/**
+ * Lock-free table of values keyed by {@link PeriodKey}. Lookups do not
+ * allocate and never block. The table has a fixed capacity and is lossy: when
+ * the slots probed for a key are taken, the value replaces an existing entry.
+ * Values must hence be recomputable from the key.
+ *
+ * @param <V> the value type.
+ */
+public class PeriodKeyTable<V>
+{
+    private static final int MAX_PROBES = 8;
+
+    private final AtomicReferenceArray<Entry<V>> entries;
+
+    private final int shift;
+
+    /**
+     * Creates a table.
+     *
+     * @param capacity the capacity, rounded up to a power of two.
+     */
+    public PeriodKeyTable( int capacity )
+    {
+        int bits = 32 - Integer.numberOfLeadingZeros( Math.max( capacity, MAX_PROBES ) - 1 );
+
+        this.entries = new AtomicReferenceArray<>( 1 << bits );
+        this.shift = 64 - bits;
+    }
+
+    /**
+     * Returns the value for the given key.
+     *
+     * @param key the key.
+     * @return the value, or null if not present.
+     */
+    public V get( long key )
+    {
+        int mask = entries.length() - 1;
+        int slot = slot( key );
+
+        for ( int i = 0; i < MAX_PROBES; i++ )
+        {
+            Entry<V> entry = entries.get( (slot + i) & mask );
+
+            if ( entry == null )
+            {
+                return null;
+            }
+
+            if ( entry.key == key )
+            {
+                return entry.value;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Puts the given value for the given key, replacing any existing entry for
+     * the key. If all probed slots are taken by other keys, the entry in the
+     * first probed slot is replaced.
+     *
+     * @param key the key.
+     * @param value the value, not null.
+     */
+    public void put( long key, V value )
+    {
+        int mask = entries.length() - 1;
+        int slot = slot( key );
+        Entry<V> newEntry = new Entry<>( key, value );
+
+        for ( int i = 0; i < MAX_PROBES; i++ )
+        {
+            int index = (slot + i) & mask;
+            Entry<V> entry = entries.get( index );
+
+            if ( entry == null && entries.compareAndSet( index, null, newEntry ) )
+            {
+                return;
+            }
+
+            if ( entry != null && entry.key == key )
+            {
+                entries.set( index, newEntry );
+                return;
+            }
+        }
+
+        entries.set( slot, newEntry );
+    }
+
+    /**
+     * Returns the value for the given key, computing and putting it if not
+     * present. Null values are not put. Concurrent callers may compute the
+     * value more than once.
+     *
+     * @param key the key.
+     * @param mappingFunction the function computing the value.
+     * @return the value.
+     */
+    public V get( long key, LongFunction<V> mappingFunction )
+    {
+        V value = get( key );
+
+        if ( value == null )
+        {
+            value = mappingFunction.apply( key );
+
+            if ( value != null )
+            {
+                put( key, value );
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear()
+    {
+        for ( int i = 0; i < entries.length(); i++ )
+        {
+            entries.set( i, null );
+        }
+    }
+
+    private int slot( long key )
+    {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private static final class Entry<V>
+    {
+        private final long key;
+
+        private final V value;
+
+        private Entry( long key, V value )
+        {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
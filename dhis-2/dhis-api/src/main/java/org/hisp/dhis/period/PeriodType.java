@@ -36,10 +36,7 @@ import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
-import org.hisp.dhis.cache.Cache;
-import org.hisp.dhis.cache.SimpleCacheBuilder;
 import org.hisp.dhis.calendar.CalendarService;
 import org.hisp.dhis.calendar.DateInterval;
 import org.hisp.dhis.calendar.DateTimeUnit;
@@ -64,25 +61,16 @@ import com.google.common.collect.Maps;
 public abstract class PeriodType
     implements Serializable
 {
-    // Cache for period lookup, uses calendar.name() + periodType.getName() +
-    // date.getTime() as key
-
-    private static Cache<Period> PERIOD_CACHE = new SimpleCacheBuilder<Period>()
-        .forRegion( "periodCache" )
-        .expireAfterAccess( 12, TimeUnit.HOURS )
-        .withInitialCapacity( 10000 )
-        .withMaximumSize( 30000 )
-        .build();
-
-    private String getCacheKey( Date date )
-    {
-        return getCalendar().name() + getName() + date.getTime();
-    }
+    /**
+     * Periods created from dates, keyed by calendar, period type and date.
+     */
+    private static final PeriodKeyTable<Period> PERIOD_CACHE = new PeriodKeyTable<>( 1 << 16 );
 
-    private String getCacheKey( org.hisp.dhis.calendar.Calendar calendar, Date date )
-    {
-        return calendar.name() + getName() + date.getTime();
-    }
+    /**
+     * Periods created from ISO strings, keyed by calendar and ISO string hash
+     * code. Copies are returned as callers may modify the periods.
+     */
+    private static final PeriodKeyTable<Period> ISO_PERIOD_CACHE = new PeriodKeyTable<>( 1 << 14 );
 
     /**
      * Invalidates the period cache.
@@ -92,7 +80,8 @@ public abstract class PeriodType
      */
     public static void invalidatePeriodCache()
     {
-        PERIOD_CACHE.invalidateAll();
+        PERIOD_CACHE.clear();
+        ISO_PERIOD_CACHE.clear();
     }
 
     /**
@@ -308,7 +297,14 @@ public abstract class PeriodType
      */
     public Period createPeriod( final Date date )
     {
-        return PERIOD_CACHE.get( getCacheKey( date ), s -> createPeriod( createCalendarInstance( date ) ) );
+        long key = PeriodKey.of( getCalendar(), this, date );
+
+        if ( key == PeriodKey.NONE )
+        {
+            return createPeriod( createCalendarInstance( date ) );
+        }
+
+        return PERIOD_CACHE.get( key, k -> createPeriod( createCalendarInstance( date ) ) );
     }
 
     public Period createPeriod( Calendar cal )
@@ -330,8 +326,15 @@ public abstract class PeriodType
      */
     public Period createPeriod( final Date date, final org.hisp.dhis.calendar.Calendar calendar )
     {
-        return PERIOD_CACHE.get( getCacheKey( calendar, date ),
-            p -> createPeriod( calendar.fromIso( DateTimeUnit.fromJdkDate( date ) ), calendar ) );
+        long key = PeriodKey.of( calendar, this, date );
+
+        if ( key == PeriodKey.NONE )
+        {
+            return createPeriod( calendar.fromIso( DateTimeUnit.fromJdkDate( date ) ), calendar );
+        }
+
+        return PERIOD_CACHE.get( key,
+            k -> createPeriod( calendar.fromIso( DateTimeUnit.fromJdkDate( date ) ), calendar ) );
     }
 
     public Period toIsoPeriod( DateTimeUnit start, DateTimeUnit end )
@@ -473,16 +476,33 @@ public abstract class PeriodType
     {
         if ( isoPeriod != null )
         {
+            long key = PeriodKey.ofIsoPeriod( getCalendar(), isoPeriod );
+
+            Period period = key != PeriodKey.NONE ? ISO_PERIOD_CACHE.get( key ) : null;
+
+            if ( period != null && isoPeriod.equals( period.getIsoDate() ) )
+            {
+                return new Period( period );
+            }
+
             PeriodType periodType = getPeriodTypeFromIsoString( isoPeriod );
 
             try
             {
-                return periodType != null ? periodType.createPeriod( isoPeriod ) : null;
+                period = periodType != null ? periodType.createPeriod( isoPeriod ) : null;
             }
             catch ( Exception ex )
             {
                 // Do nothing and return null
+                return null;
+            }
+
+            if ( period != null && key != PeriodKey.NONE )
+            {
+                ISO_PERIOD_CACHE.put( key, new Period( period ) );
             }
+
+            return period;
         }
 
         return null;
@@ -28,6 +28,7 @@
 package org.hisp.dhis.scheduling.parameters;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -67,6 +68,10 @@ public class MonitoringJobParameters
 
     private boolean persistResults;
 
+    private boolean incremental;
+
+    private Date lastIncrementalRunStart;
+
     public MonitoringJobParameters()
     {
     }
@@ -142,6 +147,40 @@ public class MonitoringJobParameters
         this.persistResults = persistResults;
     }
 
+    /**
+     * Whether to only validate the organisation unit, period and attribute
+     * option combo slices with data values changed since the start of the last
+     * successful incremental run of this job.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public boolean isIncremental()
+    {
+        return incremental;
+    }
+
+    public void setIncremental( boolean incremental )
+    {
+        this.incremental = incremental;
+    }
+
+    /**
+     * The watermark for incremental runs: the start time of the last
+     * successful incremental run of this job, or null if there is none, in
+     * which case the next run validates all slices.
+     */
+    @JsonProperty
+    @JacksonXmlProperty( namespace = DxfNamespaces.DXF_2_0 )
+    public Date getLastIncrementalRunStart()
+    {
+        return lastIncrementalRunStart;
+    }
+
+    public void setLastIncrementalRunStart( Date lastIncrementalRunStart )
+    {
+        this.lastIncrementalRunStart = lastIncrementalRunStart;
+    }
+
     @Override
     public Optional<ErrorReport> validate()
     {
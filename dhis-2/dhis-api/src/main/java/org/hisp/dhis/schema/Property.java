@@ -85,6 +85,11 @@ public class Property implements Ordered, Klass
      */
     private Method setterMethod;
 
+    /**
+     * Accessor calling the getter and setter, created on first use.
+     */
+    private volatile PropertyAccessor accessor;
+
     /**
      * Name for this property, if this class is a collection, it is the name of
      * the items -inside- the collection and not the collection wrapper itself.
@@ -379,6 +384,7 @@ public class Property implements Ordered, Klass
     public void setGetterMethod( Method getterMethod )
     {
         this.getterMethod = getterMethod;
+        this.accessor = null;
     }
 
     public Method getSetterMethod()
@@ -389,6 +395,27 @@ public class Property implements Ordered, Klass
     public void setSetterMethod( Method setterMethod )
     {
         this.setterMethod = setterMethod;
+        this.accessor = null;
+    }
+
+    /**
+     * Returns the accessor for reading and writing this property of objects
+     * through the getter and setter methods. Use this rather than invoking the
+     * methods reflectively.
+     *
+     * @return the {@link PropertyAccessor} of this property.
+     */
+    public PropertyAccessor getAccessor()
+    {
+        PropertyAccessor result = accessor;
+
+        if ( result == null )
+        {
+            result = PropertyAccessor.of( getterMethod, setterMethod );
+            accessor = result;
+        }
+
+        return result;
     }
 
     @JsonProperty
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.schema;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads and writes a {@link Property} of objects through its getter and setter
+ * methods.
+ * <p>
+ * The methods are bound to functional interfaces with the
+ * {@link LambdaMetafactory}, which are called like regular methods and can be
+ * inlined by the JIT compiler. Reflective calls check access and box their
+ * arguments into an array on every call. If a method can not be bound, the
+ * accessor falls back to reflective calls.
+ * <p>
+ * Like {@code ReflectionUtils.invokeMethod}, the accessor ignores private and
+ * protected methods and null targets.
+ *
+ * @see Property#getAccessor()
+ */
+@Slf4j
+public final class PropertyAccessor
+{
+    private static final MethodType GETTER_TYPE = MethodType.methodType( Object.class, Object.class );
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType( void.class, Object.class, Object.class );
+
+    private final Function<Object, Object> getter;
+
+    private final BiConsumer<Object, Object> setter;
+
+    private PropertyAccessor( Function<Object, Object> getter, BiConsumer<Object, Object> setter )
+    {
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * Creates an accessor for the given getter and setter methods.
+     *
+     * @param getterMethod the getter method, can be null.
+     * @param setterMethod the setter method, can be null.
+     * @return a {@link PropertyAccessor}.
+     */
+    public static PropertyAccessor of( Method getterMethod, Method setterMethod )
+    {
+        return new PropertyAccessor( createGetter( getterMethod ), createSetter( setterMethod ) );
+    }
+
+    /**
+     * Returns the value of the property of the given object.
+     *
+     * @param target the object to read the property of.
+     * @param <T> the type of the property.
+     * @return the value of the property, or null if the target is null or the
+     *         property has no accessible getter.
+     */
+    @SuppressWarnings( "unchecked" )
+    public <T> T get( Object target )
+    {
+        if ( target == null || getter == null )
+        {
+            return null;
+        }
+
+        return (T) getter.apply( target );
+    }
+
+    /**
+     * Sets the value of the property of the given object. Does nothing if the
+     * target is null or the property has no accessible setter.
+     *
+     * @param target the object to write the property of.
+     * @param value the value to set.
+     */
+    public void set( Object target, Object value )
+    {
+        if ( target == null || setter == null )
+        {
+            return;
+        }
+
+        setter.accept( target, value );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    @SuppressWarnings( "unchecked" )
+    private static Function<Object, Object> createGetter( Method method )
+    {
+        if ( !isAccessible( method ) )
+        {
+            return null;
+        }
+
+        try
+        {
+            MethodHandles.Lookup lookup = getLookup( method );
+            MethodHandle handle = lookup.unreflect( method );
+
+            CallSite site = LambdaMetafactory.metafactory( lookup, "apply",
+                MethodType.methodType( Function.class ), GETTER_TYPE, handle, handle.type().wrap() );
+
+            return (Function<Object, Object>) site.getTarget().invoke();
+        }
+        catch ( Throwable ex )
+        {
+            log.debug( "Falling back to reflection for getter: " + method, ex );
+
+            return target -> invoke( method, target );
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static BiConsumer<Object, Object> createSetter( Method method )
+    {
+        if ( !isAccessible( method ) )
+        {
+            return null;
+        }
+
+        try
+        {
+            MethodHandles.Lookup lookup = getLookup( method );
+            MethodHandle handle = lookup.unreflect( method );
+
+            CallSite site = LambdaMetafactory.metafactory( lookup, "accept",
+                MethodType.methodType( BiConsumer.class ), SETTER_TYPE, handle,
+                handle.type().wrap().changeReturnType( void.class ) );
+
+            return (BiConsumer<Object, Object>) site.getTarget().invoke();
+        }
+        catch ( Throwable ex )
+        {
+            log.debug( "Falling back to reflection for setter: " + method, ex );
+
+            return ( target, value ) -> invoke( method, target, value );
+        }
+    }
+
+    private static MethodHandles.Lookup getLookup( Method method )
+        throws IllegalAccessException
+    {
+        return MethodHandles.privateLookupIn( method.getDeclaringClass(), MethodHandles.lookup() );
+    }
+
+    private static boolean isAccessible( Method method )
+    {
+        return method != null && !Modifier.isProtected( method.getModifiers() )
+            && !Modifier.isPrivate( method.getModifiers() );
+    }
+
+    private static Object invoke( Method method, Object target, Object... args )
+    {
+        try
+        {
+            return method.invoke( target, args );
+        }
+        catch ( InvocationTargetException | IllegalAccessException ex )
+        {
+            throw new RuntimeException( ex );
+        }
+    }
+}
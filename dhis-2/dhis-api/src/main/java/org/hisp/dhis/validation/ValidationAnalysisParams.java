@@ -28,6 +28,7 @@
 package org.hisp.dhis.validation;
 
 import java.util.Collection;
+import java.util.Date;
 
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
@@ -75,6 +76,8 @@ public final class ValidationAnalysisParams
 
     private int dayInPeriod = -1;
 
+    private Date changedSince;
+
     /**
      * Gets the rules selected for analysis
      *
@@ -174,6 +177,25 @@ public final class ValidationAnalysisParams
         return maxResults;
     }
 
+    /**
+     * Gets the time from which data changes are considered for an incremental
+     * analysis. If set, only the organisation unit, period and attribute option
+     * combo slices with data values changed since this time are validated, and
+     * existing results for those slices are reconciled.
+     *
+     * @return the time of the earliest change to consider, or null to validate
+     *         all slices.
+     */
+    public Date getChangedSince()
+    {
+        return changedSince;
+    }
+
+    public boolean isIncremental()
+    {
+        return changedSince != null;
+    }
+
     public static class Builder
     {
         private ValidationAnalysisParams params;
@@ -266,6 +288,20 @@ public final class ValidationAnalysisParams
             return this;
         }
 
+        /**
+         * Makes the analysis incremental, validating only slices with data
+         * values changed since the given time.
+         *
+         * @param changedSince the time of the earliest change to consider, null
+         *        to validate all slices.
+         * @return the updated builder object
+         */
+        public Builder withChangedSince( Date changedSince )
+        {
+            this.params.changedSince = changedSince;
+            return this;
+        }
+
         /**
          * Returns the params object
          *
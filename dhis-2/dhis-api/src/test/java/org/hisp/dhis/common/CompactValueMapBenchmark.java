@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.common;
+
+import java.lang.ref.Reference;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link CompactValueMap} with {@link MapMapMap} for holding data
+ * values by organisation unit id, attribute option combo uid and item, as
+ * done by validation rule analysis.
+ * <p>
+ * Throughput is measured for filling a map and reading all values back. Run
+ * with the JMH GC profiler ({@code -prof gc}) for allocation rates. The main
+ * method also prints the retained heap of each map.
+ * <p>
+ * Not a unit test, run with the main method or through the JMH runner.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class CompactValueMapBenchmark
+{
+    private static final int AOCS = 4;
+
+    private static final int ITEMS = 50;
+
+    @Param( { "500", "5000" } )
+    private int orgUnits;
+
+    private String[] aocs;
+
+    private String[] items;
+
+    @Setup
+    public void setUp()
+    {
+        aocs = new String[AOCS];
+        items = new String[ITEMS];
+
+        for ( int i = 0; i < AOCS; i++ )
+        {
+            aocs[i] = CodeGenerator.generateUid();
+        }
+
+        for ( int i = 0; i < ITEMS; i++ )
+        {
+            items[i] = CodeGenerator.generateUid();
+        }
+    }
+
+    @Benchmark
+    public void mapMapMap( Blackhole blackhole )
+    {
+        MapMapMap<Long, String, String, Object> map = fillMapMapMap( orgUnits, aocs, items );
+
+        for ( long ou = 0; ou < orgUnits; ou++ )
+        {
+            for ( String aoc : aocs )
+            {
+                for ( String item : items )
+                {
+                    blackhole.consume( map.getValue( ou, aoc, item ) );
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void compactValueMap( Blackhole blackhole )
+    {
+        CompactValueMap<Long, String, String> map = fillCompactValueMap( orgUnits, aocs, items );
+
+        for ( long ou = 0; ou < orgUnits; ou++ )
+        {
+            for ( String aoc : aocs )
+            {
+                for ( String item : items )
+                {
+                    blackhole.consume( map.getValue( ou, aoc, item ) );
+                }
+            }
+        }
+    }
+
+    private static MapMapMap<Long, String, String, Object> fillMapMapMap( int orgUnits, String[] aocs,
+        String[] items )
+    {
+        MapMapMap<Long, String, String, Object> map = new MapMapMap<>();
+
+        for ( long ou = 0; ou < orgUnits; ou++ )
+        {
+            for ( String aoc : aocs )
+            {
+                for ( String item : items )
+                {
+                    map.putEntry( ou, aoc, item, (double) ou );
+                }
+            }
+        }
+
+        return map;
+    }
+
+    private static CompactValueMap<Long, String, String> fillCompactValueMap( int orgUnits, String[] aocs,
+        String[] items )
+    {
+        CompactValueMap<Long, String, String> map = new CompactValueMap<>();
+
+        for ( long ou = 0; ou < orgUnits; ou++ )
+        {
+            for ( String aoc : aocs )
+            {
+                for ( String item : items )
+                {
+                    map.putEntry( ou, aoc, item, (double) ou );
+                }
+            }
+        }
+
+        return map;
+    }
+
+    /**
+     * Prints an estimate of the retained heap of each map, measured as the
+     * used heap after garbage collection before and after filling the map.
+     */
+    private static void printRetainedHeap( int orgUnits )
+    {
+        CompactValueMapBenchmark benchmark = new CompactValueMapBenchmark();
+        benchmark.setUp();
+
+        long before = usedHeap();
+        Object mapMapMap = fillMapMapMap( orgUnits, benchmark.aocs, benchmark.items );
+        long mapMapMapBytes = usedHeap() - before;
+
+        before = usedHeap();
+        Object compactValueMap = fillCompactValueMap( orgUnits, benchmark.aocs, benchmark.items );
+        long compactValueMapBytes = usedHeap() - before;
+
+        long values = (long) orgUnits * AOCS * ITEMS;
+
+        System.out.printf( "%d values: MapMapMap %d bytes per value, CompactValueMap %d bytes per value%n",
+            values, mapMapMapBytes / values, compactValueMapBytes / values );
+
+        Reference.reachabilityFence( mapMapMap );
+        Reference.reachabilityFence( compactValueMap );
+    }
+
+    private static long usedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+
+        for ( int i = 0; i < 3; i++ )
+        {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main( String[] args )
+        throws RunnerException
+    {
+        printRetainedHeap( 50_000 );
+
+        new Runner( new OptionsBuilder()
+            .include( CompactValueMapBenchmark.class.getSimpleName() )
+            .build() ).run();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link CompactValueMap}.
+ */
+class CompactValueMapTest
+{
+    @Test
+    void testPutAndGetValues()
+    {
+        CompactValueMap<Long, String, String> map = new CompactValueMap<>();
+        map.putEntry( 1L, "aocA", "deA", 1.5 );
+        map.putEntry( 1L, "aocA", "deB", "text" );
+        map.putEntry( 1L, "aocB", "deA", true );
+        map.putEntry( 2L, "aocA", "deA", null );
+        assertEquals( 4, map.size() );
+        assertEquals( 1.5, map.getValue( 1L, "aocA", "deA" ) );
+        assertEquals( "text", map.getValue( 1L, "aocA", "deB" ) );
+        assertEquals( true, map.getValue( 1L, "aocB", "deA" ) );
+        assertNull( map.getValue( 2L, "aocA", "deA" ) );
+        assertTrue( map.containsKey( 2L, "aocA", "deA" ) );
+        assertFalse( map.containsKey( 2L, "aocB", "deA" ) );
+        assertNull( map.getValue( 3L, "aocA", "deA" ) );
+    }
+
+    @Test
+    void testReplaceValues()
+    {
+        CompactValueMap<Long, String, String> map = new CompactValueMap<>();
+        map.putEntry( 1L, "aocA", "deA", 1.0 );
+        map.putEntry( 1L, "aocA", "deA", "text" );
+        assertEquals( "text", map.getValue( 1L, "aocA", "deA" ) );
+        map.putEntry( 1L, "aocA", "deA", 2.0 );
+        assertEquals( 2.0, map.getValue( 1L, "aocA", "deA" ) );
+        assertEquals( 1, map.size() );
+    }
+
+    @Test
+    void testManyValues()
+    {
+        CompactValueMap<Long, String, Integer> map = new CompactValueMap<>();
+        for ( long ou = 0; ou < 100; ou++ )
+        {
+            for ( int item = 0; item < 100; item++ )
+            {
+                map.putEntry( ou, "aoc" + (item % 3), item, (double) (ou * item) );
+            }
+        }
+        assertEquals( 10_000, map.size() );
+        for ( long ou = 0; ou < 100; ou++ )
+        {
+            for ( int item = 0; item < 100; item++ )
+            {
+                assertEquals( (double) (ou * item), map.getValue( ou, "aoc" + (item % 3), item ) );
+            }
+        }
+    }
+
+    @Test
+    void testGetMapMap()
+    {
+        CompactValueMap<Long, String, String> map = new CompactValueMap<>();
+        map.putEntry( 1L, "aocA", "deA", 1.0 );
+        map.putEntry( 2L, "aocA", "deA", 2.0 );
+        map.putEntry( 1L, "aocB", "deA", 3.0 );
+        map.putEntry( 1L, "aocA", "deB", 4.0 );
+        MapMap<String, String, Object> expected = new MapMap<>();
+        expected.putEntry( "aocA", "deA", 1.0 );
+        expected.putEntry( "aocB", "deA", 3.0 );
+        expected.putEntry( "aocA", "deB", 4.0 );
+        assertEquals( expected, map.getMapMap( 1L ) );
+        assertEquals( Map.of( "aocA", Map.of( "deA", 2.0 ) ), map.getMapMap( 2L ) );
+        assertNull( map.getMapMap( 3L ) );
+    }
+
+    @Test
+    void testPutMap()
+    {
+        MapMapMap<Long, String, String, Object> source = new MapMapMap<>();
+        source.putEntry( 1L, "aocA", "deA", 1.0 );
+        source.putEntry( 2L, "aocB", "deB", "text" );
+        CompactValueMap<Long, String, String> map = new CompactValueMap<>();
+        map.putEntry( 1L, "aocA", "deA", 5.0 );
+        map.putMap( source );
+        CompactValueMap<Long, String, String> copy = new CompactValueMap<>();
+        copy.putMap( map );
+        assertEquals( 2, copy.size() );
+        assertEquals( 1.0, copy.getValue( 1L, "aocA", "deA" ) );
+        assertEquals( "text", copy.getValue( 2L, "aocB", "deB" ) );
+    }
+
+    @Test
+    void testForEach()
+    {
+        CompactValueMap<Long, String, String> map = new CompactValueMap<>();
+        map.putEntry( 1L, "aocA", "deA", 1.0 );
+        map.putEntry( 2L, "aocB", "deB", "text" );
+        List<String> entries = new ArrayList<>();
+        map.forEach( ( ou, aoc, de, value ) -> entries.add( ou + "-" + aoc + "-" + de + "-" + value ) );
+        assertEquals( List.of( "1-aocA-deA-1.0", "2-aocB-deB-text" ), entries );
+    }
+}
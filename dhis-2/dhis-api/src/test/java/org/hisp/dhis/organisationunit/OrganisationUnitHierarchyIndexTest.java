@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.organisationunit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link OrganisationUnitHierarchyIndex}.
+ */
+class OrganisationUnitHierarchyIndexTest
+{
+    private OrganisationUnitHierarchyIndex index;
+
+    @BeforeEach
+    void setUp()
+    {
+        // A
+        // - B
+        // - - D
+        // - C
+        // - Cx (uid with C as prefix)
+        // E
+        index = new OrganisationUnitHierarchyIndex( List.of(
+            "/uidE", "/uidA/uidC", "/uidA/uidB/uidD", "/uidA", "/uidA/uidCx", "/uidA/uidB" ) );
+    }
+
+    @Test
+    void testContains()
+    {
+        assertEquals( 6, index.size() );
+        assertTrue( index.contains( "uidD" ) );
+        assertFalse( index.contains( "uidF" ) );
+        assertTrue( index.containsAll( Set.of( createOrgUnit( "uidA" ), createOrgUnit( "uidE" ) ) ) );
+        assertFalse( index.containsAll( Set.of( createOrgUnit( "uidA" ), createOrgUnit( "uidF" ) ) ) );
+    }
+
+    @Test
+    void testHasParent()
+    {
+        assertTrue( index.hasParent( "uidA", null ) );
+        assertTrue( index.hasParent( "uidB", "uidA" ) );
+        assertTrue( index.hasParent( "uidD", "uidB" ) );
+        assertTrue( index.hasParent( "uidCx", "uidA" ) );
+        assertFalse( index.hasParent( "uidCx", "uidC" ) );
+        assertFalse( index.hasParent( "uidD", "uidA" ) );
+        assertFalse( index.hasParent( "uidB", null ) );
+        assertFalse( index.hasParent( "uidB", "uidF" ) );
+        assertFalse( index.hasParent( "uidF", null ) );
+    }
+
+    @Test
+    void testIsDescendant()
+    {
+        assertTrue( index.isDescendant( "uidA", "uidA" ) );
+        assertTrue( index.isDescendant( "uidB", "uidA" ) );
+        assertTrue( index.isDescendant( "uidD", "uidA" ) );
+        assertTrue( index.isDescendant( "uidD", "uidB" ) );
+        assertTrue( index.isDescendant( "uidCx", "uidA" ) );
+        assertFalse( index.isDescendant( "uidCx", "uidC" ) );
+        assertFalse( index.isDescendant( "uidD", "uidC" ) );
+        assertFalse( index.isDescendant( "uidA", "uidB" ) );
+        assertFalse( index.isDescendant( "uidE", "uidA" ) );
+        assertFalse( index.isDescendant( "uidF", "uidA" ) );
+        assertFalse( index.isDescendant( "uidA", "uidF" ) );
+    }
+
+    @Test
+    void testIsDescendantOfAny()
+    {
+        assertTrue( index.isDescendant( "uidD", Set.of( createOrgUnit( "uidC" ), createOrgUnit( "uidB" ) ) ) );
+        assertTrue( index.isDescendant( "uidE", Set.of( createOrgUnit( "uidC" ), createOrgUnit( "uidE" ) ) ) );
+        assertFalse( index.isDescendant( "uidD", Set.of( createOrgUnit( "uidC" ), createOrgUnit( "uidE" ) ) ) );
+        assertFalse( index.isDescendant( "uidD", Set.of() ) );
+    }
+
+    private OrganisationUnit createOrgUnit( String uid )
+    {
+        OrganisationUnit organisationUnit = new OrganisationUnit( uid );
+        organisationUnit.setUid( uid );
+        return organisationUnit;
+    }
+}
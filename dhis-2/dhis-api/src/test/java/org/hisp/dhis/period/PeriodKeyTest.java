@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.period;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.hisp.dhis.calendar.impl.Iso8601Calendar;
+import org.hisp.dhis.calendar.impl.NepaliCalendar;
+import org.junit.jupiter.api.Test;
+
+class PeriodKeyTest
+{
+    @Test
+    void testPeriodIdentity()
+    {
+        Period period = new MonthlyPeriodType().createPeriod( new Cal( 2021, 3, 14 ).time() );
+
+        long key = PeriodKey.of( period );
+
+        assertTrue( key >= 0 );
+        assertEquals( new MonthlyPeriodType(), PeriodKey.getPeriodType( key ) );
+        assertEquals( PeriodKey.getEpochDay( new Cal( 2021, 3, 1 ).time() ), PeriodKey.getStartDay( key ) );
+        assertEquals( 30, PeriodKey.getDays( key ) );
+        assertEquals( key, PeriodKey.of( PeriodType.getPeriodFromIsoString( "202103" ) ) );
+        assertNotEquals( key, PeriodKey.of( PeriodType.getPeriodFromIsoString( "202104" ) ) );
+    }
+
+    @Test
+    void testPeriodIdentityBeforeEpoch()
+    {
+        Period period = PeriodType.getPeriodFromIsoString( "1960Q2" );
+
+        long key = PeriodKey.of( period );
+
+        assertTrue( key >= 0 );
+        assertEquals( new QuarterlyPeriodType(), PeriodKey.getPeriodType( key ) );
+        assertEquals( PeriodKey.getEpochDay( new Cal( 1960, 4, 1 ).time() ), PeriodKey.getStartDay( key ) );
+        assertEquals( 90, PeriodKey.getDays( key ) );
+    }
+
+    @Test
+    void testPeriodIdentityDifferentTypes()
+    {
+        Period weekly = new WeeklyPeriodType().createPeriod( new Cal( 2021, 3, 1 ).time() );
+        Period weeklyWednesday = new WeeklyWednesdayPeriodType().createPeriod( new Cal( 2021, 3, 1 ).time() );
+
+        assertNotEquals( PeriodKey.of( weekly ), PeriodKey.of( weeklyWednesday ) );
+    }
+
+    @Test
+    void testPeriodIdentityInvalid()
+    {
+        assertEquals( PeriodKey.NONE, PeriodKey.of( null ) );
+        assertEquals( PeriodKey.NONE, PeriodKey.of( new MonthlyPeriodType(), new Cal( 2021, 3, 1 ).time(),
+            new Cal( 2020, 3, 1 ).time() ) );
+    }
+
+    @Test
+    void testDateKeyIgnoresTimeOfDay()
+    {
+        PeriodType periodType = new MonthlyPeriodType();
+
+        Date date = new Cal( 2021, 3, 14 ).time();
+        Date morning = new Date( date.getTime() + TimeUnit.HOURS.toMillis( 8 ) );
+        Date evening = new Date( date.getTime() + TimeUnit.HOURS.toMillis( 20 ) );
+
+        long morningKey = PeriodKey.of( Iso8601Calendar.getInstance(), periodType, morning );
+        long eveningKey = PeriodKey.of( Iso8601Calendar.getInstance(), periodType, evening );
+        long nepaliKey = PeriodKey.of( NepaliCalendar.getInstance(), periodType, morning );
+
+        assertEquals( morningKey, eveningKey );
+        assertNotEquals( morningKey, nepaliKey );
+    }
+
+    @Test
+    void testIsoPeriodKey()
+    {
+        assertEquals( PeriodKey.ofIsoPeriod( Iso8601Calendar.getInstance(), "202103" ),
+            PeriodKey.ofIsoPeriod( Iso8601Calendar.getInstance(), "202103" ) );
+        assertNotEquals( PeriodKey.ofIsoPeriod( Iso8601Calendar.getInstance(), "202103" ),
+            PeriodKey.ofIsoPeriod( NepaliCalendar.getInstance(), "202103" ) );
+    }
+
+    @Test
+    void testGetPeriodFromIsoStringReturnsCopies()
+    {
+        Period first = PeriodType.getPeriodFromIsoString( "2021Q1" );
+        first.setId( 42 );
+
+        Period second = PeriodType.getPeriodFromIsoString( "2021Q1" );
+
+        assertNotSame( first, second );
+        assertEquals( 0, second.getId() );
+        assertEquals( first, second );
+        assertNull( PeriodType.getPeriodFromIsoString( "2021Q9" ) );
+    }
+
+    @Test
+    void testTable()
+    {
+        PeriodKeyTable<String> table = new PeriodKeyTable<>( 16 );
+
+        assertNull( table.get( 1L ) );
+
+        table.put( 1L, "A" );
+        table.put( 2L, "B" );
+        table.put( 1L, "C" );
+
+        assertEquals( "C", table.get( 1L ) );
+        assertEquals( "B", table.get( 2L ) );
+        assertEquals( "D", table.get( 3L, key -> "D" ) );
+        assertSame( table.get( 3L ), table.get( 3L, key -> "E" ) );
+
+        table.clear();
+
+        assertNull( table.get( 1L ) );
+    }
+
+    @Test
+    void testTableIsLossy()
+    {
+        PeriodKeyTable<Long> table = new PeriodKeyTable<>( 16 );
+
+        for ( long key = 0; key < 1000; key++ )
+        {
+            table.put( key, key );
+        }
+
+        int present = 0;
+
+        for ( long key = 0; key < 1000; key++ )
+        {
+            Long value = table.get( key );
+
+            if ( value != null )
+            {
+                assertEquals( key, value );
+                present++;
+            }
+        }
+
+        assertTrue( present > 0 && present <= 16 );
+        assertEquals( 999L, table.get( 999L ) );
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.period;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hisp.dhis.calendar.Calendar;
+import org.hisp.dhis.calendar.DateTimeUnit;
+import org.hisp.dhis.calendar.impl.Iso8601Calendar;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures period lookup by ISO string and by date, as done for every data
+ * value during import, validation and analytics. The uncached variants parse
+ * and compute the period each time, for comparison with the
+ * {@link PeriodKey} based lookups.
+ * <p>
+ * Run with the JMH GC profiler ({@code -prof gc}) for allocation rates.
+ * <p>
+ * Not a unit test, run with the main method or through the JMH runner.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class PeriodTypeBenchmark
+{
+    private static final int DAYS = 5 * 365;
+
+    private final Calendar calendar = Iso8601Calendar.getInstance();
+
+    private final MonthlyPeriodType monthly = new MonthlyPeriodType();
+
+    private String[] isoPeriods;
+
+    private Date[] dates;
+
+    @Setup
+    public void setUp()
+    {
+        Date start = new Cal( 2018, 1, 1 ).time();
+
+        dates = new Date[DAYS];
+
+        for ( int i = 0; i < DAYS; i++ )
+        {
+            dates[i] = new Date( start.getTime() + TimeUnit.DAYS.toMillis( i ) );
+        }
+
+        List<Period> periods = new ArrayList<>( new DailyPeriodType().generatePeriods( dates[0], dates[DAYS - 1] ) );
+        periods.addAll( new WeeklyPeriodType().generatePeriods( dates[0], dates[DAYS - 1] ) );
+        periods.addAll( monthly.generatePeriods( dates[0], dates[DAYS - 1] ) );
+        periods.addAll( new QuarterlyPeriodType().generatePeriods( dates[0], dates[DAYS - 1] ) );
+
+        isoPeriods = periods.stream().map( Period::getIsoDate ).toArray( String[]::new );
+    }
+
+    @Benchmark
+    public void getPeriodFromIsoString( Blackhole blackhole )
+    {
+        for ( String isoPeriod : isoPeriods )
+        {
+            blackhole.consume( PeriodType.getPeriodFromIsoString( isoPeriod ) );
+        }
+    }
+
+    @Benchmark
+    public void getPeriodFromIsoStringUncached( Blackhole blackhole )
+    {
+        for ( String isoPeriod : isoPeriods )
+        {
+            blackhole.consume( PeriodType.getPeriodTypeFromIsoString( isoPeriod ).createPeriod( isoPeriod ) );
+        }
+    }
+
+    @Benchmark
+    public void createPeriod( Blackhole blackhole )
+    {
+        for ( Date date : dates )
+        {
+            blackhole.consume( monthly.createPeriod( date, calendar ) );
+        }
+    }
+
+    @Benchmark
+    public void createPeriodUncached( Blackhole blackhole )
+    {
+        for ( Date date : dates )
+        {
+            blackhole.consume( monthly.createPeriod( calendar.fromIso( DateTimeUnit.fromJdkDate( date ) ), calendar ) );
+        }
+    }
+
+    @Benchmark
+    public void getPeriodIdentity( Blackhole blackhole )
+    {
+        for ( Date date : dates )
+        {
+            blackhole.consume( PeriodKey.of( monthly, date, date ) );
+        }
+    }
+
+    public static void main( String[] args )
+        throws RunnerException
+    {
+        new Runner( new OptionsBuilder()
+            .include( PeriodTypeBenchmark.class.getSimpleName() )
+            .build() ).run();
+    }
+}
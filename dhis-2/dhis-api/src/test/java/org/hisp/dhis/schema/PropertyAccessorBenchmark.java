@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.schema;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.hisp.dhis.dataelement.DataElement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares reading and writing object properties through a
+ * {@link PropertyAccessor} with reflective method calls, as done for every
+ * property of every object during metadata import, export and in-memory
+ * queries. Direct calls are included as the baseline.
+ * <p>
+ * Not a unit test, run with the main method or through the JMH runner.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class PropertyAccessorBenchmark
+{
+    private static final int OBJECTS = 10_000;
+
+    private DataElement[] dataElements;
+
+    private Method nameGetter;
+
+    private Method nameSetter;
+
+    private Method zeroIsSignificantGetter;
+
+    private PropertyAccessor nameAccessor;
+
+    private PropertyAccessor zeroIsSignificantAccessor;
+
+    @Setup
+    public void setUp()
+        throws Exception
+    {
+        dataElements = new DataElement[OBJECTS];
+
+        for ( int i = 0; i < OBJECTS; i++ )
+        {
+            dataElements[i] = new DataElement( "DataElement" + i );
+        }
+
+        nameGetter = DataElement.class.getMethod( "getName" );
+        nameSetter = DataElement.class.getMethod( "setName", String.class );
+        zeroIsSignificantGetter = DataElement.class.getMethod( "isZeroIsSignificant" );
+
+        nameAccessor = PropertyAccessor.of( nameGetter, nameSetter );
+        zeroIsSignificantAccessor = PropertyAccessor.of( zeroIsSignificantGetter, null );
+    }
+
+    @Benchmark
+    public void getDirect( Blackhole blackhole )
+    {
+        for ( DataElement dataElement : dataElements )
+        {
+            blackhole.consume( dataElement.getName() );
+            blackhole.consume( dataElement.isZeroIsSignificant() );
+        }
+    }
+
+    @Benchmark
+    public void getReflective( Blackhole blackhole )
+        throws Exception
+    {
+        for ( DataElement dataElement : dataElements )
+        {
+            blackhole.consume( nameGetter.invoke( dataElement ) );
+            blackhole.consume( zeroIsSignificantGetter.invoke( dataElement ) );
+        }
+    }
+
+    @Benchmark
+    public void getAccessor( Blackhole blackhole )
+    {
+        for ( DataElement dataElement : dataElements )
+        {
+            blackhole.consume( (Object) nameAccessor.get( dataElement ) );
+            blackhole.consume( (Object) zeroIsSignificantAccessor.get( dataElement ) );
+        }
+    }
+
+    @Benchmark
+    public void setReflective()
+        throws Exception
+    {
+        for ( DataElement dataElement : dataElements )
+        {
+            nameSetter.invoke( dataElement, "ANC" );
+        }
+    }
+
+    @Benchmark
+    public void setAccessor()
+    {
+        for ( DataElement dataElement : dataElements )
+        {
+            nameAccessor.set( dataElement, "ANC" );
+        }
+    }
+
+    public static void main( String[] args )
+        throws RunnerException
+    {
+        new Runner( new OptionsBuilder()
+            .include( PropertyAccessorBenchmark.class.getSimpleName() )
+            .build() ).run();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.schema;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.hisp.dhis.dataelement.DataElement;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link PropertyAccessor}.
+ */
+class PropertyAccessorTest
+{
+    @Test
+    void testGetAndSetInheritedProperty()
+        throws Exception
+    {
+        PropertyAccessor accessor = PropertyAccessor.of( DataElement.class.getMethod( "getName" ),
+            DataElement.class.getMethod( "setName", String.class ) );
+
+        DataElement dataElement = new DataElement( "ANC" );
+        assertEquals( "ANC", accessor.get( dataElement ) );
+
+        accessor.set( dataElement, "ANC 1st visit" );
+        assertEquals( "ANC 1st visit", dataElement.getName() );
+    }
+
+    @Test
+    void testGetAndSetPrimitiveProperty()
+        throws Exception
+    {
+        PropertyAccessor accessor = PropertyAccessor.of( DataElement.class.getMethod( "isZeroIsSignificant" ),
+            DataElement.class.getMethod( "setZeroIsSignificant", boolean.class ) );
+
+        DataElement dataElement = new DataElement();
+        accessor.set( dataElement, true );
+        assertTrue( dataElement.isZeroIsSignificant() );
+        assertEquals( Boolean.TRUE, accessor.get( dataElement ) );
+    }
+
+    @Test
+    void testIgnoresNullTargetAndMissingMethods()
+        throws Exception
+    {
+        PropertyAccessor accessor = PropertyAccessor.of( DataElement.class.getMethod( "getName" ), null );
+
+        DataElement dataElement = new DataElement( "ANC" );
+        accessor.set( dataElement, "ANC 1st visit" );
+        assertEquals( "ANC", dataElement.getName() );
+        assertNull( accessor.get( null ) );
+    }
+
+    @Test
+    void testPropertyAccessorIsCreatedOnce()
+        throws Exception
+    {
+        Property property = new Property( String.class, DataElement.class.getMethod( "getName" ),
+            DataElement.class.getMethod( "setName", String.class ) );
+
+        assertSame( property.getAccessor(), property.getAccessor() );
+        assertEquals( "ANC", property.getAccessor().get( new DataElement( "ANC" ) ) );
+    }
+}
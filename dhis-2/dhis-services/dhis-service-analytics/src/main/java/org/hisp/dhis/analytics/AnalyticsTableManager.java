@@ -90,6 +90,33 @@ public interface AnalyticsTableManager
         // NOOP by default
     }
 
+    /**
+     * Indicates whether this manager supports incremental updates, where
+     * existing analytics table partitions are updated in place with the data
+     * changed since the last successful update.
+     *
+     * @return true if incremental updates are supported.
+     */
+    default boolean isIncrementalUpdateSupported()
+    {
+        return false;
+    }
+
+    /**
+     * Merges the given populated temporary partition into the corresponding
+     * existing analytics table partition for an incremental update. Rows of
+     * the slices with changed data are removed from the existing partition and
+     * replaced by the rows of the temporary partition.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     * @param partition the analytics table partition.
+     */
+    default void mergeTablePartition( AnalyticsTableUpdateParams params, AnalyticsTablePartition partition )
+    {
+        throw new UnsupportedOperationException(
+            "Incremental update not supported for table type: " + getAnalyticsTableType() );
+    }
+
     /**
      * Attempts to drop and then create analytics table.
      *
@@ -55,6 +55,12 @@ public class AnalyticsTableUpdateParams
      */
     private Integer lastYears;
 
+    /**
+     * Indicates whether to update existing analytics table partitions in place
+     * with the data changed since the last successful update only.
+     */
+    private boolean incrementalUpdate;
+
     /**
      * Indicates whether to skip update of resource tables.
      */
@@ -85,6 +91,11 @@ public class AnalyticsTableUpdateParams
      */
     private Date lastSuccessfulUpdate;
 
+    /**
+     * Time of last successful incremental analytics table update.
+     */
+    private Date lastSuccessfulIncrementalUpdate;
+
     /**
      * Current date, only used for testing
      */
@@ -104,6 +115,11 @@ public class AnalyticsTableUpdateParams
         return lastYears;
     }
 
+    public boolean isIncrementalUpdate()
+    {
+        return incrementalUpdate;
+    }
+
     public boolean isSkipResourceTables()
     {
         return skipResourceTables;
@@ -134,6 +150,11 @@ public class AnalyticsTableUpdateParams
         return lastSuccessfulUpdate;
     }
 
+    public Date getLastSuccessfulIncrementalUpdate()
+    {
+        return lastSuccessfulIncrementalUpdate;
+    }
+
     public boolean isSkipPrograms()
     {
         return !skipPrograms.isEmpty();
@@ -146,7 +167,7 @@ public class AnalyticsTableUpdateParams
      */
     public boolean isPartialUpdate()
     {
-        return lastYears != null || isLatestUpdate();
+        return lastYears != null || isLatestUpdate() || incrementalUpdate;
     }
 
     /**
@@ -157,6 +178,16 @@ public class AnalyticsTableUpdateParams
         return Objects.equals( lastYears, AnalyticsTablePartition.LATEST_PARTITION );
     }
 
+    /**
+     * Returns the time from which changed data is included in an incremental
+     * update, i.e. the latest of the last successful full update and the last
+     * successful incremental update.
+     */
+    public Date getIncrementalFromTime()
+    {
+        return DateUtils.getLatest( lastSuccessfulUpdate, lastSuccessfulIncrementalUpdate );
+    }
+
     // -------------------------------------------------------------------------
     // toString
     // -------------------------------------------------------------------------
@@ -166,6 +197,7 @@ public class AnalyticsTableUpdateParams
     {
         return MoreObjects.toStringHelper( this )
             .add( "last years", lastYears )
+            .add( "incremental update", incrementalUpdate )
             .add( "skip resource tables", skipResourceTables )
             .add( "skip table types", skipTableTypes )
             .add( "skip programs", skipPrograms )
@@ -209,12 +241,14 @@ public class AnalyticsTableUpdateParams
         AnalyticsTableUpdateParams params = new AnalyticsTableUpdateParams();
 
         params.lastYears = this.lastYears;
+        params.incrementalUpdate = this.incrementalUpdate;
         params.skipResourceTables = this.skipResourceTables;
         params.skipTableTypes = new HashSet<>( this.skipTableTypes );
         params.skipPrograms = new HashSet<>( this.skipPrograms );
         params.jobId = this.jobId;
         params.startTime = this.startTime;
         params.lastSuccessfulUpdate = this.lastSuccessfulUpdate;
+        params.lastSuccessfulIncrementalUpdate = this.lastSuccessfulIncrementalUpdate;
 
         return this;
     }
@@ -258,6 +292,12 @@ public class AnalyticsTableUpdateParams
             return this;
         }
 
+        public Builder withIncrementalUpdate( boolean incrementalUpdate )
+        {
+            this.params.incrementalUpdate = incrementalUpdate;
+            return this;
+        }
+
         public Builder withSkipResourceTables( boolean skipResourceTables )
         {
             this.params.skipResourceTables = skipResourceTables;
@@ -288,6 +328,12 @@ public class AnalyticsTableUpdateParams
             return this;
         }
 
+        public Builder withLastSuccessfulIncrementalUpdate( Date lastSuccessfulIncrementalUpdate )
+        {
+            this.params.lastSuccessfulIncrementalUpdate = lastSuccessfulIncrementalUpdate;
+            return this;
+        }
+
         public Builder withStartTime( Date startTime )
         {
             this.params.startTime = startTime;
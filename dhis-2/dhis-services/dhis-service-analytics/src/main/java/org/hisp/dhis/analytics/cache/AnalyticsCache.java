@@ -31,7 +31,13 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static org.apache.commons.logging.LogFactory.getLog;
 
 import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 import org.apache.commons.lang3.SerializationUtils;
@@ -42,12 +48,26 @@ import org.hisp.dhis.cache.CacheProvider;
 import org.hisp.dhis.common.Grid;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
 /**
  * This is a wrapper class responsible for keeping and isolating all cache
  * definitions related to the analytics.
+ *
+ * Cached grids are never modified. Consumers receive a
+ * {@link CopyOnWriteGrid} which reads from the cached grid and copies it only
+ * when written to.
+ *
+ * Concurrent {@link #getOrFetch} calls for the same key are coalesced, so that
+ * only one of them fetches the grid while the others wait for its result. This
+ * happens in front of the cache and hence applies to any cache backend.
  */
 @Component
 public class AnalyticsCache
+    implements MeterBinder
 {
     private static final Log log = getLog( AnalyticsCache.class );
 
@@ -55,6 +75,21 @@ public class AnalyticsCache
 
     private final AnalyticsCacheSettings analyticsCacheSettings;
 
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder copies = new LongAdder();
+
+    private final LongAdder copyNanos = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Fetches currently in progress, by cache key.
+     */
+    private final Map<String, CompletableFuture<Grid>> inFlight = new ConcurrentHashMap<>();
+
     /**
      * Default constructor. Note that a default expiration time is set, as as
      * the TTL will always be overwritten during cache put operations.
@@ -74,16 +109,35 @@ public class AnalyticsCache
             initialExpirationTime ) );
     }
 
+    /**
+     * Returns a read view of the Grid cached for the given key, if any.
+     *
+     * @param key the cache key.
+     * @return a {@link CopyOnWriteGrid} of the cached Grid, or empty.
+     */
     public Optional<Grid> get( final String key )
     {
-        return getGridClone( queryCache.get( key ) );
+        final Optional<Grid> cachedGrid = queryCache.get( key );
+
+        if ( cachedGrid.isPresent() )
+        {
+            hits.increment();
+        }
+        else
+        {
+            misses.increment();
+        }
+
+        return cachedGrid.map( this::getReadView );
     }
 
     /**
      * This method tries to retrieve, from the cache, the Grid related to the
      * given DataQueryParams. If the Grid is not found in the cache, the Grid
      * will be fetched by the function provided. In this case, the fetched Grid
-     * will be cached, so the next consumers can hit the cache only.
+     * will be cached, so the next consumers can hit the cache only. Consumers
+     * asking for the same Grid while it is being fetched wait for the fetch in
+     * progress instead of running the function themselves.
      *
      * The TTL of the cached object will be set accordingly to the cache
      * settings available at
@@ -95,19 +149,46 @@ public class AnalyticsCache
      */
     public Grid getOrFetch( final DataQueryParams params, final Function<DataQueryParams, Grid> function )
     {
-        final Optional<Grid> cachedGrid = get( params.getKey() );
+        final String key = params.getKey();
+
+        final Optional<Grid> cachedGrid = get( key );
 
         if ( cachedGrid.isPresent() )
         {
-            return getGridClone( cachedGrid.get() );
+            return cachedGrid.get();
         }
-        else
+
+        final CompletableFuture<Grid> future = new CompletableFuture<>();
+
+        final CompletableFuture<Grid> existingFuture = inFlight.putIfAbsent( key, future );
+
+        if ( existingFuture != null )
+        {
+            coalesced.increment();
+
+            return getReadView( await( existingFuture ) );
+        }
+
+        try
         {
-            final Grid grid = function.apply( params );
+            // Another fetch for the same key might have completed between the
+            // cache lookup and the registration of this fetch
+
+            final Grid grid = queryCache.get( key ).orElseGet( () -> fetch( params, function ) );
+
+            future.complete( grid );
 
-            put( params, grid );
+            return getReadView( grid );
+        }
+        catch ( RuntimeException | Error ex )
+        {
+            future.completeExceptionally( ex );
 
-            return getGridClone( grid );
+            throw ex;
+        }
+        finally
+        {
+            inFlight.remove( key, future );
         }
     }
 
@@ -123,22 +204,13 @@ public class AnalyticsCache
      */
     public void put( final DataQueryParams params, final Grid grid )
     {
-        if ( analyticsCacheSettings.isProgressiveCachingEnabled() )
-        {
-            // Uses the progressive TTL
-            put( params.getKey(), grid,
-                analyticsCacheSettings.progressiveExpirationTimeOrDefault( params.getLatestEndDate() ) );
-        }
-        else
-        {
-            // Respects the fixed (predefined) caching TTL
-            put( params.getKey(), grid, analyticsCacheSettings.fixedExpirationTimeOrDefault() );
-        }
+        put( params.getKey(), grid, getTimeToLive( params ) );
     }
 
     /**
      * Will cache the given key/Grid pair respecting the TTL provided through
-     * the parameter "ttlInSeconds".
+     * the parameter "ttlInSeconds". The Grid is copied, as the caller keeps a
+     * reference to it.
      *
      * @param key the cache key associate with the Grid.
      * @param grid the Grid object to be cached.
@@ -164,18 +236,115 @@ public class AnalyticsCache
         return analyticsCacheSettings.isCachingEnabled();
     }
 
+    @Override
+    public void bindTo( MeterRegistry registry )
+    {
+        FunctionCounter.builder( "analytics.cache.hits", hits, LongAdder::doubleValue )
+            .description( "Number of analytics cache lookups which found a grid" )
+            .register( registry );
+
+        FunctionCounter.builder( "analytics.cache.misses", misses, LongAdder::doubleValue )
+            .description( "Number of analytics cache lookups which did not find a grid" )
+            .register( registry );
+
+        FunctionCounter.builder( "analytics.cache.coalesced", coalesced, LongAdder::doubleValue )
+            .description( "Number of analytics cache misses which waited for a fetch in progress" )
+            .register( registry );
+
+        FunctionTimer.builder( "analytics.cache.copies", this, c -> c.copies.longValue(),
+            c -> c.copyNanos.doubleValue(), TimeUnit.NANOSECONDS )
+            .description( "Time spent copying cached grids" )
+            .register( registry );
+    }
+
+    /**
+     * Returns the TTL in seconds for the given params, based on the current
+     * cache settings.
+     *
+     * @param params the DataQueryParams.
+     * @return the TTL in seconds.
+     */
+    private long getTimeToLive( final DataQueryParams params )
+    {
+        if ( analyticsCacheSettings.isProgressiveCachingEnabled() )
+        {
+            // Uses the progressive TTL
+            return analyticsCacheSettings.progressiveExpirationTimeOrDefault( params.getLatestEndDate() );
+        }
+        else
+        {
+            // Respects the fixed (predefined) caching TTL
+            return analyticsCacheSettings.fixedExpirationTimeOrDefault();
+        }
+    }
+
+    /**
+     * Fetches the grid through the given function and caches it. The fetched
+     * grid is only referenced from the cache and from the read views handed
+     * out, so it is cached without a copy.
+     */
+    private Grid fetch( final DataQueryParams params, final Function<DataQueryParams, Grid> function )
+    {
+        final Grid grid = function.apply( params );
+
+        if ( grid != null )
+        {
+            queryCache.put( params.getKey(), grid, getTimeToLive( params ) );
+        }
+
+        return grid;
+    }
+
+    /**
+     * Waits for the given fetch in progress, rethrowing the exception the
+     * fetch failed with, if any.
+     */
+    private Grid await( final CompletableFuture<Grid> future )
+    {
+        try
+        {
+            return future.join();
+        }
+        catch ( CompletionException ex )
+        {
+            if ( ex.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) ex.getCause();
+            }
+
+            if ( ex.getCause() instanceof Error )
+            {
+                throw (Error) ex.getCause();
+            }
+
+            throw ex;
+        }
+    }
+
+    private Grid getReadView( Grid grid )
+    {
+        return grid != null ? new CopyOnWriteGrid( grid, this::recordCopy ) : null;
+    }
+
     private Grid getGridClone( Grid grid )
     {
         if ( grid != null )
         {
-            return SerializationUtils.clone( grid );
+            final long start = System.nanoTime();
+
+            final Grid clone = SerializationUtils.clone( grid );
+
+            recordCopy( System.nanoTime() - start );
+
+            return clone;
         }
 
         return null;
     }
 
-    private Optional<Grid> getGridClone( Optional<Grid> grid )
+    private void recordCopy( long nanos )
     {
-        return grid.map( SerializationUtils::clone );
+        copies.increment();
+        copyNanos.add( nanos );
     }
 }
@@ -0,0 +1,640 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.sql.ResultSet;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.hisp.dhis.common.Grid;
+import org.hisp.dhis.common.GridHeader;
+import org.hisp.dhis.common.adapter.JacksonRowDataSerializer;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Copy-on-write view of a {@link Grid} held by the {@link AnalyticsCache}.
+ *
+ * All read operations are delegated to the shared snapshot, which is never
+ * modified. Collections exposed while the snapshot is shared are read-only
+ * views. The first write operation, including reading through the
+ * {@link net.sf.jasperreports.engine.JRDataSource} cursor, replaces the
+ * snapshot with a private deep copy, so a cache hit only pays for a copy when
+ * the consumer actually changes the grid.
+ */
+public class CopyOnWriteGrid
+    implements Grid
+{
+    /**
+     * The grid which reads are delegated to. Refers to the shared snapshot
+     * until the first write operation.
+     */
+    private Grid grid;
+
+    /**
+     * Indicates whether {@link #grid} is still the shared snapshot.
+     */
+    private boolean shared = true;
+
+    /**
+     * Notified with the elapsed nanoseconds when the snapshot is copied.
+     */
+    private final transient LongConsumer copyListener;
+
+    /**
+     * @param snapshot the shared grid, which must not be modified by anyone.
+     * @param copyListener notified with the elapsed nanoseconds when the
+     *        snapshot is copied.
+     */
+    public CopyOnWriteGrid( Grid snapshot, LongConsumer copyListener )
+    {
+        checkNotNull( snapshot );
+        checkNotNull( copyListener );
+
+        this.grid = snapshot;
+        this.copyListener = copyListener;
+    }
+
+    /**
+     * Indicates whether this grid still shares the cached snapshot, i.e. no
+     * write operation has been performed on it.
+     */
+    public boolean isShared()
+    {
+        return shared;
+    }
+
+    // -------------------------------------------------------------------------
+    // Read operations
+    // -------------------------------------------------------------------------
+
+    @Override
+    @JsonProperty
+    public String getTitle()
+    {
+        return grid.getTitle();
+    }
+
+    @Override
+    @JsonProperty
+    public String getSubtitle()
+    {
+        return grid.getSubtitle();
+    }
+
+    @Override
+    @JsonProperty
+    public String getTable()
+    {
+        return grid.getTable();
+    }
+
+    @Override
+    @JsonProperty
+    public List<GridHeader> getHeaders()
+    {
+        return shared ? Collections.unmodifiableList( grid.getHeaders() ) : grid.getHeaders();
+    }
+
+    @Override
+    @JsonProperty
+    public Map<String, Object> getMetaData()
+    {
+        return shared ? unmodifiableMap( grid.getMetaData() ) : grid.getMetaData();
+    }
+
+    @Override
+    @JsonIgnore
+    public Map<String, Object> getInternalMetaData()
+    {
+        return shared ? unmodifiableMap( grid.getInternalMetaData() ) : grid.getInternalMetaData();
+    }
+
+    @Override
+    public List<GridHeader> getVisibleHeaders()
+    {
+        return grid.getVisibleHeaders();
+    }
+
+    @Override
+    public List<GridHeader> getMetadataHeaders()
+    {
+        return grid.getMetadataHeaders();
+    }
+
+    @Override
+    public int getIndexOfHeader( String name )
+    {
+        return grid.getIndexOfHeader( name );
+    }
+
+    @Override
+    @JsonProperty
+    public int getHeight()
+    {
+        return grid.getHeight();
+    }
+
+    @Override
+    @JsonProperty
+    public int getWidth()
+    {
+        return grid.getWidth();
+    }
+
+    @Override
+    @JsonProperty
+    public int getHeaderWidth()
+    {
+        return grid.getHeaderWidth();
+    }
+
+    @Override
+    public int getVisibleWidth()
+    {
+        return grid.getVisibleWidth();
+    }
+
+    @Override
+    public List<Object> getRow( int rowIndex )
+    {
+        return shared ? Collections.unmodifiableList( grid.getRow( rowIndex ) ) : grid.getRow( rowIndex );
+    }
+
+    @Override
+    @JsonProperty
+    @JsonSerialize( using = JacksonRowDataSerializer.class )
+    public List<List<Object>> getRows()
+    {
+        return shared ? new ReadOnlyRows( grid.getRows() ) : grid.getRows();
+    }
+
+    @Override
+    public List<List<Object>> getVisibleRows()
+    {
+        return grid.getVisibleRows();
+    }
+
+    @Override
+    public List<Object> getColumn( int columnIndex )
+    {
+        return grid.getColumn( columnIndex );
+    }
+
+    @Override
+    public Object getValue( int rowIndex, int columnIndex )
+    {
+        return grid.getValue( rowIndex, columnIndex );
+    }
+
+    @Override
+    public boolean columnIsEmpty( int columnIndex )
+    {
+        return grid.columnIsEmpty( columnIndex );
+    }
+
+    @Override
+    public boolean hasMetaDataKey( String key )
+    {
+        return grid.hasMetaDataKey( key );
+    }
+
+    @Override
+    public boolean hasInternalMetaDataKey( String key )
+    {
+        return grid.hasInternalMetaDataKey( key );
+    }
+
+    @Override
+    public List<Integer> getMetaColumnIndexes()
+    {
+        return grid.getMetaColumnIndexes();
+    }
+
+    @Override
+    public Set<Object> getUniqueValues( String columnName )
+    {
+        return grid.getUniqueValues( columnName );
+    }
+
+    @Override
+    public <T> Map<String, T> getAsMap( int valueIndex, String keySeparator )
+    {
+        return grid.getAsMap( valueIndex, keySeparator );
+    }
+
+    // -------------------------------------------------------------------------
+    // Write operations
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Grid setTitle( String title )
+    {
+        writable().setTitle( title );
+        return this;
+    }
+
+    @Override
+    public Grid setSubtitle( String subtitle )
+    {
+        writable().setSubtitle( subtitle );
+        return this;
+    }
+
+    @Override
+    public Grid setTable( String table )
+    {
+        writable().setTable( table );
+        return this;
+    }
+
+    @Override
+    public Grid setMetaData( Map<String, Object> metaData )
+    {
+        writable().setMetaData( metaData );
+        return this;
+    }
+
+    @Override
+    public Grid addMetaData( String key, Object value )
+    {
+        writable().addMetaData( key, value );
+        return this;
+    }
+
+    @Override
+    public Grid setInternalMetaData( Map<String, Object> internalMetaData )
+    {
+        writable().setInternalMetaData( internalMetaData );
+        return this;
+    }
+
+    @Override
+    public Grid addHeader( GridHeader header )
+    {
+        writable().addHeader( header );
+        return this;
+    }
+
+    @Override
+    public Grid addHeader( int headerIndex, GridHeader header )
+    {
+        writable().addHeader( headerIndex, header );
+        return this;
+    }
+
+    @Override
+    public Grid addHeaders( int headerIndex, List<GridHeader> headers )
+    {
+        writable().addHeaders( headerIndex, headers );
+        return this;
+    }
+
+    @Override
+    public Grid addEmptyHeaders( int number )
+    {
+        writable().addEmptyHeaders( number );
+        return this;
+    }
+
+    @Override
+    public Grid replaceHeaders( List<GridHeader> headers )
+    {
+        writable().replaceHeaders( headers );
+        return this;
+    }
+
+    @Override
+    public Grid addRow()
+    {
+        writable().addRow();
+        return this;
+    }
+
+    @Override
+    public Grid addRows( Grid rows )
+    {
+        writable().addRows( rows );
+        return this;
+    }
+
+    @Override
+    public Grid addValue( Object value )
+    {
+        writable().addValue( value );
+        return this;
+    }
+
+    @Override
+    public Grid addValues( Object[] values )
+    {
+        writable().addValues( values );
+        return this;
+    }
+
+    @Override
+    public Grid addValuesVar( Object... values )
+    {
+        writable().addValuesVar( values );
+        return this;
+    }
+
+    @Override
+    public Grid addValuesAsList( List<Object> values )
+    {
+        writable().addValuesAsList( values );
+        return this;
+    }
+
+    @Override
+    public Grid addEmptyValue()
+    {
+        writable().addEmptyValue();
+        return this;
+    }
+
+    @Override
+    public Grid addEmptyValues( int number )
+    {
+        writable().addEmptyValues( number );
+        return this;
+    }
+
+    @Override
+    public Grid addNullValues( int number )
+    {
+        writable().addNullValues( number );
+        return this;
+    }
+
+    @Override
+    public Grid addColumn( List<Object> columnValues )
+    {
+        writable().addColumn( columnValues );
+        return this;
+    }
+
+    @Override
+    public Grid addColumn( int columnIndex, List<Object> columnValues )
+    {
+        writable().addColumn( columnIndex, columnValues );
+        return this;
+    }
+
+    @Override
+    public Grid addAndPopulateColumnsBefore( int referenceColumnIndex, Map<Object, List<?>> valueMap,
+        int newColumns )
+    {
+        writable().addAndPopulateColumnsBefore( referenceColumnIndex, valueMap, newColumns );
+        return this;
+    }
+
+    @Override
+    public Grid removeColumn( int columnIndex )
+    {
+        writable().removeColumn( columnIndex );
+        return this;
+    }
+
+    @Override
+    public Grid removeEmptyColumns()
+    {
+        writable().removeEmptyColumns();
+        return this;
+    }
+
+    @Override
+    public Grid removeColumn( GridHeader header )
+    {
+        writable().removeColumn( header );
+        return this;
+    }
+
+    @Override
+    public Grid removeCurrentWriteRow()
+    {
+        writable().removeCurrentWriteRow();
+        return this;
+    }
+
+    @Override
+    public Grid limitGrid( int limit )
+    {
+        writable().limitGrid( limit );
+        return this;
+    }
+
+    @Override
+    public Grid limitGrid( int startPos, int endPos )
+    {
+        writable().limitGrid( startPos, endPos );
+        return this;
+    }
+
+    @Override
+    public Grid sortGrid( int columnIndex, int order )
+    {
+        writable().sortGrid( columnIndex, order );
+        return this;
+    }
+
+    @Override
+    public Grid addRegressionColumn( int columnIndex, boolean addHeader )
+    {
+        writable().addRegressionColumn( columnIndex, addHeader );
+        return this;
+    }
+
+    @Override
+    public Grid addRegressionToGrid( int startColumnIndex, int numberOfColumns )
+    {
+        writable().addRegressionToGrid( startColumnIndex, numberOfColumns );
+        return this;
+    }
+
+    @Override
+    public Grid addCumulativeColumn( int columnIndex, boolean addHeader )
+    {
+        writable().addCumulativeColumn( columnIndex, addHeader );
+        return this;
+    }
+
+    @Override
+    public Grid addCumulativesToGrid( int startColumnIndex, int numberOfColumns )
+    {
+        writable().addCumulativesToGrid( startColumnIndex, numberOfColumns );
+        return this;
+    }
+
+    @Override
+    public Grid substituteMetaData( Map<?, ?> metaDataMap )
+    {
+        writable().substituteMetaData( metaDataMap );
+        return this;
+    }
+
+    @Override
+    public Grid substituteMetaData( int sourceColumnIndex, int targetColumnIndex, Map<?, ?> metaDataMap )
+    {
+        writable().substituteMetaData( sourceColumnIndex, targetColumnIndex, metaDataMap );
+        return this;
+    }
+
+    @Override
+    public Grid addHeaders( ResultSet rs )
+    {
+        writable().addHeaders( rs );
+        return this;
+    }
+
+    @Override
+    public Grid addHeaders( SqlRowSet rs )
+    {
+        writable().addHeaders( rs );
+        return this;
+    }
+
+    @Override
+    public Grid addRows( ResultSet rs )
+    {
+        writable().addRows( rs );
+        return this;
+    }
+
+    @Override
+    public Grid addRows( SqlRowSet rs )
+    {
+        writable().addRows( rs );
+        return this;
+    }
+
+    @Override
+    public Grid addRows( SqlRowSet rs, int maxLimit )
+    {
+        writable().addRows( rs, maxLimit );
+        return this;
+    }
+
+    // -------------------------------------------------------------------------
+    // JRDataSource implementation
+    // -------------------------------------------------------------------------
+
+    /**
+     * Moves the read cursor, which is state held by the grid, hence copies the
+     * snapshot.
+     */
+    @Override
+    public boolean next()
+        throws JRException
+    {
+        return writable().next();
+    }
+
+    @Override
+    public Object getFieldValue( JRField field )
+        throws JRException
+    {
+        return grid.getFieldValue( field );
+    }
+
+    @Override
+    public String toString()
+    {
+        return grid.toString();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the grid to write to, replacing the shared snapshot with a
+     * private deep copy on first invocation.
+     */
+    private Grid writable()
+    {
+        if ( shared )
+        {
+            final long start = System.nanoTime();
+
+            grid = SerializationUtils.clone( grid );
+            shared = false;
+
+            if ( copyListener != null )
+            {
+                copyListener.accept( System.nanoTime() - start );
+            }
+        }
+
+        return grid;
+    }
+
+    private static Map<String, Object> unmodifiableMap( Map<String, Object> map )
+    {
+        return map != null ? Collections.unmodifiableMap( map ) : null;
+    }
+
+    /**
+     * Read-only view of the rows of a grid where each row is read-only as well.
+     */
+    private static class ReadOnlyRows
+        extends AbstractList<List<Object>>
+    {
+        private final List<List<Object>> rows;
+
+        ReadOnlyRows( List<List<Object>> rows )
+        {
+            this.rows = rows;
+        }
+
+        @Override
+        public List<Object> get( int index )
+        {
+            return Collections.unmodifiableList( rows.get( index ) );
+        }
+
+        @Override
+        public int size()
+        {
+            return rows.size();
+        }
+    }
+}
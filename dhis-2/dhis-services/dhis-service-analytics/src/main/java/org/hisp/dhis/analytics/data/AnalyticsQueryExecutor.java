@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.hisp.dhis.commons.util.SystemUtils.getCpuCores;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_QUERY_QUEUE_SIZE;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_QUERY_THREADS;
+import static org.hisp.dhis.external.conf.ConfigurationKey.ANALYTICS_QUERY_USER_LIMIT;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.common.QueryRejectedException;
+import org.hisp.dhis.common.QueryRuntimeException;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.feedback.ErrorCode;
+import org.hisp.dhis.user.CurrentUserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Executes the partition queries of analytics requests on a dedicated, bounded
+ * thread pool.
+ *
+ * The number of analytics requests in progress per user can be limited, in
+ * which case further requests of the user are rejected. Queries which cannot
+ * be queued because the queue is full are rejected as well. When one query of
+ * a request fails or the requesting thread is interrupted, the remaining
+ * queries of the request are cancelled.
+ */
+@Slf4j
+@Component
+public class AnalyticsQueryExecutor
+    implements MeterBinder
+{
+    private final CurrentUserService currentUserService;
+
+    private final ThreadPoolExecutor executor;
+
+    private final int userLimit;
+
+    /**
+     * Number of requests in progress by username.
+     */
+    private final Map<String, Integer> userRequests = new ConcurrentHashMap<>();
+
+    /**
+     * Indicates whether the current thread holds a request permit.
+     */
+    private final ThreadLocal<Boolean> inRequest = ThreadLocal.withInitial( () -> false );
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder waits = new LongAdder();
+
+    private final LongAdder waitNanos = new LongAdder();
+
+    @Autowired
+    public AnalyticsQueryExecutor( CurrentUserService currentUserService, DhisConfigurationProvider config )
+    {
+        this( currentUserService,
+            getThreads( Integer.parseInt( config.getProperty( ANALYTICS_QUERY_THREADS ) ) ),
+            Integer.parseInt( config.getProperty( ANALYTICS_QUERY_QUEUE_SIZE ) ),
+            Integer.parseInt( config.getProperty( ANALYTICS_QUERY_USER_LIMIT ) ) );
+    }
+
+    /**
+     * @param currentUserService the {@link CurrentUserService}.
+     * @param threads the number of threads executing queries.
+     * @param queueSize the max number of queries waiting for a thread.
+     * @param userLimit the max number of requests in progress per user, 0
+     *        means no limit.
+     */
+    public AnalyticsQueryExecutor( CurrentUserService currentUserService, int threads, int queueSize,
+        int userLimit )
+    {
+        checkNotNull( currentUserService );
+        checkArgument( threads > 0, "Threads must be greater than zero" );
+        checkArgument( queueSize > 0, "Queue size must be greater than zero" );
+        checkArgument( userLimit >= 0, "User limit must not be negative" );
+
+        this.currentUserService = currentUserService;
+        this.userLimit = userLimit;
+        this.executor = new ThreadPoolExecutor( threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>( queueSize ),
+            new ThreadFactoryBuilder().setNameFormat( "ANALYTICS-QUERY-%d" ).setDaemon( true ).build(),
+            new ThreadPoolExecutor.AbortPolicy() );
+
+        log.info( String.format( "Analytics query executor started with %d threads, queue size %d, user limit %d",
+            threads, queueSize, userLimit ) );
+    }
+
+    /**
+     * Executes the given analytics request, holding one request permit of the
+     * current user while in progress. Nested requests on the same thread share
+     * the permit of the outermost request.
+     *
+     * @param request the request to execute.
+     * @param <T> the request result type.
+     * @return the request result.
+     * @throws QueryRejectedException if the current user has too many requests
+     *         in progress.
+     */
+    public <T> T executeRequest( Supplier<T> request )
+    {
+        if ( userLimit == 0 || inRequest.get() )
+        {
+            return request.get();
+        }
+
+        final String username = currentUserService.getCurrentUsername();
+
+        if ( username == null )
+        {
+            return request.get();
+        }
+
+        if ( !tryAcquire( username ) )
+        {
+            rejected.increment();
+
+            throw new QueryRejectedException( ErrorCode.E7134, true );
+        }
+
+        inRequest.set( true );
+
+        try
+        {
+            return request.get();
+        }
+        finally
+        {
+            inRequest.remove();
+            release( username );
+        }
+    }
+
+    /**
+     * Executes the given queries concurrently and waits for all of them to
+     * complete. Fails fast, cancelling the queries still in progress, if any
+     * query fails or the current thread is interrupted.
+     *
+     * @param queries the queries to execute.
+     * @param <T> the query result type.
+     * @return the query results in the order of the given queries.
+     * @throws QueryRejectedException if the queue of the executor is full.
+     */
+    public <T> List<T> executeAll( List<Callable<T>> queries )
+    {
+        final CompletionService<T> completionService = new ExecutorCompletionService<>( executor );
+
+        final List<Future<T>> futures = new ArrayList<>( queries.size() );
+
+        try
+        {
+            for ( Callable<T> query : queries )
+            {
+                futures.add( completionService.submit( timed( query ) ) );
+            }
+
+            for ( int i = 0; i < futures.size(); i++ )
+            {
+                completionService.take().get();
+            }
+
+            final List<T> results = new ArrayList<>( futures.size() );
+
+            for ( Future<T> future : futures )
+            {
+                results.add( future.get() );
+            }
+
+            return results;
+        }
+        catch ( RejectedExecutionException ex )
+        {
+            rejected.increment();
+
+            throw new QueryRejectedException( ErrorCode.E7135, false );
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new QueryRuntimeException( ErrorCode.E7136, ex );
+        }
+        catch ( ExecutionException ex )
+        {
+            if ( ex.getCause() instanceof RuntimeException )
+            {
+                // Throw the real exception
+                throw (RuntimeException) ex.getCause();
+            }
+            else
+            {
+                throw new RuntimeException( "Error during execution of aggregation query task", ex.getCause() );
+            }
+        }
+        finally
+        {
+            futures.forEach( future -> future.cancel( true ) );
+        }
+    }
+
+    @Override
+    public void bindTo( MeterRegistry registry )
+    {
+        Gauge.builder( "analytics.query.queue.size", executor, e -> e.getQueue().size() )
+            .description( "Number of analytics queries waiting for a thread" )
+            .register( registry );
+
+        Gauge.builder( "analytics.query.active", executor, ThreadPoolExecutor::getActiveCount )
+            .description( "Number of analytics queries in progress" )
+            .register( registry );
+
+        FunctionCounter.builder( "analytics.query.rejected", rejected, LongAdder::doubleValue )
+            .description( "Number of analytics requests rejected because of exhausted capacity" )
+            .register( registry );
+
+        FunctionTimer.builder( "analytics.query.wait", this, e -> e.waits.longValue(),
+            e -> e.waitNanos.doubleValue(), TimeUnit.NANOSECONDS )
+            .description( "Time analytics queries waited for a thread" )
+            .register( registry );
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Wraps the given query to record the time it waited for a thread.
+     */
+    private <T> Callable<T> timed( Callable<T> query )
+    {
+        final long submitted = System.nanoTime();
+
+        return () -> {
+            waits.increment();
+            waitNanos.add( System.nanoTime() - submitted );
+
+            return query.call();
+        };
+    }
+
+    private boolean tryAcquire( String username )
+    {
+        final AtomicBoolean acquired = new AtomicBoolean();
+
+        userRequests.compute( username, ( user, requests ) -> {
+            int current = requests != null ? requests : 0;
+
+            if ( current >= userLimit )
+            {
+                return requests;
+            }
+
+            acquired.set( true );
+
+            return current + 1;
+        } );
+
+        return acquired.get();
+    }
+
+    private void release( String username )
+    {
+        userRequests.computeIfPresent( username, ( user, requests ) -> requests > 1 ? requests - 1 : null );
+    }
+
+    private static int getThreads( int threads )
+    {
+        return threads > 0 ? threads : getCpuCores();
+    }
+}
@@ -39,6 +39,7 @@ import static org.hisp.dhis.common.DimensionalObject.DATA_X_DIM_ID;
 import javax.annotation.PostConstruct;
 
 import org.hisp.dhis.analytics.DataQueryParams;
+import org.hisp.dhis.analytics.data.AnalyticsQueryExecutor;
 import org.hisp.dhis.common.DimensionalObject;
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.system.grid.ListGrid;
@@ -57,15 +58,20 @@ public class DataAggregator
 
     private final DataHandler dataHandler;
 
-    public DataAggregator( HeaderHandler headerHandler, MetadataHandler metadataHandler, DataHandler dataHandler )
+    private final AnalyticsQueryExecutor queryExecutor;
+
+    public DataAggregator( HeaderHandler headerHandler, MetadataHandler metadataHandler, DataHandler dataHandler,
+        AnalyticsQueryExecutor queryExecutor )
     {
         checkNotNull( headerHandler );
         checkNotNull( metadataHandler );
         checkNotNull( dataHandler );
+        checkNotNull( queryExecutor );
 
         this.headerHandler = headerHandler;
         this.metaDataHandler = metadataHandler;
         this.dataHandler = dataHandler;
+        this.queryExecutor = queryExecutor;
     }
 
     /**
@@ -75,6 +81,26 @@ public class DataAggregator
      * @return a grid with aggregated data.
      */
     public Grid getAggregatedDataValueGrid( DataQueryParams params )
+    {
+        return queryExecutor.executeRequest( () -> aggregateDataValueGrid( params ) );
+    }
+
+    /**
+     * Returns headers, raw data and meta data as a grid.
+     *
+     * @param params the {@link DataQueryParams}.
+     * @return a grid.
+     */
+    public Grid getRawDataGrid( DataQueryParams params )
+    {
+        return queryExecutor.executeRequest( () -> rawDataGrid( params ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private Grid aggregateDataValueGrid( DataQueryParams params )
     {
         params = preHandleQuery( params );
 
@@ -119,13 +145,7 @@ public class DataAggregator
         return grid;
     }
 
-    /**
-     * Returns headers, raw data and meta data as a grid.
-     *
-     * @param params the {@link DataQueryParams}.
-     * @return a grid.
-     */
-    public Grid getRawDataGrid( DataQueryParams params )
+    private Grid rawDataGrid( DataQueryParams params )
     {
         Grid grid = new ListGrid();
 
@@ -110,7 +110,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Future;
+import java.util.concurrent.Callable;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -127,6 +127,7 @@ import org.hisp.dhis.analytics.QueryPlanner;
 import org.hisp.dhis.analytics.QueryPlannerParams;
 import org.hisp.dhis.analytics.QueryValidator;
 import org.hisp.dhis.analytics.RawAnalyticsManager;
+import org.hisp.dhis.analytics.data.AnalyticsQueryExecutor;
 import org.hisp.dhis.analytics.event.EventAnalyticsService;
 import org.hisp.dhis.analytics.event.EventQueryParams;
 import org.hisp.dhis.analytics.resolver.ExpressionResolver;
@@ -187,12 +188,15 @@ public class DataHandler
 
     private final OrganisationUnitService organisationUnitService;
 
+    private final AnalyticsQueryExecutor queryExecutor;
+
     private DataAggregator dataAggregator;
 
     public DataHandler( EventAnalyticsService eventAnalyticsService, RawAnalyticsManager rawAnalyticsManager,
         ConstantService constantService, ExpressionResolvers resolvers, ExpressionService expressionService,
         QueryPlanner queryPlanner, QueryValidator queryValidator, SystemSettingManager systemSettingManager,
-        AnalyticsManager analyticsManager, OrganisationUnitService organisationUnitService )
+        AnalyticsManager analyticsManager, OrganisationUnitService organisationUnitService,
+        AnalyticsQueryExecutor queryExecutor )
     {
         checkNotNull( eventAnalyticsService );
         checkNotNull( rawAnalyticsManager );
@@ -204,6 +208,7 @@ public class DataHandler
         checkNotNull( systemSettingManager );
         checkNotNull( analyticsManager );
         checkNotNull( organisationUnitService );
+        checkNotNull( queryExecutor );
 
         this.eventAnalyticsService = eventAnalyticsService;
         this.rawAnalyticsManager = rawAnalyticsManager;
@@ -215,6 +220,7 @@ public class DataHandler
         this.systemSettingManager = systemSettingManager;
         this.analyticsManager = analyticsManager;
         this.organisationUnitService = organisationUnitService;
+        this.queryExecutor = queryExecutor;
     }
 
     /**
@@ -1109,38 +1115,31 @@ public class DataHandler
     private void executeQueries( AnalyticsTableType tableType, int maxLimit, Map<String, Object> map,
         List<DataQueryParams> queries )
     {
-        List<Future<Map<String, Object>>> futures = new ArrayList<>();
+        List<Callable<Map<String, Object>>> tasks = new ArrayList<>();
 
         for ( DataQueryParams query : queries )
         {
-            futures.add( analyticsManager.getAggregatedDataValues( query, tableType, maxLimit ) );
+            tasks.add( () -> analyticsManager.getAggregatedDataValues( query, tableType, maxLimit ).get() );
         }
 
-        for ( Future<Map<String, Object>> future : futures )
+        List<Map<String, Object>> results;
+
+        try
         {
-            try
-            {
-                Map<String, Object> taskValues = future.get();
+            results = queryExecutor.executeAll( tasks );
+        }
+        catch ( RuntimeException ex )
+        {
+            log.error( getStackTrace( ex ) );
 
-                if ( taskValues != null )
-                {
-                    map.putAll( taskValues );
-                }
-            }
-            catch ( Exception ex )
-            {
-                log.error( getStackTrace( ex ) );
-                log.error( getStackTrace( ex.getCause() ) );
+            throw ex;
+        }
 
-                if ( ex.getCause() instanceof RuntimeException )
-                {
-                    // Throw the real exception
-                    throw (RuntimeException) ex.getCause();
-                }
-                else
-                {
-                    throw new RuntimeException( "Error during execution of aggregation query task", ex );
-                }
+        for ( Map<String, Object> taskValues : results )
+        {
+            if ( taskValues != null )
+            {
+                map.putAll( taskValues );
             }
         }
     }
@@ -78,6 +78,8 @@ public class DefaultAnalyticsTableGenerator
         final Clock clock = new Clock( log ).startClock();
         final Date lastSuccessfulUpdate = systemSettingManager
             .getDateSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_UPDATE );
+        final Date lastSuccessfulIncrementalUpdate = systemSettingManager
+            .getDateSetting( SettingKey.LAST_SUCCESSFUL_INCREMENTAL_ANALYTICS_TABLE_UPDATE );
         final Set<AnalyticsTableType> skipTypes = CollectionUtils.emptyIfNull( params.getSkipTableTypes() );
         final Set<AnalyticsTableType> availableTypes = analyticsTableServices.stream()
             .map( AnalyticsTableService::getAnalyticsTableType )
@@ -85,6 +87,7 @@ public class DefaultAnalyticsTableGenerator
 
         params = AnalyticsTableUpdateParams.newBuilder( params )
             .withLastSuccessfulUpdate( lastSuccessfulUpdate )
+            .withLastSuccessfulIncrementalUpdate( lastSuccessfulIncrementalUpdate )
             .build();
 
         log.info( "Found {} analytics table types: {}", availableTypes.size(), availableTypes );
@@ -132,6 +135,11 @@ public class DefaultAnalyticsTableGenerator
             systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_LATEST_ANALYTICS_PARTITION_RUNTIME,
                 clock.time() );
         }
+        else if ( params.isIncrementalUpdate() )
+        {
+            systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_INCREMENTAL_ANALYTICS_TABLE_UPDATE,
+                params.getStartTime() );
+        }
         else
         {
             systemSettingManager.saveSystemSetting( SettingKey.LAST_SUCCESSFUL_ANALYTICS_TABLES_UPDATE,
@@ -84,8 +84,6 @@ public class DefaultAnalyticsTableService
     {
         final int processNo = getProcessNo();
 
-        int tableUpdates = 0;
-
         log.info( String.format( "Analytics table update parameters: %s", params ) );
 
         AnalyticsTableType tableType = getAnalyticsTableType();
@@ -95,6 +93,15 @@ public class DefaultAnalyticsTableService
             .logTime( String.format( "Starting update of type: %s, table name: '%s', processes: %d",
                 tableType, tableType.getTableName(), processNo ) );
 
+        if ( params.isIncrementalUpdate() && !tableManager.isIncrementalUpdateSupported() )
+        {
+            clock.logTime( String.format( "Table update skipped, incremental update not supported: '%s'",
+                tableType.getTableName() ) );
+            progress.startingStage( "Table updates " + tableType );
+            progress.completedStage( "Table update skipped, incremental update not supported" );
+            return;
+        }
+
         progress.startingStage( "Validating Analytics Table " + tableType );
         String validState = tableManager.validState();
         progress.completedStage( validState );
@@ -120,26 +127,42 @@ public class DefaultAnalyticsTableService
         progress.runStage( () -> tableManager.preCreateTables( params ) );
         clock.logTime( "Performed pre-create table work " + tableType );
 
+        List<AnalyticsTablePartition> partitions = PartitionUtils.getTablePartitions( tables );
+
         progress.startingStage( "Dropping temp tables " + tableType, tables.size() );
         dropTempTables( tables, progress );
         clock.logTime( "Dropped temp tables" );
 
-        progress.startingStage( "Creating analytics tables " + tableType, tables.size() );
-        createTables( tables, progress );
-        clock.logTime( "Created analytics tables" );
+        if ( params.isIncrementalUpdate() )
+        {
+            progress.startingStage( "Dropping temp table partitions " + tableType, partitions.size() );
+            dropTempTablePartitions( partitions, progress );
+            clock.logTime( "Dropped temp table partitions" );
+        }
 
-        List<AnalyticsTablePartition> partitions = PartitionUtils.getTablePartitions( tables );
+        if ( params.isIncrementalUpdate() )
+        {
+            try
+            {
+                createAndPopulateTables( params, tables, partitions, progress, clock );
 
-        progress.startingStage( "Populating analytics tables " + tableType, partitions.size() );
-        populateTables( params, partitions, progress );
-        clock.logTime( "Populated analytics tables" );
+                progress.startingStage( "Merging analytics tables " + tableType, partitions.size() );
+                mergeTables( params, partitions, progress );
+                clock.logTime( "Merged analytics tables" );
+            }
+            finally
+            {
+                // Drop the temp tables also if the incremental update failed
 
-        progress.startingStage( "Invoking analytics table hooks " + tableType );
-        tableUpdates += progress.runStage( 0, tableManager::invokeAnalyticsTableSqlHooks );
-        clock.logTime( "Invoked analytics table hooks" );
+                partitions.forEach( partition -> tableManager.dropTable( partition.getTempTableName() ) );
+                tables.forEach( tableManager::dropTempTable );
+            }
 
-        tableUpdates += applyAggregationLevels( tableType, partitions, progress );
-        clock.logTime( "Applied aggregation levels" );
+            clock.logTime( "Incremental table update done: " + tableType.getTableName() );
+            return;
+        }
+
+        int tableUpdates = createAndPopulateTables( params, tables, partitions, progress, clock );
 
         if ( tableUpdates > 0 )
         {
@@ -193,6 +216,37 @@ public class DefaultAnalyticsTableService
     // Supportive methods
     // -------------------------------------------------------------------------
 
+    /**
+     * Creates and populates the given temporary analytics tables, invokes the
+     * analytics table hooks and applies aggregation levels.
+     *
+     * @return the number of table updates.
+     */
+    private int createAndPopulateTables( AnalyticsTableUpdateParams params, List<AnalyticsTable> tables,
+        List<AnalyticsTablePartition> partitions, JobProgress progress, Clock clock )
+    {
+        AnalyticsTableType tableType = getAnalyticsTableType();
+
+        int tableUpdates = 0;
+
+        progress.startingStage( "Creating analytics tables " + tableType, tables.size() );
+        createTables( tables, progress );
+        clock.logTime( "Created analytics tables" );
+
+        progress.startingStage( "Populating analytics tables " + tableType, partitions.size() );
+        populateTables( params, partitions, progress );
+        clock.logTime( "Populated analytics tables" );
+
+        progress.startingStage( "Invoking analytics table hooks " + tableType );
+        tableUpdates += progress.runStage( 0, tableManager::invokeAnalyticsTableSqlHooks );
+        clock.logTime( "Invoked analytics table hooks" );
+
+        tableUpdates += applyAggregationLevels( tableType, partitions, progress );
+        clock.logTime( "Applied aggregation levels" );
+
+        return tableUpdates;
+    }
+
     /**
      * Drops the given temporary analytics tables.
      */
@@ -201,6 +255,15 @@ public class DefaultAnalyticsTableService
         progress.runStage( tables, AnalyticsTable::getTableName, tableManager::dropTempTable );
     }
 
+    /**
+     * Drops the temporary tables of the given analytics table partitions.
+     */
+    private void dropTempTablePartitions( List<AnalyticsTablePartition> partitions, JobProgress progress )
+    {
+        progress.runStage( partitions, AnalyticsTablePartition::getTableName,
+            partition -> tableManager.dropTable( partition.getTempTableName() ) );
+    }
+
     /**
      * Creates the given analytics tables.
      */
@@ -284,6 +347,19 @@ public class DefaultAnalyticsTableService
             table -> tableManager.analyzeTable( table.getTempTableName() ) );
     }
 
+    /**
+     * Merges the given temporary analytics table partitions into the existing
+     * partitions and analyzes the existing partitions.
+     */
+    private void mergeTables( AnalyticsTableUpdateParams params, List<AnalyticsTablePartition> partitions,
+        JobProgress progress )
+    {
+        progress.runStage( partitions, AnalyticsTablePartition::getTableName, partition -> {
+            tableManager.mergeTablePartition( params, partition );
+            tableManager.analyzeTable( partition.getTableName() );
+        } );
+    }
+
     /**
      * Swaps the given analytics tables.
      *
@@ -45,6 +45,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -83,6 +84,7 @@ import org.hisp.dhis.util.ObjectUtils;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
@@ -102,6 +104,10 @@ import com.google.common.collect.Sets;
  * set dimensions.
  * <p>
  * This analytics table is partitioned by year.
+ * <p>
+ * This analytics table supports incremental updates, where the organisation
+ * unit and period slices which have data changed since the last successful
+ * update are replaced in the existing yearly partitions.
  *
  * @author Lars Helge Overland
  */
@@ -149,9 +155,22 @@ public class JdbcAnalyticsTableManager
     @Transactional
     public List<AnalyticsTable> getAnalyticsTables( AnalyticsTableUpdateParams params )
     {
-        AnalyticsTable table = params.isLatestUpdate()
-            ? getLatestAnalyticsTable( params, getDimensionColumns(), getValueColumns() )
-            : getRegularAnalyticsTable( params, getDataYears( params ), getDimensionColumns(), getValueColumns() );
+        AnalyticsTable table;
+
+        if ( params.isLatestUpdate() )
+        {
+            table = getLatestAnalyticsTable( params, getDimensionColumns(), getValueColumns() );
+        }
+        else if ( params.isIncrementalUpdate() )
+        {
+            table = getRegularAnalyticsTable( params, getIncrementalDataYears( params ), getDimensionColumns(),
+                getValueColumns() );
+        }
+        else
+        {
+            table = getRegularAnalyticsTable( params, getDataYears( params ), getDimensionColumns(),
+                getValueColumns() );
+        }
 
         return table.hasPartitionTables() ? newArrayList( table ) : newArrayList();
     }
@@ -218,6 +237,44 @@ public class JdbcAnalyticsTableManager
         invokeTimeAndLog( sql, "Remove updated data values" );
     }
 
+    @Override
+    public boolean isIncrementalUpdateSupported()
+    {
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public void mergeTablePartition( AnalyticsTableUpdateParams params, AnalyticsTablePartition partition )
+    {
+        final String tableName = partition.getTableName();
+        final String tempTableName = partition.getTempTableName();
+
+        String deleteSql = "delete from " + tableName + " ax " +
+            "using (" +
+            "select distinct ou.uid as ou, ps.iso as pe " +
+            "from datavalue dv " +
+            "inner join _periodstructure ps on dv.periodid=ps.periodid " +
+            "inner join organisationunit ou on dv.sourceid=ou.organisationunitid " +
+            getChangedDataClause( params ) +
+            "and ps.year = " + partition.getYear() + ") ch " +
+            "where ax.ou = ch.ou " +
+            "and ax.pe = ch.pe";
+
+        invokeTimeAndLog( deleteSql, String.format( "Remove changed slices from %s", tableName ) );
+
+        AnalyticsTable masterTable = partition.getMasterTable();
+
+        String columns = ListUtils.union( masterTable.getDimensionColumns(), masterTable.getValueColumns() ).stream()
+            .map( AnalyticsTableColumn::getName )
+            .collect( Collectors.joining( "," ) );
+
+        String insertSql = "insert into " + tableName + " (" + columns + ") " +
+            "select " + columns + " from " + tempTableName;
+
+        invokeTimeAndLog( insertSql, String.format( "Merge %s into %s", tempTableName, tableName ) );
+    }
+
     @Override
     protected List<String> getPartitionChecks( AnalyticsTablePartition partition )
     {
@@ -273,6 +330,10 @@ public class JdbcAnalyticsTableManager
         final String partitionClause = partition.isLatestPartition()
             ? "and dv.lastupdated >= '" + getLongDateString( partition.getStartDate() ) + "' "
             : "and ps.year = " + partition.getYear() + " ";
+        final String incrementalClause = params.isIncrementalUpdate()
+            ? "and (dv.sourceid, dv.periodid) in (" +
+                "select dv.sourceid, dv.periodid from datavalue dv " + getChangedDataClause( params ) + ") "
+            : "";
 
         String sql = "insert into " + partition.getTempTableName() + " (";
 
@@ -317,6 +378,7 @@ public class JdbcAnalyticsTableManager
             "where de.valuetype in (" + valTypes + ") " +
             "and de.domaintype = 'AGGREGATE' " +
             partitionClause +
+            incrementalClause +
             "and dv.lastupdated < '" + getLongDateString( params.getStartTime() ) + "' " +
             "and dv.value is not null " +
             "and dv.deleted is false ";
@@ -490,6 +552,69 @@ public class JdbcAnalyticsTableManager
         return jdbcTemplate.queryForList( sql, Integer.class );
     }
 
+    /**
+     * Returns the distinct years of data which was changed since the last
+     * successful update and for which an analytics table partition exists.
+     * Changed data for years without an existing partition is included by the
+     * next full analytics table update. Fails if periods of changed data are
+     * missing from the period structure resource table, as such data would
+     * otherwise be skipped by the incremental update.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     * @return a list of data years.
+     */
+    private List<Integer> getIncrementalDataYears( AnalyticsTableUpdateParams params )
+    {
+        Assert.notNull( params.getLastSuccessfulUpdate(),
+            "A full analytics table update process must be run prior to an incremental update process" );
+
+        String missingPeriodSql = "select exists (" +
+            "select 1 from datavalue dv " +
+            getChangedDataClause( params ) +
+            "and not exists (select 1 from _periodstructure ps where ps.periodid=dv.periodid))";
+
+        Assert.state( !Boolean.TRUE.equals( jdbcTemplate.queryForObject( missingPeriodSql, Boolean.class ) ),
+            "Periods of changed data are missing from the period structure, resource tables must be " +
+                "generated prior to an incremental update process" );
+
+        String sql = "select distinct(ps.year) " +
+            "from datavalue dv " +
+            "inner join _periodstructure ps on dv.periodid=ps.periodid " +
+            getChangedDataClause( params );
+
+        List<Integer> years = new ArrayList<>();
+
+        for ( Integer year : jdbcTemplate.queryForList( sql, Integer.class ) )
+        {
+            if ( partitionManager.tableExists( PartitionUtils.getPartitionName( getTableName(), year ) ) )
+            {
+                years.add( year );
+            }
+            else
+            {
+                log.warn( "No analytics table partition exists for year with changed data: {}", year );
+            }
+        }
+
+        log.info( "Found changed data for years: {} since: '{}'", years,
+            getLongDateString( params.getIncrementalFromTime() ) );
+
+        return years;
+    }
+
+    /**
+     * Returns a where clause matching data values which were changed, i.e.
+     * created, updated or deleted, since the last successful update and before
+     * the start time of the update process.
+     *
+     * @param params the {@link AnalyticsTableUpdateParams}.
+     */
+    private String getChangedDataClause( AnalyticsTableUpdateParams params )
+    {
+        return "where dv.lastupdated >= '" + getLongDateString( params.getIncrementalFromTime() ) + "' " +
+            "and dv.lastupdated < '" + getLongDateString( params.getStartTime() ) + "' ";
+    }
+
     @Override
     public void applyAggregationLevels( AnalyticsTablePartition partition,
         Collection<String> dataElements, int aggregationLevel )
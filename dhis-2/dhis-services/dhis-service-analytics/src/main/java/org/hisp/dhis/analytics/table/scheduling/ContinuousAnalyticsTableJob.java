@@ -59,7 +59,9 @@ import com.google.common.base.Preconditions;
  * update time is persisted using a system setting. A full analytics table
  * update is performed when the current time is after the next scheduled full
  * update time. Otherwise, a partial update of the latest analytics partition
- * table is performed.
+ * table is performed, or an incremental update of the existing analytics table
+ * partitions if {@link ContinuousAnalyticsJobParameters#isIncrementalUpdate()}
+ * is set.
  *
  * @author Lars Helge Overland
  */
@@ -129,6 +131,20 @@ public class ContinuousAnalyticsTableJob implements Job
                 log.info( "Next full analytics table update: '{}'", getLongDateString( nextUpdate ) );
             }
         }
+        else if ( parameters.isIncrementalUpdate() )
+        {
+            log.info( "Performing incremental analytics table update" );
+
+            AnalyticsTableUpdateParams params = AnalyticsTableUpdateParams.newBuilder()
+                .withIncrementalUpdate( true )
+                .withSkipResourceTables( true )
+                .withSkipTableTypes( parameters.getSkipTableTypes() )
+                .withJobId( jobConfiguration )
+                .withStartTime( now )
+                .build();
+
+            analyticsTableGenerator.generateTables( params, progress );
+        }
         else
         {
             log.info( "Performing latest analytics table partition update" );
@@ -28,12 +28,19 @@
 package org.hisp.dhis.analytics.cache;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.hisp.dhis.analytics.DataQueryParams;
 import org.hisp.dhis.cache.Cache;
@@ -124,4 +131,117 @@ class AnalyticsCacheTest
 
         assertEquals( 2, optCachedGrid.get().getRows().size() );
     }
+
+    @Test
+    void copyCachedObjectOnWriteOnly()
+    {
+        // arrange
+        final AnalyticsCacheSettings settings = new AnalyticsCacheSettings( systemSettingManager );
+
+        final CacheBuilder<Grid> cacheBuilder = new SimpleCacheBuilder<>();
+
+        cacheBuilder.expireAfterWrite( 1L, TimeUnit.MINUTES );
+
+        Mockito.<Cache<Grid>> when( cacheProvider.createAnalyticsResponseCache( any( Duration.class ) ) )
+            .thenReturn( new LocalCache<>( cacheBuilder ) );
+
+        final AnalyticsCache analyticsCache = new AnalyticsCache( cacheProvider, settings );
+
+        final Grid grid = new ListGrid();
+        grid.addHeader( new GridHeader( "Header1" ) )
+            .addRow()
+            .addValue( "Value11" );
+
+        analyticsCache.put( "key", grid, 60 );
+
+        // act, assert
+        final Grid cachedGrid = analyticsCache.get( "key" ).get();
+
+        assertTrue( cachedGrid instanceof CopyOnWriteGrid );
+        assertTrue( ((CopyOnWriteGrid) cachedGrid).isShared() );
+        assertEquals( "Value11", cachedGrid.getValue( 0, 0 ) );
+        assertThrows( UnsupportedOperationException.class, () -> cachedGrid.getRow( 0 ).add( "Value12" ) );
+        assertThrows( UnsupportedOperationException.class, () -> cachedGrid.getRows().get( 0 ).clear() );
+
+        cachedGrid.addHeader( new GridHeader( "Header2" ) )
+            .addRow()
+            .addValue( "Value21" );
+
+        assertFalse( ((CopyOnWriteGrid) cachedGrid).isShared() );
+        assertEquals( 2, cachedGrid.getHeaderWidth() );
+        assertEquals( 2, cachedGrid.getHeight() );
+
+        final Grid otherCachedGrid = analyticsCache.get( "key" ).get();
+
+        assertEquals( 1, otherCachedGrid.getHeaderWidth() );
+        assertEquals( 1, otherCachedGrid.getHeight() );
+    }
+
+    @Test
+    void fetchOnceForConcurrentRequests()
+        throws Exception
+    {
+        // arrange
+        final AnalyticsCacheSettings settings = new AnalyticsCacheSettings( systemSettingManager );
+
+        final CacheBuilder<Grid> cacheBuilder = new SimpleCacheBuilder<>();
+
+        cacheBuilder.expireAfterWrite( 1L, TimeUnit.MINUTES );
+
+        Mockito.<Cache<Grid>> when( cacheProvider.createAnalyticsResponseCache( any( Duration.class ) ) )
+            .thenReturn( new LocalCache<>( cacheBuilder ) );
+
+        final AnalyticsCache analyticsCache = new AnalyticsCache( cacheProvider, settings );
+
+        final DataQueryParams params = DataQueryParams.newBuilder()
+            .withDataElements( Lists.newArrayList( new DataElement( "dataElementA" ) ) )
+            .build();
+
+        final AtomicInteger fetches = new AtomicInteger();
+        final CountDownLatch fetchStarted = new CountDownLatch( 1 );
+        final CountDownLatch fetchReleased = new CountDownLatch( 1 );
+
+        final ExecutorService executor = Executors.newFixedThreadPool( 2 );
+
+        // act
+        try
+        {
+            Future<Grid> first = executor.submit( () -> analyticsCache.getOrFetch( params, p -> {
+                fetches.incrementAndGet();
+                fetchStarted.countDown();
+                awaitQuietly( fetchReleased );
+                return new ListGrid().addHeader( new GridHeader( "Header1" ) );
+            } ) );
+
+            assertTrue( fetchStarted.await( 10, TimeUnit.SECONDS ) );
+
+            Future<Grid> second = executor.submit( () -> analyticsCache.getOrFetch( params, p -> {
+                fetches.incrementAndGet();
+                return new ListGrid();
+            } ) );
+
+            fetchReleased.countDown();
+
+            // assert
+            assertEquals( 1, first.get( 10, TimeUnit.SECONDS ).getHeaderWidth() );
+            assertEquals( 1, second.get( 10, TimeUnit.SECONDS ).getHeaderWidth() );
+            assertEquals( 1, fetches.get() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly( CountDownLatch latch )
+    {
+        try
+        {
+            latch.await( 10, TimeUnit.SECONDS );
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.analytics.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.hisp.dhis.common.QueryRejectedException;
+import org.hisp.dhis.feedback.ErrorCode;
+import org.hisp.dhis.user.CurrentUserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith( MockitoExtension.class )
+class AnalyticsQueryExecutorTest
+{
+    @Mock
+    private CurrentUserService currentUserService;
+
+    private AnalyticsQueryExecutor subject;
+
+    @AfterEach
+    void tearDown()
+    {
+        subject.shutdown();
+    }
+
+    @Test
+    void returnResultsInQueryOrder()
+    {
+        subject = new AnalyticsQueryExecutor( currentUserService, 2, 10, 1 );
+
+        List<Callable<String>> queries = Arrays.asList( () -> {
+            Thread.sleep( 50 );
+            return "A";
+        }, () -> "B", () -> "C" );
+
+        assertEquals( Arrays.asList( "A", "B", "C" ), subject.executeAll( queries ) );
+    }
+
+    @Test
+    void cancelRemainingQueriesOnFailure()
+    {
+        subject = new AnalyticsQueryExecutor( currentUserService, 2, 10, 1 );
+
+        IllegalStateException failure = new IllegalStateException( "Failed" );
+        AtomicBoolean completed = new AtomicBoolean();
+
+        List<Callable<String>> queries = Arrays.asList( () -> {
+            Thread.sleep( 10_000 );
+            completed.set( true );
+            return "A";
+        }, () -> {
+            throw failure;
+        } );
+
+        assertSame( failure, assertThrows( IllegalStateException.class, () -> subject.executeAll( queries ) ) );
+        assertFalse( completed.get() );
+    }
+
+    @Test
+    void rejectQueriesWhenQueueIsFull()
+    {
+        subject = new AnalyticsQueryExecutor( currentUserService, 1, 1, 1 );
+
+        Callable<String> query = () -> {
+            Thread.sleep( 1_000 );
+            return "A";
+        };
+
+        List<Callable<String>> queries = Arrays.asList( query, query, query, query );
+
+        QueryRejectedException ex = assertThrows( QueryRejectedException.class,
+            () -> subject.executeAll( queries ) );
+
+        assertEquals( ErrorCode.E7135, ex.getErrorCode() );
+        assertFalse( ex.isUserLimit() );
+    }
+
+    @Test
+    void rejectRequestsOverUserLimit()
+        throws Exception
+    {
+        subject = new AnalyticsQueryExecutor( currentUserService, 2, 10, 1 );
+
+        when( currentUserService.getCurrentUsername() ).thenReturn( "admin" );
+
+        CountDownLatch started = new CountDownLatch( 1 );
+        CountDownLatch released = new CountDownLatch( 1 );
+
+        List<Callable<String>> firstQueries = Arrays.asList( () -> {
+            started.countDown();
+            released.await( 10, TimeUnit.SECONDS );
+            return "A";
+        } );
+
+        List<Callable<String>> secondQueries = Arrays.asList( () -> "B" );
+
+        ExecutorService requests = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            Future<List<String>> first = requests
+                .submit( () -> subject.executeRequest( () -> subject.executeAll( firstQueries ) ) );
+
+            assertTrue( started.await( 10, TimeUnit.SECONDS ) );
+
+            QueryRejectedException ex = assertThrows( QueryRejectedException.class,
+                () -> subject.executeRequest( () -> subject.executeAll( secondQueries ) ) );
+
+            assertEquals( ErrorCode.E7134, ex.getErrorCode() );
+            assertTrue( ex.isUserLimit() );
+
+            released.countDown();
+
+            assertEquals( Arrays.asList( "A" ), first.get( 10, TimeUnit.SECONDS ) );
+            assertEquals( Arrays.asList( "B" ),
+                subject.executeRequest( () -> subject.executeAll( secondQueries ) ) );
+        }
+        finally
+        {
+            requests.shutdownNow();
+        }
+    }
+
+    @Test
+    void shareUserPermitWithinRequest()
+    {
+        subject = new AnalyticsQueryExecutor( currentUserService, 2, 10, 1 );
+
+        when( currentUserService.getCurrentUsername() ).thenReturn( "admin" );
+
+        List<String> results = subject.executeRequest( () -> {
+            List<String> first = subject.executeAll( Arrays.asList( () -> "A" ) );
+            List<String> nested = subject.executeRequest( () -> subject.executeAll( Arrays.asList( () -> "B" ) ) );
+
+            return Arrays.asList( first.get( 0 ), nested.get( 0 ) );
+        } );
+
+        assertEquals( Arrays.asList( "A", "B" ), results );
+        assertEquals( Arrays.asList( "C" ),
+            subject.executeRequest( () -> subject.executeAll( Arrays.asList( () -> "C" ) ) ) );
+    }
+
+    @Test
+    void acceptConcurrentRequestsWithoutUserLimit()
+        throws Exception
+    {
+        subject = new AnalyticsQueryExecutor( currentUserService, 2, 10, 0 );
+
+        CountDownLatch started = new CountDownLatch( 1 );
+        CountDownLatch released = new CountDownLatch( 1 );
+
+        List<Callable<String>> firstQueries = Arrays.asList( () -> {
+            started.countDown();
+            released.await( 10, TimeUnit.SECONDS );
+            return "A";
+        } );
+
+        ExecutorService requests = Executors.newSingleThreadExecutor();
+
+        try
+        {
+            Future<List<String>> first = requests
+                .submit( () -> subject.executeRequest( () -> subject.executeAll( firstQueries ) ) );
+
+            assertTrue( started.await( 10, TimeUnit.SECONDS ) );
+
+            assertEquals( Arrays.asList( "B" ),
+                subject.executeRequest( () -> subject.executeAll( Arrays.asList( () -> "B" ) ) ) );
+
+            released.countDown();
+
+            assertEquals( Arrays.asList( "A" ), first.get( 10, TimeUnit.SECONDS ) );
+        }
+        finally
+        {
+            requests.shutdownNow();
+        }
+    }
+}
@@ -54,6 +54,8 @@ import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.setting.SettingKey;
 import org.hisp.dhis.setting.SystemSettingManager;
+import org.hisp.dhis.user.CurrentUserService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -118,6 +120,11 @@ abstract class AnalyticsServiceBaseTest
     @Mock
     private NestedIndicatorCyclicDependencyInspector nestedIndicatorCyclicDependencyInspector;
 
+    @Mock
+    private CurrentUserService currentUserService;
+
+    private AnalyticsQueryExecutor queryExecutor;
+
     DataAggregator target;
 
     @BeforeEach
@@ -127,11 +134,12 @@ abstract class AnalyticsServiceBaseTest
 
         HeaderHandler headerHandler = new HeaderHandler();
         MetadataHandler metadataHandler = new MetadataHandler( dataQueryService, schemaIdResponseMapper );
+        queryExecutor = new AnalyticsQueryExecutor( currentUserService, 2, 100, 4 );
         DataHandler dataHandler = new DataHandler( eventAnalyticsService, rawAnalyticsManager, constantService,
             resolvers, expressionService, queryPlanner, queryValidator, systemSettingManager, analyticsManager,
-            organisationUnitService );
+            organisationUnitService, queryExecutor );
 
-        target = new DataAggregator( headerHandler, metadataHandler, dataHandler );
+        target = new DataAggregator( headerHandler, metadataHandler, dataHandler, queryExecutor );
         target.feedHandlers();
 
         when( systemSettingManager.getBooleanSetting( SettingKey.ANALYTICS_MAINTENANCE_MODE ) )
@@ -139,6 +147,12 @@ abstract class AnalyticsServiceBaseTest
         when( analyticsCacheSettings.fixedExpirationTimeOrDefault() ).thenReturn( 0L );
     }
 
+    @AfterEach
+    public void baseTearDown()
+    {
+        queryExecutor.shutdown();
+    }
+
     void initMock( DataQueryParams params )
     {
         when( securityManager.withDataApprovalConstraints( Mockito.any( DataQueryParams.class ) ) )
@@ -82,6 +82,9 @@ class JdbcAnalyticsTableManagerTest
     @Mock
     private JdbcTemplate jdbcTemplate;
 
+    @Mock
+    private PartitionManager partitionManager;
+
     private AnalyticsTableManager subject;
 
     @BeforeEach
@@ -91,7 +94,7 @@ class JdbcAnalyticsTableManagerTest
             mock( OrganisationUnitService.class ),
             mock( CategoryService.class ), systemSettingManager, mock( DataApprovalLevelService.class ),
             mock( ResourceTableService.class ), mock( AnalyticsTableHookService.class ), mock( StatementBuilder.class ),
-            mock( PartitionManager.class ), mock( DatabaseInfo.class ), jdbcTemplate );
+            partitionManager, mock( DatabaseInfo.class ), jdbcTemplate );
     }
 
     @Test
@@ -187,4 +190,70 @@ class JdbcAnalyticsTableManagerTest
             .thenReturn( lastLatestPartitionUpdate );
         assertThrows( IllegalArgumentException.class, () -> subject.getAnalyticsTables( params ) );
     }
+
+    @Test
+    void testGetIncrementalAnalyticsTable()
+    {
+        Date lastFullTableUpdate = new DateTime( 2019, 3, 1, 2, 0 ).toDate();
+        Date lastIncrementalUpdate = new DateTime( 2019, 3, 1, 9, 0 ).toDate();
+        Date startTime = new DateTime( 2019, 3, 1, 10, 0 ).toDate();
+        List<Integer> dataYears = Lists.newArrayList( 2018, 2019 );
+
+        AnalyticsTableUpdateParams params = AnalyticsTableUpdateParams.newBuilder()
+            .withStartTime( startTime )
+            .withIncrementalUpdate( true )
+            .withLastSuccessfulUpdate( lastFullTableUpdate )
+            .withLastSuccessfulIncrementalUpdate( lastIncrementalUpdate )
+            .build();
+
+        when( jdbcTemplate.queryForList( Mockito.anyString(), ArgumentMatchers.<Class<Integer>> any() ) )
+            .thenReturn( dataYears );
+        when( partitionManager.tableExists( "analytics_2018" ) ).thenReturn( false );
+        when( partitionManager.tableExists( "analytics_2019" ) ).thenReturn( true );
+
+        List<AnalyticsTable> tables = subject.getAnalyticsTables( params );
+
+        assertEquals( lastIncrementalUpdate, params.getIncrementalFromTime() );
+        assertEquals( 1, tables.size() );
+
+        AnalyticsTable table = tables.get( 0 );
+
+        assertEquals( 1, table.getTablePartitions().size() );
+
+        AnalyticsTablePartition partition = table.getTablePartitions().get( 0 );
+
+        assertEquals( 2019, partition.getYear().intValue() );
+        assertEquals( "analytics_2019", partition.getTableName() );
+    }
+
+    @Test
+    void testGetIncrementalAnalyticsTableNoFullTableUpdate()
+    {
+        Date startTime = new DateTime( 2019, 3, 1, 10, 0 ).toDate();
+
+        AnalyticsTableUpdateParams params = AnalyticsTableUpdateParams.newBuilder()
+            .withStartTime( startTime )
+            .withIncrementalUpdate( true )
+            .build();
+
+        assertThrows( IllegalArgumentException.class, () -> subject.getAnalyticsTables( params ) );
+    }
+
+    @Test
+    void testGetIncrementalAnalyticsTableMissingPeriods()
+    {
+        Date lastFullTableUpdate = new DateTime( 2019, 3, 1, 2, 0 ).toDate();
+        Date startTime = new DateTime( 2019, 3, 1, 10, 0 ).toDate();
+
+        AnalyticsTableUpdateParams params = AnalyticsTableUpdateParams.newBuilder()
+            .withStartTime( startTime )
+            .withIncrementalUpdate( true )
+            .withLastSuccessfulUpdate( lastFullTableUpdate )
+            .build();
+
+        when( jdbcTemplate.queryForObject( Mockito.anyString(), ArgumentMatchers.<Class<Boolean>> any() ) )
+            .thenReturn( true );
+
+        assertThrows( IllegalStateException.class, () -> subject.getAnalyticsTables( params ) );
+    }
 }
@@ -29,6 +29,7 @@ package org.hisp.dhis.audit;
 
 import java.io.IOException;
 
+import javax.jms.JMSException;
 import javax.jms.TextMessage;
 
 import lombok.extern.slf4j.Slf4j;
@@ -36,13 +37,18 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
+ * Base class of audit consumers. Messages are consumed in client acknowledge
+ * mode and acknowledged in bulk, once the audits of all messages consumed so
+ * far are saved by the {@link AuditBatchWriter}. Acknowledging a message
+ * acknowledges all messages consumed by the session before it.
+ *
  * @author Morten Olav Hansen <mortenoh@gmail.com>
  */
 @Slf4j
 public abstract class AbstractAuditConsumer
     implements AuditConsumer
 {
-    protected AuditService auditService;
+    protected AuditBatchWriter auditBatchWriter;
 
     protected ObjectMapper objectMapper;
 
@@ -50,7 +56,38 @@ public abstract class AbstractAuditConsumer
 
     protected boolean isAuditDatabaseEnabled;
 
+    /**
+     * Number of consumed messages which are not acknowledged yet. Each
+     * consumer is invoked by a single listener thread.
+     */
+    private int unacknowledged;
+
     protected void _consume( TextMessage message )
+    {
+        org.hisp.dhis.audit.Audit audit = toAudit( message );
+
+        if ( audit != null && isAuditDatabaseEnabled )
+        {
+            try
+            {
+                auditBatchWriter.add( audit );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException( "Interrupted while buffering audit", e );
+            }
+        }
+
+        acknowledge( message );
+    }
+
+    /**
+     * Reads the audit of the given message, and logs it if enabled.
+     *
+     * @return the audit, or null if the message could not be read.
+     */
+    private org.hisp.dhis.audit.Audit toAudit( TextMessage message )
     {
         try
         {
@@ -69,10 +106,7 @@ public abstract class AbstractAuditConsumer
                 log.info( objectMapper.writeValueAsString( audit ) );
             }
 
-            if ( isAuditDatabaseEnabled )
-            {
-                auditService.addAudit( audit );
-            }
+            return audit;
         }
         catch ( IOException e )
         {
@@ -82,7 +116,39 @@ public abstract class AbstractAuditConsumer
         }
         catch ( Exception e )
         {
-            log.error( "An error occurred persisting an Audit message of type 'TRACKER'", e );
+            log.error( "An error occurred reading an Audit message", e );
+        }
+
+        return null;
+    }
+
+    /**
+     * Acknowledges the consumed messages when a batch worth of messages is
+     * consumed, after the buffered audits are saved. Failures are thrown, so
+     * that the listener container recovers the session and unacknowledged
+     * messages are delivered again.
+     */
+    private void acknowledge( TextMessage message )
+    {
+        if ( ++unacknowledged < auditBatchWriter.getBatchSize() )
+        {
+            return;
+        }
+
+        try
+        {
+            auditBatchWriter.flush();
+            message.acknowledge();
+            unacknowledged = 0;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Interrupted while saving audits", e );
+        }
+        catch ( JMSException e )
+        {
+            throw new IllegalStateException( "Acknowledging audit messages failed", e );
         }
     }
 }
@@ -0,0 +1,383 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.audit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static org.hisp.dhis.external.conf.ConfigurationKey.AUDIT_DATABASE_BATCH_SIZE;
+import static org.hisp.dhis.external.conf.ConfigurationKey.AUDIT_DATABASE_BATCH_WAIT;
+import static org.hisp.dhis.external.conf.ConfigurationKey.AUDIT_DATABASE_QUEUE_SIZE;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Buffers audits consumed from the audit topics and saves them to the database
+ * in batches. A batch is saved when it reaches the batch size or when its
+ * oldest audit has waited for the max batch wait time.
+ *
+ * The buffer is bounded. When the database falls behind and the buffer is
+ * full, consumers wait for space, which slows down consumption from the
+ * broker. Consumers acknowledge messages after {@link #flush()} returned, so
+ * that only saved audits are acknowledged. When a batch fails, its audits are
+ * saved one by one, so that a single invalid audit does not fail the entire
+ * batch.
+ */
+@Slf4j
+@Component
+public class AuditBatchWriter
+    implements MeterBinder
+{
+    private final AuditService auditService;
+
+    private final BlockingQueue<Audit> queue;
+
+    private final int batchSize;
+
+    private final long batchWaitMillis;
+
+    private volatile Thread writer;
+
+    private volatile boolean running;
+
+    /**
+     * Lock held while buffering an audit, so that audits are counted in
+     * buffer order.
+     */
+    private final Object addLock = new Object();
+
+    /**
+     * Number of buffered audits, incremented while holding {@link #addLock}.
+     */
+    private final AtomicLong added = new AtomicLong();
+
+    /**
+     * Number of processed audits, guarded by {@link #processedLock}.
+     */
+    private long processed;
+
+    private final Object processedLock = new Object();
+
+    private final LongAdder batches = new LongAdder();
+
+    private final LongAdder written = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final AtomicLong lastBatchSize = new AtomicLong();
+
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    @Autowired
+    public AuditBatchWriter( AuditService auditService, DhisConfigurationProvider config )
+    {
+        this( auditService,
+            Integer.parseInt( config.getProperty( AUDIT_DATABASE_BATCH_SIZE ) ),
+            Long.parseLong( config.getProperty( AUDIT_DATABASE_BATCH_WAIT ) ),
+            Integer.parseInt( config.getProperty( AUDIT_DATABASE_QUEUE_SIZE ) ) );
+    }
+
+    /**
+     * @param auditService the {@link AuditService}.
+     * @param batchSize the max number of audits per batch.
+     * @param batchWaitMillis the max milliseconds to wait for a batch to fill.
+     * @param queueSize the max number of buffered audits.
+     */
+    public AuditBatchWriter( AuditService auditService, int batchSize, long batchWaitMillis, int queueSize )
+    {
+        checkNotNull( auditService );
+        checkArgument( batchSize > 0, "Batch size must be greater than zero" );
+        checkArgument( batchWaitMillis > 0, "Batch wait must be greater than zero" );
+        checkArgument( queueSize >= batchSize, "Queue size must not be smaller than batch size" );
+
+        this.auditService = auditService;
+        this.batchSize = batchSize;
+        this.batchWaitMillis = batchWaitMillis;
+        this.queue = new ArrayBlockingQueue<>( queueSize );
+    }
+
+    /**
+     * Starts the writer thread.
+     */
+    @PostConstruct
+    public void start()
+    {
+        checkState( writer == null, "Audit batch writer is already started" );
+
+        running = true;
+
+        writer = new Thread( this::run, "AUDIT-BATCH-WRITER" );
+        writer.setDaemon( true );
+        writer.start();
+    }
+
+    /**
+     * Buffers the given audit for saving. Waits for space in the buffer if it
+     * is full.
+     *
+     * @param audit the {@link Audit}.
+     * @throws InterruptedException if interrupted while waiting for space.
+     * @throws IllegalStateException if the writer is not running.
+     */
+    public void add( Audit audit )
+        throws InterruptedException
+    {
+        synchronized ( addLock )
+        {
+            checkState( running, "Audit batch writer is not running" );
+
+            queue.put( audit );
+            added.incrementAndGet();
+        }
+    }
+
+    /**
+     * Waits until all audits buffered before this call are processed, that is
+     * saved or, if they could not be saved individually, logged as failed.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws IllegalStateException if the writer stopped before the audits
+     *         were processed.
+     */
+    public void flush()
+        throws InterruptedException
+    {
+        long target = added.get();
+
+        synchronized ( processedLock )
+        {
+            while ( processed < target )
+            {
+                checkState( writer != null && writer.isAlive(),
+                    "Audit batch writer stopped before audits were saved" );
+
+                processedLock.wait( batchWaitMillis );
+            }
+        }
+    }
+
+    /**
+     * Returns the max number of audits per batch.
+     */
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    @Override
+    public void bindTo( MeterRegistry registry )
+    {
+        Gauge.builder( "audit.database.queue.size", queue, BlockingQueue::size )
+            .description( "Number of audits waiting to be saved" )
+            .register( registry );
+
+        Gauge.builder( "audit.database.batch.size", lastBatchSize, AtomicLong::doubleValue )
+            .description( "Number of audits in the last saved batch" )
+            .register( registry );
+
+        Gauge.builder( "audit.database.lag", lagMillis, AtomicLong::doubleValue )
+            .description( "Milliseconds between creation and saving of the oldest audit of the last batch" )
+            .baseUnit( "milliseconds" )
+            .register( registry );
+
+        FunctionCounter.builder( "audit.database.batches", batches, LongAdder::doubleValue )
+            .description( "Number of saved audit batches" )
+            .register( registry );
+
+        FunctionCounter.builder( "audit.database.written", written, LongAdder::doubleValue )
+            .description( "Number of saved audits" )
+            .register( registry );
+
+        FunctionCounter.builder( "audit.database.failed", failed, LongAdder::doubleValue )
+            .description( "Number of audits which failed to save" )
+            .register( registry );
+    }
+
+    /**
+     * Stops accepting new audits, saves the buffered audits and waits for the
+     * writer to finish.
+     */
+    @PreDestroy
+    public void shutdown()
+    {
+        synchronized ( addLock )
+        {
+            running = false;
+        }
+
+        if ( writer == null )
+        {
+            return;
+        }
+
+        try
+        {
+            writer.join( TimeUnit.SECONDS.toMillis( 30 ) );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void run()
+    {
+        List<Audit> batch = new ArrayList<>( batchSize );
+
+        while ( running || !queue.isEmpty() )
+        {
+            try
+            {
+                fillBatch( batch );
+            }
+            catch ( InterruptedException e )
+            {
+                running = false;
+            }
+
+            if ( !batch.isEmpty() )
+            {
+                write( batch );
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Adds buffered audits to the given batch until it is full or the batch
+     * wait time has passed since the first audit was added.
+     */
+    private void fillBatch( List<Audit> batch )
+        throws InterruptedException
+    {
+        Audit first = queue.poll( batchWaitMillis, TimeUnit.MILLISECONDS );
+
+        if ( first == null )
+        {
+            return;
+        }
+
+        batch.add( first );
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( batchWaitMillis );
+
+        while ( batch.size() < batchSize && running )
+        {
+            if ( queue.drainTo( batch, batchSize - batch.size() ) > 0 )
+            {
+                continue;
+            }
+
+            long remaining = deadline - System.nanoTime();
+
+            Audit next = remaining > 0 ? queue.poll( remaining, TimeUnit.NANOSECONDS ) : null;
+
+            if ( next == null )
+            {
+                return;
+            }
+
+            batch.add( next );
+        }
+    }
+
+    private void write( List<Audit> batch )
+    {
+        try
+        {
+            auditService.addAudits( batch );
+            written.add( batch.size() );
+        }
+        catch ( Exception e )
+        {
+            log.error( String.format( "Saving batch of %d audits failed, saving audits individually",
+                batch.size() ), e );
+
+            writeIndividually( batch );
+        }
+
+        batches.increment();
+        lastBatchSize.set( batch.size() );
+
+        synchronized ( processedLock )
+        {
+            processed += batch.size();
+            processedLock.notifyAll();
+        }
+
+        LocalDateTime createdAt = batch.get( 0 ).getCreatedAt();
+
+        if ( createdAt != null )
+        {
+            lagMillis.set( Duration.between( createdAt, LocalDateTime.now() ).toMillis() );
+        }
+    }
+
+    private void writeIndividually( List<Audit> batch )
+    {
+        for ( Audit audit : batch )
+        {
+            try
+            {
+                auditService.addAudit( audit );
+                written.increment();
+            }
+            catch ( Exception e )
+            {
+                failed.increment();
+                log.error( "An error occurred persisting an Audit message for object: " + audit.getUid(), e );
+            }
+        }
+    }
+}
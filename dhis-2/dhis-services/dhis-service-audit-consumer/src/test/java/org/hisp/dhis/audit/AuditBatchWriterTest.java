@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AuditBatchWriterTest
+{
+    private AuditService auditService;
+
+    private List<Integer> batchSizes;
+
+    @BeforeEach
+    void setUp()
+    {
+        auditService = mock( AuditService.class );
+        batchSizes = Collections.synchronizedList( new ArrayList<>() );
+
+        doAnswer( invocation -> {
+            List<?> audits = invocation.getArgument( 0 );
+            batchSizes.add( audits.size() );
+            return null;
+        } ).when( auditService ).addAudits( anyList() );
+    }
+
+    @Test
+    void testWritesAuditsInBatches()
+        throws InterruptedException
+    {
+        AuditBatchWriter writer = startWriter( 10, 50, 100 );
+
+        for ( int i = 0; i < 25; i++ )
+        {
+            writer.add( audit() );
+        }
+
+        writer.shutdown();
+
+        assertEquals( 25, batchSizes.stream().mapToInt( Integer::intValue ).sum() );
+        assertTrue( batchSizes.stream().allMatch( size -> size <= 10 ) );
+    }
+
+    @Test
+    void testWritesPartialBatchAfterWait()
+        throws InterruptedException
+    {
+        AuditBatchWriter writer = startWriter( 10, 200, 100 );
+
+        writer.add( audit() );
+        writer.add( audit() );
+
+        Thread.sleep( 1000 );
+
+        assertEquals( List.of( 2 ), batchSizes );
+
+        writer.shutdown();
+    }
+
+    @Test
+    void testWritesAuditsIndividuallyWhenBatchFails()
+        throws InterruptedException
+    {
+        doThrow( new RuntimeException( "Batch failed" ) ).when( auditService ).addAudits( anyList() );
+
+        AuditBatchWriter writer = startWriter( 10, 50, 100 );
+
+        writer.add( audit() );
+        writer.add( audit() );
+        writer.add( audit() );
+
+        writer.shutdown();
+
+        verify( auditService, times( 3 ) ).addAudit( any( Audit.class ) );
+    }
+
+    @Test
+    void testFlushWaitsForBufferedAudits()
+        throws InterruptedException
+    {
+        AuditBatchWriter writer = startWriter( 10, 200, 100 );
+
+        writer.add( audit() );
+        writer.add( audit() );
+        writer.add( audit() );
+        writer.flush();
+
+        assertEquals( 3, batchSizes.stream().mapToInt( Integer::intValue ).sum() );
+
+        writer.shutdown();
+    }
+
+    @Test
+    void testRejectsAuditsWhenNotRunning()
+        throws InterruptedException
+    {
+        AuditBatchWriter writer = new AuditBatchWriter( auditService, 10, 50, 100 );
+
+        assertThrows( IllegalStateException.class, () -> writer.add( audit() ) );
+
+        writer.start();
+        writer.add( audit() );
+        writer.shutdown();
+
+        assertEquals( List.of( 1 ), batchSizes );
+        assertThrows( IllegalStateException.class, () -> writer.add( audit() ) );
+    }
+
+    private AuditBatchWriter startWriter( int batchSize, long batchWaitMillis, int queueSize )
+    {
+        AuditBatchWriter writer = new AuditBatchWriter( auditService, batchSize, batchWaitMillis, queueSize );
+        writer.start();
+        return writer;
+    }
+
+    private Audit audit()
+    {
+        return Audit.builder()
+            .auditType( AuditType.CREATE )
+            .auditScope( AuditScope.TRACKER )
+            .createdAt( LocalDateTime.now() )
+            .createdBy( "admin" )
+            .build();
+    }
+}
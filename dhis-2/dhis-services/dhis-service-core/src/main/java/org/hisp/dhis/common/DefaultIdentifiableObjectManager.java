@@ -1016,18 +1016,17 @@ public class DefaultIdentifiableObjectManager
                 if ( p.isCollection() )
                 {
                     Collection<?> targetObject = ReflectionUtils.newCollectionInstance( parameterType );
-                    ReflectionUtils.invokeMethod( object, p.getSetterMethod(), targetObject );
+                    p.getAccessor().set( object, targetObject );
                 }
                 else
                 {
                     if ( Primitives.isPrimitive( parameterType ) )
                     {
-                        ReflectionUtils.invokeMethod( object, p.getSetterMethod(),
-                            Defaults.defaultValue( parameterType ) );
+                        p.getAccessor().set( object, Defaults.defaultValue( parameterType ) );
                     }
                     else
                     {
-                        ReflectionUtils.invokeMethod( object, p.getSetterMethod(), (Object) null );
+                        p.getAccessor().set( object, null );
                     }
                 }
             } );
@@ -84,8 +84,8 @@ import java.util.stream.Stream;
 
 import lombok.extern.slf4j.Slf4j;
 
+import org.antlr.v4.runtime.tree.ParseTree;
 import org.hisp.dhis.analytics.DataType;
-import org.hisp.dhis.antlr.Parser;
 import org.hisp.dhis.antlr.ParserException;
 import org.hisp.dhis.cache.Cache;
 import org.hisp.dhis.cache.CacheProvider;
@@ -120,6 +120,7 @@ import org.hisp.dhis.organisationunit.OrganisationUnitService;
 import org.hisp.dhis.parser.expression.CommonExpressionVisitor;
 import org.hisp.dhis.parser.expression.ExpressionItem;
 import org.hisp.dhis.parser.expression.ExpressionItemMethod;
+import org.hisp.dhis.parser.expression.ParserUtils;
 import org.hisp.dhis.parser.expression.function.PeriodOffset;
 import org.hisp.dhis.parser.expression.function.VectorAvg;
 import org.hisp.dhis.parser.expression.function.VectorCount;
@@ -251,6 +252,12 @@ public class DefaultExpressionService
      */
     private final Cache<Map<String, Constant>> constantMapCache;
 
+    /**
+     * Cache for expression parse trees, keyed by expression. Parse trees are
+     * only read while being visited, so they are shared between threads.
+     */
+    private final Cache<ParseTree> parseTreeCache;
+
     // -------------------------------------------------------------------------
     // Constructor
     // -------------------------------------------------------------------------
@@ -276,6 +283,7 @@ public class DefaultExpressionService
         this.dimensionService = dimensionService;
         this.idObjectManager = idObjectManager;
         this.constantMapCache = cacheProvider.createAllConstantsCache();
+        this.parseTreeCache = cacheProvider.createExpressionParseTreeCache();
     }
 
     // -------------------------------------------------------------------------
@@ -746,7 +754,7 @@ public class DefaultExpressionService
     {
         try
         {
-            Object result = Parser.visit( expression, visitor );
+            Object result = visitor.visit( parseTreeCache.get( expression, ParserUtils::parse ) );
 
             switch ( dataType )
             {
@@ -28,7 +28,6 @@
 package org.hisp.dhis.organisationunit;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static org.hisp.dhis.commons.util.TextUtils.joinHyphen;
 
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
@@ -46,6 +45,7 @@ import org.apache.commons.lang3.ObjectUtils;
 import org.hisp.dhis.cache.Cache;
 import org.hisp.dhis.cache.CacheProvider;
 import org.hisp.dhis.common.SortProperty;
+import org.hisp.dhis.common.event.CacheInvalidationEvent;
 import org.hisp.dhis.commons.collection.ListUtils;
 import org.hisp.dhis.commons.filter.FilterUtils;
 import org.hisp.dhis.configuration.ConfigurationService;
@@ -63,6 +63,7 @@ import org.hisp.dhis.user.CurrentUserServiceTarget;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserSettingKey;
 import org.hisp.dhis.user.UserSettingService;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -77,14 +78,14 @@ public class DefaultOrganisationUnitService
 {
     private static final String LEVEL_PREFIX = "Level ";
 
-    private final Cache<Boolean> inUserOrgUnitHierarchyCache;
-
-    private final Cache<Boolean> inUserOrgUnitViewHierarchyCache;
-
-    private final Cache<Boolean> inUserOrgUnitSearchHierarchyCache;
-
     private final Cache<Boolean> userCaptureOrgCountThresholdCache;
 
+    /**
+     * Shared index of the hierarchy, built on first use and discarded when
+     * organisation units are added, moved or removed.
+     */
+    private volatile OrganisationUnitHierarchyIndex hierarchyIndex;
+
     // -------------------------------------------------------------------------
     // Dependencies
     // -------------------------------------------------------------------------
@@ -120,10 +121,7 @@ public class DefaultOrganisationUnitService
         this.currentUserService = currentUserService;
         this.configurationService = configurationService;
         this.userSettingService = userSettingService;
-        this.inUserOrgUnitHierarchyCache = cacheProvider.createInUserOrgUnitHierarchyCache();
-        this.inUserOrgUnitSearchHierarchyCache = cacheProvider.createInUserSearchOrgUnitHierarchyCache();
         this.userCaptureOrgCountThresholdCache = cacheProvider.createUserCaptureOrgUnitThresholdCache();
-        this.inUserOrgUnitViewHierarchyCache = cacheProvider.createInUserViewOrgUnitHierarchyCache();
     }
 
     @Override
@@ -141,6 +139,7 @@ public class DefaultOrganisationUnitService
     public long addOrganisationUnit( OrganisationUnit organisationUnit )
     {
         organisationUnitStore.save( organisationUnit );
+        invalidateHierarchyIndex();
         User user = currentUserService.getCurrentUser();
 
         if ( organisationUnit.getParent() == null && user != null )
@@ -157,6 +156,11 @@ public class DefaultOrganisationUnitService
     public void updateOrganisationUnit( OrganisationUnit organisationUnit )
     {
         organisationUnitStore.update( organisationUnit );
+
+        if ( isMovedInHierarchyIndex( organisationUnit ) )
+        {
+            invalidateHierarchyIndex();
+        }
     }
 
     @Override
@@ -172,6 +176,7 @@ public class DefaultOrganisationUnitService
         throws HierarchyViolationException
     {
         organisationUnitStore.delete( organisationUnit );
+        invalidateHierarchyIndex();
     }
 
     @Override
@@ -478,9 +483,12 @@ public class DefaultOrganisationUnitService
     @Transactional( readOnly = true )
     public boolean isInUserHierarchyCached( User user, OrganisationUnit organisationUnit )
     {
-        String cacheKey = joinHyphen( user.getUsername(), organisationUnit.getUid() );
+        if ( user == null || user.getOrganisationUnits() == null || user.getOrganisationUnits().isEmpty() )
+        {
+            return false;
+        }
 
-        return inUserOrgUnitHierarchyCache.get( cacheKey, ou -> isInUserHierarchy( user, organisationUnit ) );
+        return isDescendantIndexed( organisationUnit, user.getOrganisationUnits() );
     }
 
     @Override
@@ -526,10 +534,13 @@ public class DefaultOrganisationUnitService
     @Transactional( readOnly = true )
     public boolean isInUserDataViewHierarchyCached( User user, OrganisationUnit organisationUnit )
     {
-        String cacheKey = joinHyphen( user.getUsername(), organisationUnit.getUid() );
+        if ( user == null || user.getDataViewOrganisationUnitsWithFallback() == null
+            || user.getDataViewOrganisationUnitsWithFallback().isEmpty() )
+        {
+            return false;
+        }
 
-        return inUserOrgUnitViewHierarchyCache
-            .get( cacheKey, ou -> isInUserDataViewHierarchy( user, organisationUnit ) );
+        return isDescendantIndexed( organisationUnit, user.getDataViewOrganisationUnitsWithFallback() );
     }
 
     @Override
@@ -550,10 +561,13 @@ public class DefaultOrganisationUnitService
     @Transactional( readOnly = true )
     public boolean isInUserSearchHierarchyCached( User user, OrganisationUnit organisationUnit )
     {
-        String cacheKey = joinHyphen( user.getUsername(), organisationUnit.getUid() );
+        if ( user == null || user.getTeiSearchOrganisationUnitsWithFallback() == null
+            || user.getTeiSearchOrganisationUnitsWithFallback().isEmpty() )
+        {
+            return false;
+        }
 
-        return inUserOrgUnitSearchHierarchyCache
-            .get( cacheKey, ou -> isInUserSearchHierarchy( user, organisationUnit ) );
+        return isDescendantIndexed( organisationUnit, user.getTeiSearchOrganisationUnitsWithFallback() );
     }
 
     @Override
@@ -578,6 +592,74 @@ public class DefaultOrganisationUnitService
         return organisationUnit != null && organisationUnit.isDescendant( organisationUnits );
     }
 
+    @Override
+    @Transactional( readOnly = true )
+    public OrganisationUnitHierarchyIndex getHierarchyIndex()
+    {
+        OrganisationUnitHierarchyIndex index = hierarchyIndex;
+
+        if ( index == null )
+        {
+            synchronized ( this )
+            {
+                index = hierarchyIndex;
+
+                if ( index == null )
+                {
+                    index = new OrganisationUnitHierarchyIndex( organisationUnitStore.getOrganisationUnitPaths() );
+                    hierarchyIndex = index;
+                }
+            }
+        }
+
+        return index;
+    }
+
+    @Override
+    public void invalidateHierarchyIndex()
+    {
+        hierarchyIndex = null;
+    }
+
+    @EventListener
+    public void handleCacheInvalidation( CacheInvalidationEvent event )
+    {
+        if ( OrganisationUnit.class.isAssignableFrom( event.getEntityClass() ) )
+        {
+            invalidateHierarchyIndex();
+        }
+    }
+
+    /**
+     * Indicates whether the given organisation unit has another parent than in
+     * the current hierarchy index. Organisation units which are newer than the
+     * index are not considered moved, as the index does not contain them.
+     */
+    private boolean isMovedInHierarchyIndex( OrganisationUnit organisationUnit )
+    {
+        OrganisationUnitHierarchyIndex index = hierarchyIndex;
+
+        return index != null && index.contains( organisationUnit.getUid() )
+            && !index.hasParent( organisationUnit.getUid(),
+                organisationUnit.getParent() != null ? organisationUnit.getParent().getUid() : null );
+    }
+
+    /**
+     * Checks the hierarchy with the shared index, falling back to walking the
+     * parents for organisation units which are newer than the index.
+     */
+    private boolean isDescendantIndexed( OrganisationUnit organisationUnit, Set<OrganisationUnit> ancestors )
+    {
+        OrganisationUnitHierarchyIndex index = getHierarchyIndex();
+
+        if ( index.contains( organisationUnit.getUid() ) && index.containsAll( ancestors ) )
+        {
+            return index.isDescendant( organisationUnit.getUid(), ancestors );
+        }
+
+        return organisationUnit.isDescendant( ancestors );
+    }
+
     @Override
     @Transactional( readOnly = true )
     public List<String> getCaptureOrganisationUnitUidsWithChildren()
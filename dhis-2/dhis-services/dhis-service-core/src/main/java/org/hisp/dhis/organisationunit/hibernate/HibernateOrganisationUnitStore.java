@@ -378,6 +378,12 @@ public class HibernateOrganisationUnitStore
         return jdbcTemplate.queryForList( sql, String.class );
     }
 
+    @Override
+    public List<String> getOrganisationUnitPaths()
+    {
+        return jdbcTemplate.queryForList( "select path from organisationunit where path is not null", String.class );
+    }
+
     private String buildOrganisationUnitDistinctUidsSql( OrganisationUnitQueryParams params )
     {
         SqlHelper hlp = new SqlHelper();
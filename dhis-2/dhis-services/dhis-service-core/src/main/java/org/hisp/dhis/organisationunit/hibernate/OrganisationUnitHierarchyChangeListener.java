@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.organisationunit.hibernate;
+
+import java.io.Serializable;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hisp.dhis.common.event.CacheInvalidationEvent;
+import org.hisp.dhis.hibernate.listener.AbstractPostCommitChangeListener;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes a {@link CacheInvalidationEvent} when organisation units are
+ * added, moved to another parent or removed, after the transaction is
+ * committed, so that state derived from the hierarchy such as the
+ * {@link org.hisp.dhis.organisationunit.OrganisationUnitHierarchyIndex} is
+ * rebuilt. Covers changes which do not go through the organisation unit
+ * service, such as metadata imports.
+ */
+@Component
+public class OrganisationUnitHierarchyChangeListener
+    extends AbstractPostCommitChangeListener
+{
+    private static final String PARENT_PROPERTY = "parent";
+
+    private final ApplicationEventPublisher publisher;
+
+    public OrganisationUnitHierarchyChangeListener( ApplicationEventPublisher publisher )
+    {
+        this.publisher = publisher;
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding( EntityPersister persister )
+    {
+        return OrganisationUnit.class.isAssignableFrom( persister.getMappedClass() );
+    }
+
+    @Override
+    public void onPostInsert( PostInsertEvent event )
+    {
+        if ( event.getEntity() instanceof OrganisationUnit )
+        {
+            publishInvalidation( event.getId() );
+        }
+    }
+
+    @Override
+    public void onPostUpdate( PostUpdateEvent event )
+    {
+        if ( event.getEntity() instanceof OrganisationUnit && isParentChanged( event ) )
+        {
+            publishInvalidation( event.getId() );
+        }
+    }
+
+    @Override
+    public void onPostDelete( PostDeleteEvent event )
+    {
+        if ( event.getEntity() instanceof OrganisationUnit )
+        {
+            publishInvalidation( event.getId() );
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Indicates whether the parent is among the dirty properties of the
+     * update. Considered changed when dirty properties are unknown.
+     */
+    private boolean isParentChanged( PostUpdateEvent event )
+    {
+        int[] dirtyProperties = event.getDirtyProperties();
+
+        if ( dirtyProperties == null )
+        {
+            return true;
+        }
+
+        String[] propertyNames = event.getPersister().getPropertyNames();
+
+        for ( int index : dirtyProperties )
+        {
+            if ( PARENT_PROPERTY.equals( propertyNames[index] ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void publishInvalidation( Serializable id )
+    {
+        publisher.publishEvent( new CacheInvalidationEvent( this, OrganisationUnit.class, id ) );
+    }
+}
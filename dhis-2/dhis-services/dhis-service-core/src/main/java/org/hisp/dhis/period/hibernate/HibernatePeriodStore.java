@@ -40,13 +40,13 @@ import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.StatelessSession;
 import org.hibernate.query.Query;
-import org.hisp.dhis.cache.Cache;
-import org.hisp.dhis.cache.CacheProvider;
 import org.hisp.dhis.common.exception.InvalidIdentifierReferenceException;
 import org.hisp.dhis.common.hibernate.HibernateIdentifiableObjectStore;
 import org.hisp.dhis.commons.util.DebugUtils;
 import org.hisp.dhis.dbms.DbmsUtils;
 import org.hisp.dhis.period.Period;
+import org.hisp.dhis.period.PeriodKey;
+import org.hisp.dhis.period.PeriodKeyTable;
 import org.hisp.dhis.period.PeriodStore;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.period.RelativePeriods;
@@ -68,17 +68,18 @@ public class HibernatePeriodStore
     extends HibernateIdentifiableObjectStore<Period>
     implements PeriodStore
 {
-
-    private final Cache<Long> periodIdCache;
+    /**
+     * Database identifiers of periods, keyed by {@link PeriodKey}. Entries are
+     * verified against the loaded period, so stale entries are harmless.
+     */
+    private final PeriodKeyTable<Long> periodIdCache = new PeriodKeyTable<>( 1 << 14 );
 
     public HibernatePeriodStore( SessionFactory sessionFactory, JdbcTemplate jdbcTemplate,
-        ApplicationEventPublisher publisher, CurrentUserService currentUserService, AclService aclService,
-        CacheProvider cacheProvider )
+        ApplicationEventPublisher publisher, CurrentUserService currentUserService, AclService aclService )
     {
         super( sessionFactory, jdbcTemplate, publisher, Period.class, currentUserService, aclService, true );
 
         transientIdentifiableProperties = true;
-        this.periodIdCache = cacheProvider.createPeriodIdCache();
     }
 
     // -------------------------------------------------------------------------
@@ -190,20 +191,23 @@ public class HibernatePeriodStore
             return period; // Already in session, no reload needed
         }
 
-        Long id = periodIdCache
-            .get( period.getCacheKey(),
-                key -> getPeriodId( period.getStartDate(), period.getEndDate(), period.getPeriodType() ) );
+        long key = PeriodKey.of( period );
+
+        Long id = key != PeriodKey.NONE ? periodIdCache.get( key ) : null;
 
         Period storedPeriod = id != null ? getSession().get( Period.class, id ) : null;
 
-        return storedPeriod != null ? storedPeriod.copyTransientProperties( period ) : null;
-    }
+        if ( storedPeriod == null || PeriodKey.of( storedPeriod ) != key )
+        {
+            storedPeriod = getPeriod( period.getStartDate(), period.getEndDate(), period.getPeriodType() );
 
-    private Long getPeriodId( Date startDate, Date endDate, PeriodType periodType )
-    {
-        Period period = getPeriod( startDate, endDate, periodType );
+            if ( storedPeriod != null && key != PeriodKey.NONE )
+            {
+                periodIdCache.put( key, storedPeriod.getId() );
+            }
+        }
 
-        return period != null ? period.getId() : null;
+        return storedPeriod != null ? storedPeriod.copyTransientProperties( period ) : null;
     }
 
     @Override
@@ -300,7 +304,12 @@ public class HibernatePeriodStore
         try
         {
             Serializable id = session.insert( period );
-            periodIdCache.put( period.getCacheKey(), (Long) id );
+            long key = PeriodKey.of( period );
+
+            if ( key != PeriodKey.NONE )
+            {
+                periodIdCache.put( key, (Long) id );
+            }
 
             return period;
         }
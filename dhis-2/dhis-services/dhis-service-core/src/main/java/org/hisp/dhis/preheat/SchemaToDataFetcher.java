@@ -30,10 +30,15 @@ package org.hisp.dhis.preheat;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.commons.beanutils.BeanUtils;
@@ -45,6 +50,8 @@ import org.hisp.dhis.schema.Property;
 import org.hisp.dhis.schema.Schema;
 import org.springframework.stereotype.Component;
 
+import com.google.common.collect.Lists;
+
 /**
  * This component is responsible for fetching all the unique attributes for a
  * {@link IdentifiableObject} subclass.
@@ -56,6 +63,8 @@ public class SchemaToDataFetcher
 {
     protected static final Log log = LogFactory.getLog( SchemaToDataFetcher.class );
 
+    private static final int VALUES_PER_QUERY = 20000;
+
     private final SessionFactory sessionFactory;
 
     public SchemaToDataFetcher( SessionFactory sessionFactory )
@@ -83,6 +92,92 @@ public class SchemaToDataFetcher
         return mapUniqueFields( schema );
     }
 
+    /**
+     * Executes read-only queries for the given Schema class and fetches only
+     * the fields marked as "unique", for the existing objects which have a
+     * unique value in common with any of the given objects. The queries are
+     * restricted to the values of the given objects, one unique property at a
+     * time, so that the amount of data fetched depends on the given objects
+     * and not on the number of existing objects.
+     *
+     * @param schema a {@link Schema}
+     * @param objects the objects to find existing objects with equal unique
+     *        values for
+     * @return a List of objects corresponding to the "klass" of the given
+     *         Schema
+     */
+    @SuppressWarnings( "unchecked" )
+    public List<? extends IdentifiableObject> fetch( Schema schema,
+        Collection<? extends IdentifiableObject> objects )
+    {
+        if ( schema == null || objects == null || objects.isEmpty() )
+        {
+            return Collections.emptyList();
+        }
+
+        List<Property> uniqueProperties = schema.getUniqueProperties();
+
+        if ( uniqueProperties.isEmpty() )
+        {
+            return Collections.emptyList();
+        }
+
+        final String fields = extractUniqueFields( uniqueProperties );
+
+        List rows = new ArrayList();
+        Set<Object> distinctRows = new HashSet<>();
+
+        for ( Property property : uniqueProperties )
+        {
+            Set<Object> values = getValues( property, objects );
+
+            for ( List<Object> batch : Lists.partition( new ArrayList<>( values ), VALUES_PER_QUERY ) )
+            {
+                List<Object> result = sessionFactory.getCurrentSession()
+                    .createQuery( "SELECT " + fields + " from " + schema.getKlass().getSimpleName()
+                        + " where " + property.getFieldName() + " in (:values)" )
+                    .setParameterList( "values", batch )
+                    .setReadOnly( true )
+                    .getResultList();
+
+                // An object may match on more than one unique property
+
+                for ( Object row : result )
+                {
+                    if ( distinctRows.add( row instanceof Object[] ? Arrays.asList( (Object[]) row ) : row ) )
+                    {
+                        rows.add( row );
+                    }
+                }
+            }
+        }
+
+        return uniqueProperties.size() == 1 ? handleSingleColumn( rows, uniqueProperties, schema )
+            : handleMultipleColumn( rows, uniqueProperties, schema );
+    }
+
+    private Set<Object> getValues( Property property, Collection<? extends IdentifiableObject> objects )
+    {
+        Set<Object> values = new LinkedHashSet<>();
+
+        if ( property.getGetterMethod() == null )
+        {
+            return values;
+        }
+
+        for ( IdentifiableObject object : objects )
+        {
+            Object value = property.getAccessor().get( object );
+
+            if ( value != null )
+            {
+                values.add( value );
+            }
+        }
+
+        return values;
+    }
+
     @SuppressWarnings( "unchecked" )
     private List<? extends IdentifiableObject> mapUniqueFields( Schema schema )
     {
@@ -30,6 +30,7 @@ package org.hisp.dhis.query;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -40,6 +41,10 @@ import org.hisp.dhis.query.planner.QueryPlan;
 import org.hisp.dhis.query.planner.QueryPlanner;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
 /**
  * Default implementation of QueryService which works with IdObjects.
  *
@@ -48,7 +53,7 @@ import org.springframework.stereotype.Component;
 @Slf4j
 @Component( "org.hisp.dhis.query.QueryService" )
 public class DefaultQueryService
-    implements QueryService
+    implements QueryService, MeterBinder
 {
     private final QueryParser queryParser;
 
@@ -60,6 +65,16 @@ public class DefaultQueryService
 
     private final Junction.Type DEFAULT_JUNCTION_TYPE = Junction.Type.AND;
 
+    /**
+     * Number of queries fully executed in the database.
+     */
+    private final LongAdder persistedQueries = new LongAdder();
+
+    /**
+     * Number of queries which fell back to filtering or ordering in memory.
+     */
+    private final LongAdder inMemoryQueries = new LongAdder();
+
     public DefaultQueryService( QueryParser queryParser, QueryPlanner queryPlanner,
         JpaCriteriaQueryEngine<? extends IdentifiableObject> criteriaQueryEngine,
         InMemoryQueryEngine<? extends IdentifiableObject> inMemoryQueryEngine )
@@ -138,6 +153,18 @@ public class DefaultQueryService
         return getQueryFromUrl( klass, filters, orders, new Pagination(), DEFAULT_JUNCTION_TYPE );
     }
 
+    @Override
+    public void bindTo( MeterRegistry registry )
+    {
+        FunctionCounter.builder( "metadata.query.persisted", persistedQueries, LongAdder::doubleValue )
+            .description( "Number of metadata queries fully executed in the database" )
+            .register( registry );
+
+        FunctionCounter.builder( "metadata.query.in.memory", inMemoryQueries, LongAdder::doubleValue )
+            .description( "Number of metadata queries falling back to in-memory filtering" )
+            .register( registry );
+    }
+
     // ---------------------------------------------------------------------------------------------
     // Helper methods
     // ---------------------------------------------------------------------------------------------
@@ -150,12 +177,14 @@ public class DefaultQueryService
         Query npQuery = queryPlan.getNonPersistedQuery();
         if ( !npQuery.isEmpty() )
         {
+            inMemoryQueries.increment();
             npQuery.setObjects( criteriaQueryEngine.query( pQuery ) );
             objects = inMemoryQueryEngine.query( npQuery );
             return objects.size();
         }
         else
         {
+            persistedQueries.increment();
             return criteriaQueryEngine.count( pQuery );
         }
     }
@@ -181,6 +210,8 @@ public class DefaultQueryService
 
         if ( !npQuery.isEmpty() )
         {
+            inMemoryQueries.increment();
+
             if ( log.isDebugEnabled() )
             {
                 log.debug( "Doing in-memory for " + npQuery.getCriterions().size() + " criterions and "
@@ -191,6 +222,10 @@ public class DefaultQueryService
 
             objects = inMemoryQueryEngine.query( npQuery );
         }
+        else
+        {
+            persistedQueries.increment();
+        }
 
         clearDefaults( query.getSchema().getKlass(), objects, query.getDefaults() );
 
@@ -96,7 +96,7 @@ public class EqualOperator<T extends Comparable<? super T>> extends Operator<T>
 
             return builder.equal( builder.size( root.get( queryPath.getPath() ) ), value );
         }
-        return builder.equal( root.get( queryPath.getPath() ), args.get( 0 ) );
+        return builder.equal( queryPath.getExpression( builder, root ), args.get( 0 ) );
     }
 
     @Override
@@ -92,7 +92,7 @@ public class GreaterEqualOperator<T extends Comparable<? super T>> extends Opera
             return builder.greaterThanOrEqualTo( builder.size( root.get( queryPath.getPath() ) ), value );
         }
 
-        return builder.greaterThanOrEqualTo( root.get( queryPath.getPath() ), args.get( 0 ) );
+        return builder.greaterThanOrEqualTo( queryPath.getExpression( builder, root ), args.get( 0 ) );
     }
 
     @Override
@@ -92,7 +92,7 @@ public class GreaterThanOperator<T extends Comparable<? super T>> extends Operat
             return builder.greaterThan( builder.size( root.get( queryPath.getPath() ) ), value );
         }
 
-        return builder.greaterThan( root.get( queryPath.getPath() ), args.get( 0 ) );
+        return builder.greaterThan( queryPath.getExpression( builder, root ), args.get( 0 ) );
     }
 
     @Override
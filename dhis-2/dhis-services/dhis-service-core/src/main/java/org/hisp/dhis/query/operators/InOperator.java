@@ -82,7 +82,7 @@ public class InOperator<T extends Comparable<? super T>> extends Operator<T>
                 getValue( Collection.class, queryPath.getProperty().getItemKlass(), getCollectionArgs().get( 0 ) ) );
         }
 
-        return root.get( queryPath.getPath() ).in( getCollectionArgs().get( 0 ) );
+        return queryPath.getExpression( builder, root ).in( getCollectionArgs().get( 0 ) );
     }
 
     @Override
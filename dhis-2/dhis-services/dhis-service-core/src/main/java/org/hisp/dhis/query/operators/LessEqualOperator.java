@@ -92,7 +92,7 @@ public class LessEqualOperator<T extends Comparable<? super T>> extends Operator
             return builder.lessThanOrEqualTo( builder.size( root.get( queryPath.getPath() ) ), value );
         }
 
-        return builder.lessThanOrEqualTo( root.get( queryPath.getPath() ), args.get( 0 ) );
+        return builder.lessThanOrEqualTo( queryPath.getExpression( builder, root ), args.get( 0 ) );
     }
 
     @Override
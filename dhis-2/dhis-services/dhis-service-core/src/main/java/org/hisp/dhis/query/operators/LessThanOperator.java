@@ -92,7 +92,7 @@ public class LessThanOperator<T extends Comparable<? super T>> extends Operator<
             return builder.lessThan( builder.size( root.get( queryPath.getPath() ) ), value );
         }
 
-        return builder.lessThan( root.get( queryPath.getPath() ), args.get( 0 ) );
+        return builder.lessThan( queryPath.getExpression( builder, root ), args.get( 0 ) );
     }
 
     @Override
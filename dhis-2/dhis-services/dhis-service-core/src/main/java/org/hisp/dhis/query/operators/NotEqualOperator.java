@@ -71,7 +71,7 @@ public class NotEqualOperator<T extends Comparable<? super T>> extends EqualOper
 
             return builder.notEqual( builder.size( root.get( queryPath.getPath() ) ), value );
         }
-        return builder.notEqual( root.get( queryPath.getPath() ), args.get( 0 ) );
+        return builder.notEqual( queryPath.getExpression( builder, root ), args.get( 0 ) );
     }
 
     @Override
@@ -65,7 +65,7 @@ public class NotInOperator<T extends Comparable<? super T>> extends InOperator<T
                 getValue( Collection.class, queryPath.getProperty().getItemKlass(), getCollectionArgs().get( 0 ) ) ) );
         }
 
-        return builder.not( root.get( queryPath.getPath() ).in( getCollectionArgs().get( 0 ) ) );
+        return builder.not( queryPath.getExpression( builder, root ).in( getCollectionArgs().get( 0 ) ) );
     }
 
     @Override
@@ -77,13 +77,13 @@ public class NotLikeOperator<T extends Comparable<? super T>> extends Operator<T
     {
         if ( caseSensitive )
         {
-            return JpaQueryUtils.stringPredicateCaseSensitive( builder, root.get( queryPath.getPath() ),
+            return JpaQueryUtils.stringPredicateCaseSensitive( builder, queryPath.getExpression( builder, root ),
                 String.valueOf( args.get( 0 ) ).replace( "%", "" ),
                 jpaMatchMode );
         }
         else
         {
-            return JpaQueryUtils.stringPredicateIgnoreCase( builder, root.get( queryPath.getPath() ),
+            return JpaQueryUtils.stringPredicateIgnoreCase( builder, queryPath.getExpression( builder, root ),
                 String.valueOf( args.get( 0 ) ).replace( "%", "" ),
                 jpaMatchMode );
         }
@@ -57,7 +57,7 @@ public class NotNullOperator<T extends Comparable<? super T>> extends Operator<T
     @Override
     public <Y> Predicate getPredicate( CriteriaBuilder builder, Root<Y> root, QueryPath queryPath )
     {
-        return builder.isNotNull( root.get( queryPath.getPath() ) );
+        return builder.isNotNull( queryPath.getExpression( builder, root ) );
     }
 
     @Override
@@ -68,7 +68,8 @@ public class NotTokenOperator<T extends Comparable<? super T>> extends Operator<
         String value = caseSensitive ? getValue( String.class ) : getValue( String.class ).toLowerCase();
 
         return builder
-            .equal( builder.function( JsonbFunctions.REGEXP_SEARCH, Boolean.class, root.get( queryPath.getPath() ),
+            .equal( builder.function( JsonbFunctions.REGEXP_SEARCH, Boolean.class,
+                queryPath.getExpression( builder, root ),
                 builder.literal( TokenUtils.createRegex( value ).toString() ) ), false );
     }
 
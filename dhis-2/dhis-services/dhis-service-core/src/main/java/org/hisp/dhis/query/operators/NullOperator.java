@@ -57,7 +57,7 @@ public class NullOperator<T extends Comparable<? super T>> extends Operator<T>
     @Override
     public <Y> Predicate getPredicate( CriteriaBuilder builder, Root<Y> root, QueryPath queryPath )
     {
-        return builder.isNull( root.get( queryPath.getPath() ) );
+        return builder.isNull( queryPath.getExpression( builder, root ) );
     }
 
     @Override
@@ -68,7 +68,8 @@ public class TokenOperator<T extends Comparable<? super T>> extends Operator<T>
         String value = caseSensitive ? getValue( String.class ) : getValue( String.class ).toLowerCase();
 
         return builder
-            .equal( builder.function( JsonbFunctions.REGEXP_SEARCH, Boolean.class, root.get( queryPath.getPath() ),
+            .equal( builder.function( JsonbFunctions.REGEXP_SEARCH, Boolean.class,
+                queryPath.getExpression( builder, root ),
                 builder.literal( TokenUtils.createRegex( value ).toString() ) ), true );
     }
 
@@ -33,11 +33,13 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.Locale;
 
 import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Root;
 
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.common.UserContext;
 import org.hisp.dhis.query.Conjunction;
 import org.hisp.dhis.query.Criterion;
 import org.hisp.dhis.query.Disjunction;
@@ -48,6 +50,7 @@ import org.hisp.dhis.query.Restriction;
 import org.hisp.dhis.schema.Property;
 import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
+import org.hisp.dhis.user.UserSettingKey;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -57,6 +60,8 @@ import org.springframework.stereotype.Component;
 @Component( "org.hisp.dhis.query.planner.QueryPlanner" )
 public class DefaultQueryPlanner implements QueryPlanner
 {
+    private static final String DISPLAY_PREFIX = "display";
+
     private final SchemaService schemaService;
 
     @Autowired
@@ -80,7 +85,10 @@ public class DefaultQueryPlanner implements QueryPlanner
         Junction.Type junctionType = query.getCriterions().size() <= 1 ? Junction.Type.AND
             : query.getRootJunctionType();
 
-        if ( (!isFilterOnPersistedFieldOnly( query ) || Junction.Type.OR == junctionType) && !persistedOnly )
+        // criteria of a disjunction can only be split between the persisted
+        // and the in-memory query if all of them are persisted
+
+        if ( Junction.Type.OR == junctionType && !isFilterOnPersistedFieldOnly( query ) && !persistedOnly )
         {
             return QueryPlan.QueryPlanBuilder.newBuilder()
                 .persistedQuery( Query.from( query.getSchema() ).setPlannedQuery( true ) )
@@ -92,9 +100,9 @@ public class DefaultQueryPlanner implements QueryPlanner
 
         Query pQuery = getQuery( npQuery, persistedOnly ).setUser( query.getUser() ).setPlannedQuery( true );
 
-        // if there are any non persisted criterions left, we leave the paging
-        // to the in-memory engine
-        if ( !npQuery.getCriterions().isEmpty() )
+        // if there are any non persisted criterions or orders left, we leave
+        // the paging to the in-memory engine
+        if ( !npQuery.isEmpty() )
         {
             pQuery.setSkipPaging( true );
         }
@@ -135,6 +143,16 @@ public class DefaultQueryPlanner implements QueryPlanner
                 throw new RuntimeException( "Invalid path property: " + name );
             }
 
+            if ( !curProperty.isPersisted() && pathComponents.length == 1 )
+            {
+                Property translatedProperty = getTranslatedProperty( curSchema, name );
+
+                if ( translatedProperty != null )
+                {
+                    return new QueryPath( translatedProperty, true, new String[] {}, getLocale() );
+                }
+            }
+
             if ( !curProperty.isPersisted() )
             {
                 persisted = false;
@@ -227,6 +245,16 @@ public class DefaultQueryPlanner implements QueryPlanner
 
             if ( Junction.class.isInstance( criterion ) )
             {
+                // a junction with non persisted criteria is left to the
+                // in-memory query as a whole, as splitting a disjunction would
+                // change its result
+
+                if ( !persistedOnly
+                    && nonPersistedFieldExistsInCriterions( query.getSchema(), ((Junction) criterion).getCriterions() ) )
+                {
+                    continue;
+                }
+
                 Junction junction = handleJunction( pQuery, (Junction) criterion, persistedOnly );
 
                 if ( !junction.getCriterions().isEmpty() )
@@ -320,8 +348,7 @@ public class DefaultQueryPlanner implements QueryPlanner
      */
     private boolean isFilterOnPersistedFieldOnly( Query query )
     {
-        Set<String> persistedFields = query.getSchema().getPersistedProperties().keySet();
-        if ( nonPersistedFieldExistsInCriterions( persistedFields, query.getCriterions() ) )
+        if ( nonPersistedFieldExistsInCriterions( query.getSchema(), query.getCriterions() ) )
         {
             return false;
         }
@@ -329,7 +356,7 @@ public class DefaultQueryPlanner implements QueryPlanner
         for ( Order order : query.getOrders() )
         {
 
-            if ( !persistedFields.contains( order.getProperty().getName() ) )
+            if ( !query.getSchema().getPersistedProperties().containsKey( order.getProperty().getName() ) )
             {
                 return false;
             }
@@ -341,26 +368,27 @@ public class DefaultQueryPlanner implements QueryPlanner
      * Recursive function that checks if any of the criterions or subcriterions
      * are associated with fields that are not persisted.
      *
-     * @param persistedFields The set of persistedFields in the schema
+     * @param schema The schema of the query
      * @param criterions List of criterions
      * @return true if there is any non persisted field in any of the criteria
      *         at any level. false otherwise.
      */
-    private boolean nonPersistedFieldExistsInCriterions( Set<String> persistedFields, List<Criterion> criterions )
+    private boolean nonPersistedFieldExistsInCriterions( Schema schema, List<Criterion> criterions )
     {
         for ( Criterion criterion : criterions )
         {
             if ( criterion instanceof Restriction )
             {
                 Restriction restriction = (Restriction) criterion;
-                if ( !persistedFields.contains( restriction.getPath() ) )
+                if ( !schema.getPersistedProperties().containsKey( restriction.getPath() )
+                    && getTranslatedProperty( schema, restriction.getPath() ) == null )
                 {
                     return true;
                 }
             }
             else if ( criterion instanceof Junction )
             {
-                if ( nonPersistedFieldExistsInCriterions( persistedFields, ((Junction) criterion).getCriterions() ) )
+                if ( nonPersistedFieldExistsInCriterions( schema, ((Junction) criterion).getCriterions() ) )
                 {
                     return true;
                 }
@@ -368,4 +396,41 @@ public class DefaultQueryPlanner implements QueryPlanner
         }
         return false;
     }
+
+    /**
+     * Returns the persisted, translatable property which the given display
+     * property is the translation of, such as {@code name} for
+     * {@code displayName}. Filters on such display properties can be done in
+     * the database against the JSONB translations of the object.
+     *
+     * @param schema the schema of the property.
+     * @param name the name of the display property.
+     * @return the translated property, or null if the given property is not a
+     *         display property of a persisted, translatable property.
+     */
+    private Property getTranslatedProperty( Schema schema, String name )
+    {
+        if ( !name.startsWith( DISPLAY_PREFIX ) || schema.getProperty( name ) == null
+            || !schema.getPersistedProperties().containsKey( "translations" ) )
+        {
+            return null;
+        }
+
+        Property property = schema.getPersistedProperties()
+            .get( StringUtils.uncapitalize( name.substring( DISPLAY_PREFIX.length() ) ) );
+
+        return property != null && property.isSimple() && property.isTranslatable()
+            && property.getTranslationKey() != null ? property : null;
+    }
+
+    /**
+     * Returns the database locale of the current user, which display
+     * properties are translated to, or null if not set.
+     */
+    private String getLocale()
+    {
+        Locale locale = UserContext.getUserSetting( UserSettingKey.DB_LOCALE );
+
+        return locale != null ? locale.toString() : null;
+    }
 }
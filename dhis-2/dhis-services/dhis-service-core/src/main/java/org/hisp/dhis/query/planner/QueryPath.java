@@ -29,6 +29,11 @@ package org.hisp.dhis.query.planner;
 
 import java.util.Arrays;
 
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Root;
+
+import org.hisp.dhis.hibernate.jsonb.type.JsonbFunctions;
 import org.hisp.dhis.schema.Property;
 
 import com.google.common.base.Joiner;
@@ -45,6 +50,12 @@ public class QueryPath
 
     private String[] alias = new String[] {};
 
+    /**
+     * Locale of the translation to resolve this path to, only set for paths
+     * which stand in for a translated display property.
+     */
+    private String locale;
+
     private static final Joiner PATH_JOINER = Joiner.on( "." );
 
     public QueryPath( Property property, boolean persisted )
@@ -59,6 +70,12 @@ public class QueryPath
         this.alias = alias;
     }
 
+    public QueryPath( Property property, boolean persisted, String[] alias, String locale )
+    {
+        this( property, persisted, alias );
+        this.locale = locale;
+    }
+
     public Property getProperty()
     {
         return property;
@@ -76,6 +93,39 @@ public class QueryPath
         return haveAlias() ? PATH_JOINER.join( alias ) + "." + fieldName : fieldName;
     }
 
+    /**
+     * Returns the criteria expression of this path. For a translated path this
+     * is the translation of the property in the locale of the path, falling
+     * back to the value of the property itself, which mirrors the display
+     * properties of {@link org.hisp.dhis.common.BaseIdentifiableObject}.
+     *
+     * @param builder the criteria builder.
+     * @param root the query root.
+     * @return the criteria expression.
+     */
+    @SuppressWarnings( "unchecked" )
+    public <X> Expression<X> getExpression( CriteriaBuilder builder, Root<?> root )
+    {
+        if ( !isTranslated() )
+        {
+            return root.get( getPath() );
+        }
+
+        return (Expression<X>) builder.function( JsonbFunctions.TRANSLATED_VALUE, String.class,
+            root.get( "translations" ), builder.literal( locale ), builder.literal( property.getTranslationKey() ),
+            root.get( getPath() ) );
+    }
+
+    public String getLocale()
+    {
+        return locale;
+    }
+
+    public boolean isTranslated()
+    {
+        return locale != null && property.getTranslationKey() != null;
+    }
+
     public boolean isPersisted()
     {
         return persisted;
@@ -104,6 +154,7 @@ public class QueryPath
             .add( "path", getPath() )
             .add( "persisted", persisted )
             .add( "alias", Arrays.toString( alias ) )
+            .add( "locale", locale )
             .toString();
     }
 }
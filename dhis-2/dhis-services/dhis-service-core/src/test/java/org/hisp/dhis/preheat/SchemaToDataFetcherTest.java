@@ -33,6 +33,10 @@ import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -197,6 +201,61 @@ class SchemaToDataFetcherTest extends DhisConvenienceTest
 
     }
 
+    @Test
+    void verifyFetchIsRestrictedToValuesOfGivenObjects()
+        throws Exception
+    {
+        Property code = createUniqueProperty( String.class, "code", true, true );
+        code.setGetterMethod( DataElement.class.getMethod( "getCode" ) );
+        Property name = createUniqueProperty( String.class, "name", true, true );
+        name.setGetterMethod( DataElement.class.getMethod( "getName" ) );
+
+        Schema schema = createSchema( DataElement.class, "dataElement", Lists.newArrayList( code, name ) );
+
+        DataElement deA = new DataElement( "A" );
+        deA.setCode( "codeA" );
+        DataElement deB = new DataElement( "B" );
+
+        Query codeQuery = mock( Query.class );
+        Query nameQuery = mock( Query.class );
+        mockSession( "SELECT code,name from DataElement where code in (:values)", codeQuery );
+        mockSession( "SELECT code,name from DataElement where name in (:values)", nameQuery );
+
+        List<Object[]> codeRows = new ArrayList<>();
+        codeRows.add( new Object[] { "codeA", "A" } );
+        when( codeQuery.getResultList() ).thenReturn( codeRows );
+
+        List<Object[]> nameRows = new ArrayList<>();
+        nameRows.add( new Object[] { "codeA", "A" } );
+        nameRows.add( new Object[] { "codeB", "B" } );
+        when( nameQuery.getResultList() ).thenReturn( nameRows );
+
+        List<DataElement> result = (List<DataElement>) subject.fetch( schema, Lists.newArrayList( deA, deB ) );
+
+        verify( codeQuery ).setParameterList( "values", Lists.newArrayList( "codeA" ) );
+        verify( nameQuery ).setParameterList( "values", Lists.newArrayList( "A", "B" ) );
+
+        assertThat( result, hasSize( 2 ) );
+        assertThat( result, IsIterableContainingInAnyOrder.containsInAnyOrder(
+            allOf(
+                hasProperty( "code", is( "codeA" ) ),
+                hasProperty( "name", is( "A" ) ) ),
+            allOf(
+                hasProperty( "code", is( "codeB" ) ),
+                hasProperty( "name", is( "B" ) ) ) ) );
+    }
+
+    @Test
+    void verifyNoSqlWhenNoObjectsAreGiven()
+    {
+        Schema schema = createSchema( DataElement.class, "dataElement",
+            Stream.of( createUniqueProperty( String.class, "code", true, true ) ).collect( toList() ) );
+
+        assertThat( subject.fetch( schema, Lists.newArrayList() ), hasSize( 0 ) );
+
+        verify( session, never() ).createQuery( anyString() );
+    }
+
     @Test
     void verifyNoSqlWhenUniquePropertiesListIsEmpty()
     {
@@ -226,6 +285,13 @@ class SchemaToDataFetcherTest extends DhisConvenienceTest
         when( query.setReadOnly( true ) ).thenReturn( query );
     }
 
+    private void mockSession( String hql, Query valuesQuery )
+    {
+        when( session.createQuery( hql ) ).thenReturn( valuesQuery );
+        when( valuesQuery.setParameterList( anyString(), anyCollection() ) ).thenReturn( valuesQuery );
+        when( valuesQuery.setReadOnly( true ) ).thenReturn( valuesQuery );
+    }
+
     private Schema createSchema( Class<? extends IdentifiableObject> klass, String singularName,
         List<Property> properties )
     {
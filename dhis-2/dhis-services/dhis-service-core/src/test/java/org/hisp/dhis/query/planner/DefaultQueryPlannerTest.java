@@ -28,21 +28,29 @@
 package org.hisp.dhis.query.planner;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.beans.PropertyDescriptor;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 import org.apache.commons.beanutils.PropertyUtils;
 import org.hisp.dhis.attribute.Attribute;
+import org.hisp.dhis.common.UserContext;
 import org.hisp.dhis.query.Junction;
+import org.hisp.dhis.query.Order;
 import org.hisp.dhis.query.Query;
+import org.hisp.dhis.query.Restriction;
 import org.hisp.dhis.query.Restrictions;
+import org.hisp.dhis.query.operators.MatchMode;
 import org.hisp.dhis.schema.Property;
 import org.hisp.dhis.schema.Schema;
 import org.hisp.dhis.schema.SchemaService;
 import org.hisp.dhis.schema.descriptors.OrganisationUnitSchemaDescriptor;
+import org.hisp.dhis.user.UserSettingKey;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -67,6 +75,12 @@ class DefaultQueryPlannerTest
         this.subject = new DefaultQueryPlanner( schemaService );
     }
 
+    @AfterEach
+    public void tearDown()
+    {
+        UserContext.reset();
+    }
+
     @Test
     void verifyPlanQueryReturnsPersistedAndNotPersistedQueries()
         throws Exception
@@ -181,7 +195,128 @@ class DefaultQueryPlannerTest
         assertEquals( nonPersistedQuery.getRootJunctionType(), Junction.Type.AND );
     }
 
-    private void addProperty( Map<String, Property> propertyMap, Object bean, String property, boolean persisted )
+    /*
+     * Verifies that with AND junction type the criteria on persisted fields
+     * are done in the database even if there are criteria on non-persisted
+     * fields, which are left to the in-memory engine together with the paging
+     */
+    @Test
+    void verifyPlanQuerySplitsConjunctionOfPersistedAndNonPersistedCriteria()
+        throws Exception
+    {
+        final Attribute attribute = new Attribute();
+        final Map<String, Property> propertyMap = new HashMap<>();
+        addProperty( propertyMap, attribute, "id", true );
+        addProperty( propertyMap, attribute, "name", false );
+        Schema schema = new OrganisationUnitSchemaDescriptor().getSchema();
+        schema.setPropertyMap( propertyMap );
+
+        Query query = Query.from( schema, Junction.Type.AND );
+        query.setMaxResults( 10 );
+        query.setFirstResult( 500 );
+
+        query.add( Restrictions.eq( "name", "test" ) );
+        query.add( Restrictions.eq( "id", 100 ) );
+
+        QueryPlan queryPlan = subject.planQuery( query, false );
+
+        Query persistedQuery = queryPlan.getPersistedQuery();
+        assertEquals( 1, persistedQuery.getCriterions().size() );
+        assertEquals( "id", ((Restriction) persistedQuery.getCriterions().get( 0 )).getPath() );
+        assertTrue( persistedQuery.isSkipPaging() );
+
+        Query nonPersistedQuery = queryPlan.getNonPersistedQuery();
+        assertEquals( 1, nonPersistedQuery.getCriterions().size() );
+        assertEquals( "name", ((Restriction) nonPersistedQuery.getCriterions().get( 0 )).getPath() );
+        assertEquals( 500, nonPersistedQuery.getFirstResult().intValue() );
+        assertEquals( 10, nonPersistedQuery.getMaxResults().intValue() );
+    }
+
+    /*
+     * Verifies that with AND junction type and an order on a non-persisted
+     * field the paging is left to the in-memory engine, which sorts all
+     * objects matching the persisted criteria before paging them
+     */
+    @Test
+    void verifyPlanQueryLeavesPagingWithNonPersistedOrderToInMemoryEngine()
+        throws Exception
+    {
+        final Attribute attribute = new Attribute();
+        final Map<String, Property> propertyMap = new HashMap<>();
+        addProperty( propertyMap, attribute, "id", true );
+        Property name = addProperty( propertyMap, attribute, "name", false );
+        name.setSimple( true );
+        Schema schema = new OrganisationUnitSchemaDescriptor().getSchema();
+        schema.setPropertyMap( propertyMap );
+
+        Query query = Query.from( schema, Junction.Type.AND );
+        query.setMaxResults( 50 );
+        query.setFirstResult( 50 );
+
+        query.add( Restrictions.eq( "id", 100 ) );
+        query.addOrder( Order.asc( name ) );
+
+        QueryPlan queryPlan = subject.planQuery( query, false );
+
+        Query persistedQuery = queryPlan.getPersistedQuery();
+        assertEquals( 1, persistedQuery.getCriterions().size() );
+        assertTrue( persistedQuery.getOrders().isEmpty() );
+        assertTrue( persistedQuery.isSkipPaging() );
+
+        Query nonPersistedQuery = queryPlan.getNonPersistedQuery();
+        assertTrue( nonPersistedQuery.getCriterions().isEmpty() );
+        assertEquals( 1, nonPersistedQuery.getOrders().size() );
+        assertEquals( 50, nonPersistedQuery.getFirstResult().intValue() );
+        assertEquals( 50, nonPersistedQuery.getMaxResults().intValue() );
+    }
+
+    /*
+     * Verifies that a criterion on a display property is done in the database
+     * against the translations of the translated property, including paging
+     */
+    @Test
+    void verifyPlanQueryTranslatesDisplayPropertyCriterion()
+        throws Exception
+    {
+        final Attribute attribute = new Attribute();
+        final Map<String, Property> propertyMap = new HashMap<>();
+        addProperty( propertyMap, attribute, "id", true );
+        addProperty( propertyMap, attribute, "translations", true );
+        addProperty( propertyMap, attribute, "displayName", false );
+        Property name = addProperty( propertyMap, attribute, "name", true );
+        name.setSimple( true );
+        name.setTranslatable( true );
+        name.setTranslationKey( "NAME" );
+        Schema schema = new OrganisationUnitSchemaDescriptor().getSchema();
+        schema.setPropertyMap( propertyMap );
+
+        UserContext.setUserSetting( UserSettingKey.DB_LOCALE, Locale.FRENCH );
+
+        Query query = Query.from( schema, Junction.Type.OR );
+        query.setMaxResults( 10 );
+        query.setFirstResult( 500 );
+
+        query.add( Restrictions.ilike( "displayName", "test", MatchMode.ANYWHERE ) );
+        query.add( Restrictions.eq( "id", 100 ) );
+
+        QueryPlan queryPlan = subject.planQuery( query, false );
+
+        Query persistedQuery = queryPlan.getPersistedQuery();
+        assertEquals( 2, persistedQuery.getCriterions().size() );
+        assertEquals( Junction.Type.OR, persistedQuery.getRootJunctionType() );
+        assertFalse( persistedQuery.isSkipPaging() );
+        assertEquals( 500, persistedQuery.getFirstResult().intValue() );
+        assertEquals( 10, persistedQuery.getMaxResults().intValue() );
+
+        QueryPath queryPath = ((Restriction) persistedQuery.getCriterions().get( 0 )).getQueryPath();
+        assertEquals( "name", queryPath.getPath() );
+        assertEquals( "fr", queryPath.getLocale() );
+        assertTrue( queryPath.isTranslated() );
+
+        assertTrue( queryPlan.getNonPersistedQuery().getCriterions().isEmpty() );
+    }
+
+    private Property addProperty( Map<String, Property> propertyMap, Object bean, String property, boolean persisted )
         throws Exception
     {
         PropertyDescriptor pd = PropertyUtils.getPropertyDescriptor( bean, property );
@@ -191,5 +326,7 @@ class DefaultQueryPlannerTest
         p.setPersisted( persisted );
 
         propertyMap.put( pd.getName(), p );
+
+        return p;
     }
 }
\ No newline at end of file
@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.datavalueset;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.dxf2.datavalueset.ImportContext.WriteContext;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.quick.BatchHandler;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Writes the validated data values of {@link DataValueSet} imports on a pool
+ * of writer threads, while the importing thread keeps reading and validating
+ * the following data values.
+ * <p>
+ * Data values are partitioned to the writers by a key, which the importer
+ * derives from the organisation unit and period of the data value. Values of
+ * the same partition are always written by the same writer and in the order
+ * they were read, so that writers never compete for the same rows. Each writer
+ * uses its own {@link WriteContext}.
+ *
+ * @see ConfigurationKey#DATAVALUESET_IMPORT_THREADS
+ */
+@Slf4j
+@Component
+public class DataValueSetImportPipeline
+{
+    /**
+     * Number of data values handed to a writer at a time.
+     */
+    private static final int CHUNK_SIZE = 500;
+
+    /**
+     * Max number of chunks queued for a writer ahead of the writer.
+     */
+    private static final int QUEUE_SIZE = 8;
+
+    /**
+     * Max time to wait for the writers of a cancelled import to stop.
+     */
+    private static final long CANCEL_TIMEOUT_SECONDS = 30;
+
+    private final int threads;
+
+    /**
+     * Writers of imports which are still running.
+     */
+    private final Set<Writers<?>> activeWriters = ConcurrentHashMap.newKeySet();
+
+    public DataValueSetImportPipeline( DhisConfigurationProvider config )
+    {
+        checkNotNull( config );
+
+        this.threads = Integer.parseInt( config.getProperty( ConfigurationKey.DATAVALUESET_IMPORT_THREADS ) );
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        activeWriters.forEach( Writers::cancel );
+    }
+
+    /**
+     * Indicates whether data values are written by a pool of writers.
+     *
+     * @return true if imports are pipelined.
+     */
+    public boolean isEnabled()
+    {
+        return threads > 1;
+    }
+
+    /**
+     * Starts the writers of an import. Each import has its own writer threads,
+     * so that concurrent imports never wait for each other's writers.
+     *
+     * @param writeContexts creates the {@link WriteContext} of each writer.
+     * @param writer writes a single validated data value.
+     * @param <T> the type of validated data values.
+     * @return the started {@link Writers}.
+     */
+    public <T> Writers<T> start( Supplier<WriteContext> writeContexts, BiConsumer<WriteContext, T> writer )
+    {
+        if ( !isEnabled() )
+        {
+            throw new IllegalStateException( "Data value set import pipeline is not enabled" );
+        }
+
+        Writers<T> writers = new Writers<>();
+        activeWriters.add( writers );
+
+        try
+        {
+            writers.start( writeContexts, writer );
+        }
+        catch ( RuntimeException ex )
+        {
+            writers.cancel();
+            throw ex;
+        }
+
+        return writers;
+    }
+
+    /**
+     * The writers of a single import. Data values are added by the importing
+     * thread only.
+     *
+     * @param <T> the type of validated data values.
+     */
+    public final class Writers<T>
+    {
+        private final ExecutorService executor = Executors.newFixedThreadPool( threads,
+            new ThreadFactoryBuilder().setNameFormat( "DATAVALUESET-IMPORT-%d" ).setDaemon( true ).build() );
+
+        private final List<BlockingQueue<List<T>>> queues = new ArrayList<>();
+
+        private final List<List<T>> chunks = new ArrayList<>();
+
+        private final List<WriteContext> contexts = Collections.synchronizedList( new ArrayList<>() );
+
+        private final List<Future<WriteContext>> futures = new ArrayList<>();
+
+        private Writers()
+        {
+        }
+
+        private void start( Supplier<WriteContext> writeContexts, BiConsumer<WriteContext, T> writer )
+        {
+            for ( int i = 0; i < threads; i++ )
+            {
+                BlockingQueue<List<T>> queue = new ArrayBlockingQueue<>( QUEUE_SIZE );
+                WriteContext context = writeContexts.get();
+
+                contexts.add( context );
+                queues.add( queue );
+                chunks.add( new ArrayList<>( CHUNK_SIZE ) );
+                futures.add( executor.submit( () -> write( queue, context, writer ) ) );
+            }
+        }
+
+        /**
+         * Adds a validated data value to the writer of the given partition.
+         * Waits if the writer is too far behind.
+         *
+         * @param partition the partition key of the data value.
+         * @param value the validated data value.
+         */
+        public void add( int partition, T value )
+            throws InterruptedException
+        {
+            int writer = Math.floorMod( partition, queues.size() );
+            List<T> chunk = chunks.get( writer );
+
+            chunk.add( value );
+
+            if ( chunk.size() == CHUNK_SIZE )
+            {
+                put( writer, chunk );
+                chunks.set( writer, new ArrayList<>( CHUNK_SIZE ) );
+            }
+        }
+
+        /**
+         * Hands the remaining data values to the writers and waits for all
+         * writers to flush.
+         *
+         * @return the {@link WriteContext} of each writer.
+         */
+        public List<WriteContext> finish()
+            throws InterruptedException
+        {
+            for ( int i = 0; i < queues.size(); i++ )
+            {
+                if ( !chunks.get( i ).isEmpty() )
+                {
+                    put( i, chunks.get( i ) );
+                }
+
+                put( i, Collections.emptyList() );
+            }
+
+            List<WriteContext> written = new ArrayList<>();
+
+            for ( Future<WriteContext> future : futures )
+            {
+                written.add( get( future ) );
+            }
+
+            executor.shutdown();
+            activeWriters.remove( this );
+
+            return written;
+        }
+
+        /**
+         * Stops all writers which are still running and flushes the batch
+         * handlers of every writer which did not complete, so that their
+         * connections are released also when a writer never ran.
+         */
+        public void cancel()
+        {
+            executor.shutdownNow();
+
+            try
+            {
+                if ( !executor.awaitTermination( CANCEL_TIMEOUT_SECONDS, TimeUnit.SECONDS ) )
+                {
+                    log.warn( "Data value set import writers did not stop within {} seconds",
+                        CANCEL_TIMEOUT_SECONDS );
+                }
+            }
+            catch ( InterruptedException ex )
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            synchronized ( contexts )
+            {
+                for ( int i = 0; i < contexts.size(); i++ )
+                {
+                    if ( i >= futures.size() || !isCompleted( futures.get( i ) ) )
+                    {
+                        close( contexts.get( i ) );
+                    }
+                }
+
+                contexts.clear();
+            }
+
+            activeWriters.remove( this );
+        }
+
+        private void put( int writer, List<T> chunk )
+            throws InterruptedException
+        {
+            while ( !queues.get( writer ).offer( chunk, 100, TimeUnit.MILLISECONDS ) )
+            {
+                if ( futures.get( writer ).isDone() )
+                {
+                    get( futures.get( writer ) );
+
+                    throw new IllegalStateException( "Data value set import writer stopped unexpectedly" );
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes chunks of data values until an empty chunk marks the end of the
+     * import, then flushes the batch handlers of the writer.
+     */
+    private static <T> WriteContext write( BlockingQueue<List<T>> queue, WriteContext context,
+        BiConsumer<WriteContext, T> writer )
+        throws InterruptedException
+    {
+        List<T> chunk;
+
+        while ( !(chunk = queue.take()).isEmpty() )
+        {
+            for ( T value : chunk )
+            {
+                writer.accept( context, value );
+            }
+        }
+
+        context.getDataValueBatchHandler().flush();
+
+        if ( context.getAuditBatchHandler() != null )
+        {
+            context.getAuditBatchHandler().flush();
+        }
+
+        return context;
+    }
+
+    /**
+     * Indicates whether a writer flushed its batch handlers itself.
+     */
+    private static boolean isCompleted( Future<WriteContext> future )
+    {
+        if ( !future.isDone() || future.isCancelled() )
+        {
+            return false;
+        }
+
+        try
+        {
+            future.get();
+            return true;
+        }
+        catch ( ExecutionException | InterruptedException ex )
+        {
+            return false;
+        }
+    }
+
+    private static void close( WriteContext context )
+    {
+        close( context.getDataValueBatchHandler() );
+        close( context.getAuditBatchHandler() );
+    }
+
+    private static void close( BatchHandler<?> batchHandler )
+    {
+        if ( batchHandler == null )
+        {
+            return;
+        }
+
+        try
+        {
+            batchHandler.flush();
+        }
+        catch ( RuntimeException ex )
+        {
+            log.error( "Failed to close batch handler of cancelled data value set import", ex );
+        }
+    }
+
+    private static WriteContext get( Future<WriteContext> future )
+        throws InterruptedException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( ExecutionException ex )
+        {
+            throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause()
+                : new RuntimeException( ex.getCause() );
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.datavalueset;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Throughput metrics of data value set exports and imports. The rate of values
+ * and bytes per second follows from the counters, either over time or relative
+ * to the total time spent exporting or importing.
+ */
+@Component
+public class DataValueSetMetrics
+    implements MeterBinder
+{
+    private final LongAdder exports = new LongAdder();
+
+    private final LongAdder exportNanos = new LongAdder();
+
+    private final LongAdder exportedValues = new LongAdder();
+
+    private final LongAdder exportedBytes = new LongAdder();
+
+    private final LongAdder imports = new LongAdder();
+
+    private final LongAdder importNanos = new LongAdder();
+
+    private final LongAdder importedValues = new LongAdder();
+
+    /**
+     * Records a completed data value set export.
+     *
+     * @param values the number of exported data values.
+     * @param bytes the number of bytes written, before compression.
+     * @param nanos the duration of the export in nanoseconds.
+     */
+    public void exported( long values, long bytes, long nanos )
+    {
+        exports.increment();
+        exportNanos.add( nanos );
+        exportedValues.add( values );
+        exportedBytes.add( bytes );
+    }
+
+    /**
+     * Records a completed data value set import.
+     *
+     * @param values the number of imported, updated, deleted and ignored data
+     *        values.
+     * @param nanos the duration of the import in nanoseconds.
+     */
+    public void imported( long values, long nanos )
+    {
+        imports.increment();
+        importNanos.add( nanos );
+        importedValues.add( values );
+    }
+
+    @Override
+    public void bindTo( MeterRegistry registry )
+    {
+        FunctionTimer.builder( "datavalueset.export", this, e -> e.exports.longValue(),
+            e -> e.exportNanos.doubleValue(), TimeUnit.NANOSECONDS )
+            .description( "Time spent exporting data value sets" )
+            .register( registry );
+
+        FunctionCounter.builder( "datavalueset.export.values", exportedValues, LongAdder::doubleValue )
+            .description( "Number of exported data values" )
+            .register( registry );
+
+        FunctionCounter.builder( "datavalueset.export.bytes", exportedBytes, LongAdder::doubleValue )
+            .description( "Number of bytes written by data value set exports, before compression" )
+            .register( registry );
+
+        FunctionTimer.builder( "datavalueset.import", this, e -> e.imports.longValue(),
+            e -> e.importNanos.doubleValue(), TimeUnit.NANOSECONDS )
+            .description( "Time spent importing data value sets" )
+            .register( registry );
+
+        FunctionCounter.builder( "datavalueset.import.values", importedValues, LongAdder::doubleValue )
+            .description( "Number of data values processed by data value set imports" )
+            .register( registry );
+    }
+}
@@ -27,10 +27,12 @@
  */
 package org.hisp.dhis.dxf2.datavalueset;
 
+import static java.util.Collections.singletonList;
 import static org.apache.commons.lang3.StringUtils.trimToNull;
 import static org.hisp.dhis.commons.collection.CollectionUtils.isEmpty;
 import static org.hisp.dhis.commons.util.StreamUtils.wrapAndCheckCompressionFormat;
 import static org.hisp.dhis.external.conf.ConfigurationKey.CHANGELOG_AGGREGATE;
+import static org.hisp.dhis.external.conf.ConfigurationKey.DATAVALUESET_IMPORT_COPY_ENABLED;
 import static org.hisp.dhis.system.notification.NotificationLevel.ERROR;
 import static org.hisp.dhis.system.notification.NotificationLevel.INFO;
 import static org.hisp.dhis.system.notification.NotificationLevel.WARN;
@@ -46,9 +48,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.function.Function;
 
 import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.lang3.BooleanUtils;
@@ -73,9 +77,9 @@ import org.hisp.dhis.dataset.LockExceptionStore;
 import org.hisp.dhis.datavalue.DataExportParams;
 import org.hisp.dhis.datavalue.DataValue;
 import org.hisp.dhis.datavalue.DataValueAudit;
-import org.hisp.dhis.datavalue.DataValueService;
 import org.hisp.dhis.dxf2.common.ImportOptions;
 import org.hisp.dhis.dxf2.datavalueset.ImportContext.DataSetContext;
+import org.hisp.dhis.dxf2.datavalueset.ImportContext.WriteContext;
 import org.hisp.dhis.dxf2.importsummary.ImportCount;
 import org.hisp.dhis.dxf2.importsummary.ImportStatus;
 import org.hisp.dhis.dxf2.importsummary.ImportSummary;
@@ -87,6 +91,8 @@ import org.hisp.dhis.fileresource.FileResource;
 import org.hisp.dhis.fileresource.FileResourceService;
 import org.hisp.dhis.i18n.I18nManager;
 import org.hisp.dhis.importexport.ImportStrategy;
+import org.hisp.dhis.jdbc.batchhandler.CopyDataValueAuditBatchHandler;
+import org.hisp.dhis.jdbc.batchhandler.CopyDataValueBatchHandler;
 import org.hisp.dhis.jdbc.batchhandler.DataValueAuditBatchHandler;
 import org.hisp.dhis.jdbc.batchhandler.DataValueBatchHandler;
 import org.hisp.dhis.node.types.CollectionNode;
@@ -117,6 +123,7 @@ import org.hisp.dhis.user.CurrentUserServiceTarget;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.util.DateUtils;
 import org.hisp.dhis.util.ObjectUtils;
+import org.hisp.quick.BatchHandler;
 import org.hisp.quick.BatchHandlerFactory;
 import org.hisp.staxwax.factory.XMLFactory;
 import org.springframework.stereotype.Service;
@@ -167,8 +174,6 @@ public class DefaultDataValueSetService
 
     private final CalendarService calendarService;
 
-    private final DataValueService dataValueService;
-
     private final FileResourceService fileResourceService;
 
     private final AclService aclService;
@@ -181,6 +186,10 @@ public class DefaultDataValueSetService
 
     private final SchemaService schemaService;
 
+    private final DataValueSetImportPipeline importPipeline;
+
+    private final DataValueSetMetrics metrics;
+
     @Override
     public void setCurrentUserService( CurrentUserService currentUserService )
     {
@@ -704,25 +713,14 @@ public class DefaultDataValueSetService
         // ---------------------------------------------------------------------
 
         Date now = new Date();
+        long startTime = System.nanoTime();
 
         clock.logTime( "Validated outer meta-data" );
         notifier.notify( id, notificationLevel, "Importing data values" );
 
-        List<? extends DataValueEntry> values = dataValueSet.getDataValues();
-        int index = 0;
-        if ( values != null && !values.isEmpty() )
-        {
-            for ( DataValueEntry dataValue : values )
-            {
-                importDataValue( context, dataSetContext, importCount, now, index++, dataValue );
-            }
-        }
-        DataValueEntry dataValue = reader.readNext();
-        while ( dataValue != null )
-        {
-            importDataValue( context, dataSetContext, importCount, now, index++, dataValue );
-            dataValue = reader.readNext();
-        }
+        List<WriteContext> writeContexts = importPipeline.isEnabled()
+            ? importDataValuesPipelined( context, dataSetContext, importCount, now, dataValueSet, reader )
+            : importDataValues( context, dataSetContext, importCount, now, dataValueSet, reader );
 
         context.getDataValueBatchHandler().flush();
 
@@ -731,6 +729,10 @@ public class DefaultDataValueSetService
             context.getAuditBatchHandler().flush();
         }
 
+        completeWrites( context, importCount, writeContexts );
+
+        metrics.imported( importCount.getTotalCount(), System.nanoTime() - startTime );
+
         context.getSummary()
             .setImportCount( importCount )
             .setStatus( !context.getSummary().hasConflicts() ? ImportStatus.SUCCESS : ImportStatus.WARNING )
@@ -746,8 +748,161 @@ public class DefaultDataValueSetService
         return context.getSummary();
     }
 
-    private void importDataValue( ImportContext context, DataSetContext dataSetContext, ImportCount importCount,
-        Date now, int index, DataValueEntry dataValue )
+    /**
+     * Validates and writes the data values on the importing thread.
+     *
+     * @return the single {@link WriteContext} used.
+     */
+    private List<WriteContext> importDataValues( ImportContext context, DataSetContext dataSetContext,
+        ImportCount importCount, Date now, DataValueSet dataValueSet, DataValueSetReader reader )
+    {
+        WriteContext writeContext = new WriteContext( context.getDataValueBatchHandler(),
+            context.getAuditBatchHandler(), new ImportCount() );
+
+        List<? extends DataValueEntry> values = dataValueSet.getDataValues();
+        int index = 0;
+        if ( values != null && !values.isEmpty() )
+        {
+            for ( DataValueEntry dataValue : values )
+            {
+                importDataValue( context, dataSetContext, writeContext, importCount, now, index++, dataValue );
+            }
+        }
+        DataValueEntry dataValue = reader.readNext();
+        while ( dataValue != null )
+        {
+            importDataValue( context, dataSetContext, writeContext, importCount, now, index++, dataValue );
+            dataValue = reader.readNext();
+        }
+
+        return singletonList( writeContext );
+    }
+
+    /**
+     * Validates the data values on the importing thread and hands them to the
+     * writers of the {@link DataValueSetImportPipeline}. Validation uses the
+     * caches of the {@link ImportContext}, which are populated lazily from the
+     * database session of the importing thread, and therefore stays on this
+     * thread. Conflicts are reported in the order of the data values as for a
+     * serial import. Data values are partitioned to the writers by
+     * organisation unit and period, so that writers never update the same
+     * rows, and each writer has its own batch handlers and import count.
+     *
+     * @return the {@link WriteContext} of each writer.
+     */
+    private List<WriteContext> importDataValuesPipelined( ImportContext context, DataSetContext dataSetContext,
+        ImportCount importCount, Date now, DataValueSet dataValueSet, DataValueSetReader reader )
+    {
+        DataValueSetImportPipeline.Writers<ValidatedDataValue> writers = importPipeline.start(
+            () -> new WriteContext( createDataValueBatchHandler(),
+                context.isSkipAudit() ? null : createAuditBatchHandler(), new ImportCount() ),
+            ( writeContext, value ) -> writeDataValue( context, writeContext, value ) );
+
+        boolean finished = false;
+
+        try
+        {
+            List<? extends DataValueEntry> values = dataValueSet.getDataValues();
+            int index = 0;
+            if ( values != null && !values.isEmpty() )
+            {
+                for ( DataValueEntry dataValue : values )
+                {
+                    addDataValue( writers,
+                        validateDataValue( context, dataSetContext, importCount, now, index++, dataValue ) );
+                }
+            }
+            DataValueEntry dataValue = reader.readNext();
+            while ( dataValue != null )
+            {
+                addDataValue( writers,
+                    validateDataValue( context, dataSetContext, importCount, now, index++, dataValue ) );
+                dataValue = reader.readNext();
+            }
+
+            List<WriteContext> writeContexts = writers.finish();
+            finished = true;
+            return writeContexts;
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new CancellationException( "Data value set import was interrupted" );
+        }
+        finally
+        {
+            if ( !finished )
+            {
+                writers.cancel();
+            }
+        }
+    }
+
+    private static void addDataValue( DataValueSetImportPipeline.Writers<ValidatedDataValue> writers,
+        ValidatedDataValue value )
+        throws InterruptedException
+    {
+        if ( value != null )
+        {
+            DataValue internalValue = value.getInternalValue();
+
+            writers.add( Objects.hash( internalValue.getSource().getId(), internalValue.getPeriod().getId() ),
+                value );
+        }
+    }
+
+    /**
+     * Adds the counts, skipped values and file resource changes of the writers
+     * to the import, once all data values are written.
+     */
+    private void completeWrites( ImportContext context, ImportCount importCount, List<WriteContext> writeContexts )
+    {
+        for ( WriteContext writeContext : writeContexts )
+        {
+            ImportCount writeCount = writeContext.getImportCount();
+
+            importCount.incrementImported( writeCount.getImported() );
+            importCount.incrementUpdated( writeCount.getUpdated() );
+            importCount.incrementIgnored( writeCount.getIgnored() );
+            importCount.incrementDeleted( writeCount.getDeleted() );
+
+            for ( int i = 0; i < writeContext.getSkippedValueCount(); i++ )
+            {
+                context.getSummary().skipValue();
+            }
+
+            writeContext.getFileResources().forEach( ( uid, assigned ) -> {
+                FileResource fr = fileResourceService.getFileResource( uid );
+
+                if ( assigned )
+                {
+                    fr.setAssigned( true );
+                }
+
+                fileResourceService.updateFileResource( fr );
+            } );
+        }
+    }
+
+    private void importDataValue( ImportContext context, DataSetContext dataSetContext, WriteContext writeContext,
+        ImportCount importCount, Date now, int index, DataValueEntry dataValue )
+    {
+        ValidatedDataValue value = validateDataValue( context, dataSetContext, importCount, now, index, dataValue );
+
+        if ( value != null )
+        {
+            writeDataValue( context, writeContext, value );
+        }
+    }
+
+    /**
+     * Validates a data value and converts it to a {@link DataValue}.
+     *
+     * @return the validated data value, or null if the data value is skipped.
+     */
+    private ValidatedDataValue validateDataValue( ImportContext context, DataSetContext dataSetContext,
+        ImportCount importCount, Date now, int index, DataValueEntry dataValue )
     {
         ImportContext.DataValueContext valueContext = createDataValueContext( index, dataValue, context,
             dataSetContext );
@@ -764,7 +919,7 @@ public class DefaultDataValueSetService
         if ( importValidator.skipDataValue( dataValue, context, dataSetContext, valueContext ) )
         {
             importCount.incrementIgnored();
-            return;
+            return null;
         }
 
         // -----------------------------------------------------------------
@@ -772,11 +927,27 @@ public class DefaultDataValueSetService
         // -----------------------------------------------------------------
         DataValue internalValue = createDataValue( dataValue, context, valueContext, now );
 
+        return new ValidatedDataValue( dataValue, valueContext, internalValue );
+    }
+
+    /**
+     * Saves, updates or deletes a validated data value. Only uses the given
+     * {@link WriteContext} and the read-only state of the
+     * {@link ImportContext}, as it can run on a writer thread of the
+     * {@link DataValueSetImportPipeline}.
+     */
+    private void writeDataValue( ImportContext context, WriteContext writeContext, ValidatedDataValue value )
+    {
+        DataValueEntry dataValue = value.getDataValue();
+        ImportContext.DataValueContext valueContext = value.getValueContext();
+        DataValue internalValue = value.getInternalValue();
+        ImportCount importCount = writeContext.getImportCount();
+
         // -----------------------------------------------------------------
         // Save, update or delete data value
         // -----------------------------------------------------------------
         DataValue existingValue = !context.isSkipExistingCheck()
-            ? context.getDataValueBatchHandler().findObject( internalValue )
+            ? writeContext.getDataValueBatchHandler().findObject( internalValue )
             : null;
 
         // -----------------------------------------------------------------
@@ -793,7 +964,7 @@ public class DefaultDataValueSetService
         if ( zeroAndInsignificant && (existingValue == null || strategy.isCreate()) )
         {
             // Ignore value
-            context.getSummary().skipValue();
+            writeContext.skipValue();
             return;
         }
 
@@ -804,11 +975,13 @@ public class DefaultDataValueSetService
         {
             if ( strategy.isCreateAndUpdate() || strategy.isUpdate() )
             {
-                saveDataValueUpdate( context, importCount, dataValue, valueContext, internalValue, existingValue );
+                saveDataValueUpdate( context, writeContext, dataValue, valueContext, internalValue,
+                    existingValue );
             }
             else if ( strategy.isDelete() )
             {
-                saveDataValueDelete( context, importCount, dataValue, valueContext, internalValue, existingValue );
+                saveDataValueDelete( context, writeContext, dataValue, valueContext, internalValue,
+                    existingValue );
             }
             else
             {
@@ -819,7 +992,7 @@ public class DefaultDataValueSetService
         {
             if ( strategy.isCreateAndUpdate() || strategy.isCreate() )
             {
-                saveDataValueCreate( context, importCount, valueContext, internalValue, existingValue );
+                saveDataValueCreate( context, writeContext, valueContext, internalValue, existingValue );
             }
             else
             {
@@ -828,9 +1001,11 @@ public class DefaultDataValueSetService
         }
     }
 
-    private void saveDataValueCreate( ImportContext context, ImportCount importCount,
+    private void saveDataValueCreate( ImportContext context, WriteContext writeContext,
         ImportContext.DataValueContext valueContext, DataValue internalValue, DataValue existingValue )
     {
+        ImportCount importCount = writeContext.getImportCount();
+
         if ( internalValue.isNullValue() )
         {
             importCount.incrementIgnored();
@@ -842,15 +1017,11 @@ public class DefaultDataValueSetService
 
             if ( !context.isDryRun() )
             {
-                context.getDataValueBatchHandler().updateObject( internalValue );
+                writeContext.getDataValueBatchHandler().updateObject( internalValue );
 
                 if ( valueContext.getDataElement().isFileType() )
                 {
-                    FileResource fr = fileResourceService.getFileResource( internalValue.getValue() );
-
-                    fr.setAssigned( true );
-
-                    fileResourceService.updateFileResource( fr );
+                    writeContext.assignFileResource( internalValue.getValue() );
                 }
             }
             return;
@@ -859,15 +1030,11 @@ public class DefaultDataValueSetService
 
         if ( !context.isDryRun() )
         {
-            added = context.getDataValueBatchHandler().addObject( internalValue );
+            added = writeContext.getDataValueBatchHandler().addObject( internalValue );
 
             if ( added && valueContext.getDataElement().isFileType() )
             {
-                FileResource fr = fileResourceService.getFileResource( internalValue.getValue() );
-
-                fr.setAssigned( true );
-
-                fileResourceService.updateFileResource( fr );
+                writeContext.assignFileResource( internalValue.getValue() );
             }
         }
 
@@ -877,40 +1044,38 @@ public class DefaultDataValueSetService
         }
     }
 
-    private void saveDataValueDelete( ImportContext context, ImportCount importCount,
+    private void saveDataValueDelete( ImportContext context, WriteContext writeContext,
         DataValueEntry dataValue, ImportContext.DataValueContext valueContext,
         DataValue internalValue, DataValue existingValue )
     {
         internalValue.setDeleted( true );
 
-        importCount.incrementDeleted();
+        writeContext.getImportCount().incrementDeleted();
 
         if ( !context.isDryRun() )
         {
-            DataValue actualDataValue = valueContext.getActualDataValue( dataValueService );
-            if ( valueContext.getDataElement().isFileType() && actualDataValue != null )
+            if ( valueContext.getDataElement().isFileType() )
             {
-                FileResource fr = fileResourceService.getFileResource( actualDataValue.getValue() );
-
-                fileResourceService.updateFileResource( fr );
+                writeContext.updateFileResource( existingValue.getValue() );
             }
 
-            context.getDataValueBatchHandler().updateObject( internalValue );
+            writeContext.getDataValueBatchHandler().updateObject( internalValue );
 
             if ( !context.isSkipAudit() )
             {
                 DataValueAudit auditValue = new DataValueAudit( internalValue, existingValue.getValue(),
                     context.getStoredBy( dataValue ), AuditType.DELETE );
 
-                context.getAuditBatchHandler().addObject( auditValue );
+                writeContext.getAuditBatchHandler().addObject( auditValue );
             }
         }
     }
 
-    private void saveDataValueUpdate( ImportContext context, ImportCount importCount,
+    private void saveDataValueUpdate( ImportContext context, WriteContext writeContext,
         DataValueEntry dataValue, ImportContext.DataValueContext valueContext,
         DataValue internalValue, DataValue existingValue )
     {
+        ImportCount importCount = writeContext.getImportCount();
         AuditType auditType = AuditType.UPDATE;
         if ( internalValue.isNullValue() || internalValue.isDeleted()
             || dataValueIsZeroAndInsignificant( dataValue.getValue(), valueContext.getDataElement() ) )
@@ -933,23 +1098,19 @@ public class DefaultDataValueSetService
         }
         if ( !context.isDryRun() )
         {
-            context.getDataValueBatchHandler().updateObject( internalValue );
+            writeContext.getDataValueBatchHandler().updateObject( internalValue );
 
             if ( !context.isSkipAudit() )
             {
                 DataValueAudit auditValue = new DataValueAudit( internalValue, existingValue.getValue(),
                     context.getStoredBy( dataValue ), auditType );
 
-                context.getAuditBatchHandler().addObject( auditValue );
+                writeContext.getAuditBatchHandler().addObject( auditValue );
             }
 
             if ( valueContext.getDataElement().isFileType() )
             {
-                FileResource fr = fileResourceService.getFileResource( internalValue.getValue() );
-
-                fr.setAssigned( true );
-
-                fileResourceService.updateFileResource( fr );
+                writeContext.assignFileResource( internalValue.getValue() );
             }
 
         }
@@ -1081,14 +1242,34 @@ public class DefaultDataValueSetService
                 trimToNull( data.getPeriod() ) ) )
 
             // data processing
-            .dataValueBatchHandler( batchHandlerFactory
-                .createBatchHandler( DataValueBatchHandler.class ).init() )
-            .auditBatchHandler( skipAudit ? null
-                : batchHandlerFactory.createBatchHandler( DataValueAuditBatchHandler.class ).init() )
+            .dataValueBatchHandler( createDataValueBatchHandler() )
+            .auditBatchHandler( skipAudit ? null : createAuditBatchHandler() )
             .singularNameForType( klass -> schemaService.getDynamicSchema( klass ).getSingular() )
             .build();
     }
 
+    /**
+     * Creates the batch handler for data values, which is {@code COPY} based
+     * if enabled for data value set imports.
+     */
+    private BatchHandler<DataValue> createDataValueBatchHandler()
+    {
+        return config.isEnabled( DATAVALUESET_IMPORT_COPY_ENABLED )
+            ? batchHandlerFactory.createBatchHandler( CopyDataValueBatchHandler.class ).init()
+            : batchHandlerFactory.createBatchHandler( DataValueBatchHandler.class ).init();
+    }
+
+    /**
+     * Creates the batch handler for data value audits, which is {@code COPY}
+     * based if enabled for data value set imports.
+     */
+    private BatchHandler<DataValueAudit> createAuditBatchHandler()
+    {
+        return config.isEnabled( DATAVALUESET_IMPORT_COPY_ENABLED )
+            ? batchHandlerFactory.createBatchHandler( CopyDataValueAuditBatchHandler.class ).init()
+            : batchHandlerFactory.createBatchHandler( DataValueAuditBatchHandler.class ).init();
+    }
+
     private void logDataValueSetImportContextInfo( ImportContext context )
     {
         log.info( String.format( "Is ISO calendar: %b, skip lock exception check: %b",
@@ -1232,4 +1413,17 @@ public class DefaultDataValueSetService
         summary.setDataSetComplete( DateUtils.getMediumDateString( completeDate ) );
     }
 
+    /**
+     * A data value which passed validation, ready to be written.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static final class ValidatedDataValue
+    {
+        private final DataValueEntry dataValue;
+
+        private final ImportContext.DataValueContext valueContext;
+
+        private final DataValue internalValue;
+    }
 }
@@ -30,6 +30,8 @@ package org.hisp.dhis.dxf2.datavalueset;
 import static java.util.Collections.emptySet;
 
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
@@ -52,6 +54,7 @@ import org.hisp.dhis.datavalue.DataValueService;
 import org.hisp.dhis.dxf2.common.ImportOptions;
 import org.hisp.dhis.dxf2.importsummary.ImportConflict;
 import org.hisp.dhis.dxf2.importsummary.ImportConflictDescriptor;
+import org.hisp.dhis.dxf2.importsummary.ImportCount;
 import org.hisp.dhis.dxf2.importsummary.ImportStatus;
 import org.hisp.dhis.dxf2.importsummary.ImportSummary;
 import org.hisp.dhis.i18n.I18n;
@@ -290,4 +293,51 @@ public final class ImportContext
                 getAttrOptionCombo() );
         }
     }
+
+    /**
+     * The state of a writer of validated data values during a
+     * {@link DataValueSet} import. A pipelined import uses one write context
+     * per writer thread, all other imports use a single one. Changes to file
+     * resources are collected and applied once the data values are written.
+     */
+    @Getter
+    public static final class WriteContext
+    {
+        private final BatchHandler<org.hisp.dhis.datavalue.DataValue> dataValueBatchHandler;
+
+        private final BatchHandler<DataValueAudit> auditBatchHandler;
+
+        private final ImportCount importCount;
+
+        /**
+         * File resource UIDs mapped to whether the file resource gets assigned
+         * or is only updated.
+         */
+        private final Map<String, Boolean> fileResources = new LinkedHashMap<>();
+
+        private int skippedValueCount;
+
+        public WriteContext( BatchHandler<org.hisp.dhis.datavalue.DataValue> dataValueBatchHandler,
+            BatchHandler<DataValueAudit> auditBatchHandler, ImportCount importCount )
+        {
+            this.dataValueBatchHandler = dataValueBatchHandler;
+            this.auditBatchHandler = auditBatchHandler;
+            this.importCount = importCount;
+        }
+
+        public void skipValue()
+        {
+            skippedValueCount++;
+        }
+
+        public void assignFileResource( String uid )
+        {
+            fileResources.put( uid, true );
+        }
+
+        public void updateFileResource( String uid )
+        {
+            fileResources.putIfAbsent( uid, false );
+        }
+    }
 }
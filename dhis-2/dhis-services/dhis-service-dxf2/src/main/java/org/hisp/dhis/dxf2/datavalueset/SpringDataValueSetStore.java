@@ -33,12 +33,34 @@ import static org.hisp.dhis.commons.util.TextUtils.getCommaDelimitedString;
 import static org.hisp.dhis.util.DateUtils.getLongGmtDateString;
 import static org.hisp.dhis.util.DateUtils.getMediumDateString;
 
+import java.io.FilterWriter;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Writer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -48,7 +70,11 @@ import org.hisp.dhis.common.IdScheme;
 import org.hisp.dhis.common.IdSchemes;
 import org.hisp.dhis.commons.util.TextUtils;
 import org.hisp.dhis.datavalue.DataExportParams;
+import org.hisp.dhis.dxf2.datavalue.DataValue;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodType;
 import org.hisp.dhis.query.JpaQueryUtils;
 import org.hisp.dhis.security.acl.AclService;
@@ -58,11 +84,16 @@ import org.hisp.dhis.user.CurrentUserServiceTarget;
 import org.hisp.dhis.user.User;
 import org.hisp.dhis.util.DateUtils;
 import org.hisp.staxwax.factory.XMLFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 
 import com.google.common.base.Preconditions;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * @author Lars Helge Overland
@@ -72,17 +103,56 @@ import com.google.common.base.Preconditions;
 public class SpringDataValueSetStore
     implements DataValueSetStore, CurrentUserServiceTarget
 {
+    /**
+     * Max number of data values fetched by a partition ahead of the writer.
+     */
+    private static final int PARTITION_QUEUE_SIZE = 10_000;
+
     private CurrentUserService currentUserService;
 
     private final JdbcTemplate jdbcTemplate;
 
-    public SpringDataValueSetStore( CurrentUserService currentUserService, JdbcTemplate jdbcTemplate )
+    private final JdbcTemplate readOnlyJdbcTemplate;
+
+    private final DataValueSetMetrics metrics;
+
+    private final int fetchSize;
+
+    /**
+     * Executor of partition queries, null if data value sets are exported by
+     * a single query.
+     */
+    private final ExecutorService executor;
+
+    public SpringDataValueSetStore( CurrentUserService currentUserService, JdbcTemplate jdbcTemplate,
+        @Qualifier( "readOnlyJdbcTemplate" ) JdbcTemplate readOnlyJdbcTemplate, DataValueSetMetrics metrics,
+        DhisConfigurationProvider config )
     {
         checkNotNull( currentUserService );
         checkNotNull( jdbcTemplate );
+        checkNotNull( readOnlyJdbcTemplate );
+        checkNotNull( metrics );
+        checkNotNull( config );
 
         this.currentUserService = currentUserService;
         this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyJdbcTemplate = readOnlyJdbcTemplate;
+        this.metrics = metrics;
+        this.fetchSize = Integer.parseInt( config.getProperty( ConfigurationKey.DATAVALUESET_EXPORT_FETCH_SIZE ) );
+
+        int threads = Integer.parseInt( config.getProperty( ConfigurationKey.DATAVALUESET_EXPORT_THREADS ) );
+
+        this.executor = threads > 1 ? Executors.newFixedThreadPool( threads,
+            new ThreadFactoryBuilder().setNameFormat( "DATAVALUESET-EXPORT-%d" ).setDaemon( true ).build() ) : null;
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        if ( executor != null )
+        {
+            executor.shutdownNow();
+        }
     }
 
     @Override
@@ -98,29 +168,46 @@ public class SpringDataValueSetStore
     @Override
     public void exportDataValueSetXml( DataExportParams params, Date completeDate, OutputStream out )
     {
-        try ( DataValueSetWriter writer = new XmlDataValueSetWriter( XMLFactory.getXMLWriter( out ) ) )
+        long start = System.nanoTime();
+        CountingOutputStream counter = new CountingOutputStream( out );
+        long values;
+
+        try ( DataValueSetWriter writer = new XmlDataValueSetWriter( XMLFactory.getXMLWriter( counter ) ) )
         {
-            exportDataValueSet( getDataValueSql( params ), params, completeDate, writer );
+            values = exportDataValueSet( params, completeDate, writer );
         }
+
+        recordExport( values, counter.getCount(), start );
     }
 
     @Override
     public void exportDataValueSetJson( DataExportParams params, Date completeDate, OutputStream out )
     {
+        long start = System.nanoTime();
+        CountingOutputStream counter = new CountingOutputStream( out );
+        long values;
 
-        try ( DataValueSetWriter writer = new JsonDataValueSetWriter( out ) )
+        try ( DataValueSetWriter writer = new JsonDataValueSetWriter( counter ) )
         {
-            exportDataValueSet( getDataValueSql( params ), params, completeDate, writer );
+            values = exportDataValueSet( params, completeDate, writer );
         }
+
+        recordExport( values, counter.getCount(), start );
     }
 
     @Override
     public void exportDataValueSetCsv( DataExportParams params, Date completeDate, Writer out )
     {
-        try ( DataValueSetWriter writer = new CsvDataValueSetWriter( CsvUtils.getWriter( out ) ) )
+        long start = System.nanoTime();
+        CountingWriter counter = new CountingWriter( out );
+        long values;
+
+        try ( DataValueSetWriter writer = new CsvDataValueSetWriter( CsvUtils.getWriter( counter ) ) )
         {
-            exportDataValueSet( getDataValueSql( params ), params, completeDate, writer );
+            values = exportDataValueSet( params, completeDate, writer );
         }
+
+        recordExport( values, counter.getCount(), start );
     }
 
     @Override
@@ -169,8 +256,48 @@ public class SpringDataValueSetStore
         return sql;
     }
 
-    private void exportDataValueSet( String sql, DataExportParams params, Date completeDate,
+    /**
+     * Exports the data value set for the given parameters. If the export can
+     * be partitioned, by period or by organisation unit subtree, the
+     * partitions are queried concurrently and written in order.
+     *
+     * @return the number of exported data values.
+     */
+    private long exportDataValueSet( DataExportParams params, Date completeDate, DataValueSetWriter writer )
+    {
+        List<String> partitionClauses = getPartitionClauses( params );
+
+        if ( partitionClauses.size() <= 1 )
+        {
+            return exportDataValueSet( getDataValueSql( params, "" ), params, completeDate, writer );
+        }
+
+        writeHeader( params, completeDate, writer );
+
+        List<String> sqls = partitionClauses.stream()
+            .map( partitionClause -> getDataValueSql( params, partitionClause ) )
+            .collect( Collectors.toList() );
+
+        return exportPartitions( sqls, writer );
+    }
+
+    private long exportDataValueSet( String sql, DataExportParams params, Date completeDate,
         final DataValueSetWriter writer )
+    {
+        writeHeader( params, completeDate, writer );
+
+        final Calendar calendar = PeriodType.getCalendar();
+        final LongAdder values = new LongAdder();
+
+        jdbcTemplate.query( con -> getStatement( con, sql ), (RowCallbackHandler) rs -> {
+            writer.writeValue( new ResultSetDataValueEntry( rs, calendar ) );
+            values.increment();
+        } );
+
+        return values.longValue();
+    }
+
+    private void writeHeader( DataExportParams params, Date completeDate, DataValueSetWriter writer )
     {
         if ( params.isSingleDataValueSet() )
         {
@@ -187,16 +314,238 @@ public class SpringDataValueSetStore
         {
             writer.writeHeader();
         }
+    }
 
+    /**
+     * Queries the given partitions concurrently. Each partition fetches its
+     * data values into a bounded queue, which are written in the order of the
+     * partitions. Partitions further ahead wait for the writer when their
+     * queue is full. As partitions are submitted in order, the partition being
+     * written has always started. If the export fails, the remaining
+     * partitions are cancelled.
+     *
+     * @param sqls the SQL queries of the partitions, in order.
+     * @param writer the {@link DataValueSetWriter}.
+     * @return the number of exported data values.
+     */
+    private long exportPartitions( List<String> sqls, DataValueSetWriter writer )
+    {
         final Calendar calendar = PeriodType.getCalendar();
-        jdbcTemplate.query( sql, ( ResultSet rs ) -> writer.writeValue( new ResultSetDataValueEntry( rs, calendar ) ) );
+        final AtomicBoolean cancelled = new AtomicBoolean();
+
+        List<BlockingQueue<DataValueEntry>> queues = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        long values = 0;
+
+        try
+        {
+            for ( String sql : sqls )
+            {
+                BlockingQueue<DataValueEntry> queue = new ArrayBlockingQueue<>( PARTITION_QUEUE_SIZE );
+
+                queues.add( queue );
+                futures.add( executor.submit( () -> queryPartition( sql, calendar, queue, cancelled ) ) );
+            }
+
+            for ( int i = 0; i < queues.size(); i++ )
+            {
+                DataValueEntry entry;
+
+                while ( (entry = take( queues.get( i ), futures.get( i ) )) != null )
+                {
+                    writer.writeValue( entry );
+                    values++;
+                }
+            }
+
+            log.debug( "Exported " + values + " data values in " + sqls.size() + " partitions" );
+
+            return values;
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+
+            throw new CancellationException( "Data value set export was interrupted" );
+        }
+        catch ( ExecutionException ex )
+        {
+            throw ex.getCause() instanceof RuntimeException ? (RuntimeException) ex.getCause()
+                : new RuntimeException( ex.getCause() );
+        }
+        finally
+        {
+            cancelled.set( true );
+            futures.forEach( future -> future.cancel( true ) );
+        }
+    }
+
+    /**
+     * Returns the next data value of a partition, waiting for the partition
+     * query if necessary.
+     *
+     * @return the next data value, or null if the partition is done.
+     * @throws ExecutionException if the partition query failed.
+     */
+    private DataValueEntry take( BlockingQueue<DataValueEntry> queue, Future<?> future )
+        throws InterruptedException,
+        ExecutionException
+    {
+        DataValueEntry entry;
+
+        while ( (entry = queue.poll( 100, TimeUnit.MILLISECONDS )) == null )
+        {
+            if ( future.isDone() && queue.isEmpty() )
+            {
+                future.get();
+
+                return null;
+            }
+        }
+
+        return entry;
+    }
+
+    /**
+     * Fetches the data values of a partition into the given queue. Uses a read
+     * only connection outside of auto commit mode, so that rows are fetched
+     * in batches of the fetch size.
+     */
+    private void queryPartition( String sql, Calendar calendar, BlockingQueue<DataValueEntry> queue,
+        AtomicBoolean cancelled )
+    {
+        readOnlyJdbcTemplate.execute( (ConnectionCallback<Void>) con -> {
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit( false );
+
+            try ( Statement statement = con.createStatement() )
+            {
+                statement.setFetchSize( fetchSize );
+
+                try ( ResultSet rs = statement.executeQuery( sql ) )
+                {
+                    while ( rs.next()
+                        && put( queue, toDataValue( new ResultSetDataValueEntry( rs, calendar ) ), cancelled ) )
+                    {
+                        // Next row
+                    }
+                }
+            }
+            finally
+            {
+                con.rollback();
+                con.setAutoCommit( autoCommit );
+            }
+
+            return null;
+        } );
+    }
+
+    /**
+     * Puts the given data value in the queue, waiting for the writer to catch
+     * up if the queue is full.
+     *
+     * @return false if the export was cancelled.
+     */
+    private boolean put( BlockingQueue<DataValueEntry> queue, DataValueEntry entry, AtomicBoolean cancelled )
+    {
+        try
+        {
+            while ( !cancelled.get() )
+            {
+                if ( queue.offer( entry, 100, TimeUnit.MILLISECONDS ) )
+                {
+                    return true;
+                }
+            }
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        return false;
+    }
+
+    private void recordExport( long values, long bytes, long start )
+    {
+        long nanos = System.nanoTime() - start;
+
+        metrics.exported( values, bytes, nanos );
+
+        log.debug( String.format( "Exported %d data values and %d bytes in %d ms", values, bytes,
+            TimeUnit.NANOSECONDS.toMillis( nanos ) ) );
     }
 
     // --------------------------------------------------------------------------
     // Supportive methods
     // --------------------------------------------------------------------------
 
-    private String getDataValueSql( DataExportParams params )
+    /**
+     * Returns the partition filter SQL clauses for the given parameters. An
+     * export over several periods is partitioned by period. An export of
+     * organisation units including descendants is partitioned into each
+     * organisation unit itself and the subtrees of its children. Exports
+     * with a limit are not partitioned.
+     *
+     * @param params the {@link DataExportParams}.
+     * @return the partition clauses in export order, or an empty list if the
+     *         export is not partitioned.
+     */
+    private List<String> getPartitionClauses( DataExportParams params )
+    {
+        List<String> clauses = new ArrayList<>();
+
+        if ( executor == null || params.hasLimit() )
+        {
+            return clauses;
+        }
+
+        if ( !params.hasStartEndDate() && params.getPeriods().size() > 1 )
+        {
+            params.getPeriods().stream()
+                .sorted( Comparator.comparing( Period::getStartDate ).thenComparing( Period::getId ) )
+                .forEach( pe -> clauses.add( "and dv.periodid = " + pe.getId() + " " ) );
+        }
+        else if ( params.isIncludeDescendants() )
+        {
+            for ( OrganisationUnit root : getRoots( params.getOrganisationUnits() ) )
+            {
+                clauses.add( "and dv.sourceid = " + root.getId() + " " );
+
+                root.getChildren().stream()
+                    .sorted( Comparator.comparing( OrganisationUnit::getPath ) )
+                    .forEach( child -> clauses.add( "and ou.path like '" + child.getPath() + "%' " ) );
+            }
+        }
+
+        return clauses;
+    }
+
+    /**
+     * Returns the given organisation units which are not descendants of any of
+     * the other given organisation units, so that their subtrees are disjoint.
+     */
+    private List<OrganisationUnit> getRoots( Set<OrganisationUnit> orgUnits )
+    {
+        return orgUnits.stream()
+            .filter( ou -> orgUnits.stream().noneMatch(
+                other -> other != ou && !other.getPath().equals( ou.getPath() )
+                    && ou.getPath().startsWith( other.getPath() ) ) )
+            .sorted( Comparator.comparing( OrganisationUnit::getPath ) )
+            .collect( Collectors.toList() );
+    }
+
+    private PreparedStatement getStatement( Connection con, String sql )
+        throws SQLException
+    {
+        PreparedStatement statement = con.prepareStatement( sql );
+        statement.setFetchSize( fetchSize );
+        return statement;
+    }
+
+    private String getDataValueSql( DataExportParams params, String partitionClause )
     {
         Preconditions.checkArgument( !params.getAllDataElements().isEmpty() );
 
@@ -326,6 +675,8 @@ public class SpringDataValueSetStore
                 + getLongGmtDateString( DateUtils.nowMinusDuration( params.getLastUpdatedDuration() ) ) + "' ";
         }
 
+        sql += partitionClause;
+
         if ( user != null && !user.isSuper() )
         {
             sql += getAttributeOptionComboClause( user );
@@ -362,6 +713,70 @@ public class SpringDataValueSetStore
             + JpaQueryUtils.generateSQlQueryForSharingCheck( "co.sharing", user, AclService.LIKE_READ_DATA ) + ") )";
     }
 
+    /**
+     * Copies the current row of the given entry, for writing after the result
+     * set has moved on.
+     */
+    private static DataValue toDataValue( DataValueEntry entry )
+    {
+        DataValue value = new DataValue();
+        value.setDataElement( entry.getDataElement() );
+        value.setPeriod( entry.getPeriod() );
+        value.setOrgUnit( entry.getOrgUnit() );
+        value.setCategoryOptionCombo( entry.getCategoryOptionCombo() );
+        value.setAttributeOptionCombo( entry.getAttributeOptionCombo() );
+        value.setValue( entry.getValue() );
+        value.setStoredBy( entry.getStoredBy() );
+        value.setCreated( entry.getCreated() );
+        value.setLastUpdated( entry.getLastUpdated() );
+        value.setComment( entry.getComment() );
+        value.setFollowup( entry.getFollowup() );
+        value.setDeleted( entry.getDeleted() );
+        return value;
+    }
+
+    /**
+     * Writer counting the written characters.
+     */
+    private static final class CountingWriter extends FilterWriter
+    {
+        private long count;
+
+        CountingWriter( Writer out )
+        {
+            super( out );
+        }
+
+        @Override
+        public void write( int c )
+            throws IOException
+        {
+            super.write( c );
+            count++;
+        }
+
+        @Override
+        public void write( char[] cbuf, int off, int len )
+            throws IOException
+        {
+            super.write( cbuf, off, len );
+            count += len;
+        }
+
+        @Override
+        public void write( String str, int off, int len )
+            throws IOException
+        {
+            super.write( str, off, len );
+            count += len;
+        }
+
+        long getCount()
+        {
+            return count;
+        }
+    }
+
     @AllArgsConstructor
     static final class ResultSetDataValueEntry implements DataValueEntry
     {
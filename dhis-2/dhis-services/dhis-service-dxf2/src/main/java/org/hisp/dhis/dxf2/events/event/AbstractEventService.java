@@ -60,6 +60,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -313,6 +314,26 @@ public abstract class AbstractEventService implements EventService
         return events;
     }
 
+    @Transactional( readOnly = true )
+    @Override
+    public EventCursor streamEvents( EventSearchParams params, Consumer<Event> consumer )
+    {
+        User user = currentUserService.getCurrentUser();
+
+        validate( params, user );
+
+        List<OrganisationUnit> organisationUnits = getOrganisationUnits( params, user );
+
+        params.handleCurrentUserSelectionMode( user );
+
+        if ( !params.isPaging() && !params.isSkipPaging() )
+        {
+            params.setDefaultPaging();
+        }
+
+        return eventStore.streamEvents( params, organisationUnits, Collections.emptyMap(), consumer );
+    }
+
     @Transactional( readOnly = true )
     @Override
     public Grid getEventsGrid( EventSearchParams params )
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.events.event;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import lombok.Value;
+
+import org.hisp.dhis.common.IllegalQueryException;
+
+/**
+ * Position in a keyset paginated event export, ordered by last updated time
+ * and id. The next page starts with the first event after the position.
+ * <p>
+ * The last updated time is kept as the database timestamp text, so that no
+ * precision is lost. Clients handle cursors as opaque strings.
+ */
+@Value
+public class EventCursor
+{
+    private static final String SEPARATOR = ",";
+
+    private static final Pattern CURSOR_PATTERN = Pattern
+        .compile( "^(\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}(?:\\.\\d{1,9})?)" + SEPARATOR + "(\\d{1,19})$" );
+
+    /**
+     * The last updated timestamp of the last event, as database text.
+     */
+    String lastUpdated;
+
+    /**
+     * The database identifier of the last event.
+     */
+    long id;
+
+    /**
+     * Encodes this cursor as an opaque, URL safe string.
+     *
+     * @return the encoded cursor.
+     */
+    public String encode()
+    {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString( (lastUpdated + SEPARATOR + id).getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    /**
+     * Decodes a cursor encoded with {@link #encode()}. The last updated time is
+     * validated, as it is included in SQL.
+     *
+     * @param cursor the encoded cursor.
+     * @return the cursor.
+     * @throws IllegalQueryException if the cursor is not valid.
+     */
+    public static EventCursor decode( String cursor )
+    {
+        String decoded;
+
+        try
+        {
+            decoded = new String( Base64.getUrlDecoder().decode( cursor ), StandardCharsets.UTF_8 );
+        }
+        catch ( IllegalArgumentException ex )
+        {
+            throw new IllegalQueryException( "Event cursor is not valid: " + cursor );
+        }
+
+        Matcher matcher = CURSOR_PATTERN.matcher( decoded );
+
+        if ( !matcher.matches() )
+        {
+            throw new IllegalQueryException( "Event cursor is not valid: " + cursor );
+        }
+
+        try
+        {
+            return new EventCursor( matcher.group( 1 ), Long.parseLong( matcher.group( 2 ) ) );
+        }
+        catch ( NumberFormatException ex )
+        {
+            throw new IllegalQueryException( "Event cursor is not valid: " + cursor );
+        }
+    }
+}
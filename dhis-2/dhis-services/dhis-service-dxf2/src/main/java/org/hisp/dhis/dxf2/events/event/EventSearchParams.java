@@ -153,6 +153,18 @@ public class EventSearchParams
 
     private boolean skipPaging;
 
+    /**
+     * Indicates that events are ordered by last updated time and id, and that
+     * pages start after the {@link #cursor} instead of at an offset.
+     */
+    private boolean keysetPaging;
+
+    /**
+     * Position of the last event of the previous page for keyset paging, null
+     * for the first page.
+     */
+    private EventCursor cursor;
+
     private boolean includeRelationships;
 
     private List<OrderParam> orders;
@@ -568,6 +580,28 @@ public class EventSearchParams
         return this;
     }
 
+    public boolean isKeysetPaging()
+    {
+        return keysetPaging;
+    }
+
+    public EventSearchParams setKeysetPaging( boolean keysetPaging )
+    {
+        this.keysetPaging = keysetPaging;
+        return this;
+    }
+
+    public EventCursor getCursor()
+    {
+        return cursor;
+    }
+
+    public EventSearchParams setCursor( EventCursor cursor )
+    {
+        this.cursor = cursor;
+        return this;
+    }
+
     public boolean isIncludeAttributes()
     {
         return includeAttributes;
@@ -33,6 +33,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.hisp.dhis.common.Grid;
 import org.hisp.dhis.dxf2.common.ImportOptions;
@@ -54,6 +55,18 @@ public interface EventService
 
     Events getEvents( EventSearchParams params );
 
+    /**
+     * Streams the events matching the given parameters to the given consumer
+     * without holding the full result in memory. No total count or pager is
+     * computed.
+     *
+     * @param params the event search parameters.
+     * @param consumer the consumer of events.
+     * @return the cursor for the next page, or null if there are no more
+     *         pages.
+     */
+    EventCursor streamEvents( EventSearchParams params, Consumer<Event> consumer );
+
     EventRows getEventRows( EventSearchParams params );
 
     Grid getEventsGrid( EventSearchParams params );
@@ -30,6 +30,7 @@ package org.hisp.dhis.dxf2.events.event;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.hisp.dhis.dxf2.events.report.EventRow;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
@@ -61,6 +62,26 @@ public interface EventStore
      */
     List<ProgramStageInstance> updateEvents( List<ProgramStageInstance> programStageInstances );
 
+    /**
+     * Streams the events matching the given parameters to the given consumer.
+     * Rows are read with a forward only cursor and passed on in small batches,
+     * so that memory use does not depend on the number of events. Must be
+     * called within a transaction for the fetch size to take effect.
+     * <p>
+     * With keyset paging, events are ordered by last updated time and id, and
+     * the page starts after the cursor of the parameters.
+     *
+     * @param params the event search parameters.
+     * @param organisationUnits the organisation units to search.
+     * @param psdesWithSkipSyncTrue the data elements to skip on sync by
+     *        program stage uid.
+     * @param consumer the consumer of events.
+     * @return the cursor of the last event for the next page, or null if
+     *         there are no more pages.
+     */
+    EventCursor streamEvents( EventSearchParams params, List<OrganisationUnit> organisationUnits,
+        Map<String, Set<String>> psdesWithSkipSyncTrue, Consumer<Event> consumer );
+
     List<Event> getEvents( EventSearchParams params, List<OrganisationUnit> organisationUnits,
         Map<String, Set<String>> psdesWithSkipSyncTrue );
 
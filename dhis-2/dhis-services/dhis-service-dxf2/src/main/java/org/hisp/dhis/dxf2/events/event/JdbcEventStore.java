@@ -78,6 +78,7 @@ import static org.hisp.dhis.util.DateUtils.getMediumDateString;
 
 import java.io.IOException;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
@@ -90,9 +91,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.lang3.StringUtils;
@@ -142,6 +145,9 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.support.rowset.ResultSetWrappingSqlRowSet;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 import org.springframework.stereotype.Repository;
 
@@ -164,6 +170,18 @@ import com.google.gson.Gson;
 @RequiredArgsConstructor
 public class JdbcEventStore implements EventStore
 {
+    /**
+     * Number of rows fetched from the database at a time when streaming.
+     */
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    /**
+     * Number of events completed and passed on at a time when streaming.
+     */
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    private static final String KEYSET_ORDER_QUERY = "order by psi_lastupdated asc, psi_id asc ";
+
     private static final String RELATIONSHIP_IDS_QUERY = " left join (select ri.programstageinstanceid as ri_psi_id, json_agg(ri.relationshipid) as psi_rl FROM relationshipitem ri"
         + " GROUP by ri_psi_id)  as fgh on fgh.ri_psi_id=event.psi_id ";
 
@@ -367,216 +385,125 @@ public class JdbcEventStore implements EventStore
 
         setAccessiblePrograms( user, params );
 
-        Map<String, Event> eventUidToEventMap = new HashMap<>( params.getPageSizeWithDefault() );
-        List<Event> events = new ArrayList<>();
-        List<Long> relationshipIds = new ArrayList<>();
-
-        final Gson gson = new Gson();
-
         String sql = buildSql( params, organisationUnits, user );
         SqlRowSet rowSet = jdbcTemplate.queryForRowSet( sql );
 
         log.debug( "Event query SQL: " + sql );
 
-        Set<String> notes = new HashSet<>();
+        EventRowCollector collector = new EventRowCollector( params, user, psdesWithSkipSyncTrue );
 
         while ( rowSet.next() )
         {
-            if ( rowSet.getString( "psi_uid" ) == null
-                || (params.getCategoryOptionCombo() == null && !isSuper( user ) && !userHasAccess( rowSet )) )
-            {
-                continue;
-            }
-
-            String psiUid = rowSet.getString( "psi_uid" );
-
-            Event event;
-
-            if ( !eventUidToEventMap.containsKey( psiUid ) )
-            {
-                validateIdentifiersPresence( rowSet, params.getIdSchemes(), true );
-
-                event = new Event();
-                eventUidToEventMap.put( psiUid, event );
+            collector.addRow( rowSet );
+        }
 
-                if ( !params.isSkipEventId() )
-                {
-                    event.setUid( psiUid );
-                    event.setEvent( psiUid );
-                }
+        return collector.getEvents();
+    }
 
-                event.setTrackedEntityInstance( rowSet.getString( "tei_uid" ) );
-                event.setStatus( EventStatus.valueOf( rowSet.getString( "psi_status" ) ) );
+    @Override
+    public EventCursor streamEvents( EventSearchParams params, List<OrganisationUnit> organisationUnits,
+        Map<String, Set<String>> psdesWithSkipSyncTrue, Consumer<Event> consumer )
+    {
+        User user = currentUserService.getCurrentUser();
 
-                ProgramType programType = ProgramType.fromValue( rowSet.getString( "p_type" ) );
+        setAccessiblePrograms( user, params );
 
-                event.setProgram( rowSet.getString( "p_identifier" ) );
-                event.setProgramType( programType );
-                event.setProgramStage( rowSet.getString( "ps_identifier" ) );
-                event.setOrgUnit( rowSet.getString( "ou_identifier" ) );
-                event.setDeleted( rowSet.getBoolean( "psi_deleted" ) );
+        Integer pageSize = params.getPageSize();
 
-                if ( programType != ProgramType.WITHOUT_REGISTRATION )
-                {
-                    event.setEnrollment( rowSet.getString( "pi_uid" ) );
-                    event.setEnrollmentStatus( EnrollmentStatus
-                        .fromProgramStatus( ProgramStatus.valueOf( rowSet.getString( "pi_status" ) ) ) );
-                    event.setFollowup( rowSet.getBoolean( "pi_followup" ) );
-                }
+        try
+        {
+            StreamedPage page;
 
-                if ( params.getCategoryOptionCombo() == null && !isSuper( user ) )
-                {
-                    event.setOptionSize( rowSet.getInt( "option_size" ) );
-                }
+            while ( (page = streamPage( params, organisationUnits, user, psdesWithSkipSyncTrue, consumer ))
+                .isSingleEventCut() )
+            {
+                // The page limit cut the only event of the page, which can
+                // neither be passed on nor be left for the next page
 
-                event.setAttributeOptionCombo( rowSet.getString( "coc_identifier" ) );
-                event.setAttributeCategoryOptions( rowSet.getString( "deco_uid" ) );
-                event.setTrackedEntityInstance( rowSet.getString( "tei_uid" ) );
+                params.setPageSize( 2 * params.getPageSizeWithDefault() );
+            }
 
-                event.setStoredBy( rowSet.getString( "psi_storedby" ) );
-                event.setOrgUnitName( rowSet.getString( "ou_name" ) );
-                event.setDueDate( DateUtils.getIso8601NoTz( rowSet.getDate( "psi_duedate" ) ) );
-                event.setEventDate( DateUtils.getIso8601NoTz( rowSet.getDate( "psi_executiondate" ) ) );
-                event.setCreated( DateUtils.getIso8601NoTz( rowSet.getDate( "psi_created" ) ) );
-                event.setCreatedByUserInfo( jsonToUserInfo( rowSet.getString( "psi_createdbyuserinfo" ), jsonMapper ) );
-                event.setLastUpdated( DateUtils.getIso8601NoTz( rowSet.getDate( "psi_lastupdated" ) ) );
-                event.setLastUpdatedByUserInfo(
-                    jsonToUserInfo( rowSet.getString( "psi_lastupdatedbyuserinfo" ), jsonMapper ) );
+            return page.getNextCursor();
+        }
+        finally
+        {
+            params.setPageSize( pageSize );
+        }
+    }
 
-                event.setCompletedBy( rowSet.getString( "psi_completedby" ) );
-                event.setCompletedDate( DateUtils.getIso8601NoTz( rowSet.getDate( "psi_completeddate" ) ) );
+    /**
+     * Streams one page of events. Events are only passed on if the page does
+     * not consist of a single event cut by the page limit.
+     */
+    private StreamedPage streamPage( EventSearchParams params, List<OrganisationUnit> organisationUnits, User user,
+        Map<String, Set<String>> psdesWithSkipSyncTrue, Consumer<Event> consumer )
+    {
+        String sql = buildSql( params, organisationUnits, user );
 
-                if ( rowSet.getObject( "psi_geometry" ) != null )
-                {
-                    try
-                    {
-                        Geometry geom = new WKTReader().read( rowSet.getString( "psi_geometry" ) );
+        log.debug( "Event stream SQL: " + sql );
 
-                        event.setGeometry( geom );
-                    }
-                    catch ( ParseException e )
-                    {
-                        log.error( "Unable to read geometry for event '" + event.getUid() + "': ", e );
-                    }
-                }
+        PreparedStatementCreator statementCreator = con -> {
+            PreparedStatement ps = con.prepareStatement( sql, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY );
+            ps.setFetchSize( STREAM_FETCH_SIZE );
+            return ps;
+        };
 
-                if ( rowSet.getObject( "user_assigned" ) != null )
-                {
-                    event.setAssignedUser( rowSet.getString( "user_assigned" ) );
-                    event.setAssignedUserUsername( rowSet.getString( "user_assigned_username" ) );
-                    event.setAssignedUserDisplayName( rowSet.getString( "user_assigned_name" ) );
-                }
+        return jdbcTemplate.query( statementCreator, (ResultSetExtractor<StreamedPage>) resultSet -> {
+            SqlRowSet rowSet = new StreamingSqlRowSet( resultSet );
+            EventRowCollector collector = new EventRowCollector( params, user, psdesWithSkipSyncTrue );
+            EventCursor cursor = null;
+            EventCursor previousCursor = null;
+            String eventUid = null;
+            int rowCount = 0;
 
-                events.add( event );
-            }
-            else
+            while ( rowSet.next() )
             {
-                event = eventUidToEventMap.get( psiUid );
-                String attributeCategoryCombination = event.getAttributeCategoryOptions();
-                String currentAttributeCategoryCombination = rowSet.getString( "deco_uid" );
+                rowCount++;
 
-                if ( !attributeCategoryCombination.contains( currentAttributeCategoryCombination ) )
-                {
-                    event.setAttributeCategoryOptions(
-                        attributeCategoryCombination + ";" + currentAttributeCategoryCombination );
-                }
-            }
+                String psiUid = rowSet.getString( "psi_uid" );
 
-            if ( !StringUtils.isEmpty( rowSet.getString( "psi_eventdatavalues" ) ) )
-            {
-                Set<EventDataValue> eventDataValues = convertEventDataValueJsonIntoSet(
-                    rowSet.getString( "psi_eventdatavalues" ) );
-
-                for ( EventDataValue dv : eventDataValues )
+                if ( psiUid != null && !psiUid.equals( eventUid ) )
                 {
-                    DataValue dataValue = convertEventDataValueIntoDtoDataValue( dv );
+                    // Rows of an event are consecutive, previous events are
+                    // complete
 
-                    if ( params.isSynchronizationQuery() )
+                    if ( collector.size() >= STREAM_BATCH_SIZE )
                     {
-                        if ( psdesWithSkipSyncTrue.containsKey( rowSet.getString( "ps_uid" ) ) && psdesWithSkipSyncTrue
-                            .get( rowSet.getString( "ps_uid" ) ).contains( dv.getDataElement() ) )
-                        {
-                            dataValue.setSkipSynchronization( true );
-                        }
-                        else
-                        {
-                            dataValue.setSkipSynchronization( false );
-                        }
+                        collector.getEvents().forEach( consumer );
+                        collector = new EventRowCollector( params, user, psdesWithSkipSyncTrue );
                     }
 
-                    event.getDataValues().add( dataValue );
-                }
-            }
-
-            if ( rowSet.getString( "psinote_value" ) != null && !notes.contains( rowSet.getString( "psinote_id" ) ) )
-            {
-                Note note = new Note();
-                note.setNote( rowSet.getString( "psinote_uid" ) );
-                note.setValue( rowSet.getString( "psinote_value" ) );
-                note.setStoredDate( DateUtils.getIso8601NoTz( rowSet.getDate( "psinote_storeddate" ) ) );
-                note.setStoredBy( rowSet.getString( "psinote_storedby" ) );
-
-                if ( rowSet.getObject( "usernote_id" ) != null )
-                {
-
-                    note.setLastUpdatedBy(
-                        UserInfoSnapshot.of(
-                            rowSet.getLong( "usernote_id" ),
-                            rowSet.getString( "usernote_code" ),
-                            rowSet.getString( "usernote_uid" ),
-                            rowSet.getString( "usernote_username" ),
-                            rowSet.getString( "userinfo_firstname" ),
-                            rowSet.getString( "userinfo_surname" ) ) );
+                    eventUid = psiUid;
+                    previousCursor = cursor;
+                    cursor = new EventCursor( rowSet.getString( "psi_lastupdated" ), rowSet.getLong( "psi_id" ) );
                 }
 
-                note.setLastUpdated( rowSet.getDate( "psinote_lastupdated" ) );
-
-                event.getNotes().add( note );
-                notes.add( rowSet.getString( "psinote_id" ) );
+                collector.addRow( rowSet );
             }
 
-            if ( params.isIncludeRelationships() && rowSet.getObject( "psi_rl" ) != null )
+            boolean morePages = !params.isSkipPaging() && rowCount >= params.getPageSizeWithDefault();
+
+            if ( morePages )
             {
-                PGobject pGobject = (PGobject) rowSet.getObject( "psi_rl" );
+                // The page limit may cut the rows of the last event, which is
+                // left for the next page
 
-                if ( pGobject != null )
+                if ( previousCursor == null )
                 {
-                    String value = pGobject.getValue();
+                    // Nothing was passed on yet, as the page holds one event
 
-                    relationshipIds.addAll( Lists.newArrayList( gson.fromJson( value, Long[].class ) ) );
+                    return new StreamedPage( null, true );
                 }
-            }
-        }
-
-        final Multimap<String, Relationship> map = eventStore
-            .getRelationshipsByIds( relationshipIds );
-
-        if ( !map.isEmpty() )
-        {
-            events.forEach( e -> e.getRelationships().addAll( map.get( e.getEvent() ) ) );
-        }
-
-        IdSchemes idSchemes = ObjectUtils.firstNonNull( params.getIdSchemes(), new IdSchemes() );
-        IdScheme dataElementIdScheme = idSchemes.getDataElementIdScheme();
 
-        if ( dataElementIdScheme != IdScheme.ID && dataElementIdScheme != IdScheme.UID )
-        {
-            CachingMap<String, String> dataElementUidToIdentifierCache = new CachingMap<>();
-
-            List<Collection<DataValue>> dataValuesList = events.stream().map( Event::getDataValues )
-                .collect( Collectors.toList() );
-            populateCache( dataElementIdScheme, dataValuesList, dataElementUidToIdentifierCache );
-            convertDataValuesIdentifiers( dataElementIdScheme, dataValuesList, dataElementUidToIdentifierCache );
-        }
+                collector.removeEvent( eventUid );
+                cursor = previousCursor;
+            }
 
-        if ( params.getCategoryOptionCombo() == null && !isSuper( user ) )
-        {
-            return events.stream().filter( ev -> ev.getAttributeCategoryOptions() != null
-                && splitToArray( ev.getAttributeCategoryOptions(), TextUtils.SEMICOLON ).size() == ev.getOptionSize() )
-                .collect( Collectors.toList() );
-        }
+            collector.getEvents().forEach( consumer );
 
-        return events;
+            return new StreamedPage( morePages ? cursor : null, false );
+        } );
     }
 
     @Override
@@ -1452,6 +1379,13 @@ public class JdbcEventStore implements EventStore
     {
         StringBuilder sqlBuilder = new StringBuilder();
 
+        if ( params.isKeysetPaging() && params.getCursor() != null )
+        {
+            sqlBuilder.append( hlp.whereAnd() ).append( " (psi.lastupdated, psi.programstageinstanceid) > ('" )
+                .append( params.getCursor().getLastUpdated() ).append( "', " )
+                .append( params.getCursor().getId() ).append( ") " );
+        }
+
         if ( params.hasLastUpdatedDuration() )
         {
             sqlBuilder.append( hlp.whereAnd() ).append( PSI_LASTUPDATED_GT )
@@ -1508,10 +1442,16 @@ public class JdbcEventStore implements EventStore
     {
         StringBuilder sqlBuilder = new StringBuilder().append( " " );
 
-        if ( !params.isSkipPaging() )
+        if ( params.isSkipPaging() )
         {
-            sqlBuilder.append( "limit " ).append( params.getPageSizeWithDefault() ).append( " offset " )
-                .append( params.getOffset() ).append( " " );
+            return sqlBuilder.toString();
+        }
+
+        sqlBuilder.append( "limit " ).append( params.getPageSizeWithDefault() ).append( " " );
+
+        if ( !params.isKeysetPaging() )
+        {
+            sqlBuilder.append( "offset " ).append( params.getOffset() ).append( " " );
         }
 
         return sqlBuilder.toString();
@@ -1557,6 +1497,11 @@ public class JdbcEventStore implements EventStore
 
     private String getOrderQuery( EventSearchParams params )
     {
+        if ( params.isKeysetPaging() )
+        {
+            return KEYSET_ORDER_QUERY;
+        }
+
         ArrayList<String> orderFields = new ArrayList<>();
 
         if ( params.getGridOrders() != null )
@@ -1961,4 +1906,290 @@ public class JdbcEventStore implements EventStore
 
         return orgUnitSql.toString();
     }
+
+    /**
+     * A streamed page of events, with the cursor for the next page.
+     */
+    @Value
+    private static class StreamedPage
+    {
+        EventCursor nextCursor;
+
+        boolean singleEventCut;
+    }
+
+    /**
+     * Collects events from the rows of an event query, where an event spans
+     * several rows for category options and notes.
+     */
+    private class EventRowCollector
+    {
+        private final EventSearchParams params;
+
+        private final User user;
+
+        private final Map<String, Set<String>> psdesWithSkipSyncTrue;
+
+        private final Map<String, Event> eventUidToEventMap;
+
+        private final List<Event> events = new ArrayList<>();
+
+        private final List<Long> relationshipIds = new ArrayList<>();
+
+        private final Set<String> notes = new HashSet<>();
+
+        private final Gson gson = new Gson();
+
+        EventRowCollector( EventSearchParams params, User user, Map<String, Set<String>> psdesWithSkipSyncTrue )
+        {
+            this.params = params;
+            this.user = user;
+            this.psdesWithSkipSyncTrue = psdesWithSkipSyncTrue;
+            this.eventUidToEventMap = new HashMap<>(
+                Math.min( params.getPageSizeWithDefault(), STREAM_BATCH_SIZE ) );
+        }
+
+        int size()
+        {
+            return events.size();
+        }
+
+        void removeEvent( String psiUid )
+        {
+            Event event = eventUidToEventMap.remove( psiUid );
+
+            if ( event != null )
+            {
+                events.removeIf( e -> e == event );
+            }
+        }
+
+        void addRow( SqlRowSet rowSet )
+        {
+            if ( rowSet.getString( "psi_uid" ) == null
+                || (params.getCategoryOptionCombo() == null && !isSuper( user ) && !userHasAccess( rowSet )) )
+            {
+                return;
+            }
+
+            String psiUid = rowSet.getString( "psi_uid" );
+
+            Event event;
+
+            if ( !eventUidToEventMap.containsKey( psiUid ) )
+            {
+                validateIdentifiersPresence( rowSet, params.getIdSchemes(), true );
+
+                event = new Event();
+                eventUidToEventMap.put( psiUid, event );
+
+                if ( !params.isSkipEventId() )
+                {
+                    event.setUid( psiUid );
+                    event.setEvent( psiUid );
+                }
+
+                event.setTrackedEntityInstance( rowSet.getString( "tei_uid" ) );
+                event.setStatus( EventStatus.valueOf( rowSet.getString( "psi_status" ) ) );
+
+                ProgramType programType = ProgramType.fromValue( rowSet.getString( "p_type" ) );
+
+                event.setProgram( rowSet.getString( "p_identifier" ) );
+                event.setProgramType( programType );
+                event.setProgramStage( rowSet.getString( "ps_identifier" ) );
+                event.setOrgUnit( rowSet.getString( "ou_identifier" ) );
+                event.setDeleted( rowSet.getBoolean( "psi_deleted" ) );
+
+                if ( programType != ProgramType.WITHOUT_REGISTRATION )
+                {
+                    event.setEnrollment( rowSet.getString( "pi_uid" ) );
+                    event.setEnrollmentStatus( EnrollmentStatus
+                        .fromProgramStatus( ProgramStatus.valueOf( rowSet.getString( "pi_status" ) ) ) );
+                    event.setFollowup( rowSet.getBoolean( "pi_followup" ) );
+                }
+
+                if ( params.getCategoryOptionCombo() == null && !isSuper( user ) )
+                {
+                    event.setOptionSize( rowSet.getInt( "option_size" ) );
+                }
+
+                event.setAttributeOptionCombo( rowSet.getString( "coc_identifier" ) );
+                event.setAttributeCategoryOptions( rowSet.getString( "deco_uid" ) );
+                event.setTrackedEntityInstance( rowSet.getString( "tei_uid" ) );
+
+                event.setStoredBy( rowSet.getString( "psi_storedby" ) );
+                event.setOrgUnitName( rowSet.getString( "ou_name" ) );
+                event.setDueDate( DateUtils.getIso8601NoTz( rowSet.getDate( "psi_duedate" ) ) );
+                event.setEventDate( DateUtils.getIso8601NoTz( rowSet.getDate( "psi_executiondate" ) ) );
+                event.setCreated( DateUtils.getIso8601NoTz( rowSet.getDate( "psi_created" ) ) );
+                event.setCreatedByUserInfo( jsonToUserInfo( rowSet.getString( "psi_createdbyuserinfo" ), jsonMapper ) );
+                event.setLastUpdated( DateUtils.getIso8601NoTz( rowSet.getDate( "psi_lastupdated" ) ) );
+                event.setLastUpdatedByUserInfo(
+                    jsonToUserInfo( rowSet.getString( "psi_lastupdatedbyuserinfo" ), jsonMapper ) );
+
+                event.setCompletedBy( rowSet.getString( "psi_completedby" ) );
+                event.setCompletedDate( DateUtils.getIso8601NoTz( rowSet.getDate( "psi_completeddate" ) ) );
+
+                if ( rowSet.getObject( "psi_geometry" ) != null )
+                {
+                    try
+                    {
+                        Geometry geom = new WKTReader().read( rowSet.getString( "psi_geometry" ) );
+
+                        event.setGeometry( geom );
+                    }
+                    catch ( ParseException e )
+                    {
+                        log.error( "Unable to read geometry for event '" + event.getUid() + "': ", e );
+                    }
+                }
+
+                if ( rowSet.getObject( "user_assigned" ) != null )
+                {
+                    event.setAssignedUser( rowSet.getString( "user_assigned" ) );
+                    event.setAssignedUserUsername( rowSet.getString( "user_assigned_username" ) );
+                    event.setAssignedUserDisplayName( rowSet.getString( "user_assigned_name" ) );
+                }
+
+                events.add( event );
+            }
+            else
+            {
+                event = eventUidToEventMap.get( psiUid );
+                String attributeCategoryCombination = event.getAttributeCategoryOptions();
+                String currentAttributeCategoryCombination = rowSet.getString( "deco_uid" );
+
+                if ( !attributeCategoryCombination.contains( currentAttributeCategoryCombination ) )
+                {
+                    event.setAttributeCategoryOptions(
+                        attributeCategoryCombination + ";" + currentAttributeCategoryCombination );
+                }
+            }
+
+            if ( !StringUtils.isEmpty( rowSet.getString( "psi_eventdatavalues" ) ) )
+            {
+                Set<EventDataValue> eventDataValues = convertEventDataValueJsonIntoSet(
+                    rowSet.getString( "psi_eventdatavalues" ) );
+
+                for ( EventDataValue dv : eventDataValues )
+                {
+                    DataValue dataValue = convertEventDataValueIntoDtoDataValue( dv );
+
+                    if ( params.isSynchronizationQuery() )
+                    {
+                        if ( psdesWithSkipSyncTrue.containsKey( rowSet.getString( "ps_uid" ) ) && psdesWithSkipSyncTrue
+                            .get( rowSet.getString( "ps_uid" ) ).contains( dv.getDataElement() ) )
+                        {
+                            dataValue.setSkipSynchronization( true );
+                        }
+                        else
+                        {
+                            dataValue.setSkipSynchronization( false );
+                        }
+                    }
+
+                    event.getDataValues().add( dataValue );
+                }
+            }
+
+            if ( rowSet.getString( "psinote_value" ) != null && !notes.contains( rowSet.getString( "psinote_id" ) ) )
+            {
+                Note note = new Note();
+                note.setNote( rowSet.getString( "psinote_uid" ) );
+                note.setValue( rowSet.getString( "psinote_value" ) );
+                note.setStoredDate( DateUtils.getIso8601NoTz( rowSet.getDate( "psinote_storeddate" ) ) );
+                note.setStoredBy( rowSet.getString( "psinote_storedby" ) );
+
+                if ( rowSet.getObject( "usernote_id" ) != null )
+                {
+
+                    note.setLastUpdatedBy(
+                        UserInfoSnapshot.of(
+                            rowSet.getLong( "usernote_id" ),
+                            rowSet.getString( "usernote_code" ),
+                            rowSet.getString( "usernote_uid" ),
+                            rowSet.getString( "usernote_username" ),
+                            rowSet.getString( "userinfo_firstname" ),
+                            rowSet.getString( "userinfo_surname" ) ) );
+                }
+
+                note.setLastUpdated( rowSet.getDate( "psinote_lastupdated" ) );
+
+                event.getNotes().add( note );
+                notes.add( rowSet.getString( "psinote_id" ) );
+            }
+
+            if ( params.isIncludeRelationships() && rowSet.getObject( "psi_rl" ) != null )
+            {
+                PGobject pGobject = (PGobject) rowSet.getObject( "psi_rl" );
+
+                if ( pGobject != null )
+                {
+                    String value = pGobject.getValue();
+
+                    relationshipIds.addAll( Lists.newArrayList( gson.fromJson( value, Long[].class ) ) );
+                }
+            }
+        }
+
+        /**
+         * Completes the collected events with relationships and data element
+         * identifiers, and removes events with inaccessible category options.
+         */
+        List<Event> getEvents()
+        {
+            final Multimap<String, Relationship> map = eventStore
+                .getRelationshipsByIds( relationshipIds );
+
+            if ( !map.isEmpty() )
+            {
+                events.forEach( e -> e.getRelationships().addAll( map.get( e.getEvent() ) ) );
+            }
+
+            IdSchemes idSchemes = ObjectUtils.firstNonNull( params.getIdSchemes(), new IdSchemes() );
+            IdScheme dataElementIdScheme = idSchemes.getDataElementIdScheme();
+
+            if ( dataElementIdScheme != IdScheme.ID && dataElementIdScheme != IdScheme.UID )
+            {
+                CachingMap<String, String> dataElementUidToIdentifierCache = new CachingMap<>();
+
+                List<Collection<DataValue>> dataValuesList = events.stream().map( Event::getDataValues )
+                    .collect( Collectors.toList() );
+                populateCache( dataElementIdScheme, dataValuesList, dataElementUidToIdentifierCache );
+                convertDataValuesIdentifiers( dataElementIdScheme, dataValuesList, dataElementUidToIdentifierCache );
+            }
+
+            if ( params.getCategoryOptionCombo() == null && !isSuper( user ) )
+            {
+                return events.stream().filter( ev -> ev.getAttributeCategoryOptions() != null
+                    && splitToArray( ev.getAttributeCategoryOptions(), TextUtils.SEMICOLON )
+                        .size() == ev.getOptionSize() )
+                    .collect( Collectors.toList() );
+            }
+
+            return events;
+        }
+    }
+
+    /**
+     * Row set reading directly from an open result set instead of a cached
+     * copy. Dates are read as timestamps, as done by cached row sets, to keep
+     * the time of day.
+     */
+    private static class StreamingSqlRowSet
+        extends ResultSetWrappingSqlRowSet
+    {
+        StreamingSqlRowSet( ResultSet resultSet )
+        {
+            super( resultSet );
+        }
+
+        @Override
+        public java.sql.Date getDate( int columnIndex )
+        {
+            Timestamp timestamp = getTimestamp( columnIndex );
+
+            return timestamp != null ? new java.sql.Date( timestamp.getTime() ) : null;
+        }
+    }
 }
@@ -30,7 +30,9 @@ package org.hisp.dhis.dxf2.events.event.csv;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * @author Morten Olav Hansen <mortenoh@gmail.com>
@@ -40,6 +42,25 @@ public interface CsvEventService<T>
     void writeEvents( OutputStream outputStream, List<T> events, boolean withHeader )
         throws IOException;
 
+    /**
+     * Writes the events passed on by the given producer as CSV, one event at
+     * a time, so that the events do not need to be held in memory. The
+     * default implementation collects the events and writes them as a list.
+     *
+     * @param outputStream the stream to write to.
+     * @param producer the producer, which passes each event to the given
+     *        consumer.
+     * @param withHeader whether to write a header row.
+     * @throws IOException if writing to the stream fails.
+     */
+    default void writeEvents( OutputStream outputStream, Consumer<Consumer<T>> producer, boolean withHeader )
+        throws IOException
+    {
+        List<T> events = new ArrayList<>();
+        producer.accept( events::add );
+        writeEvents( outputStream, events, withHeader );
+    }
+
     List<T> readEvents( InputStream inputStream, boolean skipFirst )
         throws IOException,
         org.locationtech.jts.io.ParseException;
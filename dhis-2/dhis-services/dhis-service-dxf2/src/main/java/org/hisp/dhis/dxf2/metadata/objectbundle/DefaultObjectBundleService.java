@@ -89,6 +89,8 @@ public class DefaultObjectBundleService implements ObjectBundleService
 
     private final ObjectBundleHooks objectBundleHooks;
 
+    private final ObjectBundleFlushListener flushListener;
+
     @Override
     @Transactional( readOnly = true )
     public ObjectBundle create( ObjectBundleParams params )
@@ -128,20 +130,43 @@ public class DefaultObjectBundleService implements ObjectBundleService
         Session session = sessionFactory.getCurrentSession();
 
         List<ObjectBundleHook<?>> commitHooks = objectBundleHooks.getCommitHooks( klasses );
-        commitHooks.forEach( hook -> hook.preCommit( bundle ) );
 
-        for ( Class<? extends IdentifiableObject> klass : klasses )
+        // Record all entities written, including the ones saved by hooks
+
+        flushListener.startRecording( session, bundle );
+
+        try
+        {
+            commitHooks.forEach( hook -> hook.preCommit( bundle ) );
+
+            for ( Class<? extends IdentifiableObject> klass : klasses )
+            {
+                commitObjectType( bundle, typeReports, session, klass );
+            }
+
+            if ( !bundle.getImportMode().isDelete() )
+            {
+                commitHooks.forEach( hook -> hook.postCommit( bundle ) );
+            }
+
+            dbmsManager.clearSession();
+        }
+        finally
         {
-            commitObjectType( bundle, typeReports, session, klass );
+            flushListener.stopRecording( session );
         }
 
-        if ( !bundle.getImportMode().isDelete() )
+        if ( bundle.getImportMode().isDelete() )
         {
-            commitHooks.forEach( hook -> hook.postCommit( bundle ) );
+            // Deletion handlers may remove dependent objects with plain SQL
+
+            cacheManager.clearCache();
+        }
+        else
+        {
+            cacheManager.evictEntities( bundle.getCommittedObjectIds() );
         }
 
-        dbmsManager.clearSession();
-        cacheManager.clearCache();
         bundle.setObjectBundleStatus( ObjectBundleStatus.COMMITTED );
 
         return commitReport;
@@ -236,6 +261,8 @@ public class DefaultObjectBundleService implements ObjectBundleService
 
             session.save( object );
 
+            bundle.addCommittedObject( klass, object );
+
             bundle.getPreheat().replace( bundle.getPreheatIdentifier(), object );
 
             if ( log.isDebugEnabled() )
@@ -317,6 +344,8 @@ public class DefaultObjectBundleService implements ObjectBundleService
 
             session.update( persistedObject );
 
+            bundle.addCommittedObject( klass, persistedObject );
+
             bundle.getPreheat().replace( bundle.getPreheatIdentifier(), persistedObject );
 
             if ( log.isDebugEnabled() )
@@ -374,6 +403,8 @@ public class DefaultObjectBundleService implements ObjectBundleService
             objectBundleHooks.getObjectHooks( object ).forEach( hook -> hook.preDelete( object, bundle ) );
             manager.delete( object, bundle.getUser() );
 
+            bundle.addCommittedObject( klass, object );
+
             bundle.getPreheat().remove( bundle.getPreheatIdentifier(), object );
 
             if ( log.isDebugEnabled() )
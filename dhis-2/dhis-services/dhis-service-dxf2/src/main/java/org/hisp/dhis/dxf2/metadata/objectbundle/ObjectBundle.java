@@ -29,10 +29,13 @@ package org.hisp.dhis.dxf2.metadata.objectbundle;
 
 import static java.util.Collections.emptyList;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
@@ -180,6 +183,13 @@ public class ObjectBundle implements ObjectIndexProvider
      */
     private Map<Class<?>, Map<String, Map<String, Object>>> extras = new HashMap<>();
 
+    /**
+     * Database identifiers of the objects created, updated or deleted on
+     * commit, including objects written by hooks, by type. Used to evict only
+     * those objects from the cache.
+     */
+    private final Map<Class<?>, Set<Serializable>> committedObjectIds = new HashMap<>();
+
     public ObjectBundle( ObjectBundleParams params, Preheat preheat,
         Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> objectMap )
     {
@@ -531,6 +541,21 @@ public class ObjectBundle implements ObjectIndexProvider
         }
     }
 
+    public void addCommittedObject( Class<? extends IdentifiableObject> klass, IdentifiableObject object )
+    {
+        addCommittedObjectId( klass, object.getId() );
+    }
+
+    public void addCommittedObjectId( Class<?> klass, Serializable id )
+    {
+        committedObjectIds.computeIfAbsent( klass, k -> new HashSet<>() ).add( id );
+    }
+
+    public Map<Class<?>, Set<Serializable>> getCommittedObjectIds()
+    {
+        return committedObjectIds;
+    }
+
     public boolean isPersisted( IdentifiableObject object )
     {
         IdentifiableObject cachedObject = preheat.get( preheatIdentifier, object );
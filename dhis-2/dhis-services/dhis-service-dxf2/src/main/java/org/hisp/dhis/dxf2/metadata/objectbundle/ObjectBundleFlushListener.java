@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.metadata.objectbundle;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hisp.dhis.hibernate.listener.ConfiguredEventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records every entity written by the session of an object bundle commit in
+ * the committed object ids of the bundle, so that they are evicted from the
+ * cache after the commit. This includes entities saved by object bundle hooks,
+ * such as data sets and option sets which get a new version, and the owners
+ * of collections which changed without the owner being updated.
+ */
+@Component
+public class ObjectBundleFlushListener
+    implements ConfiguredEventListener, PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+    PostCollectionRecreateEventListener, PostCollectionUpdateEventListener, PostCollectionRemoveEventListener
+{
+    /**
+     * Bundles being committed, by the session they are committed with.
+     */
+    private final Map<SharedSessionContractImplementor, ObjectBundle> bundles = new ConcurrentHashMap<>();
+
+    @Override
+    public List<EventType<?>> getEventTypes()
+    {
+        return List.of( EventType.POST_INSERT, EventType.POST_UPDATE, EventType.POST_DELETE,
+            EventType.POST_COLLECTION_RECREATE, EventType.POST_COLLECTION_UPDATE, EventType.POST_COLLECTION_REMOVE );
+    }
+
+    /**
+     * Starts recording the entities written by the given session in the given
+     * bundle.
+     *
+     * @param session the session the bundle is committed with.
+     * @param bundle the bundle.
+     */
+    public void startRecording( Session session, ObjectBundle bundle )
+    {
+        bundles.put( session.unwrap( SessionImplementor.class ), bundle );
+    }
+
+    /**
+     * Stops recording the entities written by the given session.
+     *
+     * @param session the session the bundle is committed with.
+     */
+    public void stopRecording( Session session )
+    {
+        bundles.remove( session.unwrap( SessionImplementor.class ) );
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding( EntityPersister persister )
+    {
+        return false;
+    }
+
+    @Override
+    public void onPostInsert( PostInsertEvent event )
+    {
+        record( event.getSession(), event.getPersister(), event.getId() );
+    }
+
+    @Override
+    public void onPostUpdate( PostUpdateEvent event )
+    {
+        record( event.getSession(), event.getPersister(), event.getId() );
+    }
+
+    @Override
+    public void onPostDelete( PostDeleteEvent event )
+    {
+        record( event.getSession(), event.getPersister(), event.getId() );
+    }
+
+    @Override
+    public void onPostRecreateCollection( PostCollectionRecreateEvent event )
+    {
+        recordOwner( event );
+    }
+
+    @Override
+    public void onPostUpdateCollection( PostCollectionUpdateEvent event )
+    {
+        recordOwner( event );
+    }
+
+    @Override
+    public void onPostRemoveCollection( PostCollectionRemoveEvent event )
+    {
+        recordOwner( event );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private void recordOwner( AbstractCollectionEvent event )
+    {
+        if ( event.getAffectedOwnerIdOrNull() != null )
+        {
+            EntityPersister persister = event.getSession().getFactory().getMetamodel()
+                .entityPersister( event.getAffectedOwnerEntityName() );
+
+            record( event.getSession(), persister, event.getAffectedOwnerIdOrNull() );
+        }
+    }
+
+    private void record( SharedSessionContractImplementor session, EntityPersister persister, Serializable id )
+    {
+        ObjectBundle bundle = bundles.get( session );
+
+        if ( bundle != null && id != null )
+        {
+            bundle.addCommittedObjectId( persister.getMappedClass(), id );
+        }
+    }
+}
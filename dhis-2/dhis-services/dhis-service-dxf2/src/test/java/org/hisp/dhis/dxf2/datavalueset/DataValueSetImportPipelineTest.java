@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.datavalueset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.hisp.dhis.datavalue.DataValue;
+import org.hisp.dhis.dxf2.datavalueset.ImportContext.WriteContext;
+import org.hisp.dhis.dxf2.importsummary.ImportCount;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.quick.BatchHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link DataValueSetImportPipeline}.
+ */
+class DataValueSetImportPipelineTest
+{
+    private final List<BatchHandler<DataValue>> batchHandlers = new ArrayList<>();
+
+    private DataValueSetImportPipeline pipeline;
+
+    @AfterEach
+    void tearDown()
+    {
+        if ( pipeline != null )
+        {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void testDisabledForSingleThread()
+    {
+        pipeline = createPipeline( "1" );
+
+        assertFalse( pipeline.isEnabled() );
+        assertThrows( IllegalStateException.class, () -> pipeline.start( this::createWriteContext,
+            ( context, value ) -> {
+            } ) );
+    }
+
+    @Test
+    void testWritesPartitionsInOrder()
+        throws InterruptedException
+    {
+        pipeline = createPipeline( "4" );
+
+        Map<Integer, List<Integer>> written = new ConcurrentHashMap<>();
+        Map<Integer, WriteContext> writerOfPartition = new ConcurrentHashMap<>();
+
+        DataValueSetImportPipeline.Writers<int[]> writers = pipeline.start( this::createWriteContext,
+            ( context, value ) -> {
+                written.computeIfAbsent( value[0], key -> new ArrayList<>() ).add( value[1] );
+                assertEquals( context, writerOfPartition.computeIfAbsent( value[0], key -> context ) );
+                context.getImportCount().incrementImported();
+            } );
+
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            writers.add( i % 13, new int[] { i % 13, i } );
+        }
+
+        List<WriteContext> contexts = writers.finish();
+
+        assertEquals( 4, contexts.size() );
+        assertEquals( 10_000, contexts.stream().mapToInt( c -> c.getImportCount().getImported() ).sum() );
+        assertEquals( 13, written.size() );
+
+        written.forEach( ( partition, values ) -> {
+            for ( int i = 1; i < values.size(); i++ )
+            {
+                assertTrue( values.get( i - 1 ) < values.get( i ) );
+            }
+        } );
+
+        batchHandlers.forEach( handler -> verify( handler ).flush() );
+    }
+
+    @Test
+    void testWriterFailureFailsImport()
+        throws InterruptedException
+    {
+        pipeline = createPipeline( "2" );
+
+        DataValueSetImportPipeline.Writers<Integer> writers = pipeline.start( this::createWriteContext,
+            ( context, value ) -> {
+                throw new IllegalArgumentException( "Invalid value: " + value );
+            } );
+
+        writers.add( 1, 1 );
+
+        IllegalArgumentException ex = assertThrows( IllegalArgumentException.class, writers::finish );
+        assertEquals( "Invalid value: 1", ex.getMessage() );
+    }
+
+    @Test
+    void testCancelFlushesBatchHandlersOfAllWriters()
+        throws InterruptedException
+    {
+        pipeline = createPipeline( "3" );
+
+        DataValueSetImportPipeline.Writers<Integer> writers = pipeline.start( this::createWriteContext,
+            ( context, value ) -> {
+            } );
+
+        writers.add( 1, 1 );
+        writers.cancel();
+
+        assertEquals( 3, batchHandlers.size() );
+        batchHandlers.forEach( handler -> verify( handler ).flush() );
+    }
+
+    private DataValueSetImportPipeline createPipeline( String threads )
+    {
+        DhisConfigurationProvider config = mock( DhisConfigurationProvider.class );
+
+        when( config.getProperty( ConfigurationKey.DATAVALUESET_IMPORT_THREADS ) ).thenReturn( threads );
+
+        return new DataValueSetImportPipeline( config );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private WriteContext createWriteContext()
+    {
+        BatchHandler<DataValue> batchHandler = mock( BatchHandler.class );
+
+        batchHandlers.add( batchHandler );
+
+        return new WriteContext( batchHandler, null, new ImportCount() );
+    }
+}
@@ -31,10 +31,18 @@ import static java.util.Collections.singleton;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.hisp.dhis.IntegrationTestBase;
 import org.hisp.dhis.attribute.Attribute;
@@ -55,6 +63,8 @@ import org.hisp.dhis.dataset.DataSetService;
 import org.hisp.dhis.datavalue.DataExportParams;
 import org.hisp.dhis.datavalue.DataValue;
 import org.hisp.dhis.datavalue.DataValueService;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.feedback.ErrorCode;
 import org.hisp.dhis.mock.MockCurrentUserService;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
@@ -71,6 +81,10 @@ import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Sets;
@@ -114,6 +128,13 @@ class DataValueSetServiceExportTest extends IntegrationTestBase
     @Autowired
     private ObjectMapper jsonMapper;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    @Qualifier( "readOnlyJdbcTemplate" )
+    private JdbcTemplate readOnlyJdbcTemplate;
+
     private DataElement deA;
 
     private DataElement deB;
@@ -570,4 +591,103 @@ class DataValueSetServiceExportTest extends IntegrationTestBase
                 () -> dataValueSetService.exportDataValueSetJson( params, out ) ),
             ErrorCode.E2012 );
     }
+
+    // -------------------------------------------------------------------------
+    // Partitioned export
+    // -------------------------------------------------------------------------
+
+    @Test
+    void testPartitionedExportByPeriodEqualsSingleQueryExport()
+        throws IOException
+    {
+        DataExportParams params = new DataExportParams().setDataSets( Sets.newHashSet( dsA ) )
+            .setOrganisationUnits( Sets.newHashSet( ouA, ouB ) ).setPeriods( Sets.newHashSet( peB, peA ) );
+
+        List<org.hisp.dhis.dxf2.datavalue.DataValue> single = exportDataValues( 1, readOnlyJdbcTemplate, params );
+        List<org.hisp.dhis.dxf2.datavalue.DataValue> partitioned = exportDataValues( 4, readOnlyJdbcTemplate,
+            params );
+
+        assertEquals( 12, single.size() );
+        assertEquals( getSortedKeys( single ), getSortedKeys( partitioned ) );
+
+        List<String> periods = partitioned.stream().map( org.hisp.dhis.dxf2.datavalue.DataValue::getPeriod )
+            .collect( Collectors.toList() );
+        int firstPeB = periods.indexOf( peBUid );
+
+        assertEquals( 8, firstPeB );
+        assertTrue( periods.subList( 0, firstPeB ).stream().allMatch( peAUid::equals ) );
+        assertTrue( periods.subList( firstPeB, periods.size() ).stream().allMatch( peBUid::equals ) );
+    }
+
+    @Test
+    void testPartitionedExportBySubtreeEqualsSingleQueryExport()
+        throws IOException
+    {
+        DataExportParams params = new DataExportParams().setDataSets( Sets.newHashSet( dsA ) )
+            .setOrganisationUnits( Sets.newHashSet( ouA ) ).setPeriods( Sets.newHashSet( peA ) )
+            .setIncludeDescendants( true );
+
+        List<org.hisp.dhis.dxf2.datavalue.DataValue> single = exportDataValues( 1, readOnlyJdbcTemplate, params );
+        List<org.hisp.dhis.dxf2.datavalue.DataValue> partitioned = exportDataValues( 4, readOnlyJdbcTemplate,
+            params );
+
+        assertEquals( 8, single.size() );
+        assertEquals( getSortedKeys( single ), getSortedKeys( partitioned ) );
+
+        List<String> orgUnits = partitioned.stream().map( org.hisp.dhis.dxf2.datavalue.DataValue::getOrgUnit )
+            .collect( Collectors.toList() );
+
+        assertTrue( orgUnits.subList( 0, 4 ).stream().allMatch( ouA.getUid()::equals ) );
+        assertTrue( orgUnits.subList( 4, 8 ).stream().allMatch( ouB.getUid()::equals ) );
+    }
+
+    @Test
+    void testPartitionedExportFailsWhenPartitionFails()
+    {
+        JdbcTemplate failingJdbcTemplate = spy( readOnlyJdbcTemplate );
+        doCallRealMethod().doThrow( new QueryTimeoutException( "Partition query timed out" ) )
+            .when( failingJdbcTemplate ).execute( any( ConnectionCallback.class ) );
+
+        DataExportParams params = new DataExportParams().setDataSets( Sets.newHashSet( dsA ) )
+            .setOrganisationUnits( Sets.newHashSet( ouA, ouB ) ).setPeriods( Sets.newHashSet( peA, peB ) );
+
+        assertThrows( QueryTimeoutException.class, () -> exportDataValues( 4, failingJdbcTemplate, params ) );
+    }
+
+    /**
+     * Exports the data values of the given parameters with a data value set
+     * store using the given number of export threads.
+     */
+    private List<org.hisp.dhis.dxf2.datavalue.DataValue> exportDataValues( int threads,
+        JdbcTemplate readOnlyJdbcTemplate, DataExportParams params )
+        throws IOException
+    {
+        DhisConfigurationProvider config = mock( DhisConfigurationProvider.class );
+        when( config.getProperty( ConfigurationKey.DATAVALUESET_EXPORT_THREADS ) )
+            .thenReturn( String.valueOf( threads ) );
+        when( config.getProperty( ConfigurationKey.DATAVALUESET_EXPORT_FETCH_SIZE ) ).thenReturn( "2" );
+
+        SpringDataValueSetStore store = new SpringDataValueSetStore( new MockCurrentUserService( user ),
+            jdbcTemplate, readOnlyJdbcTemplate, new DataValueSetMetrics(), config );
+
+        try
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            store.exportDataValueSetJson( params, null, out );
+            return jsonMapper.readValue( out.toByteArray(), DataValueSet.class ).getDataValues();
+        }
+        finally
+        {
+            store.shutdown();
+        }
+    }
+
+    private List<String> getSortedKeys( List<org.hisp.dhis.dxf2.datavalue.DataValue> dataValues )
+    {
+        return dataValues.stream()
+            .map( dv -> String.join( "-", dv.getDataElement(), dv.getPeriod(), dv.getOrgUnit(),
+                dv.getCategoryOptionCombo(), dv.getAttributeOptionCombo(), dv.getValue() ) )
+            .sorted()
+            .collect( Collectors.toList() );
+    }
 }
@@ -29,6 +29,8 @@ package org.hisp.dhis.dxf2.datavalueset;
 
 import static org.hisp.dhis.util.DateUtils.getMediumDateString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -47,6 +49,8 @@ import org.hisp.dhis.dxf2.common.ImportOptions;
 import org.hisp.dhis.dxf2.importsummary.ImportConflicts;
 import org.hisp.dhis.dxf2.importsummary.ImportStatus;
 import org.hisp.dhis.dxf2.importsummary.ImportSummary;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.importexport.ImportStrategy;
 import org.hisp.dhis.mock.MockCurrentUserService;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
@@ -61,6 +65,7 @@ import org.hisp.dhis.user.UserService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.google.common.collect.Sets;
 
@@ -421,6 +426,57 @@ class DataValueSetServiceIntegrationTest extends DhisTest
         assertDataValuesCount( 0 );
     }
 
+    /**
+     * Import 12 data values. Then import 14 values where 4 are marked as
+     * deleted, 6 are updates, 2 are new and 2 are conflicts. The summary of
+     * the second import is the same when written by a pool of writers.
+     */
+    @Test
+    void testImportWithWriterPoolMatchesSingleWriterImport()
+    {
+        ImportSummary single = importAndDeleteValuesWithThreads( 1 );
+        assertDataValuesCount( 10 );
+        dataValueService.deleteDataValues( ouA );
+        dataValueService.deleteDataValues( ouB );
+        assertDataValuesCount( 0 );
+        ImportSummary pooled = importAndDeleteValuesWithThreads( 4 );
+        assertDataValuesCount( 10 );
+        assertEquals( 2, single.getImportCount().getImported() );
+        assertEquals( 6, single.getImportCount().getUpdated() );
+        assertEquals( 4, single.getImportCount().getDeleted() );
+        assertEquals( 2, single.getImportCount().getIgnored() );
+        assertEquals( single.getStatus(), pooled.getStatus() );
+        assertEquals( single.getImportCount().getImported(), pooled.getImportCount().getImported() );
+        assertEquals( single.getImportCount().getUpdated(), pooled.getImportCount().getUpdated() );
+        assertEquals( single.getImportCount().getDeleted(), pooled.getImportCount().getDeleted() );
+        assertEquals( single.getImportCount().getIgnored(), pooled.getImportCount().getIgnored() );
+        assertEquals( single.getConflictCount(), pooled.getConflictCount() );
+        assertEquals( single.getConflictsDescription(), pooled.getConflictsDescription() );
+    }
+
+    private ImportSummary importAndDeleteValuesWithThreads( int threads )
+    {
+        DhisConfigurationProvider config = mock( DhisConfigurationProvider.class );
+        when( config.getProperty( ConfigurationKey.DATAVALUESET_IMPORT_THREADS ) )
+            .thenReturn( String.valueOf( threads ) );
+        DataValueSetImportPipeline pipeline = new DataValueSetImportPipeline( config );
+        Object defaultPipeline = ReflectionTestUtils.getField( dataValueSetService, "importPipeline" );
+        ReflectionTestUtils.setField( dataValueSetService, "importPipeline", pipeline );
+        try
+        {
+            in = readFile( "datavalueset/dataValueSetB.xml" );
+            ImportSummary summary = dataValueSetService.importDataValueSetXml( in );
+            assertSuccessWithImportedUpdatedDeleted( 12, 0, 0, summary );
+            in = readFile( "datavalueset/dataValueSetBNewDeletedConflicts.xml" );
+            return dataValueSetService.importDataValueSetXml( in );
+        }
+        finally
+        {
+            ReflectionTestUtils.setField( dataValueSetService, "importPipeline", defaultPipeline );
+            pipeline.shutdown();
+        }
+    }
+
     private InputStream readFile( String filename )
     {
         try
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.dxf2.events.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.hisp.dhis.common.IllegalQueryException;
+import org.junit.jupiter.api.Test;
+
+class EventCursorTest
+{
+    @Test
+    void testEncodeDecode()
+    {
+        EventCursor cursor = new EventCursor( "2021-03-14 09:26:53.589123", 4231L );
+
+        assertEquals( cursor, EventCursor.decode( cursor.encode() ) );
+    }
+
+    @Test
+    void testEncodeDecodeWithoutFraction()
+    {
+        EventCursor cursor = new EventCursor( "2021-03-14 09:26:53", 7L );
+
+        assertEquals( cursor, EventCursor.decode( cursor.encode() ) );
+    }
+
+    @Test
+    void testDecodeInvalidBase64()
+    {
+        assertThrows( IllegalQueryException.class, () -> EventCursor.decode( "not*base64" ) );
+    }
+
+    @Test
+    void testDecodeInvalidTimestamp()
+    {
+        String cursor = encode( "2021-03-14' or 1=1 --,4231" );
+
+        assertThrows( IllegalQueryException.class, () -> EventCursor.decode( cursor ) );
+    }
+
+    @Test
+    void testDecodeInvalidId()
+    {
+        String cursor = encode( "2021-03-14 09:26:53,99999999999999999999" );
+
+        assertThrows( IllegalQueryException.class, () -> EventCursor.decode( cursor ) );
+    }
+
+    private String encode( String value )
+    {
+        return Base64.getUrlEncoder().encodeToString( value.getBytes( StandardCharsets.UTF_8 ) );
+    }
+}
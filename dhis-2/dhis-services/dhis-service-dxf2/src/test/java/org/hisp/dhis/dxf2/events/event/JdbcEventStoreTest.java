@@ -29,14 +29,24 @@ package org.hisp.dhis.dxf2.events.event;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.sql.DataSource;
 
@@ -54,9 +64,12 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.support.rowset.SqlRowSet;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ArrayListMultimap;
 
 /**
  * @author Luciano Fiandesio
@@ -95,6 +108,8 @@ class JdbcEventStoreTest
 
         when( jdbcTemplate.getDataSource() ).thenReturn( mock( DataSource.class ) );
 
+        when( eventStore.getRelationshipsByIds( any() ) ).thenReturn( ArrayListMultimap.create() );
+
         ObjectMapper objectMapper = new ObjectMapper();
         subject = new JdbcEventStore( new PostgreSQLStatementBuilder(), jdbcTemplate, objectMapper, currentUserService,
             manager, env, eventStore, skipLockedProvider );
@@ -111,6 +126,147 @@ class JdbcEventStoreTest
         verify( rowSet, times( 4 ) ).getString( "psi_eventdatavalues" );
     }
 
+    @Test
+    void verifyStreamedPageLeavesEventCutByPageLimitForNextPage()
+    {
+        EventSearchParams params = new EventSearchParams().setKeysetPaging( true ).setPageSize( 3 );
+
+        mockEventRows( params, List.of(
+            eventRow( "EventUid001", 1L, "2021-01-01 10:00:00.1", "DecoUid0001" ),
+            eventRow( "EventUid002", 2L, "2021-01-01 10:00:00.2", "DecoUid0001" ),
+            eventRow( "EventUid003", 3L, "2021-01-01 10:00:00.3", "DecoUid0001" ),
+            eventRow( "EventUid003", 3L, "2021-01-01 10:00:00.3", "DecoUid0002" ) ) );
+
+        List<Event> events = new ArrayList<>();
+
+        EventCursor cursor = subject.streamEvents( params, new ArrayList<>(), new HashMap<>(), events::add );
+
+        assertEquals( 2, events.size() );
+        assertEquals( "EventUid001", events.get( 0 ).getEvent() );
+        assertEquals( "EventUid002", events.get( 1 ).getEvent() );
+        assertEquals( new EventCursor( "2021-01-01 10:00:00.2", 2L ), cursor );
+    }
+
+    @Test
+    void verifyStreamedPageWithSingleCutEventIsQueriedAgainWithLargerPageSize()
+    {
+        EventSearchParams params = new EventSearchParams().setKeysetPaging( true ).setPageSize( 2 );
+
+        mockEventRows( params, List.of(
+            eventRow( "EventUid001", 1L, "2021-01-01 10:00:00.1", "DecoUid0001" ),
+            eventRow( "EventUid001", 1L, "2021-01-01 10:00:00.1", "DecoUid0002" ),
+            eventRow( "EventUid001", 1L, "2021-01-01 10:00:00.1", "DecoUid0003" ) ) );
+
+        List<Event> events = new ArrayList<>();
+
+        EventCursor cursor = subject.streamEvents( params, new ArrayList<>(), new HashMap<>(), events::add );
+
+        assertEquals( 1, events.size() );
+        assertEquals( "EventUid001", events.get( 0 ).getEvent() );
+        assertEquals( "DecoUid0001;DecoUid0002;DecoUid0003", events.get( 0 ).getAttributeCategoryOptions() );
+        assertNull( cursor );
+        assertEquals( 2, params.getPageSize() );
+        verify( jdbcTemplate, times( 2 ) ).query( any( PreparedStatementCreator.class ),
+            any( ResultSetExtractor.class ) );
+    }
+
+    @Test
+    void verifyStreamedEventsSkipSynchronizationOfDataElements()
+    {
+        EventSearchParams params = new EventSearchParams().setKeysetPaging( true ).setSynchronizationQuery( true );
+
+        mockEventRows( params, List.of( eventRow( "EventUid001", 1L, "2021-01-01 10:00:00.1", "DecoUid0001" ) ) );
+
+        List<Event> events = new ArrayList<>();
+
+        subject.streamEvents( params, new ArrayList<>(), Map.of( "PsUID000001", Set.of( "hUQ5Hfcx1JA" ) ),
+            events::add );
+
+        assertEquals( 1, events.size() );
+        assertEquals( 1, events.get( 0 ).getDataValues().size() );
+        assertTrue( events.get( 0 ).getDataValues().iterator().next().isSkipSynchronization() );
+    }
+
+    /**
+     * Mocks the event stream query to return the first rows of the given rows
+     * up to the page size of the given parameters.
+     */
+    private void mockEventRows( EventSearchParams params, List<Map<String, Object>> rows )
+    {
+        when( jdbcTemplate.query( any( PreparedStatementCreator.class ), any( ResultSetExtractor.class ) ) )
+            .thenAnswer( invocation -> {
+                int pageSize = Math.min( params.getPageSizeWithDefault(), rows.size() );
+                ResultSetExtractor<?> extractor = invocation.getArgument( 1 );
+                return extractor.extractData( resultSet( rows.subList( 0, pageSize ) ) );
+            } );
+    }
+
+    private Map<String, Object> eventRow( String uid, long id, String lastUpdated, String decoUid )
+    {
+        Map<String, Object> row = new HashMap<>();
+        row.put( "psi_uid", uid );
+        row.put( "psi_id", id );
+        row.put( "psi_lastupdated", lastUpdated );
+        row.put( "psi_status", "ACTIVE" );
+        row.put( "psi_deleted", false );
+        row.put( "p_type", "without_registration" );
+        row.put( "p_identifier", "PrgUID00001" );
+        row.put( "ps_identifier", "PsUID000001" );
+        row.put( "ps_uid", "PsUID000001" );
+        row.put( "ou_identifier", "OuUID000001" );
+        row.put( "coc_identifier", "CocUID00001" );
+        row.put( "deco_uid", decoUid );
+        row.put( "psi_eventdatavalues",
+            "{\"hUQ5Hfcx1JA\": {\"value\": \"g8upMTyEZGZ\", \"created\": \"2019-06-14T09:57:30.564\", \"storedBy\": \"admin\", \"lastUpdated\": \"2019-06-14T09:57:30.564\", \"providedElsewhere\": false}}" );
+        return row;
+    }
+
+    /**
+     * Creates a forward only result set over the given rows. Columns are
+     * resolved by label, columns missing from a row are null.
+     */
+    private ResultSet resultSet( List<Map<String, Object>> rows )
+    {
+        List<String> labels = new ArrayList<>();
+        int[] rowIndex = { -1 };
+        ResultSetMetaData metaData = mock( ResultSetMetaData.class );
+
+        return mock( ResultSet.class, invocation -> {
+            String method = invocation.getMethod().getName();
+
+            if ( method.equals( "getMetaData" ) )
+            {
+                return metaData;
+            }
+            else if ( method.equals( "next" ) )
+            {
+                return ++rowIndex[0] < rows.size();
+            }
+            else if ( method.equals( "findColumn" ) )
+            {
+                String label = invocation.getArgument( 0 );
+
+                if ( !labels.contains( label ) )
+                {
+                    labels.add( label );
+                }
+
+                return labels.indexOf( label ) + 1;
+            }
+
+            Object value = null;
+
+            if ( method.startsWith( "get" ) && invocation.getArguments().length == 1
+                && invocation.getArgument( 0 ) instanceof Integer )
+            {
+                int columnIndex = invocation.getArgument( 0 );
+                value = rows.get( rowIndex[0] ).get( labels.get( columnIndex - 1 ) );
+            }
+
+            return value != null ? value : RETURNS_DEFAULTS.answer( invocation );
+        } );
+    }
+
     private void mockRowSet()
     {
         // Simulate 3 rows
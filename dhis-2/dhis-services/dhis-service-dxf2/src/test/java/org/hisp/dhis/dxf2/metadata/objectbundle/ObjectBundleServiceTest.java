@@ -644,6 +644,40 @@ class ObjectBundleServiceTest extends TransactionalIntegrationTest
         assertNotNull( section2.getDataSet() );
     }
 
+    @Test
+    void testCommitEvictsDataSetSavedByHook()
+        throws IOException
+    {
+        Map<Class<? extends IdentifiableObject>, List<IdentifiableObject>> metadata = renderService.fromMetadata(
+            new ClassPathResource( "dxf2/dataset_with_sections.json" ).getInputStream(), RenderFormat.JSON );
+        ObjectBundleParams params = new ObjectBundleParams();
+        params.setObjectBundleMode( ObjectBundleMode.COMMIT );
+        params.setImportStrategy( ImportStrategy.CREATE );
+        params.setObjects( metadata );
+        ObjectBundle bundle = objectBundleService.create( params );
+        assertFalse( objectBundleValidationService.validate( bundle ).hasErrorReports() );
+        objectBundleService.commit( bundle );
+        DataSet dataSet = manager.get( DataSet.class, "em8Bg4LCr5k" );
+        int version = dataSet.getVersion();
+        metadata = renderService.fromMetadata(
+            new ClassPathResource( "dxf2/section_of_existing_dataset.json" ).getInputStream(), RenderFormat.JSON );
+        params = new ObjectBundleParams();
+        params.setObjectBundleMode( ObjectBundleMode.COMMIT );
+        params.setImportStrategy( ImportStrategy.CREATE_AND_UPDATE );
+        params.setObjects( metadata );
+        bundle = objectBundleService.create( params );
+        assertFalse( objectBundleValidationService.validate( bundle ).hasErrorReports() );
+        objectBundleService.commit( bundle );
+        dataSet = manager.get( DataSet.class, "em8Bg4LCr5k" );
+        assertTrue( dataSet.getVersion() > version );
+        // the data set is not part of the bundle but was saved by a hook
+        assertFalse( bundle.hasObjects( DataSet.class ) );
+        assertTrue( bundle.getCommittedObjectIds().containsKey( DataSet.class ) );
+        assertTrue( bundle.getCommittedObjectIds().get( DataSet.class ).contains( dataSet.getId() ) );
+        assertTrue( bundle.getCommittedObjectIds().get( Section.class )
+            .contains( manager.get( Section.class, "Uz4Z0E8BB1e" ).getId() ) );
+    }
+
     @Test
     void testCreateDataSetWithSectionsAndGreyedFields()
         throws IOException
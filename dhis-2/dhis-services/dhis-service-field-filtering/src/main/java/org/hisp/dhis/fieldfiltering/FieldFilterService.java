@@ -27,6 +27,7 @@
  */
 package org.hisp.dhis.fieldfiltering;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -41,10 +42,13 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.OrderComparator;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.cfg.MapperConfig;
 import com.fasterxml.jackson.databind.introspect.Annotated;
 import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
@@ -129,6 +133,58 @@ public class FieldFilterService
         return objectNodes;
     }
 
+    /**
+     * Streaming alternative to {@link #toObjectNodes(FieldFilterParams)}
+     * which writes the filtered objects as a JSON array straight to the given
+     * generator, using the same field paths and transformers. Objects are
+     * serialized one at a time, so memory use is independent of the number of
+     * objects. Without transformers no tree is built at all, with transformers
+     * a tree is only built for the object currently being written.
+     * <p>
+     * Field paths are resolved from the generator output context, so any
+     * enclosing structure should be written with the plain generator methods
+     * (without a current value).
+     *
+     * @param params the objects and filters.
+     * @param generator the generator to write the JSON array to.
+     * @throws IOException if writing to the generator fails.
+     */
+    public void writeObjectNodes( FieldFilterParams<?> params, JsonGenerator generator )
+        throws IOException
+    {
+        generator.writeStartArray();
+
+        if ( !params.getObjects().isEmpty() )
+        {
+            List<FieldPath> fieldPaths = FieldFilterParser.parse( params.getFilters() );
+            fieldPathHelper.apply( fieldPaths, params.getObjects().iterator().next().getClass() );
+
+            SimpleFilterProvider filterProvider = getSimpleFilterProvider( fieldPaths );
+            ObjectMapper objectMapper = jsonMapper.setFilterProvider( filterProvider );
+            ObjectWriter objectWriter = objectMapper.writer().without( SerializationFeature.FLUSH_AFTER_WRITE_VALUE );
+
+            Map<String, List<FieldTransformer>> fieldTransformers = getTransformers( fieldPaths );
+            boolean hasTransformers = fieldTransformers.values().stream().anyMatch( tf -> !tf.isEmpty() );
+
+            for ( Object object : params.getObjects() )
+            {
+                if ( hasTransformers )
+                {
+                    ObjectNode objectNode = objectMapper.valueToTree( object );
+                    applyTransformers( objectNode, null, "", fieldTransformers );
+
+                    objectWriter.writeValue( generator, objectNode );
+                }
+                else
+                {
+                    objectWriter.writeValue( generator, object );
+                }
+            }
+        }
+
+        generator.writeEndArray();
+    }
+
     private void applyTransformers( JsonNode node, JsonNode parent, String path,
         Map<String, List<FieldTransformer>> fieldTransformers )
     {
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.fieldfiltering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.hisp.dhis.commons.jackson.config.JacksonObjectMapperConfig;
+import org.hisp.dhis.schema.SchemaService;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+
+/**
+ * Tests that {@link FieldFilterService#writeObjectNodes} produces the same
+ * output as {@link FieldFilterService#toObjectNodes}.
+ */
+class FieldFilterServiceTest
+{
+    private final ObjectMapper jsonMapper = JacksonObjectMapperConfig.staticJsonMapper();
+
+    private final FieldFilterService fieldFilterService = new FieldFilterService(
+        new FieldPathHelper( mock( SchemaService.class ) ), jsonMapper );
+
+    private final List<Simple> objects = List.of(
+        new Simple( "a", "Simple A", List.of( "x", "y" ) ),
+        new Simple( "b", "Simple B", List.of() ),
+        new Simple( "c", "Simple C", List.of( "z" ) ) );
+
+    @Test
+    void testWriteObjectNodes()
+        throws IOException
+    {
+        JsonNode json = writeObjectNodes( FieldFilterParams.of( objects, List.of( "id,name" ) ) );
+
+        assertEquals( 3, json.size() );
+        assertEquals( 2, json.get( 0 ).size() );
+        assertEquals( "Simple A", json.get( 0 ).get( "name" ).asText() );
+        assertEquals( toArrayNode( FieldFilterParams.of( objects, List.of( "id,name" ) ) ), json );
+    }
+
+    @Test
+    void testWriteObjectNodesWithTransformers()
+        throws IOException
+    {
+        List<String> filters = List.of( "id~rename(uid),codes::size" );
+
+        JsonNode json = writeObjectNodes( FieldFilterParams.of( objects, filters ) );
+
+        assertEquals( "a", json.get( 0 ).get( "uid" ).asText() );
+        assertEquals( 2, json.get( 0 ).get( "codes" ).asInt() );
+        assertEquals( toArrayNode( FieldFilterParams.of( objects, filters ) ), json );
+    }
+
+    @Test
+    void testWriteObjectNodesEmpty()
+        throws IOException
+    {
+        JsonNode json = writeObjectNodes( FieldFilterParams.of( List.of(), List.of( "id" ) ) );
+
+        assertEquals( jsonMapper.createArrayNode(), json );
+    }
+
+    private JsonNode writeObjectNodes( FieldFilterParams<?> params )
+        throws IOException
+    {
+        StringWriter writer = new StringWriter();
+
+        try ( JsonGenerator generator = jsonMapper.getFactory().createGenerator( writer ) )
+        {
+            fieldFilterService.writeObjectNodes( params, generator );
+        }
+
+        return jsonMapper.readTree( writer.toString() );
+    }
+
+    private ArrayNode toArrayNode( FieldFilterParams<?> params )
+    {
+        ArrayNode arrayNode = jsonMapper.createArrayNode();
+        fieldFilterService.toObjectNodes( params ).forEach( arrayNode::add );
+
+        return arrayNode;
+    }
+
+    public static class Simple
+    {
+        private final String id;
+
+        private final String name;
+
+        private final List<String> codes;
+
+        public Simple( String id, String name, List<String> codes )
+        {
+            this.id = id;
+            this.name = name;
+            this.codes = codes;
+        }
+
+        @JsonProperty
+        public String getId()
+        {
+            return id;
+        }
+
+        @JsonProperty
+        public String getName()
+        {
+            return name;
+        }
+
+        @JsonProperty
+        public List<String> getCodes()
+        {
+            return codes;
+        }
+    }
+}
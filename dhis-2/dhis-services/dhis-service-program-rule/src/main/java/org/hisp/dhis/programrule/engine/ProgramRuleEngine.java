@@ -34,6 +34,7 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.hisp.dhis.common.UserContext;
 import org.hisp.dhis.commons.collection.ListUtils;
 import org.hisp.dhis.commons.util.DebugUtils;
 import org.hisp.dhis.constant.ConstantService;
@@ -49,6 +50,7 @@ import org.hisp.dhis.rules.RuleEngineContext;
 import org.hisp.dhis.rules.RuleEngineIntent;
 import org.hisp.dhis.rules.models.*;
 import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValue;
+import org.hisp.dhis.user.UserSettingKey;
 
 import com.google.api.client.util.Lists;
 
@@ -76,6 +78,9 @@ public class ProgramRuleEngine
     @NonNull
     private final SupplementaryDataProvider supplementaryDataProvider;
 
+    @NonNull
+    private final RuleEngineContextCache ruleEngineContextCache;
+
     public List<RuleEffect> evaluate( ProgramInstance enrollment, Set<ProgramStageInstance> events )
     {
         return evaluateProgramRules( enrollment, null, enrollment.getProgram(), Lists.newArrayList(),
@@ -155,20 +160,21 @@ public class ProgramRuleEngine
         String programStageUid = Optional.ofNullable( programStageInstance ).map( p -> p.getProgramStage().getUid() )
             .orElse( null );
 
-        List<ProgramRule> programRules = implementableRuleService.getProgramRules( program, programStageUid );
+        Optional<RuleEngineContext> ruleEngineContext = ruleEngineContextCache.get(
+            getRuleEngineContextKey( program, programStageUid ),
+            () -> loadRuleEngineContext( program, programStageUid ) );
 
-        if ( programRules.isEmpty() )
+        if ( !ruleEngineContext.isPresent() )
         {
             return null;
         }
 
         RuleEnrollment ruleEnrollment = getRuleEnrollment( enrollment, trackedEntityAttributeValues );
 
-        RuleEngine.Builder builder = getRuleEngineContext( program,
-            programRules )
-                .toEngineBuilder()
-                .triggerEnvironment( TriggerEnvironment.SERVER )
-                .events( ruleEvents );
+        RuleEngine.Builder builder = ruleEngineContext.get()
+            .toEngineBuilder()
+            .triggerEnvironment( TriggerEnvironment.SERVER )
+            .events( ruleEvents );
 
         if ( ruleEnrollment != null )
         {
@@ -224,6 +230,30 @@ public class ProgramRuleEngine
             RuleEngineIntent.DESCRIPTION ).build();
     }
 
+    /**
+     * Returns the key of the cached rule engine context. The context depends
+     * on the rules selected by the implementable rule service and on the user
+     * roles of the current user, which are part of the supplementary data.
+     */
+    private String getRuleEngineContextKey( Program program, String programStageUid )
+    {
+        return String.join( ":", implementableRuleService.getClass().getName(), program.getUid(),
+            String.valueOf( programStageUid ), String.valueOf( supplementaryDataProvider.getUserRoles() ),
+            String.valueOf( UserContext.getUserSetting( UserSettingKey.DB_LOCALE ) ) );
+    }
+
+    private RuleEngineContext loadRuleEngineContext( Program program, String programStageUid )
+    {
+        List<ProgramRule> programRules = implementableRuleService.getProgramRules( program, programStageUid );
+
+        if ( programRules.isEmpty() )
+        {
+            return null;
+        }
+
+        return getRuleEngineContext( program, programRules );
+    }
+
     private RuleEngineContext getRuleEngineContext( Program program, List<ProgramRule> programRules )
     {
         List<ProgramRuleVariable> programRuleVariables = programRuleVariableService
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.programrule.engine;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.common.event.CacheInvalidationEvent;
+import org.hisp.dhis.constant.Constant;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.option.OptionSet;
+import org.hisp.dhis.organisationunit.OrganisationUnitGroup;
+import org.hisp.dhis.programrule.ProgramRule;
+import org.hisp.dhis.programrule.ProgramRuleAction;
+import org.hisp.dhis.programrule.ProgramRuleVariable;
+import org.hisp.dhis.rules.RuleEngineContext;
+import org.hisp.dhis.trackedentity.TrackedEntityAttribute;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of {@link RuleEngineContext} instances, holding the mapped program
+ * rules, program rule variables, constants and supplementary data of a program
+ * and program stage. A context is immutable and can be shared by all
+ * evaluations of the program and program stage.
+ * <p>
+ * Cache keys include a metadata version which is incremented when program
+ * rule metadata changes, so that contexts being built while the metadata
+ * changes are never returned after the invalidation.
+ */
+@Component
+public class RuleEngineContextCache
+{
+    private static final List<Class<?>> RULE_METADATA_CLASSES = List.of( ProgramRule.class,
+        ProgramRuleAction.class, ProgramRuleVariable.class, Constant.class, OrganisationUnitGroup.class,
+        DataElement.class, TrackedEntityAttribute.class, OptionSet.class );
+
+    private final Cache<Optional<RuleEngineContext>> contextCache;
+
+    private final AtomicLong metadataVersion = new AtomicLong();
+
+    public RuleEngineContextCache( CacheProvider cacheProvider )
+    {
+        this.contextCache = cacheProvider.createRuleEngineContextCache();
+    }
+
+    /**
+     * Returns the rule engine context for the given key, building it with the
+     * given supplier if not cached. The supplier may return null to indicate
+     * that there are no rules to evaluate, which is cached as well.
+     *
+     * @param key the key identifying the program, program stage and any other
+     *        input of the context.
+     * @param contextSupplier the supplier of the context.
+     * @return the rule engine context, or empty if there are no rules.
+     */
+    public Optional<RuleEngineContext> get( String key, Supplier<RuleEngineContext> contextSupplier )
+    {
+        String versionedKey = metadataVersion.get() + ":" + key;
+
+        return contextCache.get( versionedKey, k -> Optional.ofNullable( contextSupplier.get() ) );
+    }
+
+    /**
+     * Removes all cached contexts.
+     */
+    public void invalidateAll()
+    {
+        metadataVersion.incrementAndGet();
+        contextCache.invalidateAll();
+    }
+
+    @EventListener
+    public void handleCacheInvalidation( CacheInvalidationEvent event )
+    {
+        if ( isRuleMetadata( event.getEntityClass() ) )
+        {
+            invalidateAll();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Indicates whether the given class is program rule metadata, which the
+     * cached contexts are built from.
+     *
+     * @param klass the class.
+     * @return true if changes to objects of the class invalidate the cache.
+     */
+    public static boolean isRuleMetadata( Class<?> klass )
+    {
+        return klass != null && RULE_METADATA_CLASSES.stream().anyMatch( c -> c.isAssignableFrom( klass ) );
+    }
+}
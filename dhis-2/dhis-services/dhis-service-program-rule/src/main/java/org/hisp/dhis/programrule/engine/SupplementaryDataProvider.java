@@ -42,6 +42,7 @@ import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroupService;
 import org.hisp.dhis.programrule.ProgramRule;
 import org.hisp.dhis.user.CurrentUserService;
+import org.hisp.dhis.user.User;
 import org.hisp.dhis.user.UserAuthorityGroup;
 import org.springframework.stereotype.Component;
 
@@ -87,13 +88,33 @@ public class SupplementaryDataProvider
                     .stream().map( OrganisationUnit::getUid ).collect( Collectors.toList() ) ) );
         }
 
-        if ( currentUserService.getCurrentUser() != null )
+        List<String> userRoles = getUserRoles();
+
+        if ( userRoles != null )
         {
-            supplementaryData.put( USER, currentUserService.getCurrentUser().getUserCredentials()
-                .getUserAuthorityGroups().stream().map( UserAuthorityGroup::getUid ).collect( Collectors.toList() ) );
+            supplementaryData.put( USER, userRoles );
         }
 
         return supplementaryData;
     }
 
+    /**
+     * Returns the sorted uids of the user roles of the current user, which are
+     * part of the supplementary data, or null if there is no current user.
+     *
+     * @return the user role uids of the current user.
+     */
+    public List<String> getUserRoles()
+    {
+        User currentUser = currentUserService.getCurrentUser();
+
+        if ( currentUser == null )
+        {
+            return null;
+        }
+
+        return currentUser.getUserCredentials().getUserAuthorityGroups().stream()
+            .map( UserAuthorityGroup::getUid ).sorted().collect( Collectors.toList() );
+    }
+
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.programrule.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hisp.dhis.cache.CacheProvider;
+import org.hisp.dhis.cache.SimpleCacheBuilder;
+import org.hisp.dhis.category.CategoryOption;
+import org.hisp.dhis.common.event.CacheInvalidationEvent;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.programrule.ProgramRuleVariable;
+import org.hisp.dhis.rules.RuleEngineContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RuleEngineContextCacheTest
+{
+    private RuleEngineContextCache cache;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp()
+    {
+        CacheProvider cacheProvider = mock( CacheProvider.class );
+        when( cacheProvider.createRuleEngineContextCache() )
+            .thenReturn( new SimpleCacheBuilder<>().forRegion( "ruleEngineContextCache" ).build() );
+        cache = new RuleEngineContextCache( cacheProvider );
+    }
+
+    @Test
+    void testContextIsBuiltOncePerKey()
+    {
+        RuleEngineContext first = cache.get( "programA", this::newContext ).get();
+        RuleEngineContext second = cache.get( "programA", this::newContext ).get();
+
+        assertSame( first, second );
+        assertEquals( 1, loads.get() );
+
+        cache.get( "programB", this::newContext );
+
+        assertEquals( 2, loads.get() );
+    }
+
+    @Test
+    void testMissingContextIsCached()
+    {
+        assertFalse( cache.get( "programA", this::noContext ).isPresent() );
+        assertFalse( cache.get( "programA", this::noContext ).isPresent() );
+
+        assertEquals( 1, loads.get() );
+    }
+
+    @Test
+    void testRuleMetadataChangeInvalidatesContexts()
+    {
+        RuleEngineContext first = cache.get( "programA", this::newContext ).get();
+
+        cache.handleCacheInvalidation( new CacheInvalidationEvent( this, ProgramRuleVariable.class, 1L ) );
+
+        Optional<RuleEngineContext> second = cache.get( "programA", this::newContext );
+
+        assertNotSame( first, second.get() );
+        assertEquals( 2, loads.get() );
+    }
+
+    @Test
+    void testDataElementChangeInvalidatesContexts()
+    {
+        cache.get( "programA", this::newContext );
+
+        cache.handleCacheInvalidation( new CacheInvalidationEvent( this, DataElement.class, 1L ) );
+
+        cache.get( "programA", this::newContext );
+
+        assertEquals( 2, loads.get() );
+    }
+
+    @Test
+    void testOtherMetadataChangeKeepsContexts()
+    {
+        cache.get( "programA", this::newContext );
+
+        cache.handleCacheInvalidation( new CacheInvalidationEvent( this, CategoryOption.class, 1L ) );
+
+        cache.get( "programA", this::newContext );
+
+        assertEquals( 1, loads.get() );
+    }
+
+    private RuleEngineContext newContext()
+    {
+        loads.incrementAndGet();
+
+        return RuleEngineContext.builder()
+            .rules( List.of() )
+            .ruleVariables( List.of() )
+            .supplementaryData( Map.of() )
+            .constantsValue( Map.of() )
+            .build();
+    }
+
+    private RuleEngineContext noContext()
+    {
+        loads.incrementAndGet();
+
+        return null;
+    }
+}
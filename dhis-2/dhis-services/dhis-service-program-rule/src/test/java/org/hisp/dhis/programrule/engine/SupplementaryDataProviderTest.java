@@ -117,7 +117,8 @@ class SupplementaryDataProviderTest extends DhisConvenienceTest
 
     private List<String> getAuthorityGroupUids()
     {
-        return getAuthorityGroups().stream().map( UserAuthorityGroup::getUid ).collect( Collectors.toList() );
+        return getAuthorityGroups().stream().map( UserAuthorityGroup::getUid ).sorted()
+            .collect( Collectors.toList() );
     }
 
     private Set<UserAuthorityGroup> getAuthorityGroups()
@@ -32,11 +32,10 @@ import static org.hisp.dhis.common.OrganisationUnitDescendants.DESCENDANTS;
 import static org.hisp.dhis.expression.MissingValueStrategy.NEVER_SKIP;
 import static org.hisp.dhis.expression.ParseType.PREDICTOR_EXPRESSION;
 import static org.hisp.dhis.expression.ParseType.PREDICTOR_SKIP_TEST;
-import static org.hisp.dhis.parser.expression.ParserUtils.DEFAULT_SAMPLE_PERIODS;
-import static org.hisp.dhis.predictor.PredictionFormatter.formatPrediction;
 import static org.hisp.dhis.system.notification.NotificationLevel.ERROR;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -44,13 +43,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Hibernate;
 import org.hisp.dhis.analytics.AnalyticsService;
 import org.hisp.dhis.analytics.AnalyticsServiceTarget;
 import org.hisp.dhis.analytics.DataType;
@@ -60,7 +61,6 @@ import org.hisp.dhis.common.DimensionalItemId;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.common.ListMap;
-import org.hisp.dhis.common.MapMap;
 import org.hisp.dhis.commons.util.DebugUtils;
 import org.hisp.dhis.constant.Constant;
 import org.hisp.dhis.constant.ConstantService;
@@ -125,6 +125,10 @@ public class DefaultPredictionService
 
     private final BatchHandlerFactory batchHandlerFactory;
 
+    private final PredictionExecutor predictionExecutor;
+
+    private static final int ORG_UNITS_PER_PARTITION = 500;
+
     private AnalyticsService analyticsService;
 
     private CurrentUserService currentUserService;
@@ -285,10 +289,31 @@ public class DefaultPredictionService
             storedBy = currentUser.getUsername();
         }
 
-        PredictionDataConsolidator consolidator = new PredictionDataConsolidator( items,
-            predictor.getOrganisationUnitDescendants().equals( DESCENDANTS ),
-            new PredictionDataValueFetcher( dataValueService, categoryService ),
-            new PredictionAnalyticsDataFetcher( analyticsService, categoryService ) );
+        PredictionEvaluator evaluator = PredictionEvaluator.builder()
+            .expressionService( expressionService )
+            .generator( generator )
+            .skipTest( skipTest )
+            .outputDataElement( outputDataElement )
+            .outputOptionCombo( outputOptionCombo )
+            .expressionDataType( expressionDataType )
+            .itemMap( itemMap )
+            .outputPeriodItems( outputPeriodItems )
+            .sampledItems( sampledItems )
+            .constantMap( constantMap )
+            .orgUnitGroupMap( orgUnitGroupMap )
+            .outputPeriods( outputPeriods )
+            .samplePeriodsMap( samplePeriodsMap )
+            .allSamplePeriods( allSamplePeriods )
+            .requireData( requireData )
+            .forwardReference( forwardReference )
+            .defaultCategoryOptionCombo( defaultCategoryOptionCombo )
+            .storedBy( storedBy )
+            .now( now )
+            .build();
+
+        boolean includeDescendants = predictor.getOrganisationUnitDescendants().equals( DESCENDANTS );
+
+        PredictionDataConsolidator consolidator = newConsolidator( items, includeDescendants );
 
         PredictionWriter predictionWriter = new PredictionWriter( dataValueService, batchHandlerFactory );
 
@@ -296,59 +321,90 @@ public class DefaultPredictionService
 
         predictionSummary.incrementPredictors();
 
+        boolean parallel = predictionExecutor.isParallel();
+
+        if ( parallel )
+        {
+            // Load group members here, as workers have no Hibernate session
+
+            orgUnitGroupMap.values().forEach( group -> Hibernate.initialize( group.getMembers() ) );
+        }
+
         for ( OrganisationUnitLevel orgUnitLevel : predictor.getOrganisationUnitLevels() )
         {
             List<OrganisationUnit> orgUnits = organisationUnitService
                 .getOrganisationUnitsAtOrgUnitLevels( Lists.newArrayList( orgUnitLevel ), currentUserOrgUnits );
 
-            consolidator.init( currentUserOrgUnits, orgUnitLevel.getLevel(), orgUnits,
-                dataValueQueryPeriods, analyticsQueryPeriods, existingOutputPeriods, outputDataElementOperand );
+            if ( !parallel )
+            {
+                consolidator.init( currentUserOrgUnits, orgUnitLevel.getLevel(), orgUnits,
+                    dataValueQueryPeriods, analyticsQueryPeriods, existingOutputPeriods,
+                    outputDataElementOperand );
 
-            PredictionData data;
+                PredictionData data;
 
-            while ( (data = consolidator.getData()) != null )
-            {
-                List<DataValue> predictions = new ArrayList<>();
+                while ( (data = consolidator.getData()) != null )
+                {
+                    predictionWriter.write( evaluator.getPredictions( data ), data.getOldPredictions() );
+                }
 
-                List<PredictionContext> contexts = PredictionContextGenerator.getContexts(
-                    outputPeriods, data.getValues(), defaultCategoryOptionCombo );
+                continue;
+            }
 
-                for ( PredictionContext c : contexts )
+            List<List<OrganisationUnit>> partitions = getPartitions( orgUnits );
+
+            PredictionDataConsolidator partitionConsolidator = null;
+
+            for ( int i = 0; i < partitions.size(); i++ )
+            {
+                if ( partitionConsolidator == null )
                 {
-                    List<Period> samplePeriods = new ArrayList<>( samplePeriodsMap.get( c.getOutputPeriod() ) );
+                    partitionConsolidator = newConsolidator( items, includeDescendants );
+                    partitionConsolidator.init( new HashSet<>( partitions.get( i ) ), orgUnitLevel.getLevel(),
+                        partitions.get( i ), dataValueQueryPeriods, analyticsQueryPeriods, existingOutputPeriods,
+                        outputDataElementOperand );
+                }
 
-                    samplePeriods.removeAll( getSkippedPeriods( allSamplePeriods, itemMap, c.getPeriodValueMap(),
-                        skipTest, constantMap, orgUnitGroupMap, data.getOrgUnit() ) );
+                List<PredictionData> partitionData = new ArrayList<>();
+                List<Future<List<DataValue>>> futures = new ArrayList<>();
 
-                    if ( requireData && !dataIsPresent( outputPeriodItems, c.getValueMap(), sampledItems,
-                        samplePeriods, c.getPeriodValueMap() ) )
+                try
+                {
+                    PredictionData data;
+
+                    while ( (data = partitionConsolidator.getData()) != null )
                     {
-                        continue;
-                    }
+                        PredictionData orgUnitData = data;
 
-                    Object value = expressionService.getExpressionValue( predictor.getGenerator().getExpression(),
-                        PREDICTOR_EXPRESSION, itemMap, c.getValueMap(), constantMap, null, orgUnitGroupMap,
-                        c.getOutputPeriod().getDaysInPeriod(), generator.getMissingValueStrategy(), data.getOrgUnit(),
-                        samplePeriods, c.getPeriodValueMap(), expressionDataType );
+                        partitionData.add( orgUnitData );
+                        futures.add( predictionExecutor.submit( () -> evaluator.getPredictions( orgUnitData ) ) );
+                    }
 
-                    if ( value != null || generator.getMissingValueStrategy() == NEVER_SKIP )
-                    {
-                        String valueString = formatPrediction( value, outputDataElement );
+                    // Start fetching the next partition while this one is
+                    // evaluated
 
-                        if ( valueString != null )
-                        {
-                            DataValue prediction = new DataValue( outputDataElement,
-                                c.getOutputPeriod(), data.getOrgUnit(), outputOptionCombo,
-                                c.getAttributeOptionCombo(), valueString, storedBy, now, null );
+                    partitionConsolidator = null;
 
-                            carryPredictionForward( prediction, contexts, forwardReference );
+                    if ( i + 1 < partitions.size() )
+                    {
+                        partitionConsolidator = newConsolidator( items, includeDescendants );
+                        partitionConsolidator.init( new HashSet<>( partitions.get( i + 1 ) ),
+                            orgUnitLevel.getLevel(), partitions.get( i + 1 ), dataValueQueryPeriods,
+                            analyticsQueryPeriods, existingOutputPeriods, outputDataElementOperand );
+                    }
 
-                            predictions.add( prediction );
-                        }
+                    for ( int j = 0; j < futures.size(); j++ )
+                    {
+                        predictionWriter.write( getPredictions( futures.get( j ) ),
+                            partitionData.get( j ).getOldPredictions() );
                     }
                 }
+                finally
+                {
+                    // Stop the evaluations left if the partition failed
 
-                predictionWriter.write( predictions, data.getOldPredictions() );
+                    futures.forEach( f -> f.cancel( true ) );
+                }
             }
         }
 
@@ -394,36 +450,6 @@ public class DefaultPredictionService
         return Sets.union( analyticsQueryPeriods, existingOutputPeriods );
     }
 
-    /**
-     * Finds sample periods that should be skipped based on the skip test.
-     */
-    private Set<Period> getSkippedPeriods( Set<Period> allSamplePeriods,
-        Map<DimensionalItemId, DimensionalItemObject> itemMap, MapMap<Period, DimensionalItemObject, Object> aocData,
-        Expression skipTest, Map<String, Constant> constantMap, Map<String, OrganisationUnitGroup> orgUnitGroupMap,
-        OrganisationUnit orgUnit )
-    {
-        Set<Period> skippedPeriods = new HashSet<>();
-
-        if ( skipTest == null || StringUtils.isEmpty( skipTest.getExpression() ) )
-        {
-            return skippedPeriods;
-        }
-
-        for ( Period p : allSamplePeriods )
-        {
-            if ( aocData.get( p ) != null
-                && Boolean.TRUE == expressionService.getExpressionValue( skipTest.getExpression(),
-                    PREDICTOR_SKIP_TEST, itemMap, aocData.get( p ), constantMap, null, orgUnitGroupMap,
-                    p.getDaysInPeriod(), skipTest.getMissingValueStrategy(), orgUnit,
-                    DEFAULT_SAMPLE_PERIODS, new MapMap<>(), DataType.BOOLEAN ) )
-            {
-                skippedPeriods.add( p );
-            }
-        }
-
-        return skippedPeriods;
-    }
-
     /**
      * Returns all Periods of the specified PeriodType with start date after or
      * equal the specified start date and end date before or equal the specified
@@ -556,64 +582,54 @@ public class DefaultPredictionService
     }
 
     /**
-     * If the predicted value might be used in a future period prediction,
-     * insert it into any future context data.
+     * Creates a consolidator with its own data fetchers.
      */
-    private void carryPredictionForward( DataValue prediction, List<PredictionContext> contexts,
-        DimensionalItemObject forwardReference )
+    private PredictionDataConsolidator newConsolidator( Set<DimensionalItemObject> items,
+        boolean includeDescendants )
     {
-        if ( forwardReference == null )
-        {
-            return;
-        }
+        return new PredictionDataConsolidator( items, includeDescendants,
+            new PredictionDataValueFetcher( dataValueService, categoryService ),
+            new PredictionAnalyticsDataFetcher( analyticsService, categoryService ) );
+    }
 
-        for ( PredictionContext ctx : contexts )
-        {
-            if ( ctx.getAttributeOptionCombo().equals( prediction.getAttributeOptionCombo() ) )
-            {
-                ctx.getPeriodValueMap().putEntry( prediction.getPeriod(), forwardReference, prediction.getValue() );
+    /**
+     * Partitions organisation units in order of path into lists of at most
+     * {@link #ORG_UNITS_PER_PARTITION}. Each organisation unit of a level is
+     * the root of its own subtree, so each partition is a set of whole
+     * subtrees, which can be fetched independently of the other partitions.
+     */
+    private List<List<OrganisationUnit>> getPartitions( List<OrganisationUnit> orgUnits )
+    {
+        List<OrganisationUnit> sortedOrgUnits = new ArrayList<>( orgUnits );
 
-                if ( ctx.getOutputPeriod().equals( prediction.getPeriod() ) )
-                {
-                    ctx.getValueMap().put( forwardReference, prediction.getValue() );
-                }
-            }
-        }
+        sortedOrgUnits.sort( Comparator.comparing( OrganisationUnit::getPath ) );
+
+        return Lists.partition( sortedOrgUnits, ORG_UNITS_PER_PARTITION );
     }
 
     /**
-     * Returns true if there is data to be used for a prediction in this period.
-     * This allows us to save time by evaluating an expression only if there is
-     * data. (Expression evaluation can take a non-trivial amount of time.)
+     * Waits for the predictions of the given future, and rethrows the
+     * exception if the evaluation failed.
      */
-    private boolean dataIsPresent( Set<DimensionalItemObject> outputPeriodItems,
-        Map<DimensionalItemObject, Object> valueMap,
-        Set<DimensionalItemObject> sampledItems, List<Period> samplePeriods,
-        MapMap<Period, DimensionalItemObject, Object> periodValueMap )
+    private List<DataValue> getPredictions( Future<List<DataValue>> future )
     {
-        if ( presentIn( outputPeriodItems, valueMap ) )
+        try
         {
-            return true;
+            return future.get();
         }
-
-        for ( Period p : samplePeriods )
+        catch ( InterruptedException e )
         {
-            Map<DimensionalItemObject, Object> pValueMap = periodValueMap.get( p );
-
-            if ( pValueMap != null && presentIn( sampledItems, pValueMap ) )
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Prediction was interrupted", e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( e.getCause() instanceof RuntimeException )
             {
-                return true;
+                throw (RuntimeException) e.getCause();
             }
-        }
-
-        return false;
-    }
 
-    /**
-     * Returns true if any items are present in the value map.
-     */
-    private boolean presentIn( Set<DimensionalItemObject> items, Map<DimensionalItemObject, Object> valueMap )
-    {
-        return !Sets.intersection( items, valueMap.keySet() ).isEmpty();
+            throw new IllegalStateException( "Prediction failed", e.getCause() );
+        }
     }
 }
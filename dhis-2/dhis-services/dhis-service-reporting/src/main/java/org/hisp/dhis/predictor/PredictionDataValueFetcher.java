@@ -49,10 +49,9 @@ import lombok.RequiredArgsConstructor;
 
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.category.CategoryService;
+import org.hisp.dhis.common.CompactValueMap;
 import org.hisp.dhis.common.DimensionalItemObject;
 import org.hisp.dhis.common.FoundDimensionItemValue;
-import org.hisp.dhis.common.MapMap;
-import org.hisp.dhis.common.MapMapMap;
 import org.hisp.dhis.commons.collection.CachingMap;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementOperand;
@@ -339,7 +338,7 @@ public class PredictionDataValueFetcher
      */
     private PredictionData getPredictionData( OrganisationUnit orgUnit, List<DeflatedDataValue> deflatedDataValues )
     {
-        MapMapMap<CategoryOptionCombo, Period, DimensionalItemObject, Object> map = new MapMapMap<>();
+        CompactValueMap<CategoryOptionCombo, Period, DimensionalItemObject> map = new CompactValueMap<>();
 
         List<DataValue> oldPredictions = new ArrayList<>();
 
@@ -394,7 +393,7 @@ public class PredictionDataValueFetcher
      * DataElement and CategoryOptionCombo).
      */
     private void addValueToMap( DataValue dv,
-        MapMapMap<CategoryOptionCombo, Period, DimensionalItemObject, Object> map )
+        CompactValueMap<CategoryOptionCombo, Period, DimensionalItemObject> map )
     {
         Object value = getObjectValue( dv.getValue(), dv.getDataElement().getValueType() );
 
@@ -423,7 +422,7 @@ public class PredictionDataValueFetcher
      * value, a DataElement value, or both.
      */
     private void addToMap( DimensionalItemObject item, Set<? extends DimensionalItemObject> items,
-        DataValue dv, Object value, MapMapMap<CategoryOptionCombo, Period, DimensionalItemObject, Object> map )
+        DataValue dv, Object value, CompactValueMap<CategoryOptionCombo, Period, DimensionalItemObject> map )
     {
         if ( !items.contains( item ) )
         {
@@ -441,27 +440,12 @@ public class PredictionDataValueFetcher
      * Convert the value map to a list of found values.
      */
     private List<FoundDimensionItemValue> mapToValues( OrganisationUnit orgUnit,
-        MapMapMap<CategoryOptionCombo, Period, DimensionalItemObject, Object> map )
+        CompactValueMap<CategoryOptionCombo, Period, DimensionalItemObject> map )
     {
         List<FoundDimensionItemValue> values = new ArrayList<>();
 
-        for ( Map.Entry<CategoryOptionCombo, MapMap<Period, DimensionalItemObject, Object>> e1 : map.entrySet() )
-        {
-            CategoryOptionCombo aoc = e1.getKey();
-
-            for ( Map.Entry<Period, Map<DimensionalItemObject, Object>> e2 : e1.getValue().entrySet() )
-            {
-                Period period = e2.getKey();
-
-                for ( Map.Entry<DimensionalItemObject, Object> e3 : e2.getValue().entrySet() )
-                {
-                    DimensionalItemObject obj = e3.getKey();
-                    Object value = e3.getValue();
-
-                    values.add( new FoundDimensionItemValue( orgUnit, period, aoc, obj, value ) );
-                }
-            }
-        }
+        map.forEach( ( aoc, period, obj, value ) -> values
+            .add( new FoundDimensionItemValue( orgUnit, period, aoc, obj, value ) ) );
 
         return values;
     }
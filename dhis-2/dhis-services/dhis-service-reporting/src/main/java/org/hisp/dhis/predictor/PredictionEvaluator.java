@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.predictor;
+
+import static org.hisp.dhis.expression.MissingValueStrategy.NEVER_SKIP;
+import static org.hisp.dhis.expression.ParseType.PREDICTOR_EXPRESSION;
+import static org.hisp.dhis.expression.ParseType.PREDICTOR_SKIP_TEST;
+import static org.hisp.dhis.parser.expression.ParserUtils.DEFAULT_SAMPLE_PERIODS;
+import static org.hisp.dhis.predictor.PredictionFormatter.formatPrediction;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.Builder;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hisp.dhis.analytics.DataType;
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.common.DimensionalItemId;
+import org.hisp.dhis.common.DimensionalItemObject;
+import org.hisp.dhis.common.ListMap;
+import org.hisp.dhis.common.MapMap;
+import org.hisp.dhis.constant.Constant;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.datavalue.DataValue;
+import org.hisp.dhis.expression.Expression;
+import org.hisp.dhis.expression.ExpressionService;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.organisationunit.OrganisationUnitGroup;
+import org.hisp.dhis.period.Period;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Evaluates the predictions of one predictor for the prediction data of one
+ * organisation unit at a time.
+ * <p>
+ * The evaluator holds no mutable state, so data for different organisation
+ * units may be evaluated concurrently. All objects referenced by the
+ * expressions must be loaded before evaluating concurrently.
+ */
+@Builder
+public class PredictionEvaluator
+{
+    private final ExpressionService expressionService;
+
+    private final Expression generator;
+
+    private final Expression skipTest;
+
+    private final DataElement outputDataElement;
+
+    private final CategoryOptionCombo outputOptionCombo;
+
+    private final DataType expressionDataType;
+
+    private final Map<DimensionalItemId, DimensionalItemObject> itemMap;
+
+    private final Set<DimensionalItemObject> outputPeriodItems;
+
+    private final Set<DimensionalItemObject> sampledItems;
+
+    private final Map<String, Constant> constantMap;
+
+    private final Map<String, OrganisationUnitGroup> orgUnitGroupMap;
+
+    private final List<Period> outputPeriods;
+
+    private final ListMap<Period, Period> samplePeriodsMap;
+
+    private final Set<Period> allSamplePeriods;
+
+    private final boolean requireData;
+
+    private final DimensionalItemObject forwardReference;
+
+    private final CategoryOptionCombo defaultCategoryOptionCombo;
+
+    private final String storedBy;
+
+    private final Date now;
+
+    /**
+     * Evaluates the predictions for the prediction data of an organisation
+     * unit.
+     *
+     * @param data the prediction data of the organisation unit.
+     * @return the predicted data values.
+     */
+    public List<DataValue> getPredictions( PredictionData data )
+    {
+        List<DataValue> predictions = new ArrayList<>();
+
+        List<PredictionContext> contexts = PredictionContextGenerator.getContexts(
+            outputPeriods, data.getValues(), defaultCategoryOptionCombo );
+
+        for ( PredictionContext c : contexts )
+        {
+            List<Period> samplePeriods = new ArrayList<>( samplePeriodsMap.get( c.getOutputPeriod() ) );
+
+            samplePeriods.removeAll( getSkippedPeriods( c.getPeriodValueMap(), data.getOrgUnit() ) );
+
+            if ( requireData && !dataIsPresent( c.getValueMap(), samplePeriods, c.getPeriodValueMap() ) )
+            {
+                continue;
+            }
+
+            Object value = expressionService.getExpressionValue( generator.getExpression(),
+                PREDICTOR_EXPRESSION, itemMap, c.getValueMap(), constantMap, null, orgUnitGroupMap,
+                c.getOutputPeriod().getDaysInPeriod(), generator.getMissingValueStrategy(), data.getOrgUnit(),
+                samplePeriods, c.getPeriodValueMap(), expressionDataType );
+
+            if ( value != null || generator.getMissingValueStrategy() == NEVER_SKIP )
+            {
+                String valueString = formatPrediction( value, outputDataElement );
+
+                if ( valueString != null )
+                {
+                    DataValue prediction = new DataValue( outputDataElement,
+                        c.getOutputPeriod(), data.getOrgUnit(), outputOptionCombo,
+                        c.getAttributeOptionCombo(), valueString, storedBy, now, null );
+
+                    carryPredictionForward( prediction, contexts );
+
+                    predictions.add( prediction );
+                }
+            }
+        }
+
+        return predictions;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive Methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Finds sample periods that should be skipped based on the skip test.
+     */
+    private Set<Period> getSkippedPeriods( MapMap<Period, DimensionalItemObject, Object> aocData,
+        OrganisationUnit orgUnit )
+    {
+        Set<Period> skippedPeriods = new HashSet<>();
+
+        if ( skipTest == null || StringUtils.isEmpty( skipTest.getExpression() ) )
+        {
+            return skippedPeriods;
+        }
+
+        for ( Period p : allSamplePeriods )
+        {
+            if ( aocData.get( p ) != null
+                && Boolean.TRUE == expressionService.getExpressionValue( skipTest.getExpression(),
+                    PREDICTOR_SKIP_TEST, itemMap, aocData.get( p ), constantMap, null, orgUnitGroupMap,
+                    p.getDaysInPeriod(), skipTest.getMissingValueStrategy(), orgUnit,
+                    DEFAULT_SAMPLE_PERIODS, new MapMap<>(), DataType.BOOLEAN ) )
+            {
+                skippedPeriods.add( p );
+            }
+        }
+
+        return skippedPeriods;
+    }
+
+    /**
+     * If the predicted value might be used in a future period prediction,
+     * insert it into any future context data.
+     */
+    private void carryPredictionForward( DataValue prediction, List<PredictionContext> contexts )
+    {
+        if ( forwardReference == null )
+        {
+            return;
+        }
+
+        for ( PredictionContext ctx : contexts )
+        {
+            if ( ctx.getAttributeOptionCombo().equals( prediction.getAttributeOptionCombo() ) )
+            {
+                ctx.getPeriodValueMap().putEntry( prediction.getPeriod(), forwardReference, prediction.getValue() );
+
+                if ( ctx.getOutputPeriod().equals( prediction.getPeriod() ) )
+                {
+                    ctx.getValueMap().put( forwardReference, prediction.getValue() );
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns true if there is data to be used for a prediction in this period.
+     * This allows us to save time by evaluating an expression only if there is
+     * data. (Expression evaluation can take a non-trivial amount of time.)
+     */
+    private boolean dataIsPresent( Map<DimensionalItemObject, Object> valueMap, List<Period> samplePeriods,
+        MapMap<Period, DimensionalItemObject, Object> periodValueMap )
+    {
+        if ( presentIn( outputPeriodItems, valueMap ) )
+        {
+            return true;
+        }
+
+        for ( Period p : samplePeriods )
+        {
+            Map<DimensionalItemObject, Object> pValueMap = periodValueMap.get( p );
+
+            if ( pValueMap != null && presentIn( sampledItems, pValueMap ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Returns true if any items are present in the value map.
+     */
+    private boolean presentIn( Set<DimensionalItemObject> items, Map<DimensionalItemObject, Object> valueMap )
+    {
+        return !Sets.intersection( items, valueMap.keySet() ).isEmpty();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.predictor;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.hisp.dhis.external.conf.ConfigurationKey.PREDICTOR_THREADS;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Evaluates predictions on a dedicated, bounded thread pool shared by all
+ * prediction runs. The pool is sized by the {@code predictor.threads} setting,
+ * and no pool is started when predictions are evaluated sequentially.
+ *
+ * The queue of the pool is bounded. When it is full, the submitting thread
+ * evaluates the prediction itself, which throttles the reading of further
+ * prediction data to the pace of the evaluation.
+ */
+@Slf4j
+@Component
+public class PredictionExecutor
+{
+    /**
+     * Number of queued evaluations per thread.
+     */
+    private static final int QUEUE_SIZE_PER_THREAD = 4;
+
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public PredictionExecutor( DhisConfigurationProvider config )
+    {
+        this( Integer.parseInt( config.getProperty( PREDICTOR_THREADS ) ) );
+    }
+
+    /**
+     * @param threads the number of threads evaluating predictions, 1 means
+     *        sequential evaluation.
+     */
+    public PredictionExecutor( int threads )
+    {
+        checkArgument( threads > 0, "Threads must be greater than zero" );
+
+        this.executor = threads > 1
+            ? new ThreadPoolExecutor( threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>( threads * QUEUE_SIZE_PER_THREAD ),
+                new ThreadFactoryBuilder().setNameFormat( "PREDICTION-%d" ).setDaemon( true ).build(),
+                new ThreadPoolExecutor.CallerRunsPolicy() )
+            : null;
+
+        if ( isParallel() )
+        {
+            log.info( String.format( "Prediction executor started with %d threads", threads ) );
+        }
+    }
+
+    /**
+     * Indicates whether predictions are evaluated in parallel.
+     *
+     * @return true if predictions are evaluated on more than one thread.
+     */
+    public boolean isParallel()
+    {
+        return executor != null;
+    }
+
+    /**
+     * Submits the given evaluation to the thread pool. The evaluation runs on
+     * the current thread if the queue of the pool is full.
+     *
+     * @param task the evaluation.
+     * @return the {@link Future} of the evaluation.
+     * @throws IllegalStateException if predictions are evaluated sequentially.
+     */
+    public <T> Future<T> submit( Callable<T> task )
+    {
+        if ( !isParallel() )
+        {
+            throw new IllegalStateException( "Predictions are evaluated sequentially" );
+        }
+
+        return executor.submit( task );
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        if ( executor != null )
+        {
+            executor.shutdownNow();
+        }
+    }
+}
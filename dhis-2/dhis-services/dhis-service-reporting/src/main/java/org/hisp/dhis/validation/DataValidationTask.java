@@ -129,9 +129,14 @@ public class DataValidationTask
     private ValidationRuleExtended ruleX; // Current rule extended.
 
     // Data for current period and all rules being evaluated:
-    private MapMapMap<Long, String, DimensionalItemObject, Object> dataMap;
+    private CompactValueMap<Long, String, DimensionalItemObject> dataMap;
 
-    private MapMapMap<Long, String, DimensionalItemObject, Object> slidingWindowDataMap;
+    private CompactValueMap<Long, String, DimensionalItemObject> slidingWindowDataMap;
+
+    // Data for current period, organisation unit and all rules:
+    private MapMap<String, DimensionalItemObject, Object> orgUnitValueMap;
+
+    private MapMap<String, DimensionalItemObject, Object> orgUnitSlidingWindowValueMap;
 
     @Override
     public void init( List<OrganisationUnit> orgUnits, ValidationRunContext context, AnalyticsService analyticsService )
@@ -180,12 +185,24 @@ public class DataValidationTask
             {
                 period = p;
 
+                if ( orgUnits.stream().noneMatch( ou -> periodTypeX.isChanged( p, ou ) ) )
+                {
+                    continue; // Incremental analysis, no changed data
+                }
+
                 getData();
 
                 for ( OrganisationUnit ou : orgUnits )
                 {
+                    if ( !periodTypeX.isChanged( p, ou ) )
+                    {
+                        continue;
+                    }
+
                     orgUnit = ou;
                     orgUnitId = ou.getId();
+                    orgUnitValueMap = dataMap.getMapMap( orgUnitId );
+                    orgUnitSlidingWindowValueMap = slidingWindowDataMap.getMapMap( orgUnitId );
 
                     for ( ValidationRuleExtended r : periodTypeX.getRuleXs() )
                     {
@@ -232,7 +249,8 @@ public class DataValidationTask
 
         for ( String optionCombo : attributeOptionCombos )
         {
-            if ( NON_AOC.compareTo( optionCombo ) == 0 )
+            if ( NON_AOC.compareTo( optionCombo ) == 0
+                || !periodTypeX.isChanged( period, orgUnit, optionCombo ) )
             {
                 continue;
             }
@@ -369,7 +387,7 @@ public class DataValidationTask
 
         dataMap.putMap( getAnalyticsMap( true, periodTypeX.getIndicators() ) );
 
-        slidingWindowDataMap = new MapMapMap<>();
+        slidingWindowDataMap = new CompactValueMap<>();
 
         if ( periodTypeX.areSlidingWindowsNeeded() )
         {
@@ -390,8 +408,8 @@ public class DataValidationTask
     private MapMap<String, DimensionalItemObject, Object> getValueMap( boolean slidingWindow )
     {
         return slidingWindow
-            ? slidingWindowDataMap.get( orgUnitId )
-            : dataMap.get( orgUnitId );
+            ? orgUnitSlidingWindowValueMap
+            : orgUnitValueMap;
     }
 
     /**
@@ -528,9 +546,9 @@ public class DataValidationTask
 
         List<DeflatedDataValue> dataValues = dataValueService.getDeflatedDataValues( params );
 
-        dataMap = new MapMapMap<>();
+        dataMap = new CompactValueMap<>();
 
-        MapMapMap<Long, String, DimensionalItemObject, Long> duplicateCheck = new MapMapMap<>();
+        CompactValueMap<Long, String, DimensionalItemObject> duplicateCheck = new CompactValueMap<>();
 
         for ( DeflatedDataValue dv : dataValues )
         {
@@ -558,13 +576,13 @@ public class DataValidationTask
     }
 
     private void addValueToDataMap( long orgUnitId, String aocUid, DimensionalItemObject dimItemObject,
-        Object value, Period p, MapMapMap<Long, String, DimensionalItemObject, Long> duplicateCheck )
+        Object value, Period p, CompactValueMap<Long, String, DimensionalItemObject> duplicateCheck )
     {
         Object existingValue = dataMap.getValue( orgUnitId, aocUid, dimItemObject );
 
-        long periodInterval = p.getEndDate().getTime() - p.getStartDate().getTime();
+        double periodInterval = p.getEndDate().getTime() - p.getStartDate().getTime();
 
-        Long existingPeriodInterval = duplicateCheck.getValue( orgUnitId, aocUid, dimItemObject );
+        Double existingPeriodInterval = (Double) duplicateCheck.getValue( orgUnitId, aocUid, dimItemObject );
 
         if ( existingPeriodInterval != null )
         {
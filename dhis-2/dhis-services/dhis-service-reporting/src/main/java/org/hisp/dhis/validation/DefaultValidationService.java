@@ -58,8 +58,10 @@ import org.hisp.dhis.dataanalysis.ValidationRuleExpressionDetails;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementOperand;
 import org.hisp.dhis.dataset.DataSet;
+import org.hisp.dhis.datavalue.DataExportParams;
 import org.hisp.dhis.datavalue.DataValue;
 import org.hisp.dhis.datavalue.DataValueService;
+import org.hisp.dhis.datavalue.DeflatedDataValue;
 import org.hisp.dhis.expression.ExpressionService;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroup;
@@ -196,6 +198,11 @@ public class DefaultValidationService
 
         List<ValidationResult> results = Validator.validate( context, applicationContext, analyticsService );
 
+        if ( !context.getReplacedResults().isEmpty() )
+        {
+            results = reconcileReplacedResults( context );
+        }
+
         if ( context.isPersistResults() )
         {
             validationResultService.saveValidationResults( context.getValidationResults() );
@@ -331,14 +338,32 @@ public class DefaultValidationService
 
         removeAnyUnneededPeriodTypes( periodTypeXMap );
 
+        List<ValidationResult> initialResults = validationResultService
+            .getValidationResults( parameterOrgUnit,
+                parameters.isIncludeOrgUnitDescendants(), parameters.getValidationRules(),
+                parameters.getPeriods() );
+
+        List<ValidationResult> replacedResults = new ArrayList<>();
+
+        if ( parameters.isIncremental() )
+        {
+            orgUnits = addChangedSlicesToContext( periodTypeXMap.values(), orgUnits, parameters );
+
+            replacedResults = initialResults.stream()
+                .filter( r -> isInChangedSlice( periodTypeXMap, r ) )
+                .collect( Collectors.toList() );
+
+            initialResults = initialResults.stream()
+                .filter( r -> !isInChangedSlice( periodTypeXMap, r ) )
+                .collect( Collectors.toList() );
+        }
+
         ValidationRunContext.Builder builder = ValidationRunContext.newBuilder()
             .withOrgUnits( orgUnits )
             .withPeriodTypeXs( new ArrayList<>( periodTypeXMap.values() ) )
             .withConstantMap( constantService.getConstantMap() )
-            .withInitialResults( validationResultService
-                .getValidationResults( parameterOrgUnit,
-                    parameters.isIncludeOrgUnitDescendants(), parameters.getValidationRules(),
-                    parameters.getPeriods() ) )
+            .withInitialResults( initialResults )
+            .withReplacedResults( replacedResults )
             .withSendNotifications( parameters.isSendNotifications() )
             .withPersistResults( parameters.isPersistResults() )
             .withAttributeCombo( parameters.getAttributeOptionCombo() )
@@ -359,6 +384,157 @@ public class DefaultValidationService
         return builder.build();
     }
 
+    /**
+     * Finds the organisation unit, period and attribute option combo slices
+     * with data values created, updated or deleted since the time given for an
+     * incremental analysis, and restricts the period types to those slices.
+     * A slice of a validation period is changed when a changed data value has
+     * a period of an allowed period type which includes the start of the
+     * validation period, matching how data values are fetched by the
+     * {@link DataValidationTask}.
+     * <p>
+     * Period types with rules depending on analytics data (indicators, event
+     * data and program indicators) are validated for all slices, since changes
+     * in such data are not tracked by data value last updated times.
+     *
+     * @param periodTypeXs the extended period types to validate.
+     * @param orgUnits the organisation units in scope.
+     * @param parameters the validation analysis parameters.
+     * @return the organisation units with changed slices.
+     */
+    private List<OrganisationUnit> addChangedSlicesToContext( Collection<PeriodTypeExtended> periodTypeXs,
+        List<OrganisationUnit> orgUnits, ValidationAnalysisParams parameters )
+    {
+        Map<Long, Period> periodMap = new HashMap<>();
+        Map<Long, String> aocUidMap = new HashMap<>();
+        Set<Long> changedOrgUnitIds = new HashSet<>();
+        boolean allOrgUnits = false;
+
+        for ( PeriodTypeExtended periodTypeX : periodTypeXs )
+        {
+            if ( !periodTypeX.isDataValuesOnly() )
+            {
+                allOrgUnits = true;
+                continue;
+            }
+
+            periodTypeX.setIncremental();
+
+            Set<DataElement> dataElements = new HashSet<>( periodTypeX.getDataElements() );
+            periodTypeX.getDataElementOperands().forEach( deo -> dataElements.add( deo.getDataElement() ) );
+
+            if ( dataElements.isEmpty() )
+            {
+                continue;
+            }
+
+            DataExportParams exportParams = new DataExportParams()
+                .setDataElements( dataElements )
+                .setPeriodTypes( periodTypeX.getAllowedPeriodTypes() )
+                .setLastUpdated( parameters.getChangedSince() )
+                .setIncludeDeleted( true );
+
+            if ( parameters.getAttributeOptionCombo() != null )
+            {
+                exportParams.setAttributeOptionCombos( Sets.newHashSet( parameters.getAttributeOptionCombo() ) );
+            }
+
+            for ( DeflatedDataValue dv : dataValueService.getDeflatedDataValues( exportParams ) )
+            {
+                Period dataPeriod = periodMap.computeIfAbsent( dv.getPeriodId(), periodService::getPeriod );
+                String aocUid = aocUidMap.computeIfAbsent( dv.getAttributeOptionComboId(),
+                    id -> categoryService.getCategoryOptionCombo( id ).getUid() );
+
+                for ( Period period : periodTypeX.getPeriods() )
+                {
+                    if ( !dataPeriod.getStartDate().after( period.getStartDate() )
+                        && !dataPeriod.getEndDate().before( period.getStartDate() ) )
+                    {
+                        periodTypeX.addChangedSlice( period.getId(), dv.getSourceId(), aocUid );
+                        changedOrgUnitIds.add( dv.getSourceId() );
+                    }
+                }
+            }
+        }
+
+        if ( allOrgUnits )
+        {
+            return orgUnits;
+        }
+
+        return orgUnits.stream()
+            .filter( ou -> changedOrgUnitIds.contains( ou.getId() ) )
+            .collect( Collectors.toList() );
+    }
+
+    /**
+     * Indicates whether a persisted validation result belongs to a changed
+     * slice of an incremental analysis, and must be validated again.
+     */
+    private boolean isInChangedSlice( Map<PeriodType, PeriodTypeExtended> periodTypeXMap, ValidationResult result )
+    {
+        PeriodTypeExtended periodTypeX = periodTypeXMap.get( result.getPeriod().getPeriodType() );
+
+        return periodTypeX != null && periodTypeX.isIncremental()
+            && periodTypeX.isChanged( result.getPeriod(), result.getOrganisationUnit(),
+                result.getAttributeOptionCombo().getUid() );
+    }
+
+    /**
+     * Reconciles the persisted results of changed slices with the results of
+     * an incremental analysis. As for a full analysis, a persisted result which
+     * is found again is not returned, saved or notified again, but is updated
+     * with the new values when persisting. A persisted result which is not
+     * found again is removed, unless the analysis stopped early because the
+     * maximum number of results was reached.
+     *
+     * @param context the validation run context.
+     * @return the new validation results.
+     */
+    private List<ValidationResult> reconcileReplacedResults( ValidationRunContext context )
+    {
+        Map<String, ValidationResult> newResults = new HashMap<>();
+
+        for ( ValidationResult result : context.getValidationResults() )
+        {
+            newResults.putIfAbsent( getSliceKey( result ), result );
+        }
+
+        Set<ValidationResult> updatedResults = new HashSet<>();
+
+        for ( ValidationResult replaced : context.getReplacedResults() )
+        {
+            ValidationResult result = newResults.remove( getSliceKey( replaced ) );
+
+            if ( result != null )
+            {
+                replaced.setLeftsideValue( result.getLeftsideValue() );
+                replaced.setRightsideValue( result.getRightsideValue() );
+                replaced.setDayInPeriod( result.getDayInPeriod() );
+                updatedResults.add( replaced );
+
+                context.getValidationResults().remove( result );
+            }
+            else if ( context.isPersistResults() && !context.isAnalysisComplete() )
+            {
+                validationResultService.deleteValidationResult( replaced );
+            }
+        }
+
+        if ( context.isPersistResults() && !updatedResults.isEmpty() )
+        {
+            validationResultService.updateValidationResults( updatedResults );
+        }
+
+        return new ArrayList<>( context.getValidationResults() );
+    }
+
+    private String getSliceKey( ValidationResult result )
+    {
+        return result.getValidationRule().getUid() + "-" + result.getPeriod().getIsoDate() + "-"
+            + result.getOrganisationUnit().getUid() + "-" + result.getAttributeOptionCombo().getUid();
+    }
+
     /**
      * Adds Periods to the context, grouped by period type.
      *
@@ -36,8 +36,10 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.hisp.dhis.common.DimensionalItemId;
 import org.hisp.dhis.common.DimensionalItemObject;
+import org.hisp.dhis.common.MapMap;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.dataelement.DataElementOperand;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.period.Period;
 import org.hisp.dhis.period.PeriodType;
 
@@ -86,6 +88,13 @@ public class PeriodTypeExtended
 
     private boolean nonSlidingWindowsNeeded = false;
 
+    /**
+     * Slices with changed data for an incremental analysis, as period id to
+     * organisation unit id to attribute option combo UIDs. Null when all
+     * slices are to be validated.
+     */
+    private MapMap<Long, Long, Set<String>> changedSlices;
+
     // -------------------------------------------------------------------------
     // Constructor
     // -------------------------------------------------------------------------
@@ -167,6 +176,68 @@ public class PeriodTypeExtended
         return nonSlidingWindowsNeeded;
     }
 
+    /**
+     * Indicates whether the values of the rules depend only on data values,
+     * which means that changed slices can be found from the last updated time
+     * of the data values.
+     */
+    public boolean isDataValuesOnly()
+    {
+        return indicators.isEmpty() && eventItems.isEmpty() && eventItemsWithoutAttributeOptions.isEmpty();
+    }
+
+    public void addChangedSlice( long periodId, long orgUnitId, String attributeOptionComboUid )
+    {
+        if ( changedSlices == null )
+        {
+            changedSlices = new MapMap<>();
+        }
+
+        Set<String> attributeOptionCombos = changedSlices.getValue( periodId, orgUnitId );
+
+        if ( attributeOptionCombos == null )
+        {
+            attributeOptionCombos = new HashSet<>();
+            changedSlices.putEntry( periodId, orgUnitId, attributeOptionCombos );
+        }
+
+        attributeOptionCombos.add( attributeOptionComboUid );
+    }
+
+    /**
+     * Restricts the validation to the changed slices only. Slices are added
+     * with {@link #addChangedSlice(long, long, String)}.
+     */
+    public void setIncremental()
+    {
+        if ( changedSlices == null )
+        {
+            changedSlices = new MapMap<>();
+        }
+    }
+
+    public boolean isIncremental()
+    {
+        return changedSlices != null;
+    }
+
+    public boolean isChanged( Period period, OrganisationUnit orgUnit )
+    {
+        return changedSlices == null || changedSlices.getValue( period.getId(), orgUnit.getId() ) != null;
+    }
+
+    public boolean isChanged( Period period, OrganisationUnit orgUnit, String attributeOptionComboUid )
+    {
+        if ( changedSlices == null )
+        {
+            return true;
+        }
+
+        Set<String> attributeOptionCombos = changedSlices.getValue( period.getId(), orgUnit.getId() );
+
+        return attributeOptionCombos != null && attributeOptionCombos.contains( attributeOptionComboUid );
+    }
+
     // -------------------------------------------------------------------------
     // Get methods
     // -------------------------------------------------------------------------
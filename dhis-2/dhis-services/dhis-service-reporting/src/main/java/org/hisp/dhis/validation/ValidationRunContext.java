@@ -96,6 +96,12 @@ public class ValidationRunContext
 
     private MapMapMap<OrganisationUnit, ValidationRule, Period, List<ValidationResult>> initialValidationResults = new MapMapMap<>();
 
+    /**
+     * Persisted results of slices with changed data in an incremental
+     * analysis, which are validated again and reconciled after the analysis.
+     */
+    private List<ValidationResult> replacedResults = new ArrayList<>();
+
     private ValidationRunContext()
     {
         validationResults = new ConcurrentLinkedQueue<>();
@@ -215,6 +221,11 @@ public class ValidationRunContext
         return validationRuleExpressionDetails;
     }
 
+    public List<ValidationResult> getReplacedResults()
+    {
+        return replacedResults;
+    }
+
     // -------------------------------------------------------------------------
     // Logic
     // -------------------------------------------------------------------------
@@ -422,5 +433,11 @@ public class ValidationRunContext
 
             return this;
         }
+
+        public Builder withReplacedResults( Collection<ValidationResult> results )
+        {
+            this.context.replacedResults.addAll( results );
+            return this;
+        }
     }
 }
@@ -111,6 +111,8 @@ public class MonitoringJob implements Job
 
         MonitoringJobParameters monitoringJobParameters = (MonitoringJobParameters) jobConfiguration.getJobParameters();
 
+        Date startTime = new Date();
+
         // TODO improve collection usage
 
         try
@@ -159,10 +161,18 @@ public class MonitoringJob implements Job
                 .withMaxResults( ValidationService.MAX_SCHEDULED_ALERTS )
                 .withSendNotifications( monitoringJobParameters.isSendNotifications() )
                 .withPersistResults( monitoringJobParameters.isPersistResults() )
+                .withChangedSince( monitoringJobParameters.isIncremental()
+                    ? monitoringJobParameters.getLastIncrementalRunStart()
+                    : null )
                 .build();
 
             validationService.validationAnalysis( parameters );
 
+            if ( monitoringJobParameters.isIncremental() )
+            {
+                monitoringJobParameters.setLastIncrementalRunStart( startTime );
+            }
+
             notifier.notify( jobConfiguration, INFO, "Monitoring process done", true );
         }
         catch ( RuntimeException ex )
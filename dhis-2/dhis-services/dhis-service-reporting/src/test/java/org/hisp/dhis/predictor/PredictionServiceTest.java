@@ -73,6 +73,7 @@ import org.hisp.quick.BatchHandlerFactory;
 import org.joda.time.DateTime;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -520,6 +521,44 @@ class PredictionServiceTest extends IntegrationTestBase
         assertEquals( "Pred 1 Ins 0 Upd 0 Del 0 Unch 8", shortSummary( summary ) );
     }
 
+    @Test
+    void testPredictInParallelMatchesSequentialPrediction()
+    {
+        setupTestData();
+        DataElement dataElementW = createDataElement( 'W', ValueType.NUMBER, AggregationType.NONE );
+        dataElementService.addDataElement( dataElementW );
+        Predictor sequential = createPredictor( dataElementX, defaultCombo, "PredictSequential", expressionA, null,
+            periodTypeMonthly, orgUnitLevel1, 3, 1, 0 );
+        Predictor parallel = createPredictor( dataElementW, defaultCombo, "PredictParallel", expressionA, null,
+            periodTypeMonthly, orgUnitLevel1, 3, 1, 0 );
+        predictionService.predict( sequential, monthStart( 2001, 7 ), monthStart( 2001, 12 ), summary );
+        String sequentialSummary = shortSummary( summary );
+        PredictionExecutor sequentialExecutor = (PredictionExecutor) ReflectionTestUtils.getField( predictionService,
+            "predictionExecutor" );
+        PredictionExecutor parallelExecutor = new PredictionExecutor( 4 );
+        try
+        {
+            ReflectionTestUtils.setField( predictionService, "predictionExecutor", parallelExecutor );
+            summary = new PredictionSummary();
+            predictionService.predict( parallel, monthStart( 2001, 7 ), monthStart( 2001, 12 ), summary );
+        }
+        finally
+        {
+            ReflectionTestUtils.setField( predictionService, "predictionExecutor", sequentialExecutor );
+            parallelExecutor.shutdown();
+        }
+        assertEquals( "Pred 1 Ins 8 Upd 0 Del 0 Unch 0", sequentialSummary );
+        assertEquals( sequentialSummary, shortSummary( summary ) );
+        for ( OrganisationUnit source : List.of( sourceA, sourceB, sourceG ) )
+        {
+            for ( int month = 7; month <= 12; month++ )
+            {
+                assertEquals( getDataValue( dataElementX, defaultCombo, source, makeMonth( 2001, month ) ),
+                    getDataValue( dataElementW, defaultCombo, source, makeMonth( 2001, month ) ) );
+            }
+        }
+    }
+
     @Test
     void testPredictSequentialWithoutDescendants()
     {
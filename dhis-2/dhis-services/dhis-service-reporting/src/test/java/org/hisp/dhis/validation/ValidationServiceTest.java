@@ -42,6 +42,7 @@ import static org.hisp.dhis.expression.Operator.not_equal_to;
 import static org.hisp.dhis.expression.ParseType.SIMPLE_TEST;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -143,6 +144,9 @@ class ValidationServiceTest extends DhisTest
     @Autowired
     private UserService injectUserService;
 
+    @Autowired
+    private ValidationResultService validationResultService;
+
     private DataElement dataElementA;
 
     private DataElement dataElementB;
@@ -695,6 +699,48 @@ class ValidationServiceTest extends DhisTest
         assertResultsEquals( reference, results );
     }
 
+    @Test
+    void testValidateIncremental()
+    {
+        useDataValue( dataElementA, periodA, sourceA, "1" );
+        useDataValue( dataElementB, periodA, sourceA, "2" );
+        useDataValue( dataElementC, periodA, sourceA, "3" );
+        useDataValue( dataElementD, periodA, sourceA, "4" );
+        useDataValue( dataElementA, periodA, sourceB, "1" );
+        useDataValue( dataElementB, periodA, sourceB, "2" );
+        useDataValue( dataElementC, periodA, sourceB, "3" );
+        useDataValue( dataElementD, periodA, sourceB, "4" );
+        validationRuleService.saveValidationRule( ruleA );
+        List<ValidationRule> validationRules = Lists.newArrayList( ruleA );
+        List<Period> periods = Lists.newArrayList( periodA );
+        Collection<ValidationResult> reference = new HashSet<>();
+        reference.add( new ValidationResult( ruleA, periodA, sourceA, defaultCombo, 3.0, -1.0, dayInPeriodA ) );
+        reference.add( new ValidationResult( ruleA, periodA, sourceB, defaultCombo, 3.0, -1.0, dayInPeriodA ) );
+        // First run persists results
+        Collection<ValidationResult> results = validationService.validationAnalysis( validationService
+            .newParamsBuilder( validationRules, null, periods ).withIncludeOrgUnitDescendants( true )
+            .withPersistResults( true ).build() );
+        assertResultsEquals( reference, results );
+        // No changes, no new results
+        results = validationService.validationAnalysis( validationService
+            .newParamsBuilder( validationRules, null, periods ).withIncludeOrgUnitDescendants( true )
+            .withPersistResults( true ).withChangedSince( getDate( 2100, 1, 1 ) ).build() );
+        assertTrue( results.isEmpty() );
+        assertResultsEquals( reference, validationResultService.getAllValidationResults() );
+        // Source A becomes valid, its persisted result is removed
+        DataValue dataValue = dataValueService.getDataValue( dataElementA, periodA, sourceA, optionCombo,
+            optionCombo );
+        dataValue.setValue( "-3" );
+        dataValueService.updateDataValue( dataValue );
+        results = validationService.validationAnalysis( validationService
+            .newParamsBuilder( validationRules, null, periods ).withIncludeOrgUnitDescendants( true )
+            .withPersistResults( true ).withChangedSince( getDate( 2000, 1, 1 ) ).build() );
+        assertTrue( results.isEmpty() );
+        reference = new HashSet<>();
+        reference.add( new ValidationResult( ruleA, periodA, sourceB, defaultCombo, 3.0, -1.0, dayInPeriodA ) );
+        assertResultsEquals( reference, validationResultService.getAllValidationResults() );
+    }
+
     @Test
     void testValidateDataSetPeriodSource()
     {
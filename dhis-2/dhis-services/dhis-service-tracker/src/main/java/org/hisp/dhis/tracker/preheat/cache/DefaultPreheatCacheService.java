@@ -27,19 +27,25 @@
  */
 package org.hisp.dhis.tracker.preheat.cache;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import static org.hisp.dhis.commons.util.SystemUtils.isH2;
+import static org.hisp.dhis.commons.util.SystemUtils.isTestRun;
+
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import lombok.RequiredArgsConstructor;
 
+import org.apache.commons.lang3.StringUtils;
 import org.cache2k.Cache;
 import org.cache2k.Cache2kBuilder;
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.hisp.dhis.common.event.CacheInvalidationEvent;
+import org.hisp.dhis.external.conf.ConfigurationKey;
 import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.tracker.TrackerIdScheme;
 import org.springframework.context.event.EventListener;
@@ -48,6 +54,10 @@ import org.springframework.stereotype.Service;
 
 /**
  * Pre-heat cache implementation for metadata objects.
+ * <p>
+ * The cached objects are shared between concurrent imports and must hence be
+ * detached copies which are not modified by the import, like the objects
+ * produced by the preheat mappers.
  *
  * @author Luciano Fiandesio
  */
@@ -55,6 +65,14 @@ import org.springframework.stereotype.Service;
 @Service
 public class DefaultPreheatCacheService implements PreheatCacheService
 {
+    private static final String ALL_KEY = "*";
+
+    /**
+     * Max number of complete lists cached per metadata class, one per user the
+     * lists were fetched for.
+     */
+    private static final long ALL_CAPACITY = 10;
+
     private final DhisConfigurationProvider config;
 
     private final Environment environment;
@@ -62,23 +80,34 @@ public class DefaultPreheatCacheService implements PreheatCacheService
     /**
      * Data structure to hold the metadata cache:
      *
-     * - the key is the full class name of the metadata class getting cached
-     * (e.g. "org.hisp.dhis.program.Program")
+     * - the key is the class name of the metadata class getting cached (e.g.
+     * "org.hisp.dhis.program.Program")
      *
-     * - the value is a Cache2K cache holding the objects to cache
+     * - the value is a size-bounded Cache2K cache holding the objects to cache,
+     * keyed by their identifier, preceded by the uid of the user the objects
+     * were fetched for, if any
      *
      * Caveat: this data structure may reference multiple times the same
      * objects, if different {@link TrackerIdScheme} are used during different
      * imports.
      */
-    private static Map<String, Cache<String, IdentifiableObject>> cache = new HashMap<>();
+    private final Map<String, Cache<String, IdentifiableObject>> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Data structure to hold complete lists of metadata objects, keyed by the
+     * class name of the metadata class. Each size-bounded cache holds the lists
+     * keyed by the uid of the user they were fetched for, if any.
+     */
+    private final Map<String, Cache<String, List<IdentifiableObject>>> allCache = new ConcurrentHashMap<>();
 
     @Override
     public Optional<IdentifiableObject> get( final String cacheKey, final String id )
     {
-        if ( isCacheEnabled() && cache.containsKey( cacheKey ) )
+        Cache<String, IdentifiableObject> c = cache.get( getClassKey( cacheKey ) );
+
+        if ( isCacheEnabled() && c != null )
         {
-            return Optional.ofNullable( cache.get( cacheKey ).get( id ) );
+            return Optional.ofNullable( c.get( getEntryKey( cacheKey, id ) ) );
         }
 
         return Optional.empty();
@@ -87,20 +116,22 @@ public class DefaultPreheatCacheService implements PreheatCacheService
     @Override
     public boolean hasKey( String cacheKey )
     {
-        return cache.containsKey( cacheKey );
+        return !getAll( cacheKey ).isEmpty();
     }
 
+    @Override
     public List<IdentifiableObject> getAll( String cacheKey )
     {
-        List<IdentifiableObject> res = new ArrayList<>();
-        if ( hasKey( cacheKey ) )
+        Cache<String, List<IdentifiableObject>> c = allCache.get( getClassKey( cacheKey ) );
+
+        if ( isCacheEnabled() && c != null )
         {
-            cache.get( cacheKey ).keys().forEach( k -> {
-                res.add( cache.get( cacheKey ).get( k ) );
-            } );
+            List<IdentifiableObject> objects = c.get( getEntryKey( cacheKey, ALL_KEY ) );
+
+            return objects != null ? objects : Collections.emptyList();
         }
-        return res;
 
+        return Collections.emptyList();
     }
 
     @Override
@@ -112,29 +143,35 @@ public class DefaultPreheatCacheService implements PreheatCacheService
 
         if ( isCacheEnabled() )
         {
-            if ( cache.containsKey( cacheKey ) )
-            {
-                cache.get( cacheKey ).put( id, object );
-            }
-            else
-            {
-                Cache<String, IdentifiableObject> c = new Cache2kBuilder<String, IdentifiableObject>()
+            cache.computeIfAbsent( getClassKey( cacheKey ),
+                k -> new Cache2kBuilder<String, IdentifiableObject>()
                 {
                 }
                     .expireAfterWrite( cacheTTL, TimeUnit.MINUTES )
-                    .name( cacheKey )
                     .permitNullValues( false )
                     .entryCapacity( capacity == -1 ? Long.MAX_VALUE : capacity )
-                    .resilienceDuration( 30, TimeUnit.SECONDS ) // cope with at
-                                                                // most 30
-                                                                // seconds
-                    // outage before propagating exceptions
-                    .build();
+                    .build() )
+                .put( getEntryKey( cacheKey, id ), object );
+        }
+    }
 
-                c.put( id, object );
+    @Override
+    public void putAll( String cacheKey, List<? extends IdentifiableObject> objects, int cacheTTL )
+    {
+        if ( cacheKey == null || objects == null || objects.isEmpty() )
+            return;
 
-                cache.put( cacheKey, c );
-            }
+        if ( isCacheEnabled() )
+        {
+            allCache.computeIfAbsent( getClassKey( cacheKey ),
+                k -> new Cache2kBuilder<String, List<IdentifiableObject>>()
+                {
+                }
+                    .expireAfterWrite( cacheTTL, TimeUnit.MINUTES )
+                    .permitNullValues( false )
+                    .entryCapacity( ALL_CAPACITY )
+                    .build() )
+                .put( getEntryKey( cacheKey, ALL_KEY ), List.copyOf( objects ) );
         }
     }
 
@@ -145,21 +182,63 @@ public class DefaultPreheatCacheService implements PreheatCacheService
         invalidateCache();
     }
 
+    @EventListener
+    @Override
+    public void handleCacheInvalidation( CacheInvalidationEvent event )
+    {
+        invalidateCache( event.getEntityClass() );
+    }
+
     @Override
     public void invalidateCache()
     {
         cache.values().forEach( Cache::removeAll );
+        allCache.values().forEach( Cache::removeAll );
+    }
+
+    @Override
+    public void invalidateCache( Class<?> klass )
+    {
+        invalidateCache( cache, klass );
+        invalidateCache( allCache, klass );
+    }
+
+    private void invalidateCache( Map<String, ? extends Cache<String, ?>> caches, Class<?> klass )
+    {
+        caches.forEach( ( classKey, c ) -> {
+            if ( classKey.equals( klass.getName() ) || classKey.equals( klass.getSimpleName() ) )
+            {
+                c.removeAll();
+            }
+        } );
+    }
+
+    /**
+     * Returns the class name part of the given cache key, which selects the
+     * cache of the metadata class.
+     */
+    private String getClassKey( String cacheKey )
+    {
+        return StringUtils.substringBefore( cacheKey, USER_KEY_SEPARATOR );
+    }
+
+    /**
+     * Returns the key of the given identifier within the cache of the metadata
+     * class, which is preceded by the user part of the given cache key, if
+     * any.
+     */
+    private String getEntryKey( String cacheKey, String id )
+    {
+        String userKey = StringUtils.substringAfter( cacheKey, USER_KEY_SEPARATOR );
+
+        return userKey.isEmpty() ? id : userKey + USER_KEY_SEPARATOR + id;
     }
 
     private boolean isCacheEnabled()
     {
-        return false;
-
-        // Due to concerns and issues with the current cache implementation, we
-        // decided to
-        // deactivate the cache in the preheat completely for now.
-        // return !isTestRun( this.environment.getActiveProfiles() )
-        // && config.isEnabled(
-        // ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_ENABLED );
+        String[] profiles = this.environment.getActiveProfiles();
+
+        return !isTestRun( profiles ) && !isH2( profiles )
+            && config.isEnabled( ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_ENABLED );
     }
 }
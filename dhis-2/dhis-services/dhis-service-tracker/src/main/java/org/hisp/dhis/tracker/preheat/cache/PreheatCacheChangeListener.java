@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.preheat.cache;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hisp.dhis.common.event.CacheInvalidationEvent;
+import org.hisp.dhis.hibernate.listener.AbstractPostCommitChangeListener;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.tracker.preheat.supplier.strategy.ClassBasedSupplierStrategy;
+import org.hisp.dhis.tracker.preheat.supplier.strategy.StrategyFor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes a {@link CacheInvalidationEvent} when metadata objects cached by
+ * the {@link PreheatCacheService} are added, updated or removed, after the
+ * transaction is committed. The cluster wide DbChangeEventHandler only covers
+ * changes made by other instances, this listener covers changes made by this
+ * instance.
+ */
+@Component
+public class PreheatCacheChangeListener
+    extends AbstractPostCommitChangeListener
+{
+    private final ApplicationEventPublisher publisher;
+
+    /**
+     * The classes of the strategies which cache their objects, and periods.
+     */
+    private final List<Class<?>> cachedClasses;
+
+    public PreheatCacheChangeListener( ApplicationEventPublisher publisher,
+        List<ClassBasedSupplierStrategy> strategies )
+    {
+        this.publisher = publisher;
+        this.cachedClasses = Stream.concat( Stream.of( Period.class ), strategies.stream()
+            .map( strategy -> AnnotationUtils.findAnnotation( strategy.getClass(), StrategyFor.class ) )
+            .filter( Objects::nonNull )
+            .filter( StrategyFor::cache )
+            .map( StrategyFor::value ) )
+            .distinct()
+            .collect( Collectors.toList() );
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding( EntityPersister persister )
+    {
+        return getCachedClass( persister.getMappedClass() ) != null;
+    }
+
+    @Override
+    public void onPostInsert( PostInsertEvent event )
+    {
+        publishInvalidation( event.getEntity(), event.getId() );
+    }
+
+    @Override
+    public void onPostUpdate( PostUpdateEvent event )
+    {
+        publishInvalidation( event.getEntity(), event.getId() );
+    }
+
+    @Override
+    public void onPostDelete( PostDeleteEvent event )
+    {
+        publishInvalidation( event.getEntity(), event.getId() );
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    Class<?> getCachedClass( Class<?> klass )
+    {
+        return cachedClasses.stream().filter( c -> c.isAssignableFrom( klass ) ).findFirst().orElse( null );
+    }
+
+    private void publishInvalidation( Object entity, Serializable id )
+    {
+        Class<?> klass = getCachedClass( entity.getClass() );
+
+        if ( klass != null )
+        {
+            publisher.publishEvent( new CacheInvalidationEvent( this, klass, id ) );
+        }
+    }
+}
@@ -32,6 +32,7 @@ import java.util.Optional;
 
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.hisp.dhis.common.event.CacheInvalidationEvent;
 
 /**
  * A DHIS2 metadata cache implementation to reduce db lookups during pre-heat
@@ -40,6 +41,13 @@ import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
  */
 public interface PreheatCacheService
 {
+    /**
+     * Separates the class name of a cache key from the uid of the user the
+     * cached objects were fetched for. Objects of the same class share one
+     * cache, whatever user they were fetched for.
+     */
+    String USER_KEY_SEPARATOR = ":";
+
     /**
      * Fetches an object from the pre-heat cache.
      *
@@ -50,7 +58,7 @@ public interface PreheatCacheService
     Optional<IdentifiableObject> get( String cacheKey, String id );
 
     /**
-     * Check whether a class type is part of the cache
+     * Check whether all objects of a class type are part of the cache
      *
      * @param cacheKey the full class name of a metadata object
      *
@@ -58,7 +66,9 @@ public interface PreheatCacheService
     boolean hasKey( String cacheKey );
 
     /**
-     * Fetch all the cached entries for the given class type key
+     * Fetch all the objects cached for the given class type key by
+     * {@link #putAll(String, List, int)}. Returns an empty list if the objects
+     * are not cached.
      *
      * @param cacheKey the full class name of a metadata object
      *
@@ -76,15 +86,41 @@ public interface PreheatCacheService
      */
     void put( String cacheKey, String id, IdentifiableObject object, int cacheTTL, long capacity );
 
+    /**
+     * Adds all objects of a class type to the pre-heat cache. The objects are
+     * cached as a whole, so that they are either returned completely by
+     * {@link #getAll(String)} or not at all.
+     *
+     * @param cacheKey the full class name of the objects being cached
+     * @param objects all objects of the class type
+     * @param cacheTTL The amount of **minutes**
+     */
+    void putAll( String cacheKey, List<? extends IdentifiableObject> objects, int cacheTTL );
+
     /**
      * Invalidates all caches.
      */
     void invalidateCache();
 
+    /**
+     * Invalidates the caches of the given class type, including the caches of
+     * objects fetched for a specific user.
+     *
+     * @param klass the class of the metadata objects to invalidate.
+     */
+    void invalidateCache( Class<?> klass );
+
     /**
      * Event handler for {@link ApplicationCacheClearedEvent}.
      *
      * @param event the {@link ApplicationCacheClearedEvent}.
      */
     void handleApplicationCachesCleared( ApplicationCacheClearedEvent event );
+
+    /**
+     * Event handler for {@link CacheInvalidationEvent}.
+     *
+     * @param event the {@link CacheInvalidationEvent}.
+     */
+    void handleCacheInvalidation( CacheInvalidationEvent event );
 }
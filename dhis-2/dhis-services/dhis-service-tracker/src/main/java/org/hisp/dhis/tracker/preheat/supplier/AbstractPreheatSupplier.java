@@ -34,7 +34,6 @@ import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.lang3.time.StopWatch;
 import org.hisp.dhis.common.IdentifiableObject;
-import org.hisp.dhis.hibernate.HibernateProxyUtils;
 import org.hisp.dhis.tracker.TrackerIdentifier;
 import org.hisp.dhis.tracker.TrackerImportParams;
 import org.hisp.dhis.tracker.preheat.TrackerPreheat;
@@ -51,8 +50,6 @@ public abstract class AbstractPreheatSupplier implements PreheatSupplier
 {
     private final int CACHE_TTL = 60;
 
-    private final long CACHE_CAPACITY = 1000;
-
     @Override
     public void add( TrackerImportParams params, TrackerPreheat preheat )
     {
@@ -87,16 +84,15 @@ public abstract class AbstractPreheatSupplier implements PreheatSupplier
         preheat.put( TrackerIdentifier.UID, relationshipTypes );
     }
 
-    protected void addToCache( PreheatCacheService cache, List<? extends IdentifiableObject> objects, int ttl,
-        long capacity )
+    protected void addToCache( PreheatCacheService cache, Class<? extends IdentifiableObject> klass,
+        List<? extends IdentifiableObject> objects, int ttl )
     {
-        objects.forEach(
-            rt -> cache.put( HibernateProxyUtils.getRealClass( rt ).getName(), rt.getUid(), rt, ttl, capacity ) );
+        cache.putAll( klass.getName(), objects, ttl );
     }
 
-    protected void addToCache( PreheatCacheService cache, List<? extends IdentifiableObject> objects )
+    protected void addToCache( PreheatCacheService cache, Class<? extends IdentifiableObject> klass,
+        List<? extends IdentifiableObject> objects )
     {
-        objects.forEach( rt -> cache.put( HibernateProxyUtils.getRealClass( rt ).getName(), rt.getUid(), rt, CACHE_TTL,
-            CACHE_CAPACITY ) );
+        addToCache( cache, klass, objects, CACHE_TTL );
     }
 }
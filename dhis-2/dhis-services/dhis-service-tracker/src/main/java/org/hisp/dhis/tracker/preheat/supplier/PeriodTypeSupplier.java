@@ -57,14 +57,19 @@ public class PeriodTypeSupplier extends AbstractPreheatSupplier
     @Override
     public void preheatAdd( TrackerImportParams params, TrackerPreheat preheat )
     {
-        if ( cache.hasKey( Period.class.getName() ) )
+        final List<IdentifiableObject> cachedPeriods = cache.getAll( Period.class.getName() );
+
+        if ( !cachedPeriods.isEmpty() )
         {
-            addToPreheat( preheat, cache.getAll( Period.class.getName() ) );
+            _addToPreheat( preheat, cachedPeriods );
         }
         else
         {
-            final List<Period> periods = periodStore.getAll();
-            addToCache( cache, periods );
+            // Cache detached copies, as periods are shared between imports
+            final List<Period> periods = periodStore.getAll().stream()
+                .map( Period::new )
+                .collect( Collectors.toList() );
+            addToCache( cache, Period.class, periods );
             _addToPreheat( preheat,
                 periods.stream().map( p -> (IdentifiableObject) p ).collect( Collectors.toList() ) );
         }
@@ -39,7 +39,6 @@ import org.hisp.dhis.attribute.Attribute;
 import org.hisp.dhis.common.IdentifiableObject;
 import org.hisp.dhis.common.IdentifiableObjectManager;
 import org.hisp.dhis.fieldfilter.Defaults;
-import org.hisp.dhis.hibernate.HibernateProxyUtils;
 import org.hisp.dhis.query.Query;
 import org.hisp.dhis.query.QueryService;
 import org.hisp.dhis.query.Restriction;
@@ -122,9 +121,15 @@ public abstract class AbstractSchemaStrategy implements ClassBasedSupplierStrate
         }
     }
 
-    private String buildCacheKey( Schema schema )
+    /**
+     * Objects are fetched with the sharing restrictions of the importing user,
+     * so they are cached per user.
+     */
+    private String buildCacheKey( Schema schema, User user )
     {
-        return schema.getKlass().getSimpleName();
+        String cacheKey = schema.getKlass().getSimpleName();
+
+        return user != null ? cacheKey + PreheatCacheService.USER_KEY_SEPARATOR + user.getUid() : cacheKey;
     }
 
     @SuppressWarnings( { "unchecked", "rawtypes" } )
@@ -134,13 +139,13 @@ public abstract class AbstractSchemaStrategy implements ClassBasedSupplierStrate
         TrackerIdScheme idScheme = identifier.getIdScheme();
 
         List<IdentifiableObject> objects;
-        final String cacheKey = buildCacheKey( schema );
+        final String cacheKey = buildCacheKey( schema, user );
 
-        if ( isCacheable() ) // check if this strategy requires caching
+        if ( isCacheable( mapper ) ) // check if this strategy requires caching
         {
             if ( isLoadAllEntities( ids ) )
             {
-                return map( cacheAndReturnLookupData( schema ), mapper );
+                return cacheAndReturnLookupData( user, schema, mapper );
             }
             else
             {
@@ -168,7 +173,7 @@ public abstract class AbstractSchemaStrategy implements ClassBasedSupplierStrate
                     // can't get resolved, send null to the
                     // cacheService, which will ignore the entry
                     objects.forEach( o -> cache.put( cacheKey,
-                        PreheatUtils.resolveKey( identifier, o ).orElseGet( null ), o, getCacheTTL(), getCapacity() ) );
+                        PreheatUtils.resolveKey( identifier, o ).orElse( null ), o, getCacheTTL(), getCapacity() ) );
 
                     // add back the cached objects to the final list
                     objects.addAll( foundInCache.values() );
@@ -231,24 +236,27 @@ public abstract class AbstractSchemaStrategy implements ClassBasedSupplierStrate
         }
     }
 
-    @SuppressWarnings( "unchecked" )
-    private List<IdentifiableObject> cacheAndReturnLookupData( Schema schema )
+    /**
+     * Returns all objects of the given schema. The objects are cached as a
+     * whole, after being mapped to detached copies which can be shared between
+     * imports.
+     */
+    @SuppressWarnings( { "unchecked", "rawtypes" } )
+    private List<IdentifiableObject> cacheAndReturnLookupData( User user, Schema schema,
+        Class<? extends PreheatMapper> mapper )
     {
-        List<IdentifiableObject> objects;
-        if ( cache.hasKey( buildCacheKey( schema ) ) && !cache.getAll( buildCacheKey( schema ) ).isEmpty() )
-        {
-            objects = new ArrayList<>( cache.getAll( buildCacheKey( schema ) ) );
+        final String cacheKey = buildCacheKey( schema, user );
 
-        }
-        else
+        List<IdentifiableObject> objects = cache.getAll( cacheKey );
+
+        if ( objects.isEmpty() )
         {
-            objects = manager.getAll( (Class<IdentifiableObject>) schema.getKlass() );
+            objects = map( manager.getAll( (Class<IdentifiableObject>) schema.getKlass() ), mapper );
 
-            objects.forEach( rt -> cache.put( HibernateProxyUtils.getRealClass( rt ).getSimpleName(),
-                rt.getUid(), rt, getCacheTTL(), getCapacity() ) );
+            cache.putAll( cacheKey, objects, getCacheTTL() );
         }
 
-        return objects;
+        return new ArrayList<>( objects );
     }
 
     private boolean isLoadAllEntities( List<String> ids )
@@ -262,9 +270,15 @@ public abstract class AbstractSchemaStrategy implements ClassBasedSupplierStrate
         return getClass().getAnnotation( StrategyFor.class ).mapper();
     }
 
-    private boolean isCacheable()
+    /**
+     * Objects are only cached if the given mapper maps them to detached
+     * copies, as the {@link CopyMapper} returns the session attached entities.
+     */
+    @SuppressWarnings( "rawtypes" )
+    private boolean isCacheable( Class<? extends PreheatMapper> mapper )
     {
-        return getClass().getAnnotation( StrategyFor.class ).cache();
+        return getClass().getAnnotation( StrategyFor.class ).cache()
+            && !CopyMapper.class.isAssignableFrom( mapper );
     }
 
     private int getCacheTTL()
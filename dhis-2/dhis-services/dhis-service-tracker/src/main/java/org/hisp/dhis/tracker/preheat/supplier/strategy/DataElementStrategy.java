@@ -39,7 +39,7 @@ import org.springframework.stereotype.Component;
  * @author Luciano Fiandesio
  */
 @Component
-@StrategyFor( value = DataElement.class, mapper = DataElementMapper.class )
+@StrategyFor( value = DataElement.class, mapper = DataElementMapper.class, cache = true, ttl = 10, capacity = 1000 )
 public class DataElementStrategy extends AbstractSchemaStrategy
 {
     public DataElementStrategy( SchemaService schemaService, QueryService queryService,
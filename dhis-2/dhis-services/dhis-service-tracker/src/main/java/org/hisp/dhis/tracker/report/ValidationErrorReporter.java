@@ -125,6 +125,22 @@ public class ValidationErrorReporter
         getWarningsReportList().add( warning );
     }
 
+    /**
+     * Appends the errors, warnings and invalid Tracker objects collected by the
+     * given reporter to this reporter. Unlike {@link #addError}, merging does
+     * not fail fast.
+     *
+     * @param reporter the reporter to merge into this reporter.
+     */
+    public void merge( ValidationErrorReporter reporter )
+    {
+        getReportList().addAll( reporter.getReportList() );
+        getWarningsReportList().addAll( reporter.getWarningsReportList() );
+        reporter.getInvalidDTOs().forEach(
+            ( trackerType, uids ) -> this.invalidDTOs.computeIfAbsent( trackerType, k -> new ArrayList<>() )
+                .addAll( uids ) );
+    }
+
     /**
      * Checks if the provided uid and Tracker Type is part of the invalid
      * entities
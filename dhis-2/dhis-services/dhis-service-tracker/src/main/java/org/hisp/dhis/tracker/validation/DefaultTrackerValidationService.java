@@ -27,6 +27,7 @@
  */
 package org.hisp.dhis.tracker.validation;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -39,6 +40,7 @@ import org.hisp.dhis.tracker.bundle.TrackerBundle;
 import org.hisp.dhis.tracker.report.Timing;
 import org.hisp.dhis.tracker.report.TrackerValidationReport;
 import org.hisp.dhis.tracker.report.ValidationErrorReporter;
+import org.hisp.dhis.tracker.validation.hooks.AbstractTrackerDtoValidationHook;
 import org.hisp.dhis.user.User;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
@@ -59,6 +61,8 @@ public class DefaultTrackerValidationService
     @Qualifier( "ruleEngineValidationHooks" )
     private final List<TrackerValidationHook> ruleEngineValidationHooks;
 
+    private final TrackerValidationExecutor validationExecutor;
+
     @Override
     public TrackerValidationReport validate( TrackerBundle bundle )
     {
@@ -94,14 +98,21 @@ public class DefaultTrackerValidationService
 
         try
         {
-            for ( TrackerValidationHook hook : hooks )
+            for ( List<TrackerValidationHook> group : groupHooks( hooks ) )
             {
                 Timer hookTimer = Timer.startTimer();
 
-                hook.validate( reporter, context );
+                if ( isParallel( group.get( 0 ) ) )
+                {
+                    validationExecutor.validate( toDtoHooks( group ), reporter, context );
+                }
+                else
+                {
+                    group.get( 0 ).validate( reporter, context );
+                }
 
                 validationReport.addTiming( new Timing(
-                    hook.getClass().getName(),
+                    group.stream().map( hook -> hook.getClass().getName() ).collect( Collectors.joining( "," ) ),
                     hookTimer.toString() ) );
             }
         }
@@ -120,6 +131,57 @@ public class DefaultTrackerValidationService
         return validationReport;
     }
 
+    /**
+     * Groups consecutive parallelizable hooks when validation runs in
+     * parallel. Every other hook forms a group of its own and acts as a
+     * barrier, as it may depend on or change the outcome of the hooks before
+     * it.
+     */
+    private List<List<TrackerValidationHook>> groupHooks( List<TrackerValidationHook> hooks )
+    {
+        List<List<TrackerValidationHook>> groups = new ArrayList<>();
+        List<TrackerValidationHook> group = new ArrayList<>();
+
+        for ( TrackerValidationHook hook : hooks )
+        {
+            if ( isParallel( hook ) )
+            {
+                group.add( hook );
+            }
+            else
+            {
+                if ( !group.isEmpty() )
+                {
+                    groups.add( group );
+                    group = new ArrayList<>();
+                }
+
+                groups.add( List.of( hook ) );
+            }
+        }
+
+        if ( !group.isEmpty() )
+        {
+            groups.add( group );
+        }
+
+        return groups;
+    }
+
+    private boolean isParallel( TrackerValidationHook hook )
+    {
+        return validationExecutor.isParallel() && hook.isParallelizable()
+            && hook instanceof AbstractTrackerDtoValidationHook
+            && !((AbstractTrackerDtoValidationHook) hook).removeOnError();
+    }
+
+    private List<AbstractTrackerDtoValidationHook> toDtoHooks( List<TrackerValidationHook> group )
+    {
+        return group.stream()
+            .map( AbstractTrackerDtoValidationHook.class::cast )
+            .collect( Collectors.toList() );
+    }
+
     private void removeInvalidObjects( TrackerBundle bundle, ValidationErrorReporter reporter )
     {
         bundle.setEvents( bundle.getEvents().stream().filter(
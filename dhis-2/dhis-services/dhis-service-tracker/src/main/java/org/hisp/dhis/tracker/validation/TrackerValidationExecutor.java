@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.validation;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.hisp.dhis.external.conf.ConfigurationKey.TRACKER_IMPORT_VALIDATION_THREADS;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.tracker.bundle.TrackerBundle;
+import org.hisp.dhis.tracker.domain.TrackerDto;
+import org.hisp.dhis.tracker.report.ValidationErrorReporter;
+import org.hisp.dhis.tracker.validation.hooks.AbstractTrackerDtoValidationHook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Validates the Tracker objects of a bundle with a group of parallelizable
+ * validation hooks on a dedicated, bounded thread pool.
+ *
+ * The Tracker objects are split into chunks, and every chunk is validated by
+ * all hooks of the group on one thread. The errors and warnings of every hook
+ * and chunk are collected separately and merged in hook and chunk order, so
+ * that the report is identical to the one of a sequential validation, also in
+ * FAIL_FAST mode.
+ */
+@Slf4j
+@Component
+public class TrackerValidationExecutor
+{
+    /**
+     * Min number of Tracker objects per chunk. Bundles with fewer objects than
+     * two chunks are validated on the calling thread.
+     */
+    private static final int MIN_CHUNK_SIZE = 100;
+
+    private final int threads;
+
+    private final ExecutorService executor;
+
+    @Autowired
+    public TrackerValidationExecutor( DhisConfigurationProvider config )
+    {
+        this( Integer.parseInt( config.getProperty( TRACKER_IMPORT_VALIDATION_THREADS ) ) );
+    }
+
+    /**
+     * @param threads the number of threads validating Tracker objects, 1 means
+     *        sequential validation.
+     */
+    public TrackerValidationExecutor( int threads )
+    {
+        checkArgument( threads > 0, "Threads must be greater than zero" );
+
+        this.threads = threads;
+        this.executor = threads > 1
+            ? Executors.newFixedThreadPool( threads,
+                new ThreadFactoryBuilder().setNameFormat( "TRACKER-VALIDATION-%d" ).setDaemon( true ).build() )
+            : null;
+
+        if ( isParallel() )
+        {
+            log.info( String.format( "Tracker validation executor started with %d threads", threads ) );
+        }
+    }
+
+    /**
+     * Indicates whether parallelizable hooks are validated in parallel.
+     *
+     * @return true if validation runs on more than one thread.
+     */
+    public boolean isParallel()
+    {
+        return executor != null;
+    }
+
+    /**
+     * Validates the Tracker objects of the bundle with the given group of
+     * hooks, and merges the errors and warnings into the given reporter in the
+     * order of a sequential validation.
+     *
+     * @param hooks the parallelizable hooks to validate with.
+     * @param reporter the {@link ValidationErrorReporter} to merge into.
+     * @param context the {@link TrackerImportValidationContext}.
+     * @throws ValidationFailFastException in FAIL_FAST mode, if any hook
+     *         reports an error.
+     */
+    public void validate( List<AbstractTrackerDtoValidationHook> hooks, ValidationErrorReporter reporter,
+        TrackerImportValidationContext context )
+    {
+        List<TrackerDto> dtos = getTrackerDtos( context.getBundle() );
+
+        if ( !isParallel() || dtos.size() < 2 * MIN_CHUNK_SIZE )
+        {
+            for ( AbstractTrackerDtoValidationHook hook : hooks )
+            {
+                hook.validate( reporter, context );
+            }
+
+            return;
+        }
+
+        int chunkSize = Math.max( MIN_CHUNK_SIZE, (dtos.size() + threads - 1) / threads );
+        List<List<TrackerDto>> chunks = Lists.partition( dtos, chunkSize );
+
+        List<Future<ValidationErrorReporter[]>> futures = new ArrayList<>();
+
+        for ( List<TrackerDto> chunk : chunks )
+        {
+            futures.add( executor.submit( () -> validateChunk( hooks, context, chunk ) ) );
+        }
+
+        List<ValidationErrorReporter[]> chunkReporters = getAll( futures );
+
+        for ( int i = 0; i < hooks.size(); i++ )
+        {
+            for ( ValidationErrorReporter[] hookReporters : chunkReporters )
+            {
+                ValidationErrorReporter hookReporter = hookReporters[i];
+
+                if ( hookReporter == null )
+                {
+                    // Chunk stopped at an earlier fail fast error
+
+                    continue;
+                }
+
+                reporter.merge( hookReporter );
+
+                if ( reporter.isFailFast() && hookReporter.hasErrors() )
+                {
+                    throw new ValidationFailFastException( reporter.getReportList() );
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown()
+    {
+        if ( executor != null )
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Validates the given chunk with every hook. Returns one reporter per hook,
+     * in hook order. In FAIL_FAST mode the chunk is not validated further after
+     * the first error, and the reporters of the remaining hooks are null.
+     */
+    private ValidationErrorReporter[] validateChunk( List<AbstractTrackerDtoValidationHook> hooks,
+        TrackerImportValidationContext context, List<TrackerDto> chunk )
+    {
+        ValidationErrorReporter[] reporters = new ValidationErrorReporter[hooks.size()];
+
+        for ( int i = 0; i < hooks.size(); i++ )
+        {
+            AbstractTrackerDtoValidationHook hook = hooks.get( i );
+            ValidationErrorReporter reporter = new ValidationErrorReporter( context );
+            reporters[i] = reporter;
+
+            try
+            {
+                for ( TrackerDto dto : chunk )
+                {
+                    hook.validate( reporter, context, dto );
+                }
+            }
+            catch ( ValidationFailFastException e )
+            {
+                return reporters;
+            }
+        }
+
+        return reporters;
+    }
+
+    private <T> List<T> getAll( List<Future<T>> futures )
+    {
+        List<T> results = new ArrayList<>();
+
+        try
+        {
+            for ( Future<T> future : futures )
+            {
+                results.add( future.get() );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            futures.forEach( f -> f.cancel( true ) );
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Tracker validation was interrupted", e );
+        }
+        catch ( ExecutionException e )
+        {
+            futures.forEach( f -> f.cancel( true ) );
+
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new IllegalStateException( "Tracker validation failed", e.getCause() );
+        }
+
+        return results;
+    }
+
+    /**
+     * Returns the Tracker objects of the bundle in the order in which hooks
+     * validate them.
+     */
+    private List<TrackerDto> getTrackerDtos( TrackerBundle bundle )
+    {
+        List<TrackerDto> dtos = new ArrayList<>();
+        dtos.addAll( bundle.getTrackedEntities() );
+        dtos.addAll( bundle.getEnrollments() );
+        dtos.addAll( bundle.getEvents() );
+        dtos.addAll( bundle.getRelationships() );
+        return dtos;
+    }
+}
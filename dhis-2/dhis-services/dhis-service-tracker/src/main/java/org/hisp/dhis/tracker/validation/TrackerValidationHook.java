@@ -35,4 +35,21 @@ import org.hisp.dhis.tracker.report.ValidationErrorReporter;
 public interface TrackerValidationHook
 {
     void validate( ValidationErrorReporter report, TrackerImportValidationContext bundle );
+
+    /**
+     * Indicates whether this hook validates every tracker object independently
+     * of the other objects and without changing the bundle, so that it can run
+     * concurrently on separate chunks of the bundle.
+     * <p>
+     * Parallel chunks are validated on threads without a Hibernate session and
+     * without the security context of the importing user. Only hooks which
+     * read nothing but the payload and the preheat, and never lazily loaded
+     * associations, services or the current user, may return true.
+     *
+     * @return true if the hook can validate chunks of the bundle in parallel.
+     */
+    default boolean isParallelizable()
+    {
+        return false;
+    }
 }
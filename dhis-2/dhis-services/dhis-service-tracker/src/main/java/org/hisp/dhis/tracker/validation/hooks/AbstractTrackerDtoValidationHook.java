@@ -157,6 +157,23 @@ public abstract class AbstractTrackerDtoValidationHook
         validateTrackerDtos( reporter, context, bundle.getRelationships() );
     }
 
+    /**
+     * Validates a single Tracker entity by delegating to the template method of
+     * its type. Tracker entities are never removed from the bundle by this
+     * method.
+     *
+     * @param reporter ValidationErrorReporter instance
+     * @param context validation context
+     * @param dto entity to validate
+     */
+    public void validate( ValidationErrorReporter reporter, TrackerImportValidationContext context, TrackerDto dto )
+    {
+        if ( needsToRun( context.getStrategy( dto ) ) )
+        {
+            validationMap.get( dto.getTrackerType() ).accept( reporter, dto );
+        }
+    }
+
     private void validateTrackerDtos( ValidationErrorReporter reporter, TrackerImportValidationContext context,
         List<? extends TrackerDto> dtos )
     {
@@ -43,4 +43,10 @@ public class EnrollmentNoteValidationHook extends AbstractTrackerDtoValidationHo
         enrollment.setNotes( ValidationUtils.validateNotes( reporter, enrollment,
             enrollment.getNotes() ) );
     }
+
+    @Override
+    public boolean isParallelizable()
+    {
+        return true;
+    }
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.preheat.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
+import org.hisp.dhis.common.event.CacheInvalidationEvent;
+import org.hisp.dhis.external.conf.ConfigurationKey;
+import org.hisp.dhis.external.conf.DhisConfigurationProvider;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramStage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.core.env.Environment;
+
+@MockitoSettings( strictness = Strictness.LENIENT )
+@ExtendWith( MockitoExtension.class )
+class DefaultPreheatCacheServiceTest
+{
+    @Mock
+    private DhisConfigurationProvider config;
+
+    @Mock
+    private Environment environment;
+
+    private PreheatCacheService cache;
+
+    @BeforeEach
+    void setUp()
+    {
+        when( environment.getActiveProfiles() ).thenReturn( new String[] {} );
+        when( config.isEnabled( ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_ENABLED ) ).thenReturn( true );
+
+        cache = new DefaultPreheatCacheService( config, environment );
+    }
+
+    @Test
+    void shouldReturnCachedObject()
+    {
+        Program program = program( "programA" );
+
+        cache.put( "Program", program.getUid(), program, 10, 10 );
+
+        assertEquals( program, cache.get( "Program", program.getUid() ).orElse( null ) );
+        assertFalse( cache.get( "Program", "unknown" ).isPresent() );
+    }
+
+    @Test
+    void shouldNotCacheWhenDisabled()
+    {
+        when( config.isEnabled( ConfigurationKey.TRACKER_IMPORT_PREHEAT_CACHE_ENABLED ) ).thenReturn( false );
+
+        Program program = program( "programA" );
+
+        cache.put( "Program", program.getUid(), program, 10, 10 );
+
+        assertFalse( cache.get( "Program", program.getUid() ).isPresent() );
+    }
+
+    @Test
+    void shouldBoundCacheSize()
+    {
+        for ( int i = 0; i < 20; i++ )
+        {
+            cache.put( "Program", "program" + i, program( "program" + i ), 10, 5 );
+        }
+
+        long cached = 0;
+
+        for ( int i = 0; i < 20; i++ )
+        {
+            cached += cache.get( "Program", "program" + i ).isPresent() ? 1 : 0;
+        }
+
+        assertTrue( cached <= 5 );
+    }
+
+    @Test
+    void shouldReturnAllObjectsOnlyWhenCachedAsWhole()
+    {
+        Program programA = program( "programA" );
+        Program programB = program( "programB" );
+
+        cache.put( "Program", programA.getUid(), programA, 10, 10 );
+
+        assertFalse( cache.hasKey( "Program" ) );
+        assertTrue( cache.getAll( "Program" ).isEmpty() );
+
+        cache.putAll( "Program", List.of( programA, programB ), 10 );
+
+        assertTrue( cache.hasKey( "Program" ) );
+
+        List<IdentifiableObject> all = cache.getAll( "Program" );
+
+        assertEquals( List.of( programA, programB ), all );
+    }
+
+    @Test
+    void shouldInvalidateCacheOfChangedClassOnly()
+    {
+        Program program = program( "programA" );
+        ProgramStage programStage = new ProgramStage();
+        programStage.setUid( "programStageA" );
+
+        cache.put( "Program", program.getUid(), program, 10, 10 );
+        cache.putAll( Program.class.getName(), List.of( program ), 10 );
+        cache.put( "ProgramStage", programStage.getUid(), programStage, 10, 10 );
+
+        cache.handleCacheInvalidation( new CacheInvalidationEvent( this, Program.class, 1L ) );
+
+        assertFalse( cache.get( "Program", program.getUid() ).isPresent() );
+        assertFalse( cache.hasKey( Program.class.getName() ) );
+        assertTrue( cache.get( "ProgramStage", programStage.getUid() ).isPresent() );
+    }
+
+    @Test
+    void shouldInvalidateCachesOfChangedClassForAllUsers()
+    {
+        Program program = program( "programA" );
+        ProgramStage programStage = new ProgramStage();
+        programStage.setUid( "programStageA" );
+
+        cache.put( "Program:userA", program.getUid(), program, 10, 10 );
+        cache.put( "Program:userB", program.getUid(), program, 10, 10 );
+        cache.putAll( "Program:userA", List.of( program ), 10 );
+        cache.put( "ProgramStage:userA", programStage.getUid(), programStage, 10, 10 );
+
+        cache.handleCacheInvalidation( new CacheInvalidationEvent( this, Program.class, 1L ) );
+
+        assertFalse( cache.get( "Program:userA", program.getUid() ).isPresent() );
+        assertFalse( cache.get( "Program:userB", program.getUid() ).isPresent() );
+        assertFalse( cache.hasKey( "Program:userA" ) );
+        assertTrue( cache.get( "ProgramStage:userA", programStage.getUid() ).isPresent() );
+    }
+
+    @Test
+    void shouldSeparateObjectsOfUsers()
+    {
+        Program programA = program( "programA" );
+        Program programB = program( "programB" );
+
+        cache.put( "Program:userA", programA.getUid(), programA, 10, 10 );
+        cache.putAll( "Program:userB", List.of( programB ), 10 );
+
+        assertTrue( cache.get( "Program:userA", programA.getUid() ).isPresent() );
+        assertFalse( cache.get( "Program:userB", programA.getUid() ).isPresent() );
+        assertFalse( cache.get( "Program", programA.getUid() ).isPresent() );
+        assertFalse( cache.hasKey( "Program:userA" ) );
+        assertEquals( List.of( programB ), cache.getAll( "Program:userB" ) );
+    }
+
+    @Test
+    void shouldBoundCacheSizeAcrossUsers()
+    {
+        for ( int i = 0; i < 20; i++ )
+        {
+            cache.put( "Program:user" + i, "programA", program( "programA" ), 10, 5 );
+            cache.putAll( "Program:user" + i, List.of( program( "programA" ) ), 10 );
+        }
+
+        long cached = 0;
+        long cachedAll = 0;
+
+        for ( int i = 0; i < 20; i++ )
+        {
+            cached += cache.get( "Program:user" + i, "programA" ).isPresent() ? 1 : 0;
+            cachedAll += cache.hasKey( "Program:user" + i ) ? 1 : 0;
+        }
+
+        assertTrue( cached <= 5 );
+        assertTrue( cachedAll <= 10 );
+    }
+
+    @Test
+    void shouldInvalidateAllCachesWhenApplicationCachesAreCleared()
+    {
+        Program program = program( "programA" );
+
+        cache.put( "Program", program.getUid(), program, 10, 10 );
+        cache.putAll( "Program", List.of( program ), 10 );
+
+        cache.handleApplicationCachesCleared( new ApplicationCacheClearedEvent() );
+
+        assertFalse( cache.get( "Program", program.getUid() ).isPresent() );
+        assertFalse( cache.hasKey( "Program" ) );
+    }
+
+    private Program program( String uid )
+    {
+        Program program = new Program();
+        program.setUid( uid );
+        return program;
+    }
+}
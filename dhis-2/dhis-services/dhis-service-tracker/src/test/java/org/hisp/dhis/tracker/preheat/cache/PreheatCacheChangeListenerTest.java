@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.preheat.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+
+import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.period.Period;
+import org.hisp.dhis.program.Program;
+import org.hisp.dhis.program.ProgramStage;
+import org.hisp.dhis.query.QueryService;
+import org.hisp.dhis.schema.SchemaService;
+import org.hisp.dhis.trackedentitycomment.TrackedEntityComment;
+import org.hisp.dhis.trackedentitycomment.TrackedEntityCommentStore;
+import org.hisp.dhis.tracker.preheat.supplier.strategy.DataElementStrategy;
+import org.hisp.dhis.tracker.preheat.supplier.strategy.NoteStrategy;
+import org.hisp.dhis.tracker.preheat.supplier.strategy.ProgramStageStrategy;
+import org.hisp.dhis.tracker.preheat.supplier.strategy.ProgramStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+class PreheatCacheChangeListenerTest
+{
+    private PreheatCacheChangeListener listener;
+
+    @BeforeEach
+    void setUp()
+    {
+        SchemaService schemaService = mock( SchemaService.class );
+        QueryService queryService = mock( QueryService.class );
+        IdentifiableObjectManager manager = mock( IdentifiableObjectManager.class );
+        PreheatCacheService cache = mock( PreheatCacheService.class );
+
+        listener = new PreheatCacheChangeListener( mock( ApplicationEventPublisher.class ), List.of(
+            new ProgramStrategy( schemaService, queryService, manager, cache ),
+            new ProgramStageStrategy( schemaService, queryService, manager, cache ),
+            new DataElementStrategy( schemaService, queryService, manager, cache ),
+            new NoteStrategy( mock( TrackedEntityCommentStore.class ) ) ) );
+    }
+
+    @Test
+    void shouldHandleClassesOfCachingStrategies()
+    {
+        assertEquals( Program.class, listener.getCachedClass( Program.class ) );
+        assertEquals( ProgramStage.class, listener.getCachedClass( ProgramStage.class ) );
+        assertEquals( DataElement.class, listener.getCachedClass( DataElement.class ) );
+    }
+
+    @Test
+    void shouldHandlePeriods()
+    {
+        assertEquals( Period.class, listener.getCachedClass( Period.class ) );
+    }
+
+    @Test
+    void shouldIgnoreClassesOfNonCachingStrategies()
+    {
+        assertNull( listener.getCachedClass( TrackedEntityComment.class ) );
+    }
+}
@@ -32,9 +32,13 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hisp.dhis.tracker.TrackerIdentifierCollector.ID_WILDCARD;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -61,6 +65,7 @@ import org.hisp.dhis.tracker.preheat.cache.PreheatCacheService;
 import org.hisp.dhis.tracker.preheat.mappers.CopyMapper;
 import org.hisp.dhis.tracker.preheat.mappers.ProgramMapper;
 import org.hisp.dhis.tracker.preheat.mappers.RelationshipTypeMapper;
+import org.hisp.dhis.user.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -116,9 +121,9 @@ class AbstractSchemaStrategyCachingTest
         // Then
         assertThat( preheat.getAll( RelationshipType.class ), hasSize( 5 ) );
 
-        verify( cache, times( 1 ) ).hasKey( "RelationshipType" );
+        verify( cache, times( 1 ) ).getAll( "RelationshipType" );
 
-        verify( cache, times( 5 ) ).put( eq( "RelationshipType" ), anyString(), any(), eq( 10 ), eq( 10L ) );
+        verify( cache, times( 1 ) ).putAll( eq( "RelationshipType" ), argThat( l -> l.size() == 5 ), eq( 10 ) );
     }
 
     @Test
@@ -161,7 +166,7 @@ class AbstractSchemaStrategyCachingTest
 
         // When
         strategy.queryForIdentifiableObjects( preheat, schema, TrackerIdentifier.UID,
-            singletonList( singletonList( UID ) ), CopyMapper.class );
+            singletonList( singletonList( UID ) ), ProgramMapper.class );
 
         // Then
         assertThat( preheat.getAll( Program.class ), hasSize( 1 ) );
@@ -169,4 +174,57 @@ class AbstractSchemaStrategyCachingTest
         verify( cache, times( 1 ) ).put( eq( "Program" ), anyString(), any(), eq( 20 ), eq( 10L ) );
     }
 
-}
\ No newline at end of file
+    @Test
+    void verifyObjectsFetchedForUserAreCachedForThatUser()
+    {
+        // Given
+        final Schema schema = new ProgramSchemaDescriptor().getSchema();
+
+        String UID = CodeGenerator.generateUid();
+
+        User user = new User();
+        user.setUid( "userA" );
+        preheat.setUser( user );
+
+        Program program = rnd.nextObject( Program.class );
+
+        when( cache.get( "Program:userA", UID ) ).thenReturn( Optional.empty() );
+
+        doReturn( singletonList( program ) ).when( queryService ).query( any( Query.class ) );
+        ProgramStrategy strategy = new ProgramStrategy( schemaService, queryService,
+            manager, cache );
+
+        // When
+        strategy.queryForIdentifiableObjects( preheat, schema, TrackerIdentifier.UID,
+            singletonList( singletonList( UID ) ), ProgramMapper.class );
+
+        // Then
+        verify( cache, times( 1 ) ).put( eq( "Program:userA" ), anyString(), any(), eq( 20 ), eq( 10L ) );
+        verify( cache, never() ).put( eq( "Program" ), anyString(), any(), anyInt(), anyLong() );
+    }
+
+    @Test
+    void verifySessionAttachedObjectsAreNotCached()
+    {
+        // Given
+        final Schema schema = new ProgramSchemaDescriptor().getSchema();
+
+        String UID = CodeGenerator.generateUid();
+
+        Program program = rnd.nextObject( Program.class );
+
+        doReturn( singletonList( program ) ).when( queryService ).query( any( Query.class ) );
+        ProgramStrategy strategy = new ProgramStrategy( schemaService, queryService,
+            manager, cache );
+
+        // When
+        strategy.queryForIdentifiableObjects( preheat, schema, TrackerIdentifier.UID,
+            singletonList( singletonList( UID ) ), CopyMapper.class );
+
+        // Then
+        assertThat( preheat.getAll( Program.class ), hasSize( 1 ) );
+
+        verify( cache, never() ).get( anyString(), anyString() );
+        verify( cache, never() ).put( anyString(), anyString(), any(), anyInt(), anyLong() );
+    }
+}
@@ -66,7 +66,8 @@ class DefaultTrackerValidationServiceTest
     void shouldNotValidateMissingUser()
     {
         when( bundle.getValidationMode() ).thenReturn( ValidationMode.SKIP );
-        service = new DefaultTrackerValidationService( List.of( hook1 ), Collections.emptyList() );
+        service = new DefaultTrackerValidationService( List.of( hook1 ), Collections.emptyList(),
+            new TrackerValidationExecutor( 1 ) );
 
         service.validate( bundle );
 
@@ -79,7 +80,8 @@ class DefaultTrackerValidationServiceTest
         when( bundle.getUser() ).thenReturn( user );
         when( user.isSuper() ).thenReturn( true );
         when( bundle.getValidationMode() ).thenReturn( ValidationMode.SKIP );
-        service = new DefaultTrackerValidationService( List.of( hook1 ), Collections.emptyList() );
+        service = new DefaultTrackerValidationService( List.of( hook1 ), Collections.emptyList(),
+            new TrackerValidationExecutor( 1 ) );
 
         service.validate( bundle );
 
@@ -93,7 +95,8 @@ class DefaultTrackerValidationServiceTest
         when( user.isSuper() ).thenReturn( true );
         when( bundle.getValidationMode() ).thenReturn( ValidationMode.FULL );
         TrackerValidationHook hook2 = mock( TrackerValidationHook.class );
-        service = new DefaultTrackerValidationService( List.of( hook1, hook2 ), Collections.emptyList() );
+        service = new DefaultTrackerValidationService( List.of( hook1, hook2 ), Collections.emptyList(),
+            new TrackerValidationExecutor( 1 ) );
 
         service.validate( bundle );
 
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.tracker.validation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.hibernate.LazyInitializationException;
+import org.hisp.dhis.common.CodeGenerator;
+import org.hisp.dhis.tracker.TrackerType;
+import org.hisp.dhis.tracker.ValidationMode;
+import org.hisp.dhis.tracker.bundle.TrackerBundle;
+import org.hisp.dhis.tracker.domain.Event;
+import org.hisp.dhis.tracker.report.TrackerErrorCode;
+import org.hisp.dhis.tracker.report.TrackerErrorReport;
+import org.hisp.dhis.tracker.report.TrackerValidationReport;
+import org.hisp.dhis.tracker.report.TrackerWarningReport;
+import org.hisp.dhis.tracker.report.ValidationErrorReporter;
+import org.hisp.dhis.tracker.validation.hooks.AbstractTrackerDtoValidationHook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TrackerValidationExecutorTest
+{
+    private static final int EVENTS = 1000;
+
+    private TrackerValidationExecutor executor;
+
+    private List<Event> events;
+
+    @BeforeEach
+    void setUp()
+    {
+        executor = new TrackerValidationExecutor( 4 );
+        events = new ArrayList<>();
+
+        for ( int i = 0; i < EVENTS; i++ )
+        {
+            Event event = new Event();
+            event.setEvent( CodeGenerator.generateUid() );
+            events.add( event );
+        }
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        executor.shutdown();
+    }
+
+    @Test
+    void testParallelValidationReportsInSequentialOrder()
+    {
+        List<TrackerValidationHook> hooks = List.of(
+            new EventHook( TrackerErrorCode.E1032, i -> i % 7 == 0 ),
+            new EventHook( TrackerErrorCode.E1033, i -> i % 11 == 0 ) );
+
+        TrackerValidationReport sequential = validate( new TrackerValidationExecutor( 1 ), hooks,
+            ValidationMode.FULL );
+        TrackerValidationReport parallel = validate( executor, hooks, ValidationMode.FULL );
+
+        assertTrue( executor.isParallel() );
+        assertEquals( 143 + 91, parallel.getErrors().size() );
+        assertEquals( toString( sequential.getErrors() ), toString( parallel.getErrors() ) );
+        assertEquals( sequential.getWarnings().size(), parallel.getWarnings().size() );
+        assertEquals( 1, parallel.getTimings().size() );
+    }
+
+    @Test
+    void testParallelValidationFailFast()
+    {
+        List<TrackerValidationHook> hooks = List.of(
+            new EventHook( TrackerErrorCode.E1032, i -> i == 900 ),
+            new EventHook( TrackerErrorCode.E1033, i -> i == 10 ) );
+
+        TrackerValidationReport report = validate( executor, hooks, ValidationMode.FAIL_FAST );
+
+        assertEquals( 1, report.getErrors().size() );
+        assertEquals( TrackerErrorCode.E1032, report.getErrors().get( 0 ).getErrorCode() );
+        assertEquals( events.get( 900 ).getUid(), report.getErrors().get( 0 ).getUid() );
+    }
+
+    @Test
+    void testHookReadingLazyCollectionsRunsOnCallingThread()
+    {
+        SessionBoundHook sessionBoundHook = new SessionBoundHook( Thread.currentThread() );
+
+        List<TrackerValidationHook> hooks = List.of(
+            new EventHook( TrackerErrorCode.E1032, i -> i % 7 == 0 ),
+            sessionBoundHook,
+            new EventHook( TrackerErrorCode.E1033, i -> i % 11 == 0 ) );
+
+        TrackerValidationReport report = validate( executor, hooks, ValidationMode.FULL );
+
+        assertFalse( sessionBoundHook.isParallelizable() );
+        assertEquals( EVENTS, sessionBoundHook.validated.get() );
+        assertEquals( 143 + EVENTS + 91, report.getErrors().size() );
+        assertEquals( 3, report.getTimings().size() );
+    }
+
+    @Test
+    void testSequentialExecutor()
+    {
+        assertFalse( new TrackerValidationExecutor( 1 ).isParallel() );
+    }
+
+    private TrackerValidationReport validate( TrackerValidationExecutor validationExecutor,
+        List<TrackerValidationHook> hooks, ValidationMode validationMode )
+    {
+        TrackerBundle bundle = TrackerBundle.builder()
+            .validationMode( validationMode )
+            .skipRuleEngine( true )
+            .events( new ArrayList<>( events ) )
+            .build();
+
+        return new DefaultTrackerValidationService( hooks, Collections.emptyList(), validationExecutor )
+            .validate( bundle );
+    }
+
+    private List<String> toString( List<TrackerErrorReport> errors )
+    {
+        return errors.stream()
+            .map( e -> e.getErrorCode() + ":" + e.getUid() )
+            .collect( Collectors.toList() );
+    }
+
+    /**
+     * Reports an error and a warning for the events with an index matching
+     * the given predicate.
+     */
+    private class EventHook
+        extends AbstractTrackerDtoValidationHook
+    {
+        private final TrackerErrorCode errorCode;
+
+        private final Predicate<Integer> invalid;
+
+        EventHook( TrackerErrorCode errorCode, Predicate<Integer> invalid )
+        {
+            this.errorCode = errorCode;
+            this.invalid = invalid;
+        }
+
+        @Override
+        public boolean isParallelizable()
+        {
+            return true;
+        }
+
+        @Override
+        public void validateEvent( ValidationErrorReporter reporter, Event event )
+        {
+            if ( invalid.test( events.indexOf( event ) ) )
+            {
+                reporter.addWarning( TrackerWarningReport.builder()
+                    .warningCode( TrackerErrorCode.E1120 )
+                    .trackerType( TrackerType.EVENT )
+                    .uid( event.getUid() )
+                    .build( reporter.getValidationContext().getBundle() ) );
+                reporter.addError( TrackerErrorReport.builder()
+                    .errorCode( errorCode )
+                    .trackerType( TrackerType.EVENT )
+                    .uid( event.getUid() )
+                    .build( reporter.getValidationContext().getBundle() ) );
+            }
+        }
+    }
+
+    /**
+     * Reads a lazy collection of the importing thread's Hibernate session for
+     * every event, which fails on any other thread. Does not opt in to
+     * parallel validation.
+     */
+    private static class SessionBoundHook
+        extends AbstractTrackerDtoValidationHook
+    {
+        private final Thread sessionThread;
+
+        private final AtomicInteger validated = new AtomicInteger();
+
+        SessionBoundHook( Thread sessionThread )
+        {
+            this.sessionThread = sessionThread;
+        }
+
+        @Override
+        public void validateEvent( ValidationErrorReporter reporter, Event event )
+        {
+            if ( Thread.currentThread() != sessionThread )
+            {
+                throw new LazyInitializationException( "could not initialize proxy - no Session" );
+            }
+
+            validated.incrementAndGet();
+
+            reporter.addError( TrackerErrorReport.builder()
+                .errorCode( TrackerErrorCode.E1035 )
+                .trackerType( TrackerType.EVENT )
+                .uid( event.getUid() )
+                .build( reporter.getValidationContext().getBundle() ) );
+        }
+    }
+}
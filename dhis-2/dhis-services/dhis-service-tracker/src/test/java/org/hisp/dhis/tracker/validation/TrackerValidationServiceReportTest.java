@@ -161,7 +161,7 @@ class TrackerValidationServiceReportTest
             .build();
         TrackerValidationService validationService = new DefaultTrackerValidationService(
             List.of( removeOnError, doNotRemoveOnError ),
-            Collections.emptyList() );
+            Collections.emptyList(), new TrackerValidationExecutor( 1 ) );
 
         TrackerValidationReport report = validationService.validate( bundle );
 
@@ -226,7 +226,7 @@ class TrackerValidationServiceReportTest
             } ).build();
         TrackerValidationHook hook2 = mock( TrackerValidationHook.class );
         TrackerValidationService validationService = new DefaultTrackerValidationService( List.of( hook1, hook2 ),
-            Collections.emptyList() );
+            Collections.emptyList(), new TrackerValidationExecutor( 1 ) );
 
         TrackerValidationReport report = validationService.validate( bundle );
 
@@ -270,7 +270,7 @@ class TrackerValidationServiceReportTest
             .build();
         TrackerValidationService validationService = new DefaultTrackerValidationService(
             List.of( hook ),
-            Collections.emptyList() );
+            Collections.emptyList(), new TrackerValidationExecutor( 1 ) );
 
         TrackerValidationReport report = validationService.validate( bundle );
 
@@ -35,6 +35,7 @@ import java.util.Map;
 import javax.jms.ConnectionFactory;
 import javax.jms.DeliveryMode;
 import javax.jms.JMSException;
+import javax.jms.Session;
 
 import org.apache.activemq.artemis.api.core.RoutingType;
 import org.apache.activemq.artemis.api.core.SimpleString;
@@ -134,7 +135,7 @@ public class ArtemisConfig
     public DefaultJmsListenerContainerFactory jmsListenerContainerFactory( ConnectionFactory connectionFactory,
         NameDestinationResolver nameDestinationResolver )
     {
-        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+        DefaultJmsListenerContainerFactory factory = new ListenerAcknowledgeContainerFactory();
         factory.setConnectionFactory( connectionFactory );
         factory.setDestinationResolver( nameDestinationResolver );
         // set to true, since we only use topics and we want to resolve names to
@@ -143,6 +144,9 @@ public class ArtemisConfig
         // 1 forces the listener to use only one consumer, to avoid duplicated
         // messages
         factory.setConcurrency( "1" );
+        // audits are buffered and saved in batches, the audit consumers
+        // acknowledge messages in bulk after their audits are saved
+        factory.setSessionAcknowledgeMode( Session.CLIENT_ACKNOWLEDGE );
 
         return factory;
     }
@@ -60,6 +60,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @Repository
 public class JdbcAuditRepository implements AuditRepository
 {
+    /**
+     * Max rows per multi-row insert, keeping the number of bind parameters
+     * well below the limit of the JDBC driver.
+     */
+    private static final int MAX_ROWS_PER_INSERT = 1000;
+
     private final JdbcTemplate jdbcTemplate;
 
     private final SimpleJdbcInsert auditInsert;
@@ -85,12 +91,27 @@ public class JdbcAuditRepository implements AuditRepository
         return auditInsert.executeAndReturnKey( parameterSource ).longValue();
     }
 
+    /**
+     * Saves the given audits with multi-row inserts of up to
+     * {@link #MAX_ROWS_PER_INSERT} rows each.
+     */
     @Override
     public void save( List<Audit> audits )
     {
-        List<MapSqlParameterSource> parameterSources = new ArrayList<>();
-        audits.forEach( audit -> parameterSources.add( buildParameterSource( audit ) ) );
-        auditInsert.executeBatch( parameterSources.toArray( new MapSqlParameterSource[0] ) );
+        for ( int from = 0; from < audits.size(); from += MAX_ROWS_PER_INSERT )
+        {
+            List<Audit> rows = audits.subList( from, Math.min( from + MAX_ROWS_PER_INSERT, audits.size() ) );
+
+            String values = rows.stream()
+                .map( audit -> "(?, ?, ?, ?, ?, ?, ?, ?::jsonb, ?)" )
+                .collect( Collectors.joining( ", " ) );
+
+            List<Object> args = new ArrayList<>();
+            rows.forEach( audit -> addInsertArgs( args, audit ) );
+
+            jdbcTemplate.update( "INSERT INTO audit (auditType, auditScope, createdAt, createdBy, klass, uid, " +
+                "code, attributes, data) VALUES " + values, args.toArray() );
+        }
     }
 
     @Override
@@ -228,6 +249,28 @@ public class JdbcAuditRepository implements AuditRepository
         return parameters;
     }
 
+    private void addInsertArgs( List<Object> args, Audit audit )
+    {
+        args.add( audit.getAuditType().name() );
+        args.add( audit.getAuditScope().name() );
+        args.add( audit.getCreatedAt() != null ? Timestamp.valueOf( audit.getCreatedAt() ) : null );
+        args.add( audit.getCreatedBy() );
+        args.add( audit.getKlass() );
+        args.add( audit.getUid() );
+        args.add( audit.getCode() );
+
+        try
+        {
+            args.add( jsonMapper.writeValueAsString( audit.getAttributes() ) );
+        }
+        catch ( JsonProcessingException ignored )
+        {
+            args.add( "{}" );
+        }
+
+        args.add( compress( audit.getData() ) );
+    }
+
     private RowMapper<Audit> auditRowMapper = ( rs, rowNum ) -> {
         Date createdAt = rs.getDate( "createdAt" );
 
@@ -46,6 +46,7 @@ import org.hisp.dhis.cache.PaginationCacheManager;
 import org.hisp.dhis.cache.QueryCacheManager;
 import org.hisp.dhis.category.CategoryOptionCombo;
 import org.hisp.dhis.common.IdentifiableObjectManager;
+import org.hisp.dhis.common.event.CacheInvalidationEvent;
 import org.hisp.dhis.dataelement.DataElement;
 import org.hisp.dhis.datavalue.DataValue;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
@@ -57,6 +58,7 @@ import org.hisp.dhis.trackedentity.TrackedEntityInstance;
 import org.hisp.dhis.trackedentity.TrackedEntityInstanceService;
 import org.hisp.dhis.trackedentityattributevalue.TrackedEntityAttributeValue;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
@@ -72,7 +74,9 @@ import io.debezium.engine.RecordChangeEvent;
  * This class will try to evict the cache elements based on information in the
  * incoming {@link RecordChangeEvent} objects and then calling
  * {@link org.hibernate.Cache#evict(Class, Object)} and
- * {@link org.hibernate.Cache#evictCollectionData(String, Serializable)}.
+ * {@link org.hibernate.Cache#evictCollectionData(String, Serializable)}. A
+ * {@link CacheInvalidationEvent} is published for each affected entity class so
+ * that application level caches can be evicted as well.
  *
  * @author Morten Svanæs <msvanaes@dhis2.org>
  */
@@ -109,6 +113,9 @@ public class DbChangeEventHandler
     @Autowired
     private PeriodService periodService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Called by the {@link io.debezium.embedded.EmbeddedEngine}'s event
      * handler. Configured in {@link DebeziumService#startDebeziumEngine()}
@@ -336,6 +343,16 @@ public class DbChangeEventHandler
             sessionFactory.getCache().evict( firstEntityClass, entityId );
             evictCollections( entityClasses, entityId );
         }
+
+        publishCacheInvalidation( entityClasses, entityId );
+    }
+
+    private void publishCacheInvalidation( List<Object[]> entityClasses, Serializable entityId )
+    {
+        entityClasses.stream()
+            .map( entityAndRole -> (Class<?>) entityAndRole[0] )
+            .distinct()
+            .forEach( klass -> eventPublisher.publishEvent( new CacheInvalidationEvent( this, klass, entityId ) ) );
     }
 
     private void tryFetchNewEntity( Serializable entityId, Class<?> entityClass )
@@ -0,0 +1,17 @@
+-- Returns the non-empty translation of the given property for the given locale
+-- from a translations jsonb array, or the given fallback value if there is none.
+-- $1: Translations jsonb column $2: Locale $3: Translation property e.g. NAME
+-- $4: Fallback value, usually the untranslated column
+CREATE OR REPLACE FUNCTION jsonb_translated_value(jsonb, text, text, text)
+RETURNS text
+AS $$
+SELECT coalesce(
+         (SELECT t->>'value'
+          FROM jsonb_array_elements(coalesce($1, '[]'::jsonb)) t
+          WHERE t->>'locale' = $2
+          AND t->>'property' = $3
+          AND coalesce(t->>'value', '') <> ''
+          LIMIT 1),
+         $4);
+$$
+LANGUAGE SQL IMMUTABLE PARALLEL SAFE;
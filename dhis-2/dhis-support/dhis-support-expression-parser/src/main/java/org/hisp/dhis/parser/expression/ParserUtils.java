@@ -59,7 +59,16 @@ import static org.hisp.dhis.parser.expression.antlr.ExpressionParser.VERTICAL_BA
 
 import java.util.List;
 
+import org.antlr.v4.runtime.BaseErrorListener;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.hisp.dhis.antlr.ParserException;
 import org.hisp.dhis.antlr.ParserExceptionWithoutContext;
+import org.hisp.dhis.parser.expression.antlr.ExpressionLexer;
+import org.hisp.dhis.parser.expression.antlr.ExpressionParser;
 import org.hisp.dhis.parser.expression.dataitem.ItemConstant;
 import org.hisp.dhis.parser.expression.function.FunctionFirstNonNull;
 import org.hisp.dhis.parser.expression.function.FunctionGreatest;
@@ -214,4 +223,39 @@ public class ParserUtils
             throw new ParserExceptionWithoutContext( "Program attribute must have one UID: " + ctx.getText() );
         }
     }
+
+    /**
+     * Parses an expression into an ANTLR parse tree without visiting it.
+     * Visitors only read the tree, so the returned tree can be cached and
+     * visited concurrently by any number of visitors.
+     *
+     * @param expression the expression to parse.
+     * @return the parse tree of the expression.
+     * @throws ParserException if the expression has a syntax error.
+     */
+    public static ParseTree parse( String expression )
+    {
+        ExpressionLexer lexer = new ExpressionLexer( CharStreams.fromString( expression ) );
+        lexer.removeErrorListeners();
+        lexer.addErrorListener( THROWING_ERROR_LISTENER );
+
+        ExpressionParser parser = new ExpressionParser( new CommonTokenStream( lexer ) );
+        parser.removeErrorListeners();
+        parser.addErrorListener( THROWING_ERROR_LISTENER );
+
+        return parser.expression();
+    }
+
+    /**
+     * Error listener which aborts parsing on the first syntax error.
+     */
+    private static final BaseErrorListener THROWING_ERROR_LISTENER = new BaseErrorListener()
+    {
+        @Override
+        public void syntaxError( Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+            int charPositionInLine, String msg, RecognitionException e )
+        {
+            throw new ParserException( msg + " at character " + charPositionInLine );
+        }
+    };
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.parser.expression;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.hisp.dhis.cache.Cache;
+import org.hisp.dhis.cache.SimpleCacheBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares parsing indicator, validation rule and predictor expressions for
+ * every evaluation with looking up their parse trees in a cache.
+ * <p>
+ * Not a unit test, run with the main method or through the JMH runner.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class ParserUtilsBenchmark
+{
+    private static final List<String> EXPRESSIONS = List.of(
+        "#{P3jJH5Tu5VC.S34ULMcHMca} + #{FQ2o8UBlcrS} * C{Gfd3ppDfq8E} / 100",
+        "(#{s46m5MS0hxu.Prlt0C1RF0s} + #{s46m5MS0hxu.psbwp3CQEhs}) - #{fbfJHSPpUQD}",
+        "if( #{hfdmMSPBgLG} > 0, #{x3Do5e7g4Qo} / #{hfdmMSPBgLG}, 0 ) * 100",
+        "sum( #{GQY2lXrypjO} ) / count( #{GQY2lXrypjO} ) + firstNonNull( #{eY5ehpbEsB7}, 0 )",
+        "#{bqK6eSIwo3h} <= #{cYeuwXTCPkU} && #{Jtf34kNZhzP} != 0 || !isNull( #{vI2csg55S9C} )" );
+
+    private Cache<ParseTree> cache;
+
+    @Setup
+    public void setUp()
+    {
+        cache = new SimpleCacheBuilder<ParseTree>()
+            .forRegion( "expressionParseTreeBenchmark" )
+            .expireAfterWrite( 12, TimeUnit.HOURS )
+            .withMaximumSize( 10_000 )
+            .build();
+    }
+
+    @Benchmark
+    public void parseEveryTime( Blackhole blackhole )
+    {
+        for ( String expression : EXPRESSIONS )
+        {
+            blackhole.consume( ParserUtils.parse( expression ) );
+        }
+    }
+
+    @Benchmark
+    public void parseCached( Blackhole blackhole )
+    {
+        for ( String expression : EXPRESSIONS )
+        {
+            blackhole.consume( cache.get( expression, ParserUtils::parse ) );
+        }
+    }
+
+    public static void main( String[] args )
+        throws RunnerException
+    {
+        new Runner( new OptionsBuilder()
+            .include( ParserUtilsBenchmark.class.getSimpleName() )
+            .build() ).run();
+    }
+}
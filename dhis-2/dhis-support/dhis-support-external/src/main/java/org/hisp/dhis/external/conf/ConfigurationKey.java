@@ -315,6 +315,24 @@ public enum ConfigurationKey
      */
     REDIS_ENABLED( "redis.enabled", Constants.OFF, false ),
 
+    /**
+     * Keep hot redis cache entries in a local tier on each instance, which is
+     * invalidated through redis pub/sub. (default: false)
+     */
+    REDIS_CACHE_LOCAL_ENABLED( "redis.cache.local.enabled", Constants.OFF, false ),
+
+    /**
+     * Maximum number of entries per region in the local tier of the redis
+     * cache. (default: 10000)
+     */
+    REDIS_CACHE_LOCAL_SIZE( "redis.cache.local.size", "10000", false ),
+
+    /**
+     * Maximum number of seconds an entry is kept in the local tier of the
+     * redis cache. (default: 60)
+     */
+    REDIS_CACHE_LOCAL_EXPIRY( "redis.cache.local.expiry", "60", false ),
+
     /**
      * Allows Flyway migrations to be run "out of order".
      * <p>
@@ -332,6 +350,50 @@ public enum ConfigurationKey
 
     PROGRAM_TEMPORARY_OWNERSHIP_TIMEOUT( "tracker.temporary.ownership.timeout", "3", false ),
 
+    /**
+     * Enable/disable the metadata cache of the tracker import preheat. (default:
+     * off)
+     */
+    TRACKER_IMPORT_PREHEAT_CACHE_ENABLED( "tracker.import.preheat.cache.enabled", Constants.OFF, false ),
+
+    /**
+     * Number of threads validating tracker objects with independent validation
+     * hooks, 1 means sequential validation. (default: 1)
+     */
+    TRACKER_IMPORT_VALIDATION_THREADS( "tracker.import.validation.threads", "1", false ),
+
+    /**
+     * Number of threads evaluating predictions of a predictor, 1 means
+     * sequential prediction. (default: 1)
+     */
+    PREDICTOR_THREADS( "predictor.threads", "1", false ),
+
+    /**
+     * Number of threads exporting partitions of a data value set concurrently,
+     * 1 means the data value set is exported by a single query. (default: 1)
+     */
+    DATAVALUESET_EXPORT_THREADS( "datavalueset.export.threads", "1", false ),
+
+    /**
+     * Number of rows fetched from the database at a time when exporting data
+     * value sets. (default: 1000)
+     */
+    DATAVALUESET_EXPORT_FETCH_SIZE( "datavalueset.export.fetch_size", "1000", false ),
+
+    /**
+     * Number of threads writing validated data values of a data value set
+     * import concurrently, 1 means data values are written by the importing
+     * thread. (default: 1)
+     */
+    DATAVALUESET_IMPORT_THREADS( "datavalueset.import.threads", "1", false ),
+
+    /**
+     * Write imported data values and audits by streaming them with the
+     * PostgreSQL COPY command into staging tables merged once per batch,
+     * instead of SQL batch inserts and updates. (default: off)
+     */
+    DATAVALUESET_IMPORT_COPY_ENABLED( "datavalueset.import.copy.enabled", Constants.OFF, false ),
+
     LEADER_TIME_TO_LIVE( "leader.time.to.live.minutes", "2", false ),
 
     /**
@@ -339,6 +401,26 @@ public enum ConfigurationKey
      */
     ANALYTICS_CACHE_EXPIRATION( "analytics.cache.expiration", "0" ),
 
+    /**
+     * Number of threads executing analytics sub-queries, 0 means the number of
+     * CPU cores. (default: 0)
+     */
+    ANALYTICS_QUERY_THREADS( "analytics.query.threads", "0", false ),
+
+    /**
+     * Max number of analytics sub-queries waiting for a thread before further
+     * queries are rejected. (default: 500)
+     */
+    ANALYTICS_QUERY_QUEUE_SIZE( "analytics.query.queue_size", "500", false ),
+
+    /**
+     * Max number of analytics requests in progress per user before further
+     * requests of the user are rejected, 0 means no limit. A dashboard loads
+     * all of its items at once, so a limit should be at least the number of
+     * items of the largest dashboard. (default: 0)
+     */
+    ANALYTICS_QUERY_USER_LIMIT( "analytics.query.user_limit", "0", false ),
+
     /**
      * Artemis support mode, 2 modes supported: EMBEDDED (starts up an embedded
      * Artemis which lives in the same process as your DHIS2 instance), NATIVE
@@ -455,6 +537,26 @@ public enum ConfigurationKey
      */
     MONITORING_CPU_ENABLED( "monitoring.cpu.enabled", Constants.OFF, false ),
 
+    /**
+     * Analytics monitoring, such as the analytics cache. (default: off)
+     */
+    MONITORING_ANALYTICS_ENABLED( "monitoring.analytics.enabled", Constants.OFF, false ),
+
+    /**
+     * Enable metrics of the audit database writer. (default: off)
+     */
+    MONITORING_AUDIT_ENABLED( "monitoring.audit.enabled", Constants.OFF, false ),
+
+    /**
+     * Enable metrics of the metadata query engine. (default: off)
+     */
+    MONITORING_METADATA_QUERY_ENABLED( "monitoring.metadata.query.enabled", Constants.OFF, false ),
+
+    /**
+     * Enable metrics of data value set exports and imports. (default: off)
+     */
+    MONITORING_DATAVALUESET_ENABLED( "monitoring.datavalueset.enabled", Constants.OFF, false ),
+
     /**
      * AppHub base URL. (default: https://apps.dhis2.org).
      */
@@ -494,6 +596,23 @@ public enum ConfigurationKey
      */
     AUDIT_DATABASE( "audit.database", Constants.OFF, false ),
 
+    /**
+     * Max number of audits saved to the database in one insert. (default: 500)
+     */
+    AUDIT_DATABASE_BATCH_SIZE( "audit.database.batch_size", "500", false ),
+
+    /**
+     * Max milliseconds audits are buffered before being saved to the database.
+     * (default: 1000)
+     */
+    AUDIT_DATABASE_BATCH_WAIT( "audit.database.batch_wait", "1000", false ),
+
+    /**
+     * Max number of audits buffered for saving to the database. Consumers wait
+     * for space in the buffer when it is full. (default: 10000)
+     */
+    AUDIT_DATABASE_QUEUE_SIZE( "audit.database.queue_size", "10000", false ),
+
     /**
      * Sets the audit matrix for metadata. (default: none).
      */
@@ -615,6 +734,18 @@ public enum ConfigurationKey
 
     ACTIVE_READ_REPLICAS( "active.read.replicas", "0", false ),
 
+    /**
+     * Max replication lag in seconds of a read replica. Read only queries are
+     * routed away from replicas lagging further behind. (default: 30)
+     */
+    READ_REPLICA_MAX_LAG( "read.replica.max_lag", "30", false ),
+
+    /**
+     * Seconds between health and replication lag checks of the read replicas,
+     * must be positive. (default: 10)
+     */
+    READ_REPLICA_HEALTH_CHECK_INTERVAL( "read.replica.health_check_interval", "10", false ),
+
     /**
      * Allows enabling/disabling audits system-wide (without configuring the
      * audit matrix). (default: true)
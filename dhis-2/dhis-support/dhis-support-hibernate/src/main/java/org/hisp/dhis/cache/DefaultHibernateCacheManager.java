@@ -27,9 +27,17 @@
  */
 package org.hisp.dhis.cache;
 
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+
 import lombok.extern.slf4j.Slf4j;
 
+import org.hibernate.Cache;
 import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.hibernate.persister.collection.CollectionPersister;
 import org.hibernate.stat.Statistics;
 import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
 import org.springframework.context.event.EventListener;
@@ -52,6 +60,20 @@ public class DefaultHibernateCacheManager
         this.sessionFactory = sessionFactory;
     }
 
+    private QueryCacheManager queryCacheManager;
+
+    public void setQueryCacheManager( QueryCacheManager queryCacheManager )
+    {
+        this.queryCacheManager = queryCacheManager;
+    }
+
+    private PaginationCacheManager paginationCacheManager;
+
+    public void setPaginationCacheManager( PaginationCacheManager paginationCacheManager )
+    {
+        this.paginationCacheManager = paginationCacheManager;
+    }
+
     // -------------------------------------------------------------------------
     // HibernateCacheManager implementation
     // -------------------------------------------------------------------------
@@ -79,6 +101,53 @@ public class DefaultHibernateCacheManager
         log.info( "Hibernate caches cleared" );
     }
 
+    @Override
+    public void evictEntities( Map<Class<?>, Set<Serializable>> entities )
+    {
+        Cache cache = sessionFactory.getCache();
+        MetamodelImplementor metamodel = ((SessionFactoryImplementor) sessionFactory).getMetamodel();
+
+        for ( Map.Entry<Class<?>, Set<Serializable>> entry : entities.entrySet() )
+        {
+            Class<?> klass = entry.getKey();
+            Set<Serializable> ids = entry.getValue();
+
+            if ( !metamodel.entityPersisters().containsKey( klass.getName() ) )
+            {
+                continue;
+            }
+
+            ids.forEach( id -> cache.evictEntityData( klass, id ) );
+
+            for ( CollectionPersister persister : metamodel.collectionPersisters().values() )
+            {
+                if ( !persister.hasCache() )
+                {
+                    continue;
+                }
+
+                if ( persister.getElementType().isEntityType()
+                    && persister.getElementType().getReturnedClass().isAssignableFrom( klass ) )
+                {
+                    // Any owner may have gained or lost one of the entities
+
+                    cache.evictCollectionData( persister.getRole() );
+                }
+                else if ( persister.getOwnerEntityPersister().getMappedClass().isAssignableFrom( klass ) )
+                {
+                    ids.forEach( id -> cache.evictCollectionData( persister.getRole(), id ) );
+                }
+            }
+
+            queryCacheManager.evictQueryCache( cache, klass );
+            paginationCacheManager.evictCache( klass.getName() );
+        }
+
+        cache.evictDefaultQueryRegion();
+
+        log.info( "Hibernate caches evicted for types: " + entities.keySet() );
+    }
+
     @Override
     @EventListener
     public void handleApplicationCachesCleared( ApplicationCacheClearedEvent event )
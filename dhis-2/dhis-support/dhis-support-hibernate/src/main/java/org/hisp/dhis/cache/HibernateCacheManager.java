@@ -27,6 +27,10 @@
  */
 package org.hisp.dhis.cache;
 
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
+
 import org.hibernate.stat.Statistics;
 import org.hisp.dhis.common.event.ApplicationCacheClearedEvent;
 
@@ -50,6 +54,16 @@ public interface HibernateCacheManager
      */
     void clearCache();
 
+    /**
+     * Evicts the given entities, the collections owned by them, the
+     * collections holding entities of their types and the query regions of
+     * their types from the cache. Entities of other types remain cached.
+     *
+     * @param entities the identifiers of the entities to evict, by entity
+     *        class.
+     */
+    void evictEntities( Map<Class<?>, Set<Serializable>> entities );
+
     /**
      * Gets the statistics.
      *
@@ -89,12 +89,19 @@ public class DataSourceConfig
         return jdbcTemplate;
     }
 
-    @Bean( "readOnlyJdbcTemplate" )
+    @Bean
     @DependsOn( "dataSource" )
-    public JdbcTemplate readOnlyJdbcTemplate( @Qualifier( "dataSource" ) DataSource dataSource )
+    public DefaultReadOnlyDataSourceManager readOnlyDataSourceManager(
+        @Qualifier( "dataSource" ) DataSource dataSource )
     {
-        DefaultReadOnlyDataSourceManager manager = new DefaultReadOnlyDataSourceManager( dhisConfig );
+        return new DefaultReadOnlyDataSourceManager( dhisConfig, dataSource );
+    }
 
+    @Bean( "readOnlyJdbcTemplate" )
+    @DependsOn( "dataSource" )
+    public JdbcTemplate readOnlyJdbcTemplate( @Qualifier( "dataSource" ) DataSource dataSource,
+        DefaultReadOnlyDataSourceManager manager )
+    {
         JdbcTemplate jdbcTemplate = new JdbcTemplate(
             MoreObjects.firstNonNull( manager.getReadOnlyDataSource(), dataSource ) );
         jdbcTemplate.setFetchSize( 1000 );
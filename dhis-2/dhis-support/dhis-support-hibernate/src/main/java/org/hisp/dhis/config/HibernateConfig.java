@@ -35,6 +35,8 @@ import javax.sql.DataSource;
 
 import org.hibernate.SessionFactory;
 import org.hisp.dhis.cache.DefaultHibernateCacheManager;
+import org.hisp.dhis.cache.PaginationCacheManager;
+import org.hisp.dhis.cache.QueryCacheManager;
 import org.hisp.dhis.dbms.DbmsManager;
 import org.hisp.dhis.dbms.HibernateDbmsManager;
 import org.hisp.dhis.deletedobject.DeletedObject;
@@ -110,10 +112,13 @@ public class HibernateConfig
     }
 
     @Bean
-    public DefaultHibernateCacheManager cacheManager( SessionFactory sessionFactory )
+    public DefaultHibernateCacheManager cacheManager( SessionFactory sessionFactory,
+        QueryCacheManager queryCacheManager, PaginationCacheManager paginationCacheManager )
     {
         DefaultHibernateCacheManager cacheManager = new DefaultHibernateCacheManager();
         cacheManager.setSessionFactory( sessionFactory );
+        cacheManager.setQueryCacheManager( queryCacheManager );
+        cacheManager.setPaginationCacheManager( paginationCacheManager );
         return cacheManager;
     }
 
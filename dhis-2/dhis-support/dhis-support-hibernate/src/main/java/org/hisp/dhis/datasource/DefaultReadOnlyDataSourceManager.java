@@ -47,6 +47,7 @@ import org.hisp.dhis.commons.util.DebugUtils;
 import org.hisp.dhis.external.conf.ConfigurationKey;
 import org.hisp.dhis.external.conf.DhisConfigurationProvider;
 import org.hisp.dhis.util.ObjectUtils;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 
 /**
@@ -54,7 +55,7 @@ import org.springframework.beans.factory.InitializingBean;
  */
 @Slf4j
 public class DefaultReadOnlyDataSourceManager
-    implements ReadOnlyDataSourceManager, InitializingBean
+    implements ReadOnlyDataSourceManager, InitializingBean, DisposableBean
 {
     private static final String FORMAT_READ_PREFIX = "read%d.";
 
@@ -72,16 +73,20 @@ public class DefaultReadOnlyDataSourceManager
 
     private final DhisConfigurationProvider config;
 
-    public DefaultReadOnlyDataSourceManager( DhisConfigurationProvider config )
+    private final DataSource mainDataSource;
+
+    public DefaultReadOnlyDataSourceManager( DhisConfigurationProvider config, DataSource mainDataSource )
     {
         checkNotNull( config );
+        checkNotNull( mainDataSource );
         this.config = config;
+        this.mainDataSource = mainDataSource;
     }
 
     /**
      * State holder for the resolved read only data source.
      */
-    private DataSource internalReadOnlyDataSource;
+    private ReadReplicaRoutingDataSource internalReadOnlyDataSource;
 
     /**
      * State holder for explicitly defined read only data sources.
@@ -94,7 +99,18 @@ public class DefaultReadOnlyDataSourceManager
         List<DataSource> ds = getReadOnlyDataSources();
 
         this.internalReadOnlyInstanceList = ds;
-        this.internalReadOnlyDataSource = !ds.isEmpty() ? new CircularRoutingDataSource( ds ) : null;
+        this.internalReadOnlyDataSource = !ds.isEmpty() ? new ReadReplicaRoutingDataSource( mainDataSource, ds,
+            Integer.parseInt( config.getProperty( ConfigurationKey.READ_REPLICA_MAX_LAG ) ),
+            Integer.parseInt( config.getProperty( ConfigurationKey.READ_REPLICA_HEALTH_CHECK_INTERVAL ) ) ) : null;
+    }
+
+    @Override
+    public void destroy()
+    {
+        if ( internalReadOnlyDataSource != null )
+        {
+            internalReadOnlyDataSource.shutdown();
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.datasource;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Data source implementation which routes to the healthy read replica with the
+ * fewest connections in use, and falls back to the primary data source when no
+ * read replica is healthy.
+ *
+ * A read replica is unhealthy when a connection cannot be obtained from it, or
+ * when a periodic check fails or finds the replication lag, based on
+ * {@code pg_last_xact_replay_timestamp}, above the max lag. Replicas recover
+ * with the next successful check. Routing is lock free. The periodic checks
+ * run until {@link #shutdown()} is invoked.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource
+    extends AbstractDataSource
+{
+    /**
+     * Replication lag in seconds, zero if the instance is not a replica or is
+     * connected to the primary and has replayed everything it has received.
+     * When the WAL receiver is not running the received and replayed locations
+     * are equal without the replica being up to date, so the lag is based on
+     * the last replayed transaction. A row in {@code pg_stat_wal_receiver} is
+     * visible without superuser privileges.
+     */
+    static final String LAG_SQL = "select case when not pg_is_in_recovery() then 0 " +
+        "when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() " +
+        "and exists (select 1 from pg_stat_wal_receiver) then 0 " +
+        "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+
+    private static final int CHECK_QUERY_TIMEOUT_SECONDS = 5;
+
+    private final DataSource primaryDataSource;
+
+    private final List<Replica> replicas;
+
+    private final long maxLagMillis;
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private final ScheduledExecutorService healthChecker;
+
+    /**
+     * @param primaryDataSource the data source to fall back to.
+     * @param replicaDataSources the read replica data sources.
+     * @param maxLagSeconds the max replication lag in seconds.
+     * @param checkIntervalSeconds the seconds between health checks, must be
+     *        positive as unhealthy replicas only recover with a check.
+     */
+    public ReadReplicaRoutingDataSource( DataSource primaryDataSource, List<DataSource> replicaDataSources,
+        int maxLagSeconds, int checkIntervalSeconds )
+    {
+        checkNotNull( primaryDataSource );
+        checkArgument( !replicaDataSources.isEmpty(), "At least one read replica must be specified" );
+        checkArgument( checkIntervalSeconds > 0, "Health check interval must be positive" );
+
+        this.primaryDataSource = primaryDataSource;
+        this.replicas = new ArrayList<>();
+        this.maxLagMillis = TimeUnit.SECONDS.toMillis( maxLagSeconds );
+
+        for ( int i = 0; i < replicaDataSources.size(); i++ )
+        {
+            replicas.add( new Replica( "read" + (i + 1), replicaDataSources.get( i ) ) );
+        }
+
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat( "READ-REPLICA-HEALTH-%d" ).setDaemon( true ).build() );
+        this.healthChecker.scheduleWithFixedDelay( this::checkHealth, checkIntervalSeconds,
+            checkIntervalSeconds, TimeUnit.SECONDS );
+    }
+
+    // -------------------------------------------------------------------------
+    // AbstractDataSource implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public Connection getConnection()
+        throws SQLException
+    {
+        return getConnection( DataSource::getConnection );
+    }
+
+    @Override
+    public Connection getConnection( String username, String password )
+        throws SQLException
+    {
+        return getConnection( dataSource -> dataSource.getConnection( username, password ) );
+    }
+
+    // -------------------------------------------------------------------------
+    // Health checks
+    // -------------------------------------------------------------------------
+
+    /**
+     * Checks the health and replication lag of every read replica.
+     */
+    public void checkHealth()
+    {
+        replicas.forEach( this::checkHealth );
+    }
+
+    /**
+     * Returns the number of read replicas currently considered healthy.
+     *
+     * @return the number of healthy read replicas.
+     */
+    public int getHealthyReplicaCount()
+    {
+        return (int) replicas.stream().filter( r -> r.healthy ).count();
+    }
+
+    /**
+     * Stops the periodic health checks.
+     */
+    public void shutdown()
+    {
+        healthChecker.shutdownNow();
+    }
+
+    /**
+     * Indicates whether the periodic health checks are stopped.
+     *
+     * @return true if the periodic health checks are stopped.
+     */
+    public boolean isShutdown()
+    {
+        return healthChecker.isShutdown();
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private Connection getConnection( ConnectionProvider provider )
+        throws SQLException
+    {
+        Replica replica;
+
+        while ( (replica = nextReplica()) != null )
+        {
+            replica.inFlight.incrementAndGet();
+
+            try
+            {
+                return track( replica, provider.getConnection( replica.dataSource ) );
+            }
+            catch ( SQLException | RuntimeException ex )
+            {
+                replica.inFlight.decrementAndGet();
+                setHealthy( replica, false, ex.getMessage() );
+            }
+        }
+
+        return provider.getConnection( primaryDataSource );
+    }
+
+    /**
+     * Returns the healthy replica with the fewest connections in use, or null
+     * if no replica is healthy. The scan starts at a rotating offset so that
+     * ties are spread evenly.
+     */
+    private Replica nextReplica()
+    {
+        int size = replicas.size();
+        int offset = Math.floorMod( counter.getAndIncrement(), size );
+
+        Replica next = null;
+
+        for ( int i = 0; i < size; i++ )
+        {
+            Replica replica = replicas.get( (offset + i) % size );
+
+            if ( replica.healthy && (next == null || replica.inFlight.get() < next.inFlight.get()) )
+            {
+                next = replica;
+            }
+        }
+
+        return next;
+    }
+
+    /**
+     * Wraps the given connection to decrement the connections in use of the
+     * replica when the connection is closed.
+     */
+    private Connection track( Replica replica, Connection connection )
+    {
+        AtomicBoolean closed = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance( ReadReplicaRoutingDataSource.class.getClassLoader(),
+            new Class<?>[] { Connection.class }, ( proxy, method, args ) -> {
+                switch ( method.getName() )
+                {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode( proxy );
+                case "close":
+                    if ( closed.compareAndSet( false, true ) )
+                    {
+                        replica.inFlight.decrementAndGet();
+                    }
+                    break;
+                default:
+                    break;
+                }
+
+                try
+                {
+                    return method.invoke( connection, args );
+                }
+                catch ( InvocationTargetException ex )
+                {
+                    throw ex.getCause();
+                }
+            } );
+    }
+
+    private void checkHealth( Replica replica )
+    {
+        try ( Connection connection = replica.dataSource.getConnection();
+            Statement statement = connection.createStatement() )
+        {
+            statement.setQueryTimeout( CHECK_QUERY_TIMEOUT_SECONDS );
+
+            try ( ResultSet resultSet = statement.executeQuery( LAG_SQL ) )
+            {
+                resultSet.next();
+
+                replica.lagMillis = (long) (resultSet.getDouble( 1 ) * 1000);
+
+                setHealthy( replica, replica.lagMillis <= maxLagMillis,
+                    String.format( "replication lag of %d ms", replica.lagMillis ) );
+            }
+        }
+        catch ( SQLException | RuntimeException ex )
+        {
+            setHealthy( replica, false, ex.getMessage() );
+        }
+    }
+
+    private void setHealthy( Replica replica, boolean healthy, String reason )
+    {
+        if ( replica.healthy != healthy )
+        {
+            replica.healthy = healthy;
+
+            if ( healthy )
+            {
+                log.info( String.format( "Read replica '%s' is healthy again", replica.name ) );
+            }
+            else
+            {
+                log.warn( String.format( "Read replica '%s' is unhealthy and skipped: %s", replica.name, reason ) );
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionProvider
+    {
+        Connection getConnection( DataSource dataSource )
+            throws SQLException;
+    }
+
+    /**
+     * State of a read replica. The state is read on every connection request
+     * and updated without locking.
+     */
+    private static class Replica
+    {
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private volatile boolean healthy = true;
+
+        private volatile long lagMillis;
+
+        Replica( String name, DataSource dataSource )
+        {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
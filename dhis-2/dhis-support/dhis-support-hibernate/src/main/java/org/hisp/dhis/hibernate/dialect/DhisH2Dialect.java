@@ -61,6 +61,8 @@ public class DhisH2Dialect extends H2Dialect
             new StandardSQLFunction( JsonbFunctions.HAS_USER_ID, StandardBasicTypes.BOOLEAN ) );
         registerFunction( JsonbFunctions.CHECK_USER_ACCESS,
             new StandardSQLFunction( JsonbFunctions.CHECK_USER_ACCESS, StandardBasicTypes.BOOLEAN ) );
+        registerFunction( JsonbFunctions.TRANSLATED_VALUE,
+            new StandardSQLFunction( JsonbFunctions.TRANSLATED_VALUE, StandardBasicTypes.STRING ) );
         registerFunction( "array_agg",
             new StandardSQLFunction( "array_agg", StringArrayType.INSTANCE ) );
     }
@@ -62,6 +62,8 @@ public class DhisPostgresDialect
             new StandardSQLFunction( JsonbFunctions.CHECK_USER_ACCESS, StandardBasicTypes.BOOLEAN ) );
         registerFunction( JsonbFunctions.REGEXP_SEARCH,
             new StandardSQLFunction( JsonbFunctions.REGEXP_SEARCH, StandardBasicTypes.BOOLEAN ) );
+        registerFunction( JsonbFunctions.TRANSLATED_VALUE,
+            new StandardSQLFunction( JsonbFunctions.TRANSLATED_VALUE, StandardBasicTypes.STRING ) );
         registerFunction( "array_agg",
             new StandardSQLFunction( "array_agg", StringArrayType.INSTANCE ) );
     }
@@ -84,4 +84,14 @@ public class JsonbFunctions
      * expression $1 String to search $2 Regular expression for matching
      */
     public static final String REGEXP_SEARCH = "regexp_search";
+
+    /**
+     * FUNCTION jsonb_translated_value(jsonb, text, text, text) $1:
+     * Translations jsonb column $2: Locale $3: Translation property $4:
+     * Fallback value
+     *
+     * @return The non-empty translation of the given property for the given
+     *         locale, or the fallback value if there is no such translation
+     */
+    public static final String TRANSLATED_VALUE = "jsonb_translated_value";
 }
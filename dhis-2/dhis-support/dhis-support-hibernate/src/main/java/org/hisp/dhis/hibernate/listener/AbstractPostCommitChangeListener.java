@@ -25,64 +25,51 @@
  * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
-package org.hisp.dhis.datasource;
+package org.hisp.dhis.hibernate.listener;
 
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 
-import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.jdbc.datasource.AbstractDataSource;
-
-import com.google.common.collect.Iterators;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
 
 /**
- * Data source implementation which routes to the configured target data sources
- * in a circular fashion.
- *
- * @author Lars Helge Overland
+ * Base class of listeners which react to entities being added, updated or
+ * removed after the transaction is committed. Changes of transactions which
+ * failed to commit are ignored.
  */
-public class CircularRoutingDataSource
-    extends AbstractDataSource
+@Slf4j
+public abstract class AbstractPostCommitChangeListener
+    implements ConfiguredEventListener, PostCommitInsertEventListener, PostCommitUpdateEventListener,
+    PostCommitDeleteEventListener
 {
-    private Iterator<DataSource> dataSourceIterator;
-
-    public CircularRoutingDataSource()
-    {
-    }
-
-    public CircularRoutingDataSource( List<DataSource> targetDataSources )
+    @Override
+    public List<EventType<?>> getEventTypes()
     {
-        this.dataSourceIterator = Iterators.cycle( Collections.synchronizedList( targetDataSources ) );
+        return List.of( EventType.POST_COMMIT_INSERT, EventType.POST_COMMIT_UPDATE, EventType.POST_COMMIT_DELETE );
     }
 
-    // -------------------------------------------------------------------------
-    // AbstractDataSource implementation
-    // -------------------------------------------------------------------------
-
     @Override
-    public Connection getConnection()
-        throws SQLException
+    public void onPostInsertCommitFailed( PostInsertEvent event )
     {
-        return getDataSource().getConnection();
+        log.debug( "onPostInsertCommitFailed: " + event );
     }
 
     @Override
-    public Connection getConnection( String username, String password )
-        throws SQLException
+    public void onPostUpdateCommitFailed( PostUpdateEvent event )
     {
-        return getDataSource().getConnection( username, password );
+        log.debug( "onPostUpdateCommitFailed: " + event );
     }
 
-    // -------------------------------------------------------------------------
-    // Private methods
-    // -------------------------------------------------------------------------
-
-    private synchronized DataSource getDataSource()
+    @Override
+    public void onPostDeleteCommitFailed( PostDeleteEvent event )
     {
-        return dataSourceIterator.next();
+        log.debug( "onPostDeleteCommitFailed: " + event );
     }
 }
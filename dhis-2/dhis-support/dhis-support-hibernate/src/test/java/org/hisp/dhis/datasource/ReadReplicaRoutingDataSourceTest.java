@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+/**
+ * Unit tests for {@link ReadReplicaRoutingDataSource}.
+ */
+class ReadReplicaRoutingDataSourceTest
+{
+    private final DataSource primary = h2DataSource( "primary" );
+
+    private final DataSource replica1 = h2DataSource( "replica1" );
+
+    private final DataSource replica2 = h2DataSource( "replica2" );
+
+    @Test
+    void testRoutesToReplicaWithFewestConnections()
+        throws SQLException
+    {
+        ReadReplicaRoutingDataSource dataSource = new ReadReplicaRoutingDataSource( primary,
+            List.of( replica1, replica2 ), 30, 3600 );
+
+        try ( Connection first = dataSource.getConnection() )
+        {
+            try ( Connection second = dataSource.getConnection() )
+            {
+                assertTrue( getUrl( first ).startsWith( "jdbc:h2:mem:replica" ) );
+                assertTrue( getUrl( second ).startsWith( "jdbc:h2:mem:replica" ) );
+                assertNotEquals( getUrl( first ), getUrl( second ) );
+            }
+
+            try ( Connection third = dataSource.getConnection() )
+            {
+                assertNotEquals( getUrl( first ), getUrl( third ) );
+            }
+        }
+
+        assertEquals( 2, dataSource.getHealthyReplicaCount() );
+    }
+
+    @Test
+    void testFallsBackToPrimaryWhenReplicaFails()
+        throws SQLException
+    {
+        ReadReplicaRoutingDataSource dataSource = new ReadReplicaRoutingDataSource( primary,
+            List.of( failingDataSource() ), 30, 3600 );
+
+        try ( Connection connection = dataSource.getConnection() )
+        {
+            assertEquals( "jdbc:h2:mem:primary", getUrl( connection ) );
+        }
+
+        assertEquals( 0, dataSource.getHealthyReplicaCount() );
+    }
+
+    @Test
+    void testSkipsReplicaFailingHealthCheck()
+        throws SQLException
+    {
+        // H2 does not support the replication lag functions of PostgreSQL
+
+        ReadReplicaRoutingDataSource dataSource = new ReadReplicaRoutingDataSource( primary,
+            List.of( replica1 ), 30, 3600 );
+
+        try ( Connection connection = dataSource.getConnection() )
+        {
+            assertEquals( "jdbc:h2:mem:replica1", getUrl( connection ) );
+        }
+
+        dataSource.checkHealth();
+
+        try ( Connection connection = dataSource.getConnection() )
+        {
+            assertEquals( "jdbc:h2:mem:primary", getUrl( connection ) );
+        }
+
+        assertEquals( 0, dataSource.getHealthyReplicaCount() );
+    }
+
+    @Test
+    void testRejectsHealthCheckIntervalOfZero()
+    {
+        assertThrows( IllegalArgumentException.class,
+            () -> new ReadReplicaRoutingDataSource( primary, List.of( replica1 ), 30, 0 ) );
+    }
+
+    @Test
+    void testShutdownStopsHealthChecks()
+    {
+        ReadReplicaRoutingDataSource dataSource = new ReadReplicaRoutingDataSource( primary,
+            List.of( replica1 ), 30, 3600 );
+
+        assertFalse( dataSource.isShutdown() );
+
+        dataSource.shutdown();
+
+        assertTrue( dataSource.isShutdown() );
+    }
+
+    private String getUrl( Connection connection )
+        throws SQLException
+    {
+        return connection.getMetaData().getURL();
+    }
+
+    private DataSource h2DataSource( String name )
+    {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL( "jdbc:h2:mem:" + name );
+        return dataSource;
+    }
+
+    private DataSource failingDataSource()
+    {
+        return new AbstractDataSource()
+        {
+            @Override
+            public Connection getConnection()
+                throws SQLException
+            {
+                throw new SQLException( "Connection refused" );
+            }
+
+            @Override
+            public Connection getConnection( String username, String password )
+                throws SQLException
+            {
+                throw new SQLException( "Connection refused" );
+            }
+        };
+    }
+}
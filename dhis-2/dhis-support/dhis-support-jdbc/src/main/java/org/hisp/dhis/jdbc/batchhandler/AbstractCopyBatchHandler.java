@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.jdbc.batchhandler;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.hisp.quick.BatchHandler;
+import org.hisp.quick.JdbcConfiguration;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+/**
+ * Batch handler which streams batches of objects in the binary format of the
+ * PostgreSQL {@code COPY} command into a temporary staging table, and merges
+ * the staging table into the target table with a single statement per batch.
+ * Each batch is committed on its own, and the staging table is emptied on
+ * commit.
+ * <p>
+ * Unlike the SQL based batch handlers, added and updated objects are written
+ * the same way. Whether an object is inserted or updated is decided by the
+ * merge statement. Only supported on PostgreSQL.
+ */
+public abstract class AbstractCopyBatchHandler<T>
+    implements BatchHandler<T>
+{
+    protected static final int DEFAULT_BATCH_SIZE = 10_000;
+
+    private final JdbcConfiguration configuration;
+
+    private final int batchSize;
+
+    private final List<T> batch = new ArrayList<>();
+
+    private Connection connection;
+
+    private int addObjectCount;
+
+    protected AbstractCopyBatchHandler( JdbcConfiguration configuration, int batchSize )
+    {
+        this.configuration = configuration;
+        this.batchSize = batchSize;
+    }
+
+    // -------------------------------------------------------------------------
+    // Abstract methods
+    // -------------------------------------------------------------------------
+
+    /**
+     * Returns the name of the temporary staging table.
+     */
+    protected abstract String getStagingTableName();
+
+    /**
+     * Returns the column definitions of the staging table, in the order the
+     * columns are written by {@link #writeRow(BinaryCopyWriter, Object)}.
+     */
+    protected abstract String getStagingTableColumns();
+
+    /**
+     * Returns the statement merging the staging table into the target table.
+     */
+    protected abstract String getMergeSql();
+
+    /**
+     * Writes the given object as a row of the staging table.
+     */
+    protected abstract void writeRow( BinaryCopyWriter writer, T object )
+        throws IOException;
+
+    /**
+     * Returns the objects of the batch to write. Can be overridden to remove
+     * objects superseded by later objects of the same batch, as a merge
+     * statement can not affect the same row twice.
+     */
+    protected Collection<T> getBatchObjects( List<T> batch )
+    {
+        return batch;
+    }
+
+    // -------------------------------------------------------------------------
+    // BatchHandler implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public BatchHandler<T> init()
+    {
+        try
+        {
+            connection = configuration.getDataSource().getConnection();
+
+            if ( !connection.isWrapperFor( PGConnection.class ) )
+            {
+                connection.close();
+
+                throw new IllegalStateException( "COPY batch handlers require a PostgreSQL database" );
+            }
+
+            connection.setAutoCommit( false );
+
+            try ( Statement statement = connection.createStatement() )
+            {
+                statement.execute( "create temporary table if not exists " + getStagingTableName() +
+                    " (" + getStagingTableColumns() + ") on commit delete rows" );
+            }
+
+            connection.commit();
+        }
+        catch ( SQLException ex )
+        {
+            throw new RuntimeException( "Failed to initialize batch handler", ex );
+        }
+
+        addObjectCount = 0;
+
+        return this;
+    }
+
+    @Override
+    public JdbcConfiguration getConfiguration()
+    {
+        return configuration;
+    }
+
+    @Override
+    public boolean addObject( T object )
+    {
+        batch.add( object );
+
+        addObjectCount++;
+
+        if ( batch.size() >= batchSize )
+        {
+            writeBatch();
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean insertObject( T object )
+    {
+        addObject( object );
+        writeBatch();
+
+        return true;
+    }
+
+    @Override
+    public void updateObject( T object )
+    {
+        addObject( object );
+    }
+
+    @Override
+    public T findObject( T object )
+    {
+        throw new UnsupportedOperationException( "Find not supported by batch handler: " + getClass().getName() );
+    }
+
+    @Override
+    public boolean objectExists( T object )
+    {
+        return findObject( object ) != null;
+    }
+
+    @Override
+    public void deleteObject( T object )
+    {
+        throw new UnsupportedOperationException( "Delete not supported by batch handler: " + getClass().getName() );
+    }
+
+    @Override
+    public void flush()
+    {
+        try
+        {
+            writeBatch();
+        }
+        finally
+        {
+            close();
+        }
+    }
+
+    @Override
+    public int getAddObjectCount()
+    {
+        return addObjectCount;
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    protected Connection getConnection()
+    {
+        return connection;
+    }
+
+    /**
+     * Copies the current batch into the staging table, merges it into the
+     * target table and commits.
+     */
+    protected void writeBatch()
+    {
+        if ( batch.isEmpty() )
+        {
+            return;
+        }
+
+        try
+        {
+            String copySql = "copy " + getStagingTableName() + " from stdin (format binary)";
+
+            try ( BinaryCopyWriter writer = new BinaryCopyWriter(
+                new PGCopyOutputStream( connection.unwrap( PGConnection.class ), copySql ) ) )
+            {
+                for ( T object : getBatchObjects( batch ) )
+                {
+                    writeRow( writer, object );
+                }
+            }
+
+            try ( Statement statement = connection.createStatement() )
+            {
+                statement.executeUpdate( getMergeSql() );
+            }
+
+            connection.commit();
+        }
+        catch ( SQLException | IOException ex )
+        {
+            rollback();
+
+            throw new RuntimeException( "Failed to write batch to table: " + getStagingTableName(), ex );
+        }
+        finally
+        {
+            batch.clear();
+        }
+    }
+
+    private void rollback()
+    {
+        try
+        {
+            connection.rollback();
+        }
+        catch ( SQLException ex )
+        {
+            // Ignore, the original exception is thrown
+        }
+    }
+
+    private void close()
+    {
+        try
+        {
+            connection.setAutoCommit( true );
+            connection.close();
+        }
+        catch ( SQLException ex )
+        {
+            throw new RuntimeException( "Failed to close batch handler connection", ex );
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.jdbc.batchhandler;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+/**
+ * Writes rows in the binary format of the PostgreSQL {@code COPY} command.
+ * Each row starts with {@link #startRow(int)} followed by one write per
+ * column, in the order of the columns of the target table. Closing the writer
+ * writes the file trailer and closes the underlying stream.
+ * <p>
+ * Timestamps are written as local date time, matching columns of type
+ * {@code timestamp without time zone}.
+ *
+ * @see <a href="https://www.postgresql.org/docs/current/sql-copy.html">COPY
+ *      binary format</a>
+ */
+final class BinaryCopyWriter
+    implements Closeable
+{
+    private static final byte[] SIGNATURE = { 'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0 };
+
+    private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of( 2000, 1, 1, 0, 0 );
+
+    private static final int NULL_LENGTH = -1;
+
+    private final DataOutputStream out;
+
+    BinaryCopyWriter( OutputStream out )
+        throws IOException
+    {
+        this.out = new DataOutputStream( out );
+
+        this.out.write( SIGNATURE );
+        this.out.writeInt( 0 ); // Flags
+        this.out.writeInt( 0 ); // Header extension length
+    }
+
+    void startRow( int columns )
+        throws IOException
+    {
+        out.writeShort( columns );
+    }
+
+    void writeLong( long value )
+        throws IOException
+    {
+        out.writeInt( Long.BYTES );
+        out.writeLong( value );
+    }
+
+    void writeText( String value )
+        throws IOException
+    {
+        if ( value == null )
+        {
+            out.writeInt( NULL_LENGTH );
+            return;
+        }
+
+        byte[] bytes = value.getBytes( StandardCharsets.UTF_8 );
+
+        out.writeInt( bytes.length );
+        out.write( bytes );
+    }
+
+    void writeTimestamp( Date value )
+        throws IOException
+    {
+        if ( value == null )
+        {
+            out.writeInt( NULL_LENGTH );
+            return;
+        }
+
+        LocalDateTime dateTime = LocalDateTime.ofInstant( value.toInstant(), ZoneId.systemDefault() );
+
+        out.writeInt( Long.BYTES );
+        out.writeLong( ChronoUnit.MICROS.between( POSTGRES_EPOCH, dateTime ) );
+    }
+
+    void writeBoolean( boolean value )
+        throws IOException
+    {
+        out.writeInt( 1 );
+        out.writeByte( value ? 1 : 0 );
+    }
+
+    @Override
+    public void close()
+        throws IOException
+    {
+        out.writeShort( -1 ); // Trailer
+        out.close();
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.jdbc.batchhandler;
+
+import java.io.IOException;
+
+import org.hisp.dhis.datavalue.DataValueAudit;
+import org.hisp.quick.JdbcConfiguration;
+
+/**
+ * {@code COPY} based batch handler for {@link DataValueAudit}. Audits are
+ * only ever inserted, with identifiers from the audit sequence.
+ *
+ * @see DataValueAuditBatchHandler
+ */
+public class CopyDataValueAuditBatchHandler
+    extends AbstractCopyBatchHandler<DataValueAudit>
+{
+    private static final String COLUMNS = "dataelementid, periodid, organisationunitid, categoryoptioncomboid, " +
+        "attributeoptioncomboid, value, modifiedby, created, audittype";
+
+    // -------------------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------------------
+
+    public CopyDataValueAuditBatchHandler( JdbcConfiguration config )
+    {
+        super( config, DEFAULT_BATCH_SIZE );
+    }
+
+    // -------------------------------------------------------------------------
+    // AbstractCopyBatchHandler implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    protected String getStagingTableName()
+    {
+        return "datavalueaudit_copy";
+    }
+
+    @Override
+    protected String getStagingTableColumns()
+    {
+        return "dataelementid bigint, periodid bigint, organisationunitid bigint, categoryoptioncomboid bigint, " +
+            "attributeoptioncomboid bigint, value text, modifiedby text, created timestamp, audittype text";
+    }
+
+    @Override
+    protected String getMergeSql()
+    {
+        return "insert into datavalueaudit (datavalueauditid, " + COLUMNS + ") " +
+            "select nextval('datavalueaudit_sequence'), " + COLUMNS + " from datavalueaudit_copy";
+    }
+
+    @Override
+    protected void writeRow( BinaryCopyWriter writer, DataValueAudit audit )
+        throws IOException
+    {
+        writer.startRow( 9 );
+        writer.writeLong( audit.getDataElement().getId() );
+        writer.writeLong( audit.getPeriod().getId() );
+        writer.writeLong( audit.getOrganisationUnit().getId() );
+        writer.writeLong( audit.getCategoryOptionCombo().getId() );
+        writer.writeLong( audit.getAttributeOptionCombo().getId() );
+        writer.writeText( audit.getValue() );
+        writer.writeText( audit.getModifiedBy() );
+        writer.writeTimestamp( audit.getCreated() );
+        writer.writeText( audit.getAuditType().toString() );
+    }
+
+    // -------------------------------------------------------------------------
+    // BatchHandler implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public void updateObject( DataValueAudit audit )
+    {
+        throw new UnsupportedOperationException( "Audits can not be updated" );
+    }
+}
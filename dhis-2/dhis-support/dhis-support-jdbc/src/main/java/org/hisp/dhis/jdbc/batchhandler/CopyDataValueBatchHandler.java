@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.jdbc.batchhandler;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hisp.dhis.datavalue.DataValue;
+import org.hisp.quick.JdbcConfiguration;
+
+/**
+ * {@code COPY} based batch handler for {@link DataValue}. Data values are
+ * inserted, or update the existing data value with the same data element,
+ * period, organisation unit, category option combo and attribute option
+ * combo.
+ *
+ * @see DataValueBatchHandler
+ */
+public class CopyDataValueBatchHandler
+    extends AbstractCopyBatchHandler<DataValue>
+{
+    private static final String COLUMNS = "dataelementid, periodid, sourceid, categoryoptioncomboid, " +
+        "attributeoptioncomboid, value, storedby, created, lastupdated, comment, followup, deleted";
+
+    private static final String KEY_CLAUSE = "dataelementid = ? and periodid = ? and sourceid = ? " +
+        "and categoryoptioncomboid = ? and attributeoptioncomboid = ?";
+
+    private PreparedStatement findStatement;
+
+    /**
+     * Last data value of each key added to the current batch, which is not
+     * yet written to the data value table.
+     */
+    private final Map<List<Long>, DataValue> pendingValues = new HashMap<>();
+
+    // -------------------------------------------------------------------------
+    // Constructor
+    // -------------------------------------------------------------------------
+
+    public CopyDataValueBatchHandler( JdbcConfiguration config )
+    {
+        super( config, DEFAULT_BATCH_SIZE );
+    }
+
+    // -------------------------------------------------------------------------
+    // AbstractCopyBatchHandler implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    protected String getStagingTableName()
+    {
+        return "datavalue_copy";
+    }
+
+    @Override
+    protected String getStagingTableColumns()
+    {
+        return "dataelementid bigint, periodid bigint, sourceid bigint, categoryoptioncomboid bigint, " +
+            "attributeoptioncomboid bigint, value text, storedby text, created timestamp, lastupdated timestamp, " +
+            "comment text, followup boolean, deleted boolean";
+    }
+
+    @Override
+    protected String getMergeSql()
+    {
+        return "insert into datavalue (" + COLUMNS + ") " +
+            "select " + COLUMNS + " from datavalue_copy " +
+            "on conflict (dataelementid, periodid, sourceid, categoryoptioncomboid, attributeoptioncomboid) " +
+            "do update set value = excluded.value, storedby = excluded.storedby, created = excluded.created, " +
+            "lastupdated = excluded.lastupdated, comment = excluded.comment, followup = excluded.followup, " +
+            "deleted = excluded.deleted";
+    }
+
+    @Override
+    protected void writeRow( BinaryCopyWriter writer, DataValue value )
+        throws IOException
+    {
+        writer.startRow( 12 );
+        writer.writeLong( value.getDataElement().getId() );
+        writer.writeLong( value.getPeriod().getId() );
+        writer.writeLong( value.getSource().getId() );
+        writer.writeLong( value.getCategoryOptionCombo().getId() );
+        writer.writeLong( value.getAttributeOptionCombo().getId() );
+        writer.writeText( value.getValue() );
+        writer.writeText( value.getStoredBy() );
+        writer.writeTimestamp( value.getCreated() );
+        writer.writeTimestamp( value.getLastUpdated() );
+        writer.writeText( value.getComment() );
+        writer.writeBoolean( value.isFollowup() );
+        writer.writeBoolean( value.isDeleted() );
+    }
+
+    /**
+     * Keeps the last data value of each key, in the order the keys were first
+     * added.
+     */
+    @Override
+    protected Collection<DataValue> getBatchObjects( List<DataValue> batch )
+    {
+        Map<List<Long>, DataValue> values = new LinkedHashMap<>();
+
+        for ( DataValue value : batch )
+        {
+            values.put( getKey( value ), value );
+        }
+
+        return values.values();
+    }
+
+    // -------------------------------------------------------------------------
+    // BatchHandler implementation
+    // -------------------------------------------------------------------------
+
+    @Override
+    public boolean addObject( DataValue value )
+    {
+        pendingValues.put( getKey( value ), value );
+
+        return super.addObject( value );
+    }
+
+    /**
+     * Finds the data value with the same key. A data value added to the
+     * current batch takes precedence over the persisted data value, so that a
+     * key imported twice is found as existing the second time.
+     */
+    @Override
+    public DataValue findObject( DataValue value )
+    {
+        DataValue pending = pendingValues.get( getKey( value ) );
+
+        if ( pending != null )
+        {
+            return copyOf( pending );
+        }
+
+        try
+        {
+            if ( findStatement == null )
+            {
+                findStatement = getConnection().prepareStatement(
+                    "select value, storedby, created, comment, followup, deleted from datavalue where " + KEY_CLAUSE );
+            }
+
+            setKey( findStatement, value );
+
+            try ( ResultSet resultSet = findStatement.executeQuery() )
+            {
+                return resultSet.next() ? mapRow( resultSet ) : null;
+            }
+        }
+        catch ( SQLException ex )
+        {
+            throw new RuntimeException( "Failed to find data value", ex );
+        }
+    }
+
+    @Override
+    public void deleteObject( DataValue value )
+    {
+        writeBatch();
+
+        try ( PreparedStatement statement = getConnection().prepareStatement(
+            "delete from datavalue where " + KEY_CLAUSE ) )
+        {
+            setKey( statement, value );
+            statement.executeUpdate();
+        }
+        catch ( SQLException ex )
+        {
+            throw new RuntimeException( "Failed to delete data value", ex );
+        }
+    }
+
+    @Override
+    public void flush()
+    {
+        try
+        {
+            if ( findStatement != null )
+            {
+                findStatement.close();
+                findStatement = null;
+            }
+        }
+        catch ( SQLException ex )
+        {
+            throw new RuntimeException( "Failed to close statement", ex );
+        }
+        finally
+        {
+            super.flush();
+        }
+    }
+
+    @Override
+    protected void writeBatch()
+    {
+        try
+        {
+            super.writeBatch();
+        }
+        finally
+        {
+            pendingValues.clear();
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    // Supportive methods
+    // -------------------------------------------------------------------------
+
+    private static List<Long> getKey( DataValue value )
+    {
+        return List.of(
+            value.getDataElement().getId(),
+            value.getPeriod().getId(),
+            value.getSource().getId(),
+            value.getCategoryOptionCombo().getId(),
+            value.getAttributeOptionCombo().getId() );
+    }
+
+    private static void setKey( PreparedStatement statement, DataValue value )
+        throws SQLException
+    {
+        statement.setLong( 1, value.getDataElement().getId() );
+        statement.setLong( 2, value.getPeriod().getId() );
+        statement.setLong( 3, value.getSource().getId() );
+        statement.setLong( 4, value.getCategoryOptionCombo().getId() );
+        statement.setLong( 5, value.getAttributeOptionCombo().getId() );
+    }
+
+    private static DataValue mapRow( ResultSet resultSet )
+        throws SQLException
+    {
+        DataValue dv = new DataValue();
+
+        dv.setValue( resultSet.getString( "value" ) );
+        dv.setStoredBy( resultSet.getString( "storedby" ) );
+        dv.setCreated( resultSet.getTimestamp( "created" ) );
+        dv.setComment( resultSet.getString( "comment" ) );
+        dv.setFollowup( resultSet.getBoolean( "followup" ) );
+        dv.setDeleted( resultSet.getBoolean( "deleted" ) );
+
+        return dv;
+    }
+
+    private static DataValue copyOf( DataValue value )
+    {
+        DataValue dv = new DataValue();
+
+        dv.setValue( value.getValue() );
+        dv.setStoredBy( value.getStoredBy() );
+        dv.setCreated( value.getCreated() );
+        dv.setComment( value.getComment() );
+        dv.setFollowup( value.isFollowup() );
+        dv.setDeleted( value.isDeleted() );
+
+        return dv;
+    }
+}
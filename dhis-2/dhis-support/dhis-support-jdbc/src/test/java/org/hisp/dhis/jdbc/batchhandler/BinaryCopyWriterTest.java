@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.jdbc.batchhandler;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link BinaryCopyWriter}.
+ */
+class BinaryCopyWriterTest
+{
+    @Test
+    void testWriteRow()
+        throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Date created = Date.from( LocalDateTime.of( 2000, 1, 1, 0, 0, 1 ).atZone( ZoneId.systemDefault() )
+            .toInstant() );
+
+        try ( BinaryCopyWriter writer = new BinaryCopyWriter( bytes ) )
+        {
+            writer.startRow( 5 );
+            writer.writeLong( 42L );
+            writer.writeText( "\u00f8" );
+            writer.writeText( null );
+            writer.writeTimestamp( created );
+            writer.writeBoolean( true );
+        }
+
+        DataInputStream in = new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) );
+
+        byte[] signature = new byte[11];
+        in.readFully( signature );
+        assertArrayEquals( "PGCOPY\n\377\r\n\0".getBytes( StandardCharsets.ISO_8859_1 ), signature );
+        assertEquals( 0, in.readInt() );
+        assertEquals( 0, in.readInt() );
+
+        assertEquals( 5, in.readShort() );
+        assertEquals( 8, in.readInt() );
+        assertEquals( 42L, in.readLong() );
+        assertEquals( 2, in.readInt() );
+        assertEquals( "\u00f8", new String( in.readNBytes( 2 ), StandardCharsets.UTF_8 ) );
+        assertEquals( -1, in.readInt() );
+        assertEquals( 8, in.readInt() );
+        assertEquals( 1_000_000L, in.readLong() );
+        assertEquals( 1, in.readInt() );
+        assertEquals( 1, in.readByte() );
+
+        assertEquals( -1, in.readShort() );
+        assertEquals( 0, in.available() );
+    }
+}
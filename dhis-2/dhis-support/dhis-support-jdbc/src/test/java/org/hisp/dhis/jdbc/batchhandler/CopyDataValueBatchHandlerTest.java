@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.jdbc.batchhandler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.common.BaseIdentifiableObject;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.datavalue.DataValue;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.Period;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link CopyDataValueBatchHandler} for data values added to the
+ * current batch, which are resolved without a database.
+ */
+class CopyDataValueBatchHandlerTest
+{
+    private final DataElement dataElement = withId( new DataElement( "A" ), 1 );
+
+    private final Period period = withId( new Period(), 2 );
+
+    private final OrganisationUnit orgUnit = withId( new OrganisationUnit( "A" ), 3 );
+
+    private final CategoryOptionCombo coc = withId( new CategoryOptionCombo(), 4 );
+
+    private final CopyDataValueBatchHandler batchHandler = new CopyDataValueBatchHandler( null );
+
+    @Test
+    void testFindObjectAddedToBatch()
+    {
+        batchHandler.addObject( newDataValue( "10", false ) );
+
+        DataValue existing = batchHandler.findObject( newDataValue( "20", false ) );
+
+        assertEquals( "10", existing.getValue() );
+        assertFalse( existing.isDeleted() );
+    }
+
+    @Test
+    void testFindObjectWithDuplicateKeysInBatch()
+    {
+        DataValue first = newDataValue( "10", false );
+        DataValue second = newDataValue( "20", false );
+        DataValue third = newDataValue( null, true );
+
+        batchHandler.addObject( first );
+        assertEquals( "10", batchHandler.findObject( second ).getValue() );
+
+        batchHandler.updateObject( second );
+        DataValue existing = batchHandler.findObject( third );
+        assertEquals( "20", existing.getValue() );
+        assertNotSame( second, existing );
+
+        batchHandler.updateObject( third );
+        assertTrue( batchHandler.findObject( newDataValue( "30", false ) ).isDeleted() );
+
+        List<DataValue> batch = new ArrayList<>( batchHandler.getBatchObjects( List.of( first, second, third ) ) );
+        assertEquals( 1, batch.size() );
+        assertSame( third, batch.get( 0 ) );
+    }
+
+    private DataValue newDataValue( String value, boolean deleted )
+    {
+        DataValue dataValue = new DataValue( dataElement, period, orgUnit, coc, coc, value );
+        dataValue.setDeleted( deleted );
+        return dataValue;
+    }
+
+    private static <T extends BaseIdentifiableObject> T withId( T object, long id )
+    {
+        object.setId( id );
+        return object;
+    }
+}
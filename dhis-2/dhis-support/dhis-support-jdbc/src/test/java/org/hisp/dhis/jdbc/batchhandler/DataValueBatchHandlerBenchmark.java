@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.jdbc.batchhandler;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.hisp.dhis.category.CategoryOptionCombo;
+import org.hisp.dhis.dataelement.DataElement;
+import org.hisp.dhis.datavalue.DataValue;
+import org.hisp.dhis.organisationunit.OrganisationUnit;
+import org.hisp.dhis.period.Period;
+import org.hisp.quick.BatchHandler;
+import org.hisp.quick.StatementDialect;
+import org.hisp.quick.configuration.JdbcConfigurationFactoryBean;
+import org.hisp.quick.factory.DefaultBatchHandlerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.postgresql.ds.PGSimpleDataSource;
+
+/**
+ * Compares writing data values with the SQL based
+ * {@link DataValueBatchHandler} and the {@code COPY} based
+ * {@link CopyDataValueBatchHandler}, for inserts into an empty key range and
+ * for updates of existing data values.
+ * <p>
+ * Requires a PostgreSQL database with metadata, such as the Sierra Leone
+ * demo database, given by the system properties {@code benchmark.db.url},
+ * {@code benchmark.db.username} and {@code benchmark.db.password}. The data
+ * values of the selected data elements and periods are deleted, only run
+ * against a disposable database.
+ * <p>
+ * Not a unit test, run with the main method or through the JMH runner.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.SingleShotTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 2 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class DataValueBatchHandlerBenchmark
+{
+    private static final int DATA_ELEMENTS = 10;
+
+    private static final int PERIODS = 12;
+
+    private static final int ORG_UNITS = 500;
+
+    @Param( { "batch", "copy" } )
+    private String handler;
+
+    @Param( { "insert", "update" } )
+    private String operation;
+
+    private PGSimpleDataSource dataSource;
+
+    private DefaultBatchHandlerFactory batchHandlerFactory;
+
+    private List<DataValue> dataValues;
+
+    private String deleteSql;
+
+    @Setup
+    public void setUp()
+        throws Exception
+    {
+        dataSource = new PGSimpleDataSource();
+        dataSource.setUrl( System.getProperty( "benchmark.db.url", "jdbc:postgresql://localhost/dhis2" ) );
+        dataSource.setUser( System.getProperty( "benchmark.db.username", "dhis" ) );
+        dataSource.setPassword( System.getProperty( "benchmark.db.password", "dhis" ) );
+
+        JdbcConfigurationFactoryBean jdbcConfiguration = new JdbcConfigurationFactoryBean();
+        jdbcConfiguration.setDialect( StatementDialect.POSTGRESQL );
+        jdbcConfiguration.setDataSource( dataSource );
+        jdbcConfiguration.init();
+
+        batchHandlerFactory = new DefaultBatchHandlerFactory();
+        batchHandlerFactory.setJdbcConfiguration( jdbcConfiguration.getObject() );
+
+        List<Long> dataElements = getIds( "select dataelementid from dataelement " +
+            "where valuetype = 'NUMBER' and domaintype = 'AGGREGATE' order by dataelementid", DATA_ELEMENTS );
+        List<Long> periods = getIds( "select periodid from period order by periodid", PERIODS );
+        List<Long> orgUnits = getIds( "select organisationunitid from organisationunit order by organisationunitid",
+            ORG_UNITS );
+        long defaultCombo = getIds( "select categoryoptioncomboid from categoryoptioncombo " +
+            "where name = 'default'", 1 ).get( 0 );
+
+        CategoryOptionCombo combo = new CategoryOptionCombo();
+        combo.setId( defaultCombo );
+
+        dataValues = new ArrayList<>();
+
+        for ( long dataElementId : dataElements )
+        {
+            DataElement dataElement = new DataElement();
+            dataElement.setId( dataElementId );
+
+            for ( long periodId : periods )
+            {
+                Period period = new Period();
+                period.setId( periodId );
+
+                for ( long orgUnitId : orgUnits )
+                {
+                    OrganisationUnit orgUnit = new OrganisationUnit();
+                    orgUnit.setId( orgUnitId );
+
+                    dataValues.add( new DataValue( dataElement, period, orgUnit, combo, combo,
+                        String.valueOf( dataValues.size() ), "benchmark", new Date(), null ) );
+                }
+            }
+        }
+
+        deleteSql = "delete from datavalue where dataelementid in (" + toString( dataElements ) +
+            ") and periodid in (" + toString( periods ) + ")";
+    }
+
+    @Setup( Level.Invocation )
+    public void setUpInvocation()
+        throws SQLException
+    {
+        execute( deleteSql );
+
+        if ( "update".equals( operation ) )
+        {
+            write( createBatchHandler() );
+        }
+    }
+
+    @Benchmark
+    public void writeDataValues()
+    {
+        write( createBatchHandler() );
+    }
+
+    private BatchHandler<DataValue> createBatchHandler()
+    {
+        return "copy".equals( handler )
+            ? batchHandlerFactory.createBatchHandler( CopyDataValueBatchHandler.class ).init()
+            : batchHandlerFactory.createBatchHandler( DataValueBatchHandler.class ).init();
+    }
+
+    private void write( BatchHandler<DataValue> batchHandler )
+    {
+        for ( DataValue dataValue : dataValues )
+        {
+            if ( "update".equals( operation ) )
+            {
+                batchHandler.updateObject( dataValue );
+            }
+            else
+            {
+                batchHandler.addObject( dataValue );
+            }
+        }
+
+        batchHandler.flush();
+    }
+
+    private List<Long> getIds( String sql, int limit )
+        throws SQLException
+    {
+        List<Long> ids = new ArrayList<>();
+
+        try ( Connection connection = dataSource.getConnection();
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery( sql + " limit " + limit ) )
+        {
+            while ( resultSet.next() )
+            {
+                ids.add( resultSet.getLong( 1 ) );
+            }
+        }
+
+        return ids;
+    }
+
+    private void execute( String sql )
+        throws SQLException
+    {
+        try ( Connection connection = dataSource.getConnection();
+            Statement statement = connection.createStatement() )
+        {
+            statement.execute( sql );
+        }
+    }
+
+    private static String toString( List<Long> ids )
+    {
+        return ids.stream().map( String::valueOf ).collect( Collectors.joining( "," ) );
+    }
+
+    public static void main( String[] args )
+        throws RunnerException
+    {
+        new Runner( new OptionsBuilder()
+            .include( DataValueBatchHandlerBenchmark.class.getSimpleName() )
+            .build() ).run();
+    }
+}
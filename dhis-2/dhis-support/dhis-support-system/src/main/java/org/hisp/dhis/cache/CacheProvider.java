@@ -52,16 +52,8 @@ public interface CacheProvider
 
     <V> Cache<V> createAllConstantsCache();
 
-    <V> Cache<V> createInUserOrgUnitHierarchyCache();
-
-    <V> Cache<V> createInUserViewOrgUnitHierarchyCache();
-
-    <V> Cache<V> createInUserSearchOrgUnitHierarchyCache();
-
     <V> Cache<V> createUserCaptureOrgUnitThresholdCache();
 
-    <V> Cache<V> createPeriodIdCache();
-
     <V> Cache<V> createUserFailedLoginAttemptCache( V defaultValue );
 
     <V> Cache<V> createUserAccountRecoverAttemptCache( V defaultValue );
@@ -129,4 +121,8 @@ public interface CacheProvider
     <V> Cache<V> createCompletedJobsInfoCache();
 
     <V> Cache<V> createJobCancelRequestedCache();
+
+    <V> Cache<V> createExpressionParseTreeCache();
+
+    <V> Cache<V> createRuleEngineContextCache();
 }
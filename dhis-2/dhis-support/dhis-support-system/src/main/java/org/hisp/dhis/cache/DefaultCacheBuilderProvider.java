@@ -50,13 +50,16 @@ public class DefaultCacheBuilderProvider implements CacheBuilderProvider
 
     private CappedLocalCache cappedLocalCache;
 
+    private CacheInvalidationChannel invalidationChannel;
+
     @Override
     public <V> CacheBuilder<V> newCacheBuilder()
     {
         Function<CacheBuilder<V>, Cache<V>> capCacheFactory = cappedLocalCache != null
             ? cappedLocalCache::createRegion
             : builder -> new NoOpCache<>();
-        return new ExtendedCacheBuilder<>( redisTemplate, configurationProvider, capCacheFactory );
+        return new ExtendedCacheBuilder<>( redisTemplate, configurationProvider, capCacheFactory,
+            invalidationChannel );
     }
 
     @Autowired
@@ -72,6 +75,12 @@ public class DefaultCacheBuilderProvider implements CacheBuilderProvider
         this.redisTemplate = redisTemplate;
     }
 
+    @Autowired( required = false )
+    public void setInvalidationChannel( CacheInvalidationChannel invalidationChannel )
+    {
+        this.invalidationChannel = invalidationChannel;
+    }
+
     @Autowired
     public void setCappedLocalCache( CappedLocalCache cappedLocalCache )
     {
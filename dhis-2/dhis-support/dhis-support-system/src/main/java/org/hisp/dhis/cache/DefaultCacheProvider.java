@@ -90,11 +90,7 @@ public class DefaultCacheProvider
         defaultObjectCache,
         isDataApproved,
         allConstantsCache,
-        inUserOuHierarchy,
-        isUserViewOuHierHierarchy,
-        inUserSearchOuHierarchy,
         userCaptureOuCountThreshold,
-        periodIdCache,
         userAccountRecoverAttempt,
         userFailedLoginAttempt,
         programOwner,
@@ -127,7 +123,9 @@ public class DefaultCacheProvider
         securityCache,
         runningJobsInfo,
         completedJobsInfo,
-        jobCancelRequested
+        jobCancelRequested,
+        expressionParseTreeCache,
+        ruleEngineContextCache
     }
 
     private final Map<String, Cache<?>> allCaches = new ConcurrentHashMap<>();
@@ -205,39 +203,6 @@ public class DefaultCacheProvider
             .withMaximumSize( orZeroInTestRun( getActualSize( SIZE_1 ) ) ) );
     }
 
-    @Override
-    public <V> Cache<V> createInUserOrgUnitHierarchyCache()
-    {
-        return registerCache( this.<V> newBuilder()
-            .forRegion( Region.inUserOuHierarchy.name() )
-            .expireAfterWrite( 1, TimeUnit.HOURS )
-            .withInitialCapacity( (int) getActualSize( SIZE_1K ) )
-            .forceInMemory()
-            .withMaximumSize( orZeroInTestRun( getActualSize( SIZE_10K ) ) ) );
-    }
-
-    @Override
-    public <V> Cache<V> createInUserViewOrgUnitHierarchyCache()
-    {
-        return registerCache( this.<V> newBuilder()
-            .forRegion( Region.isUserViewOuHierHierarchy.name() )
-            .expireAfterWrite( 3, TimeUnit.HOURS )
-            .withInitialCapacity( (int) getActualSize( SIZE_1K ) )
-            .forceInMemory()
-            .withMaximumSize( orZeroInTestRun( getActualSize( SIZE_10K ) ) ) );
-    }
-
-    @Override
-    public <V> Cache<V> createInUserSearchOrgUnitHierarchyCache()
-    {
-        return registerCache( this.<V> newBuilder()
-            .forRegion( Region.inUserSearchOuHierarchy.name() )
-            .expireAfterWrite( 1, TimeUnit.HOURS )
-            .withInitialCapacity( (int) getActualSize( SIZE_1K ) )
-            .forceInMemory()
-            .withMaximumSize( orZeroInTestRun( getActualSize( SIZE_10K ) ) ) );
-    }
-
     @Override
     public <V> Cache<V> createUserCaptureOrgUnitThresholdCache()
     {
@@ -249,17 +214,6 @@ public class DefaultCacheProvider
             .withMaximumSize( orZeroInTestRun( getActualSize( SIZE_10K ) ) ) );
     }
 
-    @Override
-    public <V> Cache<V> createPeriodIdCache()
-    {
-        return registerCache( this.<V> newBuilder()
-            .forRegion( Region.periodIdCache.name() )
-            .expireAfterWrite( 24, TimeUnit.HOURS )
-            .withInitialCapacity( (int) getActualSize( 200 ) )
-            .forceInMemory()
-            .withMaximumSize( orZeroInTestRun( getActualSize( SIZE_10K ) ) ) );
-    }
-
     @Override
     public <V> Cache<V> createUserAccountRecoverAttemptCache( V defaultValue )
     {
@@ -598,4 +552,26 @@ public class DefaultCacheProvider
             .forRegion( Region.jobCancelRequested.name() )
             .expireAfterWrite( 60, SECONDS ) );
     }
+
+    @Override
+    public <V> Cache<V> createExpressionParseTreeCache()
+    {
+        return registerCache( this.<V> newBuilder()
+            .forRegion( Region.expressionParseTreeCache.name() )
+            .expireAfterWrite( 12, TimeUnit.HOURS )
+            .withInitialCapacity( (int) getActualSize( SIZE_1K ) )
+            .forceInMemory()
+            .withMaximumSize( orZeroInTestRun( getActualSize( SIZE_10K ) ) ) );
+    }
+
+    @Override
+    public <V> Cache<V> createRuleEngineContextCache()
+    {
+        return registerCache( this.<V> newBuilder()
+            .forRegion( Region.ruleEngineContextCache.name() )
+            .expireAfterWrite( 3, TimeUnit.HOURS )
+            .withInitialCapacity( (int) getActualSize( 20 ) )
+            .forceInMemory()
+            .withMaximumSize( orZeroInTestRun( getActualSize( SIZE_1K ) ) ) );
+    }
 }
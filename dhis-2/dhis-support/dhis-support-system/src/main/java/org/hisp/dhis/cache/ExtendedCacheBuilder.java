@@ -28,6 +28,8 @@
 package org.hisp.dhis.cache;
 
 import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 import java.util.function.Function;
 
@@ -56,13 +58,17 @@ public class ExtendedCacheBuilder<V> extends SimpleCacheBuilder<V>
 
     private final Function<CacheBuilder<V>, Cache<V>> cappedLocalCacheFactory;
 
+    private final CacheInvalidationChannel invalidationChannel;
+
     public ExtendedCacheBuilder( RedisTemplate<String, ?> redisTemplate,
-        DhisConfigurationProvider configuration, Function<CacheBuilder<V>, Cache<V>> cappedLocalCacheFactory )
+        DhisConfigurationProvider configuration, Function<CacheBuilder<V>, Cache<V>> cappedLocalCacheFactory,
+        CacheInvalidationChannel invalidationChannel )
     {
         this.configuration = configuration;
         this.redisTemplate = redisTemplate;
         this.forceInMemory = false;
         this.cappedLocalCacheFactory = cappedLocalCacheFactory;
+        this.invalidationChannel = invalidationChannel;
     }
 
     /**
@@ -86,15 +92,17 @@ public class ExtendedCacheBuilder<V> extends SimpleCacheBuilder<V>
      * can be used during system testings where cache has to be disabled. If
      * {@code maximumSize} is greater than 0 than based on {@code redis.enabled}
      * property in dhis.conf, either Redis backed implementation
-     * {@link RedisCache} will be returned or a Local Caffeine backed cache
+     * {@link RedisCache}, fronted by a local tier in a {@link HybridCache} if
+     * {@code redis.cache.local.enabled} is on, will be returned or a Local
+     * Caffeine backed cache
      * implementation {@link LocalCache} will be returned. For Local cache,
      * every instance created using this method will be logically separate and
      * will not share any state. However, when using Redis Cache, every instance
      * created using this method will use the same redis store.
      *
      * @return A cache instance based on the system configuration and input
-     *         parameters. Returns one of {@link RedisCache}, {@link LocalCache}
-     *         or {@link NoOpCache}
+     *         parameters. Returns one of {@link RedisCache},
+     *         {@link HybridCache}, {@link LocalCache} or {@link NoOpCache}
      */
     @Override
     public Cache<V> build()
@@ -116,6 +124,13 @@ public class ExtendedCacheBuilder<V> extends SimpleCacheBuilder<V>
         }
         if ( configuration.isEnabled( ConfigurationKey.REDIS_ENABLED ) )
         {
+            if ( invalidationChannel != null
+                && configuration.isEnabled( ConfigurationKey.REDIS_CACHE_LOCAL_ENABLED ) )
+            {
+                log.info( String.format( "Hybrid Redis Cache instance created for region:'%s'", getRegion() ) );
+                return new HybridCache<>( this, new LocalCache<>( getLocalTierBuilder() ), new RedisCache<>( this ),
+                    invalidationChannel );
+            }
             log.info( String.format( "Redis Cache instance created for region:'%s'", getRegion() ) );
             return new RedisCache<>( this );
         }
@@ -128,6 +143,22 @@ public class ExtendedCacheBuilder<V> extends SimpleCacheBuilder<V>
         return new LocalCache<>( this );
     }
 
+    /**
+     * Returns a builder for the local tier of a {@link HybridCache}, bounded in
+     * size and expiry by the local tier configuration.
+     */
+    private CacheBuilder<V> getLocalTierBuilder()
+    {
+        long localSize = parseLong( configuration.getProperty( ConfigurationKey.REDIS_CACHE_LOCAL_SIZE ) );
+        long localExpiry = parseLong( configuration.getProperty( ConfigurationKey.REDIS_CACHE_LOCAL_EXPIRY ) );
+
+        return new SimpleCacheBuilder<V>()
+            .forRegion( getRegion() )
+            .withMaximumSize( getMaximumSize() > 0 ? Math.min( getMaximumSize(), localSize ) : localSize )
+            .expireAfterWrite( isExpiryEnabled() ? Math.min( getExpiryInSeconds(), localExpiry ) : localExpiry,
+                SECONDS );
+    }
+
     public RedisTemplate<String, ?> getRedisTemplate()
     {
         return redisTemplate;
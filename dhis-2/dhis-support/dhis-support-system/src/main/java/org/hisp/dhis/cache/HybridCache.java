@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cache;
+
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A two tier implementation of {@link Cache}. Hot entries are kept in a size
+ * bounded local tier in front of a shared tier, usually a {@link RedisCache}.
+ * Reads served by the local tier need no network round trip.
+ * <p>
+ * Writes go to both tiers and are broadcast on a
+ * {@link CacheInvalidationChannel}, so that other instances drop their local
+ * copies. As broadcasts are not guaranteed to arrive, the local tier should
+ * expire entries after a short time to bound staleness.
+ */
+@Slf4j
+public class HybridCache<V> implements Cache<V>
+{
+    private final String region;
+
+    private final Cache<V> localCache;
+
+    private final Cache<V> sharedCache;
+
+    private final CacheInvalidationChannel invalidationChannel;
+
+    private final V defaultValue;
+
+    /**
+     * Constructor for instantiating HybridCache.
+     *
+     * @param cacheBuilder the cache builder instance
+     * @param localCache the local tier
+     * @param sharedCache the shared tier
+     * @param invalidationChannel the channel to broadcast invalidations on
+     */
+    public HybridCache( CacheBuilder<V> cacheBuilder, Cache<V> localCache, Cache<V> sharedCache,
+        CacheInvalidationChannel invalidationChannel )
+    {
+        this.region = cacheBuilder.getRegion();
+        this.defaultValue = cacheBuilder.getDefaultValue();
+        this.localCache = localCache;
+        this.sharedCache = sharedCache;
+        this.invalidationChannel = invalidationChannel;
+
+        invalidationChannel.subscribe( region, this::invalidateLocal );
+    }
+
+    @Override
+    public Optional<V> getIfPresent( String key )
+    {
+        Optional<V> value = localCache.getIfPresent( key );
+
+        if ( value.isPresent() )
+        {
+            return value;
+        }
+
+        value = sharedCache.getIfPresent( key );
+
+        value.ifPresent( v -> localCache.put( key, v ) );
+
+        return value;
+    }
+
+    @Override
+    public Optional<V> get( String key )
+    {
+        return Optional.ofNullable( getIfPresent( key ).orElse( defaultValue ) );
+    }
+
+    @Override
+    public V get( String key, Function<String, V> mappingFunction )
+    {
+        if ( null == mappingFunction )
+        {
+            throw new IllegalArgumentException( "MappingFunction cannot be null" );
+        }
+
+        Optional<V> cached = getIfPresent( key );
+
+        if ( cached.isPresent() )
+        {
+            return cached.get();
+        }
+
+        V value = mappingFunction.apply( key );
+
+        if ( null != value )
+        {
+            load( key, value );
+        }
+
+        return Optional.ofNullable( value ).orElse( defaultValue );
+    }
+
+    @Override
+    public Stream<V> getAll()
+    {
+        return sharedCache.getAll();
+    }
+
+    @Override
+    public Iterable<String> keys()
+    {
+        return sharedCache.keys();
+    }
+
+    @Override
+    public void put( String key, V value )
+    {
+        sharedCache.put( key, value );
+        localCache.put( key, value );
+        invalidationChannel.publish( region, key );
+    }
+
+    @Override
+    public void put( String key, V value, long ttlInSeconds )
+    {
+        sharedCache.put( key, value, ttlInSeconds );
+
+        // The local tier keeps its own bounded expiry, so the entry is loaded
+        // from the shared tier on next read rather than cached with this TTL
+
+        localCache.invalidate( key );
+        invalidationChannel.publish( region, key );
+    }
+
+    @Override
+    public boolean putIfAbsent( String key, V value )
+    {
+        if ( !sharedCache.putIfAbsent( key, value ) )
+        {
+            return false;
+        }
+
+        localCache.put( key, value );
+        invalidationChannel.publish( region, key );
+
+        return true;
+    }
+
+    @Override
+    public void invalidate( String key )
+    {
+        sharedCache.invalidate( key );
+        localCache.invalidate( key );
+        invalidationChannel.publish( region, key );
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        sharedCache.invalidateAll();
+        localCache.invalidateAll();
+        invalidationChannel.publish( region, null );
+    }
+
+    @Override
+    public CacheType getCacheType()
+    {
+        return sharedCache.getCacheType();
+    }
+
+    /**
+     * Populates both tiers with a loaded value. A load is not a change of the
+     * value, so no invalidation is broadcast. The local tier is only populated
+     * if no other instance stored a value in the meantime.
+     *
+     * @param key the key.
+     * @param value the loaded value.
+     */
+    private void load( String key, V value )
+    {
+        if ( sharedCache.putIfAbsent( key, value ) )
+        {
+            localCache.put( key, value );
+        }
+    }
+
+    /**
+     * Drops local copies after an invalidation on another instance.
+     *
+     * @param key the invalidated key, or null for all keys.
+     */
+    private void invalidateLocal( String key )
+    {
+        log.debug( "Remote invalidation of region: '{}', key: '{}'", region, key );
+
+        if ( key == null )
+        {
+            localCache.invalidateAll();
+        }
+        else
+        {
+            localCache.invalidate( key );
+        }
+    }
+}
@@ -27,18 +27,28 @@
  */
 package org.hisp.dhis.cache;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.emptySet;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toSet;
 import static org.springframework.util.Assert.hasText;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+
+import com.google.common.collect.Lists;
 
 /**
  * A redis backed implementation of {@link Cache}. This implementation uses a
@@ -50,6 +60,12 @@ public class RedisCache<V> implements Cache<V>
 {
     private static final String VALUE_CANNOT_BE_NULL = "Value cannot be null";
 
+    /**
+     * Number of keys requested per SCAN iteration, and deleted per DEL
+     * command.
+     */
+    private static final int SCAN_BATCH_SIZE = 1000;
+
     private RedisTemplate<String, V> redisTemplate;
 
     private boolean refreshExpriryOnAccess;
@@ -81,24 +97,13 @@ public class RedisCache<V> implements Cache<V>
     @Override
     public Optional<V> getIfPresent( String key )
     {
-        String redisKey = generateKey( key );
-        if ( expiryEnabled && refreshExpriryOnAccess )
-        {
-            redisTemplate.expire( redisKey, expiryInSeconds, SECONDS );
-        }
-        return Optional.ofNullable( redisTemplate.boundValueOps( redisKey ).get() );
+        return Optional.ofNullable( getValue( generateKey( key ) ) );
     }
 
     @Override
     public Optional<V> get( String key )
     {
-        String redisKey = generateKey( key );
-        if ( expiryEnabled && refreshExpriryOnAccess )
-        {
-            redisTemplate.expire( redisKey, expiryInSeconds, SECONDS );
-        }
-        return Optional
-            .ofNullable( Optional.ofNullable( redisTemplate.boundValueOps( redisKey ).get() ).orElse( defaultValue ) );
+        return Optional.ofNullable( Optional.ofNullable( getValue( generateKey( key ) ) ).orElse( defaultValue ) );
     }
 
     @Override
@@ -111,12 +116,7 @@ public class RedisCache<V> implements Cache<V>
 
         String redisKey = generateKey( key );
 
-        if ( expiryEnabled && refreshExpriryOnAccess )
-        {
-            redisTemplate.expire( redisKey, expiryInSeconds, SECONDS );
-        }
-
-        V value = redisTemplate.boundValueOps( redisKey ).get();
+        V value = getValue( redisKey );
 
         if ( null == value )
         {
@@ -141,8 +141,8 @@ public class RedisCache<V> implements Cache<V>
     @Override
     public Stream<V> getAll()
     {
-        Set<String> keySet = redisTemplate.keys( getAllKeysInRegionPattern() );
-        if ( keySet == null )
+        Set<String> keySet = scanKeys();
+        if ( keySet.isEmpty() )
         {
             return Stream.empty();
         }
@@ -153,8 +153,8 @@ public class RedisCache<V> implements Cache<V>
     @Override
     public Set<String> keys()
     {
-        var keys = redisTemplate.keys( getAllKeysInRegionPattern() );
-        return keys == null
+        var keys = scanKeys();
+        return keys.isEmpty()
             ? emptySet()
             : keys.stream().map( key -> key.substring( key.indexOf( ':' ) + 1 ) ).collect( toSet() );
     }
@@ -214,6 +214,60 @@ public class RedisCache<V> implements Cache<V>
         redisTemplate.delete( generateKey( key ) );
     }
 
+    /**
+     * Gets the value of the given redis key. If expiry is refreshed on access,
+     * the GET and EXPIRE commands are sent in one pipeline, so that a read
+     * takes a single network round trip.
+     */
+    @SuppressWarnings( "unchecked" )
+    private V getValue( String redisKey )
+    {
+        if ( !(expiryEnabled && refreshExpriryOnAccess) )
+        {
+            return redisTemplate.opsForValue().get( redisKey );
+        }
+
+        List<Object> results = redisTemplate.executePipelined( new SessionCallback<Object>()
+        {
+            @Override
+            public <K, T> Object execute( RedisOperations<K, T> operations )
+            {
+                RedisOperations<String, V> ops = (RedisOperations<String, V>) operations;
+                ops.opsForValue().get( redisKey );
+                ops.expire( redisKey, expiryInSeconds, SECONDS );
+                return null;
+            }
+        } );
+
+        return results.isEmpty() ? null : (V) results.get( 0 );
+    }
+
+    /**
+     * Collects the keys of this region with the non-blocking SCAN command
+     * rather than KEYS, which blocks the redis server while it iterates over
+     * all keys.
+     */
+    private Set<String> scanKeys()
+    {
+        ScanOptions options = ScanOptions.scanOptions()
+            .match( getAllKeysInRegionPattern() )
+            .count( SCAN_BATCH_SIZE )
+            .build();
+
+        Set<String> keys = redisTemplate.execute( (RedisCallback<Set<String>>) connection -> {
+            Set<String> scannedKeys = new HashSet<>();
+
+            try ( Cursor<byte[]> cursor = connection.scan( options ) )
+            {
+                cursor.forEachRemaining( key -> scannedKeys.add( new String( key, UTF_8 ) ) );
+            }
+
+            return scannedKeys;
+        } );
+
+        return keys == null ? emptySet() : keys;
+    }
+
     private String generateKey( String key )
     {
         return cacheRegion.concat( ":" ).concat( key );
@@ -227,8 +281,10 @@ public class RedisCache<V> implements Cache<V>
     @Override
     public void invalidateAll()
     {
-        Set<String> keysToDelete = redisTemplate.keys( getAllKeysInRegionPattern() );
-        redisTemplate.delete( keysToDelete );
+        for ( List<String> keysToDelete : Lists.partition( new ArrayList<>( scanKeys() ), SCAN_BATCH_SIZE ) )
+        {
+            redisTemplate.delete( keysToDelete );
+        }
     }
 
     @Override
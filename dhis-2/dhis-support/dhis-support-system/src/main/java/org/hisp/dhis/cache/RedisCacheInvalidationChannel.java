@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * A {@link CacheInvalidationChannel} using redis pub/sub. Invalidations are
+ * published as messages of the form {@code node|region|key} or
+ * {@code node|region} for all keys. Messages published by this instance are
+ * ignored on receipt, as the local tier was already updated.
+ */
+@Slf4j
+public class RedisCacheInvalidationChannel implements CacheInvalidationChannel
+{
+    static final String CHANNEL = "dhis2:cache:invalidation";
+
+    private static final char SEPARATOR = '|';
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    public RedisCacheInvalidationChannel( StringRedisTemplate redisTemplate,
+        RedisMessageListenerContainer listenerContainer )
+    {
+        this.redisTemplate = redisTemplate;
+
+        listenerContainer.addMessageListener( this::onMessage, new ChannelTopic( CHANNEL ) );
+    }
+
+    @Override
+    public void publish( String region, String key )
+    {
+        StringBuilder message = new StringBuilder( nodeId ).append( SEPARATOR ).append( region );
+
+        if ( key != null )
+        {
+            message.append( SEPARATOR ).append( key );
+        }
+
+        redisTemplate.convertAndSend( CHANNEL, message.toString() );
+    }
+
+    @Override
+    public void subscribe( String region, Consumer<String> listener )
+    {
+        listeners.computeIfAbsent( region, r -> new CopyOnWriteArrayList<>() ).add( listener );
+    }
+
+    private void onMessage( Message message, byte[] pattern )
+    {
+        String body = new String( message.getBody(), UTF_8 );
+
+        String[] parts = body.split( "\\|", 3 );
+
+        if ( parts.length < 2 )
+        {
+            log.warn( "Ignoring malformed cache invalidation message: '{}'", body );
+            return;
+        }
+
+        if ( nodeId.equals( parts[0] ) )
+        {
+            return;
+        }
+
+        String key = parts.length == 3 ? parts[2] : null;
+
+        listeners.getOrDefault( parts[1], List.of() ).forEach( listener -> listener.accept( key ) );
+    }
+}
@@ -27,6 +27,8 @@
  */
 package org.hisp.dhis.configuration;
 
+import org.hisp.dhis.cache.CacheInvalidationChannel;
+import org.hisp.dhis.cache.RedisCacheInvalidationChannel;
 import org.hisp.dhis.condition.RedisEnabledCondition;
 import org.hisp.dhis.external.conf.ConfigurationKey;
 import org.hisp.dhis.external.conf.ConfigurationPropertyFactoryBean;
@@ -41,6 +43,7 @@ import org.springframework.data.redis.connection.lettuce.LettuceClientConfigurat
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
@@ -113,4 +116,18 @@ public class RedisConfiguration
         return stringRedisTemplate;
     }
 
-}
\ No newline at end of file
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer()
+    {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory( lettuceConnectionFactory() );
+        return container;
+    }
+
+    @Bean
+    public CacheInvalidationChannel cacheInvalidationChannel()
+    {
+        return new RedisCacheInvalidationChannel( stringRedisTemplate(), redisMessageListenerContainer() );
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link HybridCache} with two instances sharing an in-memory stand-in
+ * for the redis tier and the pub/sub channel.
+ */
+class HybridCacheTest
+{
+    private final Cache<String> sharedCache = new LocalCache<>( builder() );
+
+    private final List<BiConsumer<Object, String>> subscribers = new ArrayList<>();
+
+    private final List<String> published = new ArrayList<>();
+
+    private final Cache<String> localCacheA = new LocalCache<>( builder() );
+
+    private final Cache<String> localCacheB = new LocalCache<>( builder() );
+
+    private final Cache<String> nodeA = new HybridCache<>( builder(), localCacheA, sharedCache,
+        new InMemoryChannel() );
+
+    private final Cache<String> nodeB = new HybridCache<>( builder(), localCacheB, sharedCache,
+        new InMemoryChannel() );
+
+    @Test
+    void testReadPopulatesLocalTier()
+    {
+        sharedCache.put( "key", "value" );
+
+        assertEquals( Optional.of( "value" ), nodeA.getIfPresent( "key" ) );
+        assertEquals( Optional.of( "value" ), localCacheA.getIfPresent( "key" ) );
+        assertFalse( localCacheB.getIfPresent( "key" ).isPresent() );
+    }
+
+    @Test
+    void testPutInvalidatesOtherInstances()
+    {
+        nodeA.put( "key", "value" );
+        assertEquals( Optional.of( "value" ), nodeB.getIfPresent( "key" ) );
+
+        nodeA.put( "key", "newValue" );
+
+        assertFalse( localCacheB.getIfPresent( "key" ).isPresent() );
+        assertEquals( Optional.of( "newValue" ), nodeB.getIfPresent( "key" ) );
+        assertEquals( Optional.of( "newValue" ), localCacheA.getIfPresent( "key" ) );
+    }
+
+    @Test
+    void testInvalidateAllInvalidatesOtherInstances()
+    {
+        nodeA.put( "keyA", "valueA" );
+        nodeA.put( "keyB", "valueB" );
+        nodeB.get( "keyA" );
+        nodeB.get( "keyB" );
+
+        nodeA.invalidateAll();
+
+        assertFalse( localCacheB.getIfPresent( "keyA" ).isPresent() );
+        assertFalse( localCacheB.getIfPresent( "keyB" ).isPresent() );
+        assertFalse( nodeB.getIfPresent( "keyA" ).isPresent() );
+    }
+
+    @Test
+    void testGetWithMappingFunctionStoresInBothTiers()
+    {
+        assertEquals( "computed", nodeA.get( "key", key -> "computed" ) );
+
+        assertEquals( Optional.of( "computed" ), sharedCache.getIfPresent( "key" ) );
+        assertEquals( Optional.of( "computed" ), localCacheA.getIfPresent( "key" ) );
+        assertEquals( "computed", nodeB.get( "key", key -> "other" ) );
+    }
+
+    @Test
+    void testGetWithMappingFunctionDoesNotInvalidateOtherInstances()
+    {
+        nodeA.put( "keyA", "valueA" );
+        nodeB.get( "keyA" );
+
+        assertEquals( "computed", nodeA.get( "keyB", key -> "computed" ) );
+        assertEquals( "computed", nodeB.get( "keyC", key -> "computed" ) );
+
+        assertEquals( List.of( "keyA" ), published );
+        assertEquals( Optional.of( "valueA" ), localCacheB.getIfPresent( "keyA" ) );
+    }
+
+    @Test
+    void testGetWithMappingFunctionKeepsValueStoredMeanwhile()
+    {
+        assertEquals( "computed", nodeA.get( "key", key -> {
+            nodeB.put( key, "stored" );
+            return "computed";
+        } ) );
+
+        assertEquals( Optional.of( "stored" ), sharedCache.getIfPresent( "key" ) );
+        assertFalse( localCacheA.getIfPresent( "key" ).isPresent() );
+        assertEquals( Optional.of( "stored" ), nodeA.getIfPresent( "key" ) );
+    }
+
+    @Test
+    void testPutIfAbsent()
+    {
+        assertTrue( nodeA.putIfAbsent( "key", "value" ) );
+        assertFalse( nodeB.putIfAbsent( "key", "other" ) );
+
+        assertEquals( Optional.of( "value" ), nodeB.get( "key" ) );
+    }
+
+    private static CacheBuilder<String> builder()
+    {
+        return new SimpleCacheBuilder<String>()
+            .forRegion( "test" )
+            .expireAfterWrite( 1, TimeUnit.MINUTES )
+            .withMaximumSize( 100 );
+    }
+
+    /**
+     * Delivers invalidations synchronously to the instances other than the
+     * publishing one, as redis pub/sub would.
+     */
+    private class InMemoryChannel implements CacheInvalidationChannel
+    {
+        @Override
+        public void publish( String region, String key )
+        {
+            published.add( key );
+            subscribers.forEach( subscriber -> subscriber.accept( this, key ) );
+        }
+
+        @Override
+        public void subscribe( String region, Consumer<String> listener )
+        {
+            subscribers.add( ( publisher, key ) -> {
+                if ( publisher != this )
+                {
+                    listener.accept( key );
+                }
+            } );
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+
+/**
+ * Tests the {@link RedisCacheInvalidationChannel} with two instances whose
+ * published messages are delivered to the listeners of both, as redis pub/sub
+ * would.
+ */
+class RedisCacheInvalidationChannelTest
+{
+    private final List<MessageListener> messageListeners = new ArrayList<>();
+
+    private final List<String> invalidatedA = new ArrayList<>();
+
+    private final List<String> invalidatedB = new ArrayList<>();
+
+    private RedisCacheInvalidationChannel channelA;
+
+    private RedisCacheInvalidationChannel channelB;
+
+    @BeforeEach
+    void setUp()
+    {
+        StringRedisTemplate redisTemplate = mock( StringRedisTemplate.class );
+        RedisMessageListenerContainer listenerContainer = mock( RedisMessageListenerContainer.class );
+
+        doAnswer( invocation -> {
+            Topic topic = invocation.getArgument( 1 );
+            assertEquals( new ChannelTopic( RedisCacheInvalidationChannel.CHANNEL ), topic );
+            messageListeners.add( invocation.getArgument( 0 ) );
+            return null;
+        } ).when( listenerContainer ).addMessageListener( any( MessageListener.class ), any( Topic.class ) );
+
+        doAnswer( invocation -> {
+            deliver( invocation.getArgument( 1 ) );
+            return 1L;
+        } ).when( redisTemplate ).convertAndSend( eq( RedisCacheInvalidationChannel.CHANNEL ), anyString() );
+
+        channelA = new RedisCacheInvalidationChannel( redisTemplate, listenerContainer );
+        channelB = new RedisCacheInvalidationChannel( redisTemplate, listenerContainer );
+
+        channelA.subscribe( "region", invalidatedA::add );
+        channelB.subscribe( "region", invalidatedB::add );
+    }
+
+    @Test
+    void testPublishedKeyIsReceivedByOtherInstancesOnly()
+    {
+        channelA.publish( "region", "key" );
+
+        assertTrue( invalidatedA.isEmpty() );
+        assertEquals( List.of( "key" ), invalidatedB );
+    }
+
+    @Test
+    void testPublishedRegionInvalidatesAllKeys()
+    {
+        channelB.publish( "region", null );
+
+        assertEquals( 1, invalidatedA.size() );
+        assertNull( invalidatedA.get( 0 ) );
+        assertTrue( invalidatedB.isEmpty() );
+    }
+
+    @Test
+    void testKeyMayContainSeparator()
+    {
+        channelA.publish( "region", "key|with|separators" );
+
+        assertEquals( List.of( "key|with|separators" ), invalidatedB );
+    }
+
+    @Test
+    void testOtherRegionsAreNotInvalidated()
+    {
+        channelA.publish( "otherRegion", "key" );
+
+        assertTrue( invalidatedA.isEmpty() );
+        assertTrue( invalidatedB.isEmpty() );
+    }
+
+    @Test
+    void testMalformedMessageIsIgnored()
+    {
+        deliver( "malformed" );
+
+        assertTrue( invalidatedA.isEmpty() );
+        assertTrue( invalidatedB.isEmpty() );
+    }
+
+    @Test
+    void testMessageOfOtherNodeIsReceivedByAllInstances()
+    {
+        deliver( "otherNode|region|key" );
+
+        assertEquals( List.of( "key" ), invalidatedA );
+        assertEquals( List.of( "key" ), invalidatedB );
+    }
+
+    private void deliver( String body )
+    {
+        DefaultMessage message = new DefaultMessage( RedisCacheInvalidationChannel.CHANNEL.getBytes( UTF_8 ),
+            body.getBytes( UTF_8 ) );
+
+        messageListeners.forEach( listener -> listener.onMessage( message, null ) );
+    }
+}
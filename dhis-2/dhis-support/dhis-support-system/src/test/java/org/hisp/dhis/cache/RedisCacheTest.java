@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ScanCursor;
+import org.springframework.data.redis.core.ScanIteration;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Tests the {@link RedisCache} against a {@link StringRedisTemplate} backed by
+ * an in-memory fake of the redis connection, which records the commands sent.
+ */
+class RedisCacheTest
+{
+    private final FakeRedisConnection redis = new FakeRedisConnection();
+
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp()
+    {
+        RedisConnectionFactory connectionFactory = mock( RedisConnectionFactory.class );
+        RedisConnection connection = mock( RedisConnection.class, redis );
+
+        when( connectionFactory.getConnection() ).thenReturn( connection );
+
+        redisTemplate = new StringRedisTemplate( connectionFactory );
+    }
+
+    @Test
+    void testGetRefreshesExpiryInOnePipeline()
+    {
+        redis.values.put( "region:key", "value" );
+
+        Cache<String> cache = createCache( builder -> builder.expireAfterAccess( 1, TimeUnit.MINUTES ) );
+
+        assertEquals( Optional.of( "value" ), cache.getIfPresent( "key" ) );
+        assertEquals( List.of( "GET region:key", "EXPIRE region:key" ), redis.commands );
+        assertEquals( 1, redis.pipelines );
+    }
+
+    @Test
+    void testGetMissRefreshesExpiryInOnePipeline()
+    {
+        Cache<String> cache = createCache( builder -> builder.expireAfterAccess( 1, TimeUnit.MINUTES ) );
+
+        assertFalse( cache.getIfPresent( "key" ).isPresent() );
+        assertEquals( 1, redis.pipelines );
+    }
+
+    @Test
+    void testGetWithoutExpiryRefreshIsNotPipelined()
+    {
+        redis.values.put( "region:key", "value" );
+
+        Cache<String> cache = createCache( builder -> builder.expireAfterWrite( 1, TimeUnit.MINUTES ) );
+
+        assertEquals( Optional.of( "value" ), cache.getIfPresent( "key" ) );
+        assertEquals( List.of( "GET region:key" ), redis.commands );
+        assertEquals( 0, redis.pipelines );
+    }
+
+    @Test
+    void testKeysScansKeysOfRegion()
+    {
+        putValues( "region", 2500 );
+        putValues( "other", 10 );
+
+        Cache<String> cache = createCache();
+
+        Set<String> keys = cache.keys();
+
+        assertEquals( 2500, keys.size() );
+        assertTrue( keys.contains( "key0" ) );
+        assertTrue( keys.contains( "key2499" ) );
+        assertEquals( List.of( "SCAN region:* 1000" ), redis.commands );
+        assertEquals( 3, redis.scanIterations );
+    }
+
+    @Test
+    void testGetAllReturnsValuesOfRegion()
+    {
+        putValues( "region", 5 );
+        putValues( "other", 10 );
+
+        Cache<String> cache = createCache();
+
+        assertEquals( 5, cache.getAll().count() );
+    }
+
+    @Test
+    void testInvalidateAllDeletesKeysOfRegionInBatches()
+    {
+        putValues( "region", 2500 );
+        putValues( "other", 10 );
+
+        Cache<String> cache = createCache();
+
+        cache.invalidateAll();
+
+        assertEquals( List.of( 1000, 1000, 500 ), redis.deletes );
+        assertEquals( 10, redis.values.size() );
+        assertTrue( redis.values.keySet().stream().allMatch( key -> key.startsWith( "other:" ) ) );
+    }
+
+    @Test
+    void testInvalidateAllOfEmptyRegionDeletesNothing()
+    {
+        putValues( "other", 10 );
+
+        Cache<String> cache = createCache();
+
+        cache.invalidateAll();
+
+        assertTrue( redis.deletes.isEmpty() );
+        assertEquals( 10, redis.values.size() );
+    }
+
+    private void putValues( String region, int count )
+    {
+        for ( int i = 0; i < count; i++ )
+        {
+            redis.values.put( region + ":key" + i, "value" + i );
+        }
+    }
+
+    private Cache<String> createCache()
+    {
+        return createCache( builder -> {
+        } );
+    }
+
+    private Cache<String> createCache( Consumer<CacheBuilder<String>> configurer )
+    {
+        ExtendedCacheBuilder<String> builder = new ExtendedCacheBuilder<>( redisTemplate, null, null, null );
+        builder.forRegion( "region" );
+        configurer.accept( builder );
+        return new RedisCache<>( builder );
+    }
+
+    /**
+     * Answers the commands sent to a mocked {@link RedisConnection} from an
+     * in-memory map of string values. Pipelined commands return null and
+     * their results are returned when the pipeline is closed, as with a real
+     * connection.
+     */
+    private static class FakeRedisConnection implements Answer<Object>
+    {
+        private final Map<String, String> values = new TreeMap<>();
+
+        private final List<String> commands = new ArrayList<>();
+
+        private final List<Integer> deletes = new ArrayList<>();
+
+        private final List<Object> pipelineResults = new ArrayList<>();
+
+        private boolean pipelined;
+
+        private int pipelines;
+
+        private int scanIterations;
+
+        @Override
+        public Object answer( InvocationOnMock invocation )
+            throws Throwable
+        {
+            switch ( invocation.getMethod().getName() )
+            {
+            case "isPipelined":
+                return pipelined;
+            case "openPipeline":
+                pipelined = true;
+                pipelines++;
+                pipelineResults.clear();
+                return null;
+            case "closePipeline":
+                pipelined = false;
+                return new ArrayList<>( pipelineResults );
+            case "get":
+                String key = string( invocation.getArgument( 0 ) );
+                commands.add( "GET " + key );
+                return result( values.containsKey( key ) ? values.get( key ).getBytes( UTF_8 ) : null );
+            case "expire":
+            case "pExpire":
+                commands.add( "EXPIRE " + string( invocation.getArgument( 0 ) ) );
+                return result( true );
+            case "mGet":
+                return toKeys( invocation.getRawArguments()[0] ).stream()
+                    .map( k -> values.containsKey( k ) ? values.get( k ).getBytes( UTF_8 ) : null )
+                    .collect( Collectors.toList() );
+            case "del":
+                List<String> keys = toKeys( invocation.getRawArguments()[0] );
+                deletes.add( keys.size() );
+                keys.forEach( values::remove );
+                return (long) keys.size();
+            case "scan":
+                return scan( invocation.getArgument( 0 ) );
+            default:
+                return Answers.RETURNS_DEFAULTS.answer( invocation );
+            }
+        }
+
+        private Object result( Object result )
+        {
+            if ( pipelined )
+            {
+                pipelineResults.add( result );
+                return null;
+            }
+
+            return result;
+        }
+
+        private ScanCursor<byte[]> scan( ScanOptions options )
+        {
+            commands.add( "SCAN " + options.getPattern() + " " + options.getCount() );
+
+            String prefix = options.getPattern().substring( 0, options.getPattern().length() - 1 );
+            List<byte[]> keys = values.keySet().stream()
+                .filter( key -> key.startsWith( prefix ) )
+                .map( key -> key.getBytes( UTF_8 ) )
+                .collect( Collectors.toList() );
+            int count = options.getCount().intValue();
+
+            return new ScanCursor<byte[]>( options )
+            {
+                @Override
+                protected ScanIteration<byte[]> doScan( long cursorId, ScanOptions scanOptions )
+                {
+                    scanIterations++;
+
+                    int end = (int) Math.min( cursorId + count, keys.size() );
+
+                    return new ScanIteration<>( end == keys.size() ? 0 : end,
+                        keys.subList( (int) cursorId, end ) );
+                }
+            }.open();
+        }
+
+        private static List<String> toKeys( Object rawKeys )
+        {
+            List<String> keys = new ArrayList<>();
+
+            for ( byte[] key : (byte[][]) rawKeys )
+            {
+                keys.add( string( key ) );
+            }
+
+            return keys;
+        }
+
+        private static String string( byte[] bytes )
+        {
+            return new String( bytes, UTF_8 );
+        }
+    }
+}
@@ -31,6 +31,7 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.sql.DataSource;
@@ -86,6 +87,13 @@ public class H2SqlFunction
                         .execute(
                             "CREATE ALIAS jsonb_check_user_access FOR \"org.hisp.dhis.h2.H2SqlFunction.jsonb_check_user_access\"" );
                 }
+
+                try ( Statement statement = connection.createStatement() )
+                {
+                    statement
+                        .execute(
+                            "CREATE ALIAS jsonb_translated_value FOR \"org.hisp.dhis.h2.H2SqlFunction.jsonb_translated_value\"" );
+                }
             }
         }
         catch ( SQLException exception )
@@ -225,4 +233,37 @@ public class H2SqlFunction
             throw e;
         }
     }
+
+    // Custom DHIS2 translation function
+    public static String jsonb_translated_value( PGobject translations, String locale, String property,
+        String fallback )
+    {
+        String content = translations != null ? translations.getValue() : null;
+
+        if ( content == null )
+        {
+            return fallback;
+        }
+
+        List<Map<String, Object>> values = new Gson().fromJson(
+            content, new TypeToken<List<HashMap<String, Object>>>()
+            {
+            }.getType() );
+
+        if ( values != null )
+        {
+            for ( Map<String, Object> value : values )
+            {
+                Object translation = value.get( "value" );
+
+                if ( locale.equals( value.get( "locale" ) ) && property.equals( value.get( "property" ) )
+                    && translation != null && !translation.toString().isEmpty() )
+                {
+                    return translation.toString();
+                }
+            }
+        }
+
+        return fallback;
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2004-2022, University of Oslo
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ * Redistributions of source code must retain the above copyright notice, this
+ * list of conditions and the following disclaimer.
+ *
+ * Redistributions in binary form must reproduce the above copyright notice,
+ * this list of conditions and the following disclaimer in the documentation
+ * and/or other materials provided with the distribution.
+ * Neither the name of the HISP project nor the names of its contributors may
+ * be used to endorse or promote products derived from this software without
+ * specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.hisp.dhis.webapi.controller;
+
+import static org.hisp.dhis.webapi.utils.WebClientUtils.assertStatus;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.hisp.dhis.webapi.DhisControllerConvenienceTest;
+import org.hisp.dhis.webapi.json.JsonList;
+import org.hisp.dhis.webapi.json.JsonObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Tests the
+ * {@link org.hisp.dhis.webapi.controller.organisationunit.OrganisationUnitController}
+ * using (mocked) REST requests.
+ */
+class OrganisationUnitControllerTest extends DhisControllerConvenienceTest
+{
+    @Test
+    void testGetObjectListStream()
+    {
+        String ou1 = assertStatus( HttpStatus.CREATED,
+            POST( "/organisationUnits/", "{'name':'My Unit 1', 'shortName':'OU1', 'openingDate': '2020-01-01'}" ) );
+        String ou2 = assertStatus( HttpStatus.CREATED,
+            POST( "/organisationUnits/", "{'name':'My Unit 2', 'shortName':'OU2', 'openingDate': '2020-01-01'}" ) );
+
+        JsonList<JsonObject> units = GET( "/organisationUnits?stream=true&fields=id,name&order=name" )
+            .content( HttpStatus.OK ).getList( "organisationUnits", JsonObject.class );
+
+        assertEquals( 2, units.size() );
+        assertEquals( ou1, units.get( 0 ).getString( "id" ).string() );
+        assertEquals( "My Unit 1", units.get( 0 ).getString( "name" ).string() );
+        assertEquals( ou2, units.get( 1 ).getString( "id" ).string() );
+        assertEquals( "My Unit 2", units.get( 1 ).getString( "name" ).string() );
+        assertFalse( units.get( 0 ).has( "shortName" ) );
+    }
+
+    @Test
+    void testGetObjectListStreamFilter()
+    {
+        assertStatus( HttpStatus.CREATED,
+            POST( "/organisationUnits/", "{'name':'My Unit 1', 'shortName':'OU1', 'openingDate': '2020-01-01'}" ) );
+        String ou2 = assertStatus( HttpStatus.CREATED,
+            POST( "/organisationUnits/", "{'name':'My Unit 2', 'shortName':'OU2', 'openingDate': '2020-01-01'}" ) );
+
+        JsonObject response = GET( "/organisationUnits?stream=true&filter=shortName:eq:OU2" )
+            .content( HttpStatus.OK );
+        JsonList<JsonObject> units = response.getList( "organisationUnits", JsonObject.class );
+
+        assertEquals( 1, units.size() );
+        assertEquals( ou2, units.get( 0 ).getString( "id" ).string() );
+        assertTrue( units.get( 0 ).has( "displayName" ) );
+        assertFalse( response.has( "pager" ) );
+    }
+}
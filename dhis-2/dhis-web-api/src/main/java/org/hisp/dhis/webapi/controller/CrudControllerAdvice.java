@@ -47,6 +47,7 @@ import org.hisp.dhis.common.DeleteNotAllowedException;
 import org.hisp.dhis.common.IdentifiableProperty;
 import org.hisp.dhis.common.IllegalQueryException;
 import org.hisp.dhis.common.MaintenanceModeException;
+import org.hisp.dhis.common.QueryRejectedException;
 import org.hisp.dhis.common.QueryRuntimeException;
 import org.hisp.dhis.common.exception.InvalidIdentifierReferenceException;
 import org.hisp.dhis.commons.jackson.jsonpatch.JsonPatchException;
@@ -129,6 +130,14 @@ public class CrudControllerAdvice
         return conflict( ex.getMessage(), ex.getErrorCode() );
     }
 
+    @ExceptionHandler( QueryRejectedException.class )
+    @ResponseBody
+    public WebMessage queryRejectedExceptionHandler( QueryRejectedException ex )
+    {
+        return createWebMessage( ex.getMessage(), Status.ERROR,
+            ex.isUserLimit() ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE, ex.getErrorCode() );
+    }
+
     @ExceptionHandler( DeleteNotAllowedException.class )
     @ResponseBody
     public WebMessage deleteNotAllowedExceptionHandler( DeleteNotAllowedException ex )
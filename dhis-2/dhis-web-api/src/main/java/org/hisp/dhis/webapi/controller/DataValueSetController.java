@@ -97,6 +97,13 @@ import org.springframework.web.bind.annotation.ResponseBody;
 @ApiVersion( { DhisApiVersion.DEFAULT, DhisApiVersion.ALL } )
 public class DataValueSetController
 {
+    /**
+     * Buffer size of compressed exports. The default buffer of
+     * {@link GZIPOutputStream} causes a write to the response for every 512
+     * bytes of compressed output.
+     */
+    private static final int COMPRESSION_BUFFER_SIZE = 64 * 1024;
+
     @Autowired
     private DataValueSetService dataValueSetService;
 
@@ -369,7 +376,7 @@ public class DataValueSetController
             response.setHeader( ContextUtils.HEADER_CONTENT_DISPOSITION,
                 "attachment; filename=" + fileName + "." + format + ".gz" );
             response.setHeader( ContextUtils.HEADER_CONTENT_TRANSFER_ENCODING, "binary" );
-            return new GZIPOutputStream( response.getOutputStream() );
+            return new GZIPOutputStream( response.getOutputStream(), COMPRESSION_BUFFER_SIZE );
         }
         else if ( Compression.ZIP == compression )
         {
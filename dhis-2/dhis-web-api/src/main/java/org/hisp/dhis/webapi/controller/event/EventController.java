@@ -42,6 +42,7 @@ import static org.springframework.http.MediaType.TEXT_XML_VALUE;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -76,6 +77,7 @@ import org.hisp.dhis.dataelement.DataElementService;
 import org.hisp.dhis.dxf2.common.ImportOptions;
 import org.hisp.dhis.dxf2.events.event.DataValue;
 import org.hisp.dhis.dxf2.events.event.Event;
+import org.hisp.dhis.dxf2.events.event.EventCursor;
 import org.hisp.dhis.dxf2.events.event.EventSearchParams;
 import org.hisp.dhis.dxf2.events.event.EventService;
 import org.hisp.dhis.dxf2.events.event.Events;
@@ -134,6 +136,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.base.Joiner;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.Lists;
@@ -185,6 +191,8 @@ public class EventController
 
     private final ContextUtils contextUtils;
 
+    private final ObjectMapper jsonMapper;
+
     private Schema schema;
 
     protected Schema getSchema()
@@ -645,6 +653,77 @@ public class EventController
         csvEventService.writeEvents( outputStream, events.getEvents(), !skipHeader );
     }
 
+    @GetMapping( value = "/stream", produces = APPLICATION_JSON_VALUE )
+    public void streamEvents(
+        EventCriteria eventCriteria,
+        @RequestParam( required = false ) String cursor,
+        HttpServletResponse response )
+        throws IOException
+    {
+        EventSearchParams params = requestToSearchParamsMapper.map( eventCriteria );
+        params.setKeysetPaging( true );
+        params.setCursor( cursor != null ? EventCursor.decode( cursor ) : null );
+
+        response.setContentType( APPLICATION_JSON_VALUE );
+
+        ObjectWriter writer = jsonMapper.writer().without( SerializationFeature.FLUSH_AFTER_WRITE_VALUE );
+
+        try ( JsonGenerator generator = jsonMapper.getFactory().createGenerator( response.getOutputStream() ) )
+        {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart( "events" );
+
+            EventCursor nextCursor = eventService.streamEvents( params, event -> {
+                try
+                {
+                    writer.writeValue( generator, event );
+                }
+                catch ( IOException ex )
+                {
+                    throw new UncheckedIOException( ex );
+                }
+            } );
+
+            generator.writeEndArray();
+            generator.writeStringField( "nextCursor", nextCursor != null ? nextCursor.encode() : null );
+            generator.writeEndObject();
+        }
+        catch ( UncheckedIOException ex )
+        {
+            throw ex.getCause();
+        }
+    }
+
+    @GetMapping( value = "/stream", produces = { "application/csv", "application/csv+gzip", "text/csv" } )
+    public void streamCsvEvents(
+        EventCriteria eventCriteria,
+        @RequestParam( required = false, defaultValue = "false" ) boolean skipHeader,
+        HttpServletResponse response, HttpServletRequest request )
+        throws IOException
+    {
+        EventSearchParams params = requestToSearchParamsMapper.map( eventCriteria );
+        params.setKeysetPaging( true );
+        params.setSkipPaging( true );
+
+        OutputStream outputStream = response.getOutputStream();
+        response.setContentType( "application/csv" );
+
+        if ( ContextUtils.isAcceptCsvGzip( request ) )
+        {
+            response.addHeader( ContextUtils.HEADER_CONTENT_TRANSFER_ENCODING, "binary" );
+            outputStream = new GZIPOutputStream( outputStream );
+            response.setContentType( "application/csv+gzip" );
+        }
+
+        if ( !StringUtils.isEmpty( eventCriteria.getAttachment() ) )
+        {
+            response.addHeader( "Content-Disposition", "attachment; filename=" + eventCriteria.getAttachment() );
+        }
+
+        csvEventService.writeEvents( outputStream,
+            consumer -> eventService.streamEvents( params, consumer ), !skipHeader );
+    }
+
     // -------------------------------------------------------------------------
     // Rows Read
     // -------------------------------------------------------------------------
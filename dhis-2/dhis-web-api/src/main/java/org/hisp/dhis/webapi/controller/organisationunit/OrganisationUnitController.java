@@ -29,11 +29,13 @@ package org.hisp.dhis.webapi.controller.organisationunit;
 
 import static org.hisp.dhis.dxf2.webmessage.WebMessageUtils.ok;
 import static org.hisp.dhis.system.util.GeoUtils.getCoordinatesFromGeometry;
+import static org.springframework.http.CacheControl.noCache;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -42,11 +44,16 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.hisp.dhis.common.IdentifiableObject;
+import org.hisp.dhis.dxf2.common.OrderParams;
 import org.hisp.dhis.dxf2.common.TranslateParams;
 import org.hisp.dhis.dxf2.webmessage.WebMessage;
 import org.hisp.dhis.fieldfilter.Defaults;
+import org.hisp.dhis.fieldfiltering.FieldFilterParams;
+import org.hisp.dhis.fieldfiltering.FieldFilterService;
+import org.hisp.dhis.hibernate.exception.ReadAccessDeniedException;
 import org.hisp.dhis.merge.orgunit.OrgUnitMergeQuery;
 import org.hisp.dhis.merge.orgunit.OrgUnitMergeService;
+import org.hisp.dhis.node.Preset;
 import org.hisp.dhis.organisationunit.OrganisationUnit;
 import org.hisp.dhis.organisationunit.OrganisationUnitGroup;
 import org.hisp.dhis.organisationunit.OrganisationUnitQueryParams;
@@ -63,6 +70,7 @@ import org.hisp.dhis.user.User;
 import org.hisp.dhis.util.ObjectUtils;
 import org.hisp.dhis.version.VersionService;
 import org.hisp.dhis.webapi.controller.AbstractCrudController;
+import org.hisp.dhis.webapi.utils.ContextUtils;
 import org.hisp.dhis.webapi.webdomain.WebMetadata;
 import org.hisp.dhis.webapi.webdomain.WebOptions;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -104,6 +112,9 @@ public class OrganisationUnitController
     @Autowired
     private OrgUnitMergeService orgUnitMergeService;
 
+    @Autowired
+    private FieldFilterService fieldFilteringService;
+
     @ResponseStatus( HttpStatus.OK )
     @PreAuthorize( "hasRole('ALL') or hasRole('F_ORGANISATION_UNIT_SPLIT')" )
     @PostMapping( value = "/split", produces = APPLICATION_JSON_VALUE )
@@ -303,6 +314,66 @@ public class OrganisationUnitController
         return organisationUnits;
     }
 
+    /**
+     * Streaming alternative to the JSON object list for large, unpaged
+     * exports. The filtered fields of each organisation unit are written
+     * straight to the response, so memory use does not grow with the number
+     * of organisation units. Supports the same query parameters as the object
+     * list, except that the list is never paged.
+     */
+    @GetMapping( value = "", produces = APPLICATION_JSON_VALUE, params = "stream=true" )
+    public void getObjectListStream(
+        @RequestParam Map<String, String> rpParameters, OrderParams orderParams,
+        @CurrentUser User currentUser, HttpServletResponse response )
+        throws QueryParserException, IOException
+    {
+        List<Order> orders = orderParams.getOrders( getSchema() );
+        List<String> fields = Lists.newArrayList( contextService.getParameterValues( "fields" ) );
+        List<String> filters = Lists.newArrayList( contextService.getParameterValues( "filter" ) );
+
+        if ( fields.isEmpty() )
+        {
+            fields.addAll( Preset.defaultPreset().getFields() );
+        }
+
+        Map<String, String> parameters = new HashMap<>( rpParameters );
+        parameters.put( "paging", "false" );
+
+        WebOptions options = new WebOptions( parameters );
+
+        if ( !aclService.canRead( currentUser, getEntityClass() ) )
+        {
+            throw new ReadAccessDeniedException(
+                "You don't have the proper permissions to read objects of this type." );
+        }
+
+        List<OrganisationUnit> organisationUnits = getEntityList( new WebMetadata(), options, filters, orders );
+
+        postProcessResponseEntities( organisationUnits, options, parameters );
+
+        if ( fields.stream().anyMatch( field -> field.contains( "href" ) || field.equals( "*" )
+            || field.startsWith( ":" ) ) )
+        {
+            linkService.generateLinks( organisationUnits, false );
+        }
+
+        response.setContentType( APPLICATION_JSON_VALUE );
+        response.setHeader( ContextUtils.HEADER_CACHE_CONTROL,
+            noCache().cachePrivate().getHeaderValue() );
+
+        JsonFactory jsonFactory = new JsonFactory();
+        JsonGenerator generator = jsonFactory.createGenerator( response.getOutputStream() );
+
+        generator.writeStartObject();
+        generator.writeFieldName( getSchema().getPlural() );
+
+        fieldFilteringService.writeObjectNodes( FieldFilterParams.of( organisationUnits, fields ), generator );
+
+        generator.writeEndObject();
+
+        generator.close();
+    }
+
     @GetMapping( value = "", produces = { "application/json+geo",
         "application/json+geojson" } )
     public void getGeoJson(